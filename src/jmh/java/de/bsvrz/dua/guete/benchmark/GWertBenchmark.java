@@ -0,0 +1,209 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete.benchmark;
+
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+
+import de.bsvrz.dav.daf.main.Data;
+import de.bsvrz.dua.guete.DatenAttrappe;
+import de.bsvrz.dua.guete.GWert;
+import de.bsvrz.dua.guete.GueteLeser;
+import de.bsvrz.dua.guete.GueteSchreiber;
+import de.bsvrz.dua.guete.GueteVerfahren;
+
+/**
+ * Misst das Lesen von Guetewerten aus DAV-Daten und das Schreiben in
+ * DAV-Daten.<br>
+ * Als DAV-Daten dienen Attrappen aus den Tests ({@link DatenAttrappe}),
+ * deren Zugriffe keine Objekte erzeugen. Die mit <code>-prof gc</code>
+ * gemessenen Allokationen stammen damit allein aus der Bibliothek.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GWertBenchmark {
+
+	/**
+	 * Das Attribut, unter dem die Guete steht.
+	 */
+	private static final String ATTRIBUT = "qKfz"; //$NON-NLS-1$
+
+	/**
+	 * Das Quelldatum.
+	 */
+	private Data quellDatum;
+
+	/**
+	 * Das Zieldatum.
+	 */
+	private Data zielDatum;
+
+	/**
+	 * Liest die Guete des Attributs.
+	 */
+	private final GueteLeser leser = new GueteLeser(ATTRIBUT);
+
+	/**
+	 * Schreibt die Guete des Attributs.
+	 */
+	private final GueteSchreiber schreiber = new GueteSchreiber(ATTRIBUT);
+
+	/**
+	 * Nimmt die unskalierten Indizes auf.
+	 */
+	private final long[] indizes = new long[1];
+
+	/**
+	 * Nimmt die Verfahren auf.
+	 */
+	private final int[] verfahren = new int[1];
+
+	/**
+	 * Ein aus dem Quelldatum gelesener Guetewert.
+	 */
+	private GWert wert;
+
+	/**
+	 * Ein gewichteter Guetewert.
+	 */
+	private GWert gewichteterWert;
+
+	/**
+	 * Initialisiert die Daten.
+	 *
+	 * @throws Exception
+	 *             wird nicht erwartet
+	 */
+	@Setup
+	public void initialisiere() throws Exception {
+		quellDatum = DatenAttrappe.erzeuge(ATTRIBUT);
+		final Data item = quellDatum.getItem(ATTRIBUT);
+		item.getUnscaledValue("Wert").set(1234); //$NON-NLS-1$
+		item.getItem("Güte").getUnscaledValue("Index").set(8765); //$NON-NLS-1$ //$NON-NLS-2$
+		item.getItem("Güte").getUnscaledValue("Verfahren") //$NON-NLS-1$ //$NON-NLS-2$
+				.set(GueteVerfahren.STANDARD.getCode());
+		zielDatum = DatenAttrappe.erzeuge(ATTRIBUT);
+		wert = new GWert(quellDatum, ATTRIBUT);
+		gewichteterWert = GueteVerfahren.gewichte(wert, 0.5);
+	}
+
+	/**
+	 * Referenzmessung: Kosten der Datenattrappe fuer die Zugriffe, die beim
+	 * Lesen eines Guetewertes mindestens anfallen.
+	 *
+	 * @return der gelesene Index
+	 */
+	@Benchmark
+	public long attrappe() {
+		final Data guete = quellDatum.getItem(ATTRIBUT).getItem("Güte"); //$NON-NLS-1$
+		return guete.getUnscaledValue("Index").longValue() //$NON-NLS-1$
+				+ guete.getUnscaledValue("Verfahren").intValue(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Liest einen Guetewert aus einem DAV-Datum.
+	 *
+	 * @return der Guetewert
+	 */
+	@Benchmark
+	public GWert lese() {
+		return new GWert(quellDatum, ATTRIBUT);
+	}
+
+	/**
+	 * Liest die Guete mit einem {@link GueteLeser} in primitive Felder.
+	 *
+	 * @return der gelesene Index
+	 */
+	@Benchmark
+	public long leseMitLeser() {
+		leser.lese(quellDatum, indizes, verfahren, null, 0);
+		return indizes[0];
+	}
+
+	/**
+	 * Erfragt den unskalierten Index.
+	 *
+	 * @return der unskalierte Index
+	 */
+	@Benchmark
+	public long indexUnskaliert() {
+		return wert.getIndexUnskaliert();
+	}
+
+	/**
+	 * Erfragt den unskalierten und gewichteten Index.
+	 *
+	 * @return der unskalierte und gewichtete Index
+	 */
+	@Benchmark
+	public long indexUnskaliertGewichtet() {
+		return gewichteterWert.getIndexUnskaliertGewichtet();
+	}
+
+	/**
+	 * Schreibt einen Guetewert in ein DAV-Datum.
+	 *
+	 * @return das Zieldatum
+	 */
+	@Benchmark
+	public Data exportiere() {
+		wert.exportiere(zielDatum, ATTRIBUT);
+		return zielDatum;
+	}
+
+	/**
+	 * Schreibt die Guete mit einem {@link GueteSchreiber} aus primitiven
+	 * Feldern.
+	 *
+	 * @return das Zieldatum
+	 */
+	@Benchmark
+	public Data exportiereMitSchreiber() {
+		schreiber.schreibe(zielDatum, indizes, verfahren, 0);
+		return zielDatum;
+	}
+
+}
@@ -0,0 +1,193 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete.benchmark;
+
+import java.util.Random;
+import java.util.concurrent.TimeUnit;
+
+import org.openjdk.jmh.annotations.Benchmark;
+import org.openjdk.jmh.annotations.BenchmarkMode;
+import org.openjdk.jmh.annotations.Fork;
+import org.openjdk.jmh.annotations.Measurement;
+import org.openjdk.jmh.annotations.Mode;
+import org.openjdk.jmh.annotations.OutputTimeUnit;
+import org.openjdk.jmh.annotations.Param;
+import org.openjdk.jmh.annotations.Scope;
+import org.openjdk.jmh.annotations.Setup;
+import org.openjdk.jmh.annotations.State;
+import org.openjdk.jmh.annotations.Warmup;
+import org.openjdk.jmh.infra.Blackhole;
+
+import de.bsvrz.dua.guete.GWert;
+import de.bsvrz.dua.guete.GueteException;
+import de.bsvrz.dua.guete.GueteRechner;
+import de.bsvrz.dua.guete.GueteVerfahren;
+import de.bsvrz.sys.funclib.bitctrl.dua.GanzZahl;
+
+/**
+ * Misst die Verknuepfungen von {@link GueteVerfahren} fuer verschiedene
+ * Anzahlen von (ggf. gewichteten) Eingangswerten.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+@State(Scope.Thread)
+@BenchmarkMode(Mode.Throughput)
+@OutputTimeUnit(TimeUnit.MICROSECONDS)
+@Warmup(iterations = 3, time = 1)
+@Measurement(iterations = 5, time = 1)
+@Fork(1)
+public class GueteVerfahrenBenchmark {
+
+	/**
+	 * Die Anzahl der Eingangswerte.
+	 */
+	@Param({ "2", "10", "100", "1000" })
+	private int anzahl;
+
+	/**
+	 * Gibt an, ob die Eingangswerte gewichtet sind.
+	 */
+	@Param({ "false", "true" })
+	private boolean gewichtet;
+
+	/**
+	 * Die Eingangswerte.
+	 */
+	private GWert[] quellGueten;
+
+	/**
+	 * Die Guete-Indizes der Eingangswerte.
+	 */
+	private double[] indizes;
+
+	/**
+	 * Die Gewichtungen der Eingangswerte.
+	 */
+	private double[] gewichte;
+
+	/**
+	 * Initialisiert die Eingangswerte mit reproduzierbaren Zufallswerten.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Setup
+	public void initialisiere() throws GueteException {
+		final Random zufall = new Random(4711);
+		quellGueten = new GWert[anzahl];
+		indizes = new double[anzahl];
+		gewichte = new double[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			final GanzZahl index = GanzZahl.getGueteIndex();
+			index.setWert(5000 + zufall.nextInt(5001));
+			final GWert wert = new GWert(index, GueteVerfahren.STANDARD, false);
+			indizes[i] = wert.getIndex();
+			gewichte[i] = gewichtet ? 0.5 + zufall.nextDouble() : 1.0;
+			quellGueten[i] = gewichtet ? GueteVerfahren.gewichte(wert,
+					gewichte[i]) : wert;
+		}
+	}
+
+	/**
+	 * Misst {@link GueteVerfahren#produkt(GWert...)}.
+	 *
+	 * @return das Ergebnis
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Benchmark
+	public GWert produkt() throws GueteException {
+		return GueteVerfahren.produkt(quellGueten);
+	}
+
+	/**
+	 * Misst {@link GueteVerfahren#quotient(GWert...)}.
+	 *
+	 * @return das Ergebnis
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Benchmark
+	public GWert quotient() throws GueteException {
+		return GueteVerfahren.quotient(quellGueten);
+	}
+
+	/**
+	 * Misst {@link GueteVerfahren#summe(GWert...)}.
+	 *
+	 * @return das Ergebnis
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Benchmark
+	public GWert summe() throws GueteException {
+		return GueteVerfahren.summe(quellGueten);
+	}
+
+	/**
+	 * Misst {@link GueteVerfahren#differenz(GWert...)}.
+	 *
+	 * @return das Ergebnis
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Benchmark
+	public GWert differenz() throws GueteException {
+		return GueteVerfahren.differenz(quellGueten);
+	}
+
+	/**
+	 * Misst {@link GueteVerfahren#exp(GWert, double)} fuer alle
+	 * Eingangswerte.
+	 *
+	 * @param senke
+	 *            nimmt die Ergebnisse auf
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Benchmark
+	public void exp(final Blackhole senke) throws GueteException {
+		for (final GWert wert : quellGueten) {
+			senke.consume(GueteVerfahren.exp(wert, 0.5));
+		}
+	}
+
+	/**
+	 * Referenzmessung: {@link GueteRechner#summe} direkt auf den
+	 * primitiven Feldern.
+	 *
+	 * @return das Ergebnis
+	 */
+	@Benchmark
+	public double rechnerSumme() {
+		return GueteRechner.summe(GueteVerfahren.STANDARD.getCode(), indizes,
+				gewichte, 0, anzahl);
+	}
+
+}
@@ -33,45 +33,67 @@ import java.util.Objects;
 import de.bsvrz.dav.daf.main.Data;
 import de.bsvrz.sys.funclib.bitctrl.dua.DUAKonstanten;
 import de.bsvrz.sys.funclib.bitctrl.dua.GanzZahl;
-import de.bsvrz.sys.funclib.bitctrl.dua.MesswertZustand;
 
 /**
- * Repräsentiert einen Guetewert inklusive Index und Verfahren.
+ * Repräsentiert einen Guetewert inklusive Index und Verfahren.<br>
+ * Ein Guetewert ist unveraenderlich und kann ohne Kopie an beliebig viele
+ * Threads weitergegeben werden. Eine gewichtete Variante liefert
+ * {@link #mitGewichtung(double)}.
  * 
  * @author BitCtrl Systems GmbH, Thierfelder
  */
 public class GWert {
 
 	/**
-	 * aktuelle obere Intervallgrenze vom DAV-Attribut Guete.
+	 * Das Berechnungsverfahren zur Behandlung dieser Guete (nicht belegt,
+	 * wenn der Wert {@link #verzoegert} dekodiert wird).
 	 */
-	private static final long GUETE_MAX = 10000;
+	private final GueteVerfahren verfahren;
 
 	/**
-	 * aktuelle untere Intervallgrenze vom DAV-Attribut Guete.
+	 * Der Guete-Index (nicht belegt, wenn der Wert {@link #verzoegert}
+	 * dekodiert wird).
 	 */
-	private static final long GUETE_MIN = 0;
+	private final double index;
 
 	/**
-	 * Das Berechnungsverfahren zur Behandlung dieser Guete.
+	 * Der unskalierte Code des Verfahrens, wie er <b>von aussen</b> zur
+	 * Verfuegung gestellt wurde (nur belegt, wenn der Wert
+	 * {@link #verzoegert} dekodiert wird).
 	 */
-	private final GueteVerfahren verfahren;
+	private final int verfahrenAusDav;
 
 	/**
-	 * Der Guete-Index.
+	 * Zeigt an, dass nur die unskalierten Werte aus dem DAV-Datum gespeichert
+	 * sind. Index und Verfahren werden dann erst bei Bedarf aus
+	 * {@link #gueteAusDavWert} und {@link #verfahrenAusDav} bestimmt und beim
+	 * Export unveraendert uebernommen.
 	 */
-	private final double index;
+	private final boolean verzoegert;
 
 	/**
 	 * Die Gewichtung des Guetewertes.
 	 */
-	private double gewichtung = 1.0;
+	private final double gewichtung;
+
+	/**
+	 * Kennzeichnet, dass kein Guetewert <b>von aussen</b> zur Verfuegung
+	 * gestellt wurde (Zwischenergebnis).
+	 */
+	private static final long KEIN_DAV_WERT = Long.MIN_VALUE;
+
+	/**
+	 * Der unskalierte Guetewert, wie er über einen Standardkonstruktor
+	 * <b>von aussen</b> zur Verfuegung gestellt wurde, bzw.
+	 * {@link #KEIN_DAV_WERT}.
+	 */
+	private final long gueteAusDavWert;
 
 	/**
-	 * Der Guetewert, wie er über einen Standardkonstruktor <b>von aussen</b>
-	 * zur Verfuegung gestellt wurde.
+	 * Zeigt an, ob der von aussen zur Verfuegung gestellte Guetewert nicht
+	 * auf einem Zustand steht.
 	 */
-	private GanzZahl gueteAusDavWert = null;
+	private final boolean verrechenbar;
 
 	/**
 	 * Standardkonstruktor<br>.
@@ -96,6 +118,10 @@ public class GWert {
 
 	/**
 	 * Standardkonstruktor<br>.
+	 * Es werden nur der unskalierte Index und der Code des Verfahrens
+	 * gelesen. Die Skalierung des Index und die Bestimmung des Verfahrens
+	 * erfolgen erst bei Bedarf, so dass ein nur durchgereichter Wert bei
+	 * {@link #exportiere(Data)} unveraendert kopiert wird.
 	 * 
 	 * @param davDatum
 	 *            ein DAV-Datum (<code>!= null</code>)
@@ -115,16 +141,51 @@ public class GWert {
 
 		Data davGueteDatum = davDatum.getItem(attributName).getItem("Güte"); //$NON-NLS-1$
 
-		this.gueteAusDavWert = GanzZahl.getGueteIndex();
-		this.gueteAusDavWert.setWert(davGueteDatum
-				.getUnscaledValue("Index").longValue()); //$NON-NLS-1$
-		if (this.isVerrechenbar()) {
-			this.index = this.gueteAusDavWert.getSkaliertenWert();
-		} else {
-			this.index = Double.NaN;
+		this.gueteAusDavWert = davGueteDatum
+				.getUnscaledValue("Index").longValue(); //$NON-NLS-1$
+		this.verfahrenAusDav = davGueteDatum
+				.getUnscaledValue("Verfahren").intValue(); //$NON-NLS-1$
+		this.verrechenbar = !GueteIndex.isZustand(this.gueteAusDavWert);
+		this.index = Double.NaN;
+		this.verfahren = null;
+		this.verzoegert = true;
+		this.gewichtung = 1.0;
+		if (GueteMetriken.AKTIV) {
+			GueteMetriken.erfasseDekodierung(1);
 		}
-		this.verfahren = GueteVerfahren.getZustand(davGueteDatum
-				.getUnscaledValue("Verfahren").intValue()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Konstruktor fuer einen unskalierten Guetewert aus einem DAV-Datum.
+	 * 
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index (ggf. ein Zustand)
+	 * @param verfahren
+	 *            das Berechnungsverfahren zur Behandlung dieser Guete
+	 */
+	GWert(final long indexUnskaliert, final GueteVerfahren verfahren) {
+		this(indexUnskaliert, verfahren, 1.0);
+	}
+
+	/**
+	 * Konstruktor fuer einen unskalierten, gewichteten Guetewert.
+	 * 
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index (ggf. ein Zustand)
+	 * @param verfahren
+	 *            das Berechnungsverfahren zur Behandlung dieser Guete
+	 * @param gewichtung
+	 *            die Gewichtung dieses Wertes
+	 */
+	GWert(final long indexUnskaliert, final GueteVerfahren verfahren,
+			final double gewichtung) {
+		this.gueteAusDavWert = indexUnskaliert;
+		this.verrechenbar = !GueteIndex.isZustand(indexUnskaliert);
+		this.index = GueteIndex.skaliere(indexUnskaliert);
+		this.verfahren = verfahren;
+		this.verfahrenAusDav = 0;
+		this.verzoegert = false;
+		this.gewichtung = gewichtung;
 	}
 
 	/**
@@ -140,16 +201,21 @@ public class GWert {
 	 */
 	public GWert(final GanzZahl gueteWert, final GueteVerfahren verfahren,
 			final boolean wertIsNichtErmittelbar) {
-		this.gueteAusDavWert = gueteWert;
+		this.gueteAusDavWert = gueteWert == null ? KEIN_DAV_WERT : gueteWert
+				.getWert();
+		this.verrechenbar = gueteWert == null || !gueteWert.isZustand();
 		this.verfahren = verfahren;
+		this.verfahrenAusDav = 0;
+		this.verzoegert = false;
+		this.gewichtung = 1.0;
 		if (this.isVerrechenbar()) {
 			if (wertIsNichtErmittelbar) {
 				this.index = 0.0;
 			} else {
-				if(this.gueteAusDavWert == null) {
+				if(gueteWert == null) {
 					this.index = GanzZahl.getGueteIndex().getSkaliertenWert();
 				} else {
-					this.index = this.gueteAusDavWert.getSkaliertenWert();	
+					this.index = gueteWert.getSkaliertenWert();	
 				}
 			}
 		} else {
@@ -158,16 +224,33 @@ public class GWert {
 	}
 
 	/**
-	 * Kopierkonstruktor.
+	 * Kopierkonstruktor.<br>
+	 * Da ein Guetewert unveraenderlich ist, kann statt einer Kopie auch die
+	 * Vorlage selbst weiterverwendet werden.
 	 * 
 	 * @param vorlage
 	 *            ein zu kopierendes <code>GWert</code>-Objekt
 	 */
 	public GWert(final GWert vorlage) {
+		this(vorlage, vorlage.gewichtung);
+	}
+
+	/**
+	 * Konstruktor fuer eine anders gewichtete Variante eines Guetewertes.
+	 * 
+	 * @param vorlage
+	 *            der Guetewert
+	 * @param gewichtung
+	 *            die Gewichtung der Variante
+	 */
+	private GWert(final GWert vorlage, final double gewichtung) {
 		this.verfahren = vorlage.verfahren;
 		this.index = vorlage.index;
-		this.gewichtung = vorlage.gewichtung;
-		this.gueteAusDavWert = vorlage.gueteAusDavWert == null ? null : new GanzZahl(vorlage.gueteAusDavWert);
+		this.gewichtung = gewichtung;
+		this.gueteAusDavWert = vorlage.gueteAusDavWert;
+		this.verrechenbar = vorlage.verrechenbar;
+		this.verfahrenAusDav = vorlage.verfahrenAusDav;
+		this.verzoegert = vorlage.verzoegert;
 	}
 
 	/**
@@ -182,12 +265,34 @@ public class GWert {
 	 */
 	protected GWert(final double index, final GueteVerfahren verfahren)
 			throws GueteException {
+		this(index, verfahren, 1.0);
+	}
+
+	/**
+	 * Interner Konstruktor fuer gewichtete Zwischenergebnisse.
+	 * 
+	 * @param index
+	 *            der Guete-Index
+	 * @param verfahren
+	 *            das Berechnungsverfahren zur Behandlung dieser Guete
+	 * @param gewichtung
+	 *            die Gewichtung dieses Wertes
+	 * @throws GueteException
+	 *             wenn kein Berechnungsverfahren angegeben wurde
+	 */
+	GWert(final double index, final GueteVerfahren verfahren,
+			final double gewichtung) throws GueteException {
 		if (verfahren == null) {
 			throw new GueteException(
 					"Es wurde kein Verfahren zur Berechnung der Guete angegeben"); //$NON-NLS-1$
 		}
 		this.index = index;
 		this.verfahren = verfahren;
+		this.gueteAusDavWert = KEIN_DAV_WERT;
+		this.verrechenbar = true;
+		this.verfahrenAusDav = 0;
+		this.verzoegert = false;
+		this.gewichtung = gewichtung;
 	}
 
 	/**
@@ -201,9 +306,8 @@ public class GWert {
 	 */
 	public static final GWert getNichtErmittelbareGuete(
 			final GueteVerfahren verfahren) {
-		GanzZahl guete = GanzZahl.getGueteIndex();
-		guete.setZustand(MesswertZustand.FEHLERHAFT_BZW_NICHT_ERMITTELBAR);
-		return new GWert(GanzZahl.getGueteIndex(), verfahren, false);
+		return GueteVerfahren.getGWert(
+				GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT, verfahren);
 	}
 
 	/**
@@ -214,7 +318,7 @@ public class GWert {
 	 * @return eine Instanz eines Guetewertes mit der Guete <code>1.0</code>
 	 */
 	public static final GWert getMaxGueteWert(final GueteVerfahren verfahren) {
-		return new GWert(GanzZahl.getGueteIndex(), verfahren, false);
+		return GueteVerfahren.getGWert(GueteIndex.MAX_UNSKALIERT, verfahren);
 	}
 
 	/**
@@ -225,23 +329,54 @@ public class GWert {
 	 * @return eine Instanz eines Guetewertes mit der Guete <code>0.0</code>
 	 */
 	public static final GWert getMinGueteWert(final GueteVerfahren verfahren) {
-		GWert minWert = null;
-		try {
-			minWert = new GWert(0.0, verfahren);
-		} catch (GueteException e) {
-			// kann nicht passieren
+		return GueteVerfahren.getGWert(GueteIndex.MIN_UNSKALIERT, verfahren);
+	}
+
+	/**
+	 * Liest die Guete eines Attributs aus einem DAV-Datum. Im Gegensatz zu
+	 * {@link #GWert(Data, String)} wird fuer jede Kombination aus Index und
+	 * Verfahren immer dieselbe Instanz geliefert (siehe
+	 * {@link GueteVerfahren#getGWert(long)}).
+	 * 
+	 * @param davDatum
+	 *            ein DAV-Datum (<code>!= null</code>)
+	 * @param attributName
+	 *            der Name des Attributs, unterhalb dem ein Item
+	 *            <code>Güte</code> im übergebenen DAV-Datum steht
+	 * @return der Guetewert
+	 */
+	public static final GWert lese(final Data davDatum,
+			final String attributName) {
+		if (davDatum == null) {
+			throw new NullPointerException("Uebergebenes Datum ist <<null>>"); //$NON-NLS-1$
+		}
+
+		final Data davGueteDatum = davDatum.getItem(attributName).getItem(
+				GueteLeser.GUETE);
+		if (GueteMetriken.AKTIV) {
+			GueteMetriken.erfasseDekodierung(1);
 		}
-		return minWert;
+		return GueteVerfahren.getGWert(
+				davGueteDatum.getUnscaledValue(GueteLeser.INDEX).longValue(),
+				GueteVerfahren.getZustand(davGueteDatum.getUnscaledValue(
+						GueteLeser.VERFAHREN).intValue()));
 	}
 
 	/**
-	 * Setzt die Gewichtung dieses Wertes.
+	 * Erfragt diesen Guetewert mit einer anderen Gewichtung. Index, Verfahren
+	 * und ggf. die noch nicht dekodierten Rohwerte werden uebernommen, dieser
+	 * Guetewert bleibt unveraendert.
 	 * 
 	 * @param gewichtung
-	 *            die Gewichtung dieses Wertes
+	 *            die Gewichtung
+	 * @return dieser Guetewert, wenn er bereits die angegebene Gewichtung
+	 *         hat, sonst ein neuer Guetewert mit der angegebenen Gewichtung
 	 */
-	protected final void setGewichtung(final double gewichtung) {
-		this.gewichtung = gewichtung;
+	public final GWert mitGewichtung(final double gewichtung) {
+		if (Double.compare(this.gewichtung, gewichtung) == 0) {
+			return this;
+		}
+		return new GWert(this, gewichtung);
 	}
 
 	/**
@@ -259,6 +394,9 @@ public class GWert {
 	 * @return index der Guete-Index
 	 */
 	public final double getIndex() {
+		if (verzoegert) {
+			return GueteIndex.skaliere(gueteAusDavWert);
+		}
 		return index;
 	}
 
@@ -268,18 +406,19 @@ public class GWert {
 	 * @return der Gueteindex als unskalierter Wert
 	 */
 	public final long getIndexUnskaliert() {
+		if (verzoegert && gueteAusDavWert <= GueteIndex.MAX_UNSKALIERT) {
+			return gueteAusDavWert;
+		}
+
 		long indexUnskaliert = DUAKonstanten.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+		final double index = getIndex();
 
-		if (!Double.isNaN(this.index)) { // d.h. der Index wurde bereits
+		if (!Double.isNaN(index)) { // d.h. der Index wurde bereits
 											// initialisiert
-			if (this.index >= GUETE_MIN && this.index <= GUETE_MAX) {
-				GanzZahl dummy = GanzZahl.getGueteIndex();
-				dummy.setSkaliertenWert(this.index);
-				indexUnskaliert = dummy.getWert();
-			}
+			indexUnskaliert = GueteIndex.unskaliere(index);
 		} else {
-			if(this.gueteAusDavWert != null) {
-				indexUnskaliert = this.gueteAusDavWert.getWert();
+			if(this.gueteAusDavWert != KEIN_DAV_WERT) {
+				indexUnskaliert = this.gueteAusDavWert;
 			}
 		}
 
@@ -294,18 +433,15 @@ public class GWert {
 	 */
 	public final long getIndexUnskaliertGewichtet() {
 		long indexUnskaliertUndGewichtet = DUAKonstanten.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+		final double index = getIndex();
 
-		if (!Double.isNaN(this.index)) { // d.h. der Index wurde bereits
+		if (!Double.isNaN(index)) { // d.h. der Index wurde bereits
 											// initialisiert
-			double gewichteterWert = this.index * this.gewichtung;
-			if (gewichteterWert >= GUETE_MIN && gewichteterWert <= GUETE_MAX) {
-				GanzZahl dummy = GanzZahl.getGueteIndex();
-				dummy.setSkaliertenWert(gewichteterWert);
-				indexUnskaliertUndGewichtet = dummy.getWert();
-			}
+			indexUnskaliertUndGewichtet = GueteIndex
+					.unskaliere(index * this.gewichtung);
 		} else {
-			if(this.gueteAusDavWert != null) {
-				indexUnskaliertUndGewichtet = this.gueteAusDavWert.getWert();
+			if(this.gueteAusDavWert != KEIN_DAV_WERT) {
+				indexUnskaliertUndGewichtet = this.gueteAusDavWert;
 			}
 		}
 
@@ -318,9 +454,23 @@ public class GWert {
 	 * @return verfahren das Berechnungsverfahren zur Behandlung dieser Guete
 	 */
 	public final GueteVerfahren getVerfahren() {
+		if (verzoegert) {
+			return GueteVerfahren.getZustand(verfahrenAusDav);
+		}
 		return verfahren;
 	}
 
+	/**
+	 * Erfragt den Code des Berechnungsverfahrens. Bei einem von aussen
+	 * gelesenen, noch nicht dekodierten Wert ist das der Code aus dem
+	 * DAV-Datum, auch wenn kein Verfahren mit diesem Code registriert ist.
+	 * 
+	 * @return der Code des Berechnungsverfahrens
+	 */
+	public final int getVerfahrenCode() {
+		return verzoegert ? this.verfahrenAusDav : this.verfahren.getCode();
+	}
+
 	/**
 	 * Erportiert den Inhalt dieses Objekts in ein DAV-Datum.
 	 * 
@@ -332,8 +482,13 @@ public class GWert {
 	 *            enthält (dabei muss <code>zielDatum != null</code> sein)
 	 */
 	public final void exportiere(Data zielDatum) {
-		zielDatum.getUnscaledValue("Index").set(this.getIndexUnskaliert()); //$NON-NLS-1$
-		zielDatum.getUnscaledValue("Verfahren").set(this.verfahren.getCode()); //$NON-NLS-1$
+		zielDatum.getUnscaledValue(GueteLeser.INDEX).set(this.getIndexUnskaliert());
+		// ein unveraendert durchgereichter Wert wird ohne Dekodierung kopiert
+		zielDatum.getUnscaledValue(GueteLeser.VERFAHREN).set(
+				this.getVerfahrenCode());
+		if (GueteMetriken.AKTIV) {
+			GueteMetriken.erfasseExport(1);
+		}
 	}
 
 	/**
@@ -347,7 +502,7 @@ public class GWert {
 	 *            <code>qKfz</code> für ein DAV-Kurzzeitdatum
 	 */
 	public final void exportiere(Data zielDatum, String attributName) {
-		this.exportiere(zielDatum.getItem(attributName).getItem("Güte")); //$NON-NLS-1$
+		this.exportiere(zielDatum.getItem(attributName).getItem(GueteLeser.GUETE));
 	}
 
 	/**
@@ -360,8 +515,7 @@ public class GWert {
 	 * @return ob dieser Guetewert verrechenbar ist
 	 */
 	protected final boolean isVerrechenbar() {
-		return this.gueteAusDavWert == null
-				|| !this.gueteAusDavWert.isZustand();
+		return this.verrechenbar;
 	}
 
 	@Override
@@ -379,11 +533,12 @@ public class GWert {
 	
 	@Override
 	public int hashCode() {
-		return Objects.hash(index, verfahren);
+		return 31 * (31 + Double.hashCode(getIndex()))
+				+ Objects.hashCode(getVerfahren());
 	}
 
 	@Override
 	public String toString() {
-		return "Index: " + this.index + "\nVerfahren: " + this.verfahren; //$NON-NLS-1$ //$NON-NLS-2$
+		return "Index: " + this.getIndex() + "\nVerfahren: " + this.getVerfahren(); //$NON-NLS-1$ //$NON-NLS-2$
 	}
 }
@@ -0,0 +1,322 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import de.bsvrz.dua.guete.vorschriften.Standard;
+
+/**
+ * Sammelt Guetewerte schrittweise und berechnet daraus die Gesamt-Guete nach
+ * den Vorschriften des Standardverfahrens (
+ * {@link Standard#s(double...)}, {@link Standard#sw(double[]...)} und
+ * {@link Standard#p(double...)}).<br>
+ * Im Gegensatz zu {@link GueteVerfahren#summe(GWert...)} usw. muessen die
+ * Werte dafuer nicht in einem Feld gesammelt werden: Der Akkumulator haelt
+ * nur laufende Summen und das laufende Produkt. Werden die Werte in
+ * derselben Reihenfolge uebergeben, sind die Ergebnisse identisch mit denen
+ * von {@link GueteVerfahren}. Teilergebnisse paralleler Berechnungen koennen
+ * ueber {@link #vereinige(GueteAkkumulator)} zusammengefasst werden; das
+ * Ergebnis ist dann (wegen der anderen Reihenfolge der Additionen bzw.
+ * Multiplikationen) nur bis auf Rundungsfehler gleich.<br>
+ * Ein Akkumulator ist nicht threadsicher.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GueteAkkumulator {
+
+	/**
+	 * Das gemeinsame Berechnungs-Verfahren der gesammelten Werte (
+	 * <code>null</code>, solange kein verrechenbarer Wert gesammelt wurde).
+	 */
+	private GueteVerfahren verfahren;
+
+	/**
+	 * Die Anzahl der gesammelten Werte.
+	 */
+	private long anzahl;
+
+	/**
+	 * Die Summe der Guete-Indizes.
+	 */
+	private double summe;
+
+	/**
+	 * Die Summe der gewichteten Guete-Indizes.
+	 */
+	private double summeGewichtet;
+
+	/**
+	 * Die Summe der (Betraege der) Gewichtungen.
+	 */
+	private double summeGewichte;
+
+	/**
+	 * Das Produkt der Guete-Indizes.
+	 */
+	private double produkt;
+
+	/**
+	 * Zeigt an, ob alle gesammelten Werte verrechenbar sind.
+	 */
+	private boolean verrechenbar;
+
+	/**
+	 * Zeigt an, ob einer der gesammelten Werte gewichtet ist.
+	 */
+	private boolean gewichtet;
+
+	/**
+	 * Standardkonstruktor.
+	 */
+	public GueteAkkumulator() {
+		zuruecksetzen();
+	}
+
+	/**
+	 * Setzt den Akkumulator auf den Ausgangszustand (keine Werte) zurueck.
+	 */
+	public final void zuruecksetzen() {
+		verfahren = null;
+		anzahl = 0;
+		summe = 0.0;
+		summeGewichtet = 0.0;
+		summeGewichte = 0.0;
+		produkt = 1.0;
+		verrechenbar = true;
+		gewichtet = false;
+	}
+
+	/**
+	 * Fuegt einen Guetewert hinzu. Wie in {@link GueteVerfahren} werden nach
+	 * dem ersten nicht verrechenbaren Wert alle weiteren Werte ignoriert.
+	 *
+	 * @param wert
+	 *            der Guetewert
+	 * @throws GueteException
+	 *             wenn der Guetewert ein anderes Berechnungs-Verfahren
+	 *             verlangt als die bisher gesammelten Werte oder das
+	 *             Verfahren nicht nach den Vorschriften des
+	 *             Standardverfahrens rechnet
+	 */
+	public final void addiere(final GWert wert) throws GueteException {
+		if (!verrechenbar) {
+			return;
+		}
+		if (!wert.isVerrechenbar()) {
+			verrechenbar = false;
+			return;
+		}
+		pruefeVerfahren(wert.getVerfahren());
+		addiere(wert.getIndex(), wert.getGewichtung());
+	}
+
+	/**
+	 * Fuegt einen ungewichteten Guete-Index hinzu.
+	 *
+	 * @param index
+	 *            der skalierte Guete-Index oder
+	 *            {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public final void addiere(final double index) {
+		addiere(index, 1.0);
+	}
+
+	/**
+	 * Fuegt einen gewichteten Guete-Index hinzu.
+	 *
+	 * @param index
+	 *            der skalierte Guete-Index oder
+	 *            {@link GueteRechner#NICHT_VERRECHENBAR}
+	 * @param gewichtung
+	 *            die Gewichtung des Guete-Index
+	 */
+	public final void addiere(final double index, final double gewichtung) {
+		if (!verrechenbar) {
+			return;
+		}
+		if (!GueteRechner.isVerrechenbar(index)) {
+			verrechenbar = false;
+			return;
+		}
+		final double betrag = Math.abs(gewichtung);
+		anzahl++;
+		summe += index;
+		summeGewichtet += betrag * index;
+		summeGewichte += betrag;
+		produkt *= index;
+		if (gewichtung != 1.0) {
+			gewichtet = true;
+		}
+	}
+
+	/**
+	 * Uebernimmt die Werte eines anderen Akkumulators, als waeren sie nach
+	 * den Werten dieses Akkumulators hinzugefuegt worden.
+	 *
+	 * @param andere
+	 *            der andere Akkumulator (wird nicht veraendert)
+	 * @throws GueteException
+	 *             wenn die Werte des anderen Akkumulators ein anderes
+	 *             Berechnungs-Verfahren verlangen
+	 */
+	public final void vereinige(final GueteAkkumulator andere)
+			throws GueteException {
+		if (!verrechenbar) {
+			return;
+		}
+		if (andere.verfahren != null) {
+			pruefeVerfahren(andere.verfahren);
+		}
+		anzahl += andere.anzahl;
+		summe += andere.summe;
+		summeGewichtet += andere.summeGewichtet;
+		summeGewichte += andere.summeGewichte;
+		produkt *= andere.produkt;
+		gewichtet |= andere.gewichtet;
+		verrechenbar = andere.verrechenbar;
+	}
+
+	/**
+	 * Erfragt die Anzahl der gesammelten verrechenbaren Werte.
+	 *
+	 * @return die Anzahl der gesammelten verrechenbaren Werte
+	 */
+	public final long getAnzahl() {
+		return anzahl;
+	}
+
+	/**
+	 * Erfragt, ob alle gesammelten Werte verrechenbar sind.
+	 *
+	 * @return ob alle gesammelten Werte verrechenbar sind
+	 */
+	public final boolean isVerrechenbar() {
+		return verrechenbar;
+	}
+
+	/**
+	 * Erfragt die skalierte Gesamt-Guete fuer eine Verknuepfung der
+	 * gesammelten Werte mit dem Operator "<code>+</code>" bzw. "
+	 * <code>-</code>".
+	 *
+	 * @return die Gesamt-Guete, 1.0 fuer eine leere Menge oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public final double getSummenIndex() {
+		if (!verrechenbar) {
+			return GueteRechner.NICHT_VERRECHENBAR;
+		}
+		if (gewichtet) {
+			return summeGewichte != 0 ? summeGewichtet / summeGewichte : 1.0;
+		}
+		return anzahl != 0 ? summe / anzahl : 1.0;
+	}
+
+	/**
+	 * Erfragt die skalierte Gesamt-Guete fuer eine Verknuepfung der
+	 * gesammelten Werte mit dem Operator "<code>*</code>" bzw. "
+	 * <code>/</code>".
+	 *
+	 * @return die Gesamt-Guete, 1.0 fuer eine leere Menge oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public final double getProduktIndex() {
+		if (!verrechenbar) {
+			return GueteRechner.NICHT_VERRECHENBAR;
+		}
+		return produkt;
+	}
+
+	/**
+	 * Erfragt die Gesamt-Guete fuer eine Verknuepfung der gesammelten Werte
+	 * mit dem Operator "<code>+</code>" bzw. "<code>-</code>" (wie
+	 * {@link GueteVerfahren#summe(GWert...)}).
+	 *
+	 * @return die Gesamt-Guete
+	 */
+	public final GWert getSumme() {
+		return getErgebnis(getSummenIndex());
+	}
+
+	/**
+	 * Erfragt die Gesamt-Guete fuer eine Verknuepfung der gesammelten Werte
+	 * mit dem Operator "<code>*</code>" bzw. "<code>/</code>" (wie
+	 * {@link GueteVerfahren#produkt(GWert...)}).
+	 *
+	 * @return die Gesamt-Guete
+	 */
+	public final GWert getProdukt() {
+		return getErgebnis(getProduktIndex());
+	}
+
+	/**
+	 * Erzeugt den Guetewert fuer ein Ergebnis.
+	 *
+	 * @param index
+	 *            der skalierte Guete-Index des Ergebnisses
+	 * @return der Guetewert
+	 */
+	private GWert getErgebnis(final double index) {
+		final GueteVerfahren ergebnisVerfahren = verfahren == null ? GueteVerfahren.STANDARD
+				: verfahren;
+		if (!verrechenbar) {
+			return GueteVerfahren.getNichtErmittelbar(ergebnisVerfahren);
+		}
+		try {
+			return new GWert(index, ergebnisVerfahren);
+		} catch (final GueteException e) {
+			// kann nicht passieren, das Verfahren ist immer gesetzt
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Prueft, ob ein Berechnungs-Verfahren zu den bisher gesammelten Werten
+	 * passt, und uebernimmt es ggf.
+	 *
+	 * @param wertVerfahren
+	 *            das Berechnungs-Verfahren eines neuen Wertes
+	 * @throws GueteException
+	 *             wenn das Berechnungs-Verfahren nicht passt
+	 */
+	private void pruefeVerfahren(final GueteVerfahren wertVerfahren)
+			throws GueteException {
+		if (verfahren == null) {
+			if (wertVerfahren == null
+					|| wertVerfahren.getBerechnungsVorschrift().getClass() != Standard.class) {
+				throw new GueteException(
+						"Der Akkumulator unterstuetzt nur Verfahren nach der Standard-Vorschrift: " //$NON-NLS-1$
+								+ wertVerfahren);
+			}
+			verfahren = wertVerfahren;
+		} else if (verfahren != wertVerfahren) {
+			throw GueteException.UNTERSCHIEDLICHE_VERFAHREN;
+		}
+	}
+
+}
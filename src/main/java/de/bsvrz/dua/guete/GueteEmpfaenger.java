@@ -0,0 +1,445 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import java.util.Arrays;
+
+import de.bsvrz.dav.daf.main.ClientReceiverInterface;
+import de.bsvrz.dav.daf.main.Data;
+import de.bsvrz.dav.daf.main.ResultData;
+
+/**
+ * Empfaenger fuer DAV-Aktualisierungen, der die Guete ganzer Pakete von
+ * Datensaetzen spaltenweise dekodiert und verrechnet.<br>
+ * Je Aufruf von {@link #update(ResultData[])} werden fuer alle Datensaetze
+ * mit Daten die Guete-Indizes und Verfahren der Attribute eines
+ * {@link GueteLeser} in primitive Spalten gelesen. Danach wird je Datensatz
+ * die Gesamt-Guete der Attribute mit der eingestellten Verknuepfung wie in
+ * {@link GueteVerfahren} ueber {@link GueteRechner} berechnet, und die
+ * Spalten werden an einen {@link Abnehmer} uebergeben, der sie z.B. mit
+ * einem {@link GueteSchreiber} gesammelt exportiert.<br>
+ * Die Spalten werden fuer alle Pakete wiederverwendet und nur bei Bedarf
+ * vergroessert. Sie sind deshalb nur waehrend des Aufrufs des Abnehmers
+ * gueltig. Da nur die Schnittstelle {@link ClientReceiverInterface}
+ * verwendet wird, kann der Empfaenger ohne Datenverteiler durch direkten
+ * Aufruf von {@link #update(ResultData[])} betrieben werden.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteEmpfaenger implements ClientReceiverInterface {
+
+	/**
+	 * Nimmt die Spalten eines verarbeiteten Pakets entgegen.
+	 */
+	public interface Abnehmer {
+
+		/**
+		 * Verarbeitet die Spalten eines Pakets. Die Spalten sind nur
+		 * waehrend des Aufrufs gueltig.
+		 *
+		 * @param spalten
+		 *            die Spalten
+		 */
+		void verarbeite(Spalten spalten);
+	}
+
+	/**
+	 * Die Spalten eines verarbeiteten Pakets. Die Werte des Attributs
+	 * <code>a</code> im Datensatz <code>d</code> stehen in den Feldern
+	 * {@link #getIndizes()} und {@link #getVerfahren()} an der Position
+	 * <code>d * getAttributAnzahl() + a</code>, passend fuer
+	 * {@link GueteSchreiber#schreibe(Data, long[], int[], int)}.
+	 */
+	public static final class Spalten {
+
+		/**
+		 * Die Anzahl der Attribute je Datensatz.
+		 */
+		private final int attributAnzahl;
+
+		/**
+		 * Die Anzahl der Datensaetze.
+		 */
+		private int anzahl;
+
+		/**
+		 * Die Datensaetze.
+		 */
+		private ResultData[] datensaetze = new ResultData[16];
+
+		/**
+		 * Die unskalierten Guete-Indizes aller Attribute.
+		 */
+		private long[] indizes;
+
+		/**
+		 * Die Codes der Guete-Verfahren aller Attribute.
+		 */
+		private int[] verfahren;
+
+		/**
+		 * Die skalierten Guete-Indizes aller Attribute fuer die Berechnung.
+		 */
+		private double[] skaliert;
+
+		/**
+		 * Die unskalierten Gesamt-Gueten je Datensatz.
+		 */
+		private long[] gesamtIndizes = new long[16];
+
+		/**
+		 * Die Codes der Guete-Verfahren der Gesamt-Gueten je Datensatz.
+		 */
+		private int[] gesamtVerfahren = new int[16];
+
+		/**
+		 * Der Status der Berechnung je Datensatz.
+		 */
+		private int[] status = new int[16];
+
+		/**
+		 * Erzeugt leere Spalten.
+		 *
+		 * @param attributAnzahl
+		 *            die Anzahl der Attribute je Datensatz
+		 */
+		private Spalten(final int attributAnzahl) {
+			this.attributAnzahl = attributAnzahl;
+			indizes = new long[16 * attributAnzahl];
+			verfahren = new int[16 * attributAnzahl];
+			skaliert = new double[16 * attributAnzahl];
+		}
+
+		/**
+		 * Erfragt die Anzahl der Datensaetze (mit Daten) des Pakets.
+		 *
+		 * @return die Anzahl der Datensaetze
+		 */
+		public int getAnzahl() {
+			return anzahl;
+		}
+
+		/**
+		 * Erfragt die Anzahl der Attribute je Datensatz.
+		 *
+		 * @return die Anzahl der Attribute
+		 */
+		public int getAttributAnzahl() {
+			return attributAnzahl;
+		}
+
+		/**
+		 * Erfragt einen Datensatz.
+		 *
+		 * @param datensatz
+		 *            die Nummer des Datensatzes im Paket
+		 * @return der Datensatz
+		 */
+		public ResultData getDatensatz(final int datensatz) {
+			return datensaetze[datensatz];
+		}
+
+		/**
+		 * Erfragt die unskalierten Guete-Indizes aller Attribute.
+		 *
+		 * @return die Guete-Indizes (ggf. Zustaende), das Feld kann
+		 *         laenger als benoetigt sein
+		 */
+		public long[] getIndizes() {
+			return indizes;
+		}
+
+		/**
+		 * Erfragt die Codes der Guete-Verfahren aller Attribute.
+		 *
+		 * @return die Codes, das Feld kann laenger als benoetigt sein
+		 */
+		public int[] getVerfahren() {
+			return verfahren;
+		}
+
+		/**
+		 * Erfragt die unskalierten Gesamt-Gueten je Datensatz.
+		 *
+		 * @return die Gesamt-Gueten (ggf. Zustaende), das Feld kann laenger
+		 *         als benoetigt sein
+		 */
+		public long[] getGesamtIndizes() {
+			return gesamtIndizes;
+		}
+
+		/**
+		 * Erfragt die Codes der Guete-Verfahren der Gesamt-Gueten je
+		 * Datensatz.
+		 *
+		 * @return die Codes, das Feld kann laenger als benoetigt sein
+		 */
+		public int[] getGesamtVerfahren() {
+			return gesamtVerfahren;
+		}
+
+		/**
+		 * Erfragt den Status der Berechnung eines Datensatzes.
+		 *
+		 * @param datensatz
+		 *            die Nummer des Datensatzes im Paket
+		 * @return {@link GueteErgebnis#OK},
+		 *         {@link GueteErgebnis#UNTERSCHIEDLICHE_VERFAHREN} oder
+		 *         {@link GueteErgebnis#NICHT_ERMITTELBAR}
+		 */
+		public int getStatus(final int datensatz) {
+			return status[datensatz];
+		}
+
+		/**
+		 * Bereitet die Spalten fuer ein Paket vor.
+		 *
+		 * @param maxAnzahl
+		 *            die maximale Anzahl der Datensaetze des Pakets
+		 */
+		private void leere(final int maxAnzahl) {
+			if (maxAnzahl > datensaetze.length) {
+				final int laenge = Math.max(maxAnzahl, 2 * datensaetze.length);
+				datensaetze = new ResultData[laenge];
+				indizes = new long[laenge * attributAnzahl];
+				verfahren = new int[laenge * attributAnzahl];
+				skaliert = new double[laenge * attributAnzahl];
+				gesamtIndizes = new long[laenge];
+				gesamtVerfahren = new int[laenge];
+				status = new int[laenge];
+			} else {
+				Arrays.fill(datensaetze, 0, anzahl, null);
+			}
+			anzahl = 0;
+		}
+	}
+
+	/**
+	 * Liest die Guete der Attribute.
+	 */
+	private final GueteLeser leser;
+
+	/**
+	 * Die Verknuepfung der Attribute.
+	 */
+	private final int verknuepfung;
+
+	/**
+	 * Die Gewichtungen der Attribute je Datensatz oder <code>null</code>.
+	 */
+	private final double[] gewichte;
+
+	/**
+	 * Der Abnehmer der Spalten.
+	 */
+	private final Abnehmer abnehmer;
+
+	/**
+	 * Die Spalten fuer alle Pakete.
+	 */
+	private final Spalten spalten;
+
+	/**
+	 * Die Gewichtungen fuer alle Datensaetze eines Pakets (wie
+	 * {@link #gewichte} je Datensatz wiederholt) oder <code>null</code>.
+	 */
+	private double[] gewichteSpalte;
+
+	/**
+	 * Erzeugt einen Empfaenger mit ungewichteten Attributen.
+	 *
+	 * @param leser
+	 *            liest die Guete der Attribute
+	 * @param verknuepfung
+	 *            die Verknuepfung der Attribute
+	 *            ({@link GueteRechner#PRODUKT}, {@link GueteRechner#QUOTIENT},
+	 *            {@link GueteRechner#SUMME} oder
+	 *            {@link GueteRechner#DIFFERENZ})
+	 * @param abnehmer
+	 *            der Abnehmer der Spalten
+	 * @throws IllegalArgumentException
+	 *             wenn die Verknuepfung unbekannt ist oder Leser bzw.
+	 *             Abnehmer fehlen
+	 */
+	public GueteEmpfaenger(final GueteLeser leser, final int verknuepfung,
+			final Abnehmer abnehmer) {
+		this(leser, verknuepfung, null, abnehmer);
+	}
+
+	/**
+	 * Erzeugt einen Empfaenger.
+	 *
+	 * @param leser
+	 *            liest die Guete der Attribute
+	 * @param verknuepfung
+	 *            die Verknuepfung der Attribute
+	 *            ({@link GueteRechner#PRODUKT}, {@link GueteRechner#QUOTIENT},
+	 *            {@link GueteRechner#SUMME} oder
+	 *            {@link GueteRechner#DIFFERENZ})
+	 * @param gewichte
+	 *            die Gewichtungen der Attribute in der Reihenfolge des
+	 *            Lesers (nur fuer {@link GueteRechner#SUMME} und
+	 *            {@link GueteRechner#DIFFERENZ})
+	 *            oder <code>null</code>
+	 * @param abnehmer
+	 *            der Abnehmer der Spalten
+	 * @throws IllegalArgumentException
+	 *             wenn die Verknuepfung unbekannt ist, Leser bzw. Abnehmer
+	 *             fehlen oder die Gewichtungen nicht zu den Attributen bzw.
+	 *             der Verknuepfung passen (Gewichtungen fuer einen Leser
+	 *             ohne Attribute sind nicht zulaessig)
+	 */
+	public GueteEmpfaenger(final GueteLeser leser, final int verknuepfung,
+			final double[] gewichte, final Abnehmer abnehmer) {
+		if (leser == null || abnehmer == null) {
+			throw new IllegalArgumentException(
+					"Leser und Abnehmer muessen angegeben werden"); //$NON-NLS-1$
+		}
+		if (!GueteRechner.isVerknuepfung(verknuepfung)) {
+			throw new IllegalArgumentException("Unbekannte Verknuepfung: " //$NON-NLS-1$
+					+ verknuepfung);
+		}
+		if (gewichte != null
+				&& (gewichte.length != leser.getAnzahl()
+						|| gewichte.length == 0
+						|| verknuepfung == GueteRechner.PRODUKT
+						|| verknuepfung == GueteRechner.QUOTIENT)) {
+			throw new IllegalArgumentException(
+					"Die Gewichtungen passen nicht zu Attributen und Verknuepfung"); //$NON-NLS-1$
+		}
+		this.leser = leser;
+		this.verknuepfung = verknuepfung;
+		this.gewichte = gewichte == null ? null : gewichte.clone();
+		this.abnehmer = abnehmer;
+		this.spalten = new Spalten(leser.getAnzahl());
+	}
+
+	/**
+	 * Dekodiert und verrechnet ein Paket von Datensaetzen und uebergibt die
+	 * Spalten an den Abnehmer. Datensaetze ohne Daten werden uebergangen.
+	 *
+	 * @param results
+	 *            die Datensaetze
+	 */
+	@Override
+	public synchronized void update(final ResultData[] results) {
+		final int attributAnzahl = leser.getAnzahl();
+		spalten.leere(results.length);
+		for (final ResultData result : results) {
+			if (result != null && result.hasData()) {
+				leser.lese(result.getData(), spalten.indizes,
+						spalten.verfahren, null, spalten.anzahl
+								* attributAnzahl);
+				spalten.datensaetze[spalten.anzahl++] = result;
+			}
+		}
+
+		final double[] gewichteJeAttribut = getGewichteSpalte();
+		for (int datensatz = 0; datensatz < spalten.anzahl; datensatz++) {
+			berechne(datensatz, attributAnzahl, gewichteJeAttribut);
+		}
+
+		abnehmer.verarbeite(spalten);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete eines Datensatzes. Wie in
+	 * {@link GueteVerfahren} endet die Pruefung der Attribute mit dem ersten
+	 * nicht verrechenbaren Index bzw. dem ersten abweichenden Verfahren.<br>
+	 * Gewichtete Attribute werden wie mit
+	 * {@link GueteVerfahren#gewichte(GWert, double)} gewichtete Guetewerte
+	 * behandelt: Ein Zustand beendet die Pruefung der Verfahren nicht, so
+	 * dass ein spaeteres abweichendes Verfahren zu
+	 * {@link GueteErgebnis#UNTERSCHIEDLICHE_VERFAHREN} fuehrt. Andernfalls
+	 * ist die Gesamt-Guete wegen des Zustands
+	 * {@link GueteErgebnis#NICHT_ERMITTELBAR}.
+	 *
+	 * @param datensatz
+	 *            die Nummer des Datensatzes im Paket
+	 * @param attributAnzahl
+	 *            die Anzahl der Attribute je Datensatz
+	 * @param gewichteJeAttribut
+	 *            die Gewichtungen oder <code>null</code>
+	 */
+	private void berechne(final int datensatz, final int attributAnzahl,
+			final double[] gewichteJeAttribut) {
+		final int anfang = datensatz * attributAnzahl;
+		final int code = attributAnzahl == 0 ? GueteVerfahren.STANDARD
+				.getCode() : spalten.verfahren[anfang];
+		spalten.gesamtVerfahren[datensatz] = code;
+
+		int ergebnis = GueteErgebnis.OK;
+		if (GueteVerfahren.getZustand(code) == null) {
+			// unbekanntes Verfahren
+			ergebnis = GueteErgebnis.NICHT_ERMITTELBAR;
+		}
+		for (int i = anfang; i < anfang + attributAnzahl
+				&& ergebnis == GueteErgebnis.OK; i++) {
+			spalten.skaliert[i] = GueteIndex.skaliere(spalten.indizes[i]);
+			if (Double.isNaN(spalten.skaliert[i]) && gewichteJeAttribut == null) {
+				ergebnis = GueteErgebnis.NICHT_ERMITTELBAR;
+			} else if (spalten.verfahren[i] != code) {
+				ergebnis = GueteErgebnis.UNTERSCHIEDLICHE_VERFAHREN;
+			}
+		}
+
+		long index = GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+		if (ergebnis == GueteErgebnis.OK) {
+			index = GueteIndex.unskaliere(GueteRechner.berechne(verknuepfung,
+					code, spalten.skaliert, gewichteJeAttribut, anfang,
+					attributAnzahl));
+			if (GueteIndex.isZustand(index)) {
+				ergebnis = GueteErgebnis.NICHT_ERMITTELBAR;
+			}
+		}
+		spalten.gesamtIndizes[datensatz] = index;
+		spalten.status[datensatz] = ergebnis;
+	}
+
+	/**
+	 * Erfragt die Gewichtungen fuer alle Datensaetze der aktuellen Spalten.
+	 * Das Feld wird nur angelegt, wenn die Spalten vergroessert wurden.
+	 *
+	 * @return die Gewichtungen oder <code>null</code>
+	 */
+	private double[] getGewichteSpalte() {
+		if (gewichte == null) {
+			return null;
+		}
+		if (gewichteSpalte == null
+				|| gewichteSpalte.length != spalten.skaliert.length) {
+			gewichteSpalte = new double[spalten.skaliert.length];
+			for (int i = 0; i < gewichteSpalte.length; i++) {
+				gewichteSpalte[i] = gewichte[i % gewichte.length];
+			}
+		}
+		return gewichteSpalte;
+	}
+
+}
@@ -0,0 +1,134 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+/**
+ * Nimmt das Ergebnis einer Gueteberechnung ohne Ausnahme auf (siehe z.B.
+ * {@link GueteVerfahren#summe(GueteErgebnis, GWert...)}).<br>
+ * Neben der Gesamt-Guete wird ein Status geliefert, der anzeigt, ob die
+ * Berechnung moeglich war. Ein Ergebnis-Objekt kann fuer beliebig viele
+ * Berechnungen wiederverwendet werden, ist aber nicht threadsicher.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteErgebnis {
+
+	/**
+	 * Status: Die Gesamt-Guete wurde berechnet.
+	 */
+	public static final int OK = 0;
+
+	/**
+	 * Status: Die uebergebenen Datensaetze verlangen unterschiedliche
+	 * Guete-Berechnungsverfahren. Die Gesamt-Guete ist
+	 * <code>nicht ermittelbar/fehlerhaft</code> mit dem Verfahren des ersten
+	 * Datensatzes.
+	 */
+	public static final int UNTERSCHIEDLICHE_VERFAHREN = 1;
+
+	/**
+	 * Status: Die Gesamt-Guete ist nicht ermittelbar, da einer der
+	 * Datensaetze nicht verrechenbar ist.
+	 */
+	public static final int NICHT_ERMITTELBAR = 2;
+
+	/**
+	 * Der Status der letzten Berechnung.
+	 */
+	private int status = OK;
+
+	/**
+	 * Die Gesamt-Guete der letzten Berechnung.
+	 */
+	private GWert wert;
+
+	/**
+	 * Erfragt den Status der letzten Berechnung.
+	 *
+	 * @return {@link #OK}, {@link #UNTERSCHIEDLICHE_VERFAHREN} oder
+	 *         {@link #NICHT_ERMITTELBAR}
+	 */
+	public int getStatus() {
+		return status;
+	}
+
+	/**
+	 * Erfragt, ob die letzte Berechnung erfolgreich war.
+	 *
+	 * @return ob der Status {@link #OK} ist
+	 */
+	public boolean isOk() {
+		return status == OK;
+	}
+
+	/**
+	 * Erfragt die Gesamt-Guete der letzten Berechnung. Diese entspricht dem
+	 * Ergebnis der Berechnung mit Ausnahme, bei unterschiedlichen Verfahren
+	 * ist sie <code>nicht ermittelbar/fehlerhaft</code>.
+	 *
+	 * @return die Gesamt-Guete oder <code>null</code>, wenn noch nichts
+	 *         berechnet wurde
+	 */
+	public GWert getWert() {
+		return wert;
+	}
+
+	/**
+	 * Setzt die Gesamt-Guete einer Berechnung. Der Status ergibt sich aus dem
+	 * Guete-Index.
+	 *
+	 * @param gesamtGuete
+	 *            die Gesamt-Guete
+	 * @return der Status
+	 */
+	int setze(final GWert gesamtGuete) {
+		return setze(Double.isNaN(gesamtGuete.getIndex()) ? NICHT_ERMITTELBAR
+				: OK, gesamtGuete);
+	}
+
+	/**
+	 * Setzt Status und Gesamt-Guete einer Berechnung.
+	 *
+	 * @param neuerStatus
+	 *            der Status
+	 * @param gesamtGuete
+	 *            die Gesamt-Guete
+	 * @return der Status
+	 */
+	int setze(final int neuerStatus, final GWert gesamtGuete) {
+		this.status = neuerStatus;
+		this.wert = gesamtGuete;
+		return neuerStatus;
+	}
+
+	@Override
+	public String toString() {
+		return "Status: " + status + "\n" + wert; //$NON-NLS-1$ //$NON-NLS-2$
+	}
+}
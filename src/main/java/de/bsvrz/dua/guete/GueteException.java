@@ -35,6 +35,16 @@ package de.bsvrz.dua.guete;
  */
 public class GueteException extends Exception {
 
+	/**
+	 * Gemeinsam genutzte Ausnahme fuer Datensaetze mit unterschiedlichen
+	 * Guete-Berechnungsverfahren. Die Ausnahme hat keinen Stacktrace und
+	 * kann deshalb ohne Aufwand beliebig oft geworfen werden.
+	 */
+	static final GueteException UNTERSCHIEDLICHE_VERFAHREN = new GueteException(
+			"Die uebergebenen Datensaetze verlangen" + //$NON-NLS-1$
+					" unterschiedliche Guete-Berechnungsverfahren", //$NON-NLS-1$
+			null, false, false);
+
 	/**
 	 * Standardkonstruktor.
 	 * 
@@ -45,4 +55,23 @@ public class GueteException extends Exception {
 		super(nachricht);
 	}
 
+	/**
+	 * Konstruktor fuer Ausnahmen ohne Stacktrace bzw. ohne unterdrueckte
+	 * Ausnahmen (siehe
+	 * {@link Exception#Exception(String, Throwable, boolean, boolean)}).
+	 * 
+	 * @param nachricht
+	 *            eine Nachricht
+	 * @param ursache
+	 *            die Ursache oder <code>null</code>
+	 * @param unterdrueckung
+	 *            ob unterdrueckte Ausnahmen erfasst werden
+	 * @param stacktrace
+	 *            ob der Stacktrace erfasst wird
+	 */
+	protected GueteException(final String nachricht, final Throwable ursache,
+			final boolean unterdrueckung, final boolean stacktrace) {
+		super(nachricht, ursache, unterdrueckung, stacktrace);
+	}
+
 }
@@ -0,0 +1,384 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import de.bsvrz.dua.guete.vorschriften.Standard;
+
+/**
+ * Berechnet fuer eine feste Menge von Objekten die Gesamt-Guete ueber ein
+ * gleitendes Fenster der jeweils letzten Intervalle (z.B. 15-Minuten-Guete
+ * aus 1-Minuten-Gueten).<br>
+ * Jedes Objekt besitzt einen Ringpuffer mit den Guete-Indizes und
+ * Gewichtungen der letzten {@link #getLaenge()} Intervalle sowie laufende
+ * Summen, so dass jedes Hinzufuegen eines neuen Intervalls (und das
+ * Verdraengen des aeltesten) unabhaengig von der Fensterlaenge mit einer
+ * festen Anzahl von Rechenschritten auskommt; die Summen werden nie aus dem
+ * Ringpuffer neu berechnet. Nicht verrechenbare Werte werden mitgezaehlt:
+ * Solange sich ein solcher Wert im Fenster befindet, ist auch die
+ * Gesamt-Guete des Fensters nicht verrechenbar.<br>
+ * Die Gesamt-Guete entspricht {@link GueteVerfahren#summe(GWert...)} ueber
+ * alle Werte des Fensters nach den Vorschriften des Standardverfahrens. Die
+ * laufenden Summen werden durch Addieren und Subtrahieren fortgeschrieben
+ * und dabei kompensiert (nach Neumaier) gefuehrt: Der Rundungsfehler jeder
+ * Addition wird in einer Korrektursumme aufgefangen. Dadurch sammeln sich
+ * auch ueber beliebig viele Intervalle keine Rundungsfehler an, die
+ * Gesamt-Guete weicht nur in den letzten Stellen von der direkten Berechnung
+ * ab.<br>
+ * Die Klasse ist nicht threadsicher.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GueteFenster {
+
+	/**
+	 * Das Berechnungs-Verfahren aller Werte.
+	 */
+	private final GueteVerfahren verfahren;
+
+	/**
+	 * Die Anzahl der Intervalle im Fenster.
+	 */
+	private final int laenge;
+
+	/**
+	 * Die Guete-Indizes der Ringpuffer (Objekt fuer Objekt hintereinander).
+	 */
+	private final double[] indizes;
+
+	/**
+	 * Die Gewichtungen der Ringpuffer (Objekt fuer Objekt hintereinander).
+	 */
+	private final double[] gewichte;
+
+	/**
+	 * Die naechste Schreibposition je Objekt.
+	 */
+	private final int[] position;
+
+	/**
+	 * Die Anzahl der Werte im Fenster je Objekt.
+	 */
+	private final int[] fuellstand;
+
+	/**
+	 * Die Summe der verrechenbaren Guete-Indizes je Objekt.
+	 */
+	private final double[] summe;
+
+	/**
+	 * Die Summe der gewichteten verrechenbaren Guete-Indizes je Objekt.
+	 */
+	private final double[] summeGewichtet;
+
+	/**
+	 * Die Summe der Gewichtungen der verrechenbaren Werte je Objekt.
+	 */
+	private final double[] summeGewichte;
+
+	/**
+	 * Die Korrektur (aufgefangene Rundungsfehler) von {@link #summe} je
+	 * Objekt.
+	 */
+	private final double[] summeKorrektur;
+
+	/**
+	 * Die Korrektur von {@link #summeGewichtet} je Objekt.
+	 */
+	private final double[] summeGewichtetKorrektur;
+
+	/**
+	 * Die Korrektur von {@link #summeGewichte} je Objekt.
+	 */
+	private final double[] summeGewichteKorrektur;
+
+	/**
+	 * Die Anzahl der nicht verrechenbaren Werte im Fenster je Objekt.
+	 */
+	private final int[] nichtVerrechenbar;
+
+	/**
+	 * Die Anzahl der gewichteten Werte (Gewichtung ungleich 1.0) im Fenster
+	 * je Objekt.
+	 */
+	private final int[] gewichtet;
+
+	/**
+	 * Standardkonstruktor.
+	 *
+	 * @param verfahren
+	 *            das Berechnungs-Verfahren aller Werte (muss nach den
+	 *            Vorschriften des Standardverfahrens rechnen)
+	 * @param objektAnzahl
+	 *            die Anzahl der Objekte
+	 * @param laenge
+	 *            die Anzahl der Intervalle im Fenster
+	 */
+	public GueteFenster(final GueteVerfahren verfahren,
+			final int objektAnzahl, final int laenge) {
+		if (verfahren.getBerechnungsVorschrift().getClass() != Standard.class) {
+			throw new IllegalArgumentException(
+					"Das Fenster unterstuetzt nur Verfahren nach der Standard-Vorschrift: " //$NON-NLS-1$
+							+ verfahren);
+		}
+		if (objektAnzahl < 0 || laenge < 1) {
+			throw new IllegalArgumentException("Ungueltige Groesse: " //$NON-NLS-1$
+					+ objektAnzahl + " Objekte mit je " + laenge //$NON-NLS-1$
+					+ " Intervallen"); //$NON-NLS-1$
+		}
+		this.verfahren = verfahren;
+		this.laenge = laenge;
+		indizes = new double[objektAnzahl * laenge];
+		gewichte = new double[objektAnzahl * laenge];
+		position = new int[objektAnzahl];
+		fuellstand = new int[objektAnzahl];
+		summe = new double[objektAnzahl];
+		summeGewichtet = new double[objektAnzahl];
+		summeGewichte = new double[objektAnzahl];
+		summeKorrektur = new double[objektAnzahl];
+		summeGewichtetKorrektur = new double[objektAnzahl];
+		summeGewichteKorrektur = new double[objektAnzahl];
+		nichtVerrechenbar = new int[objektAnzahl];
+		gewichtet = new int[objektAnzahl];
+	}
+
+	/**
+	 * Erfragt die Anzahl der Intervalle im Fenster.
+	 *
+	 * @return die Anzahl der Intervalle im Fenster
+	 */
+	public final int getLaenge() {
+		return laenge;
+	}
+
+	/**
+	 * Erfragt die Anzahl der Objekte.
+	 *
+	 * @return die Anzahl der Objekte
+	 */
+	public final int getObjektAnzahl() {
+		return position.length;
+	}
+
+	/**
+	 * Erfragt die Anzahl der Werte, die sich fuer ein Objekt im Fenster
+	 * befinden.
+	 *
+	 * @param objekt
+	 *            die Nummer des Objekts
+	 * @return die Anzahl der Werte im Fenster
+	 */
+	public final int getAnzahl(final int objekt) {
+		return fuellstand[objekt];
+	}
+
+	/**
+	 * Fuegt fuer ein Objekt den Guetewert eines neuen Intervalls hinzu.
+	 *
+	 * @param objekt
+	 *            die Nummer des Objekts
+	 * @param wert
+	 *            der Guetewert
+	 * @throws GueteException
+	 *             wenn der Guetewert ein anderes Berechnungs-Verfahren
+	 *             verlangt
+	 */
+	public final void fuegeHinzu(final int objekt, final GWert wert)
+			throws GueteException {
+		if (!wert.isVerrechenbar()) {
+			fuegeHinzu(objekt, GueteRechner.NICHT_VERRECHENBAR, 1.0);
+			return;
+		}
+		if (wert.getVerfahren() != verfahren) {
+			throw GueteException.UNTERSCHIEDLICHE_VERFAHREN;
+		}
+		fuegeHinzu(objekt, wert.getIndex(), wert.getGewichtung());
+	}
+
+	/**
+	 * Fuegt fuer ein Objekt den Guete-Index eines neuen Intervalls hinzu.
+	 * Ist das Fenster bereits gefuellt, wird der aelteste Wert verdraengt.
+	 *
+	 * @param objekt
+	 *            die Nummer des Objekts
+	 * @param index
+	 *            der skalierte Guete-Index oder
+	 *            {@link GueteRechner#NICHT_VERRECHENBAR}
+	 * @param gewichtung
+	 *            die Gewichtung des Guete-Index
+	 */
+	public final void fuegeHinzu(final int objekt, final double index,
+			final double gewichtung) {
+		final int anfang = objekt * laenge;
+		final int pos = position[objekt];
+
+		if (fuellstand[objekt] == laenge) {
+			entferne(objekt, indizes[anfang + pos], gewichte[anfang + pos]);
+		} else {
+			fuellstand[objekt]++;
+		}
+
+		indizes[anfang + pos] = index;
+		gewichte[anfang + pos] = gewichtung;
+		if (GueteRechner.isVerrechenbar(index)) {
+			final double betrag = Math.abs(gewichtung);
+			addiere(summe, summeKorrektur, objekt, index);
+			addiere(summeGewichtet, summeGewichtetKorrektur, objekt, betrag
+					* index);
+			addiere(summeGewichte, summeGewichteKorrektur, objekt, betrag);
+			if (gewichtung != 1.0) {
+				gewichtet[objekt]++;
+			}
+		} else {
+			nichtVerrechenbar[objekt]++;
+		}
+
+		position[objekt] = pos + 1 == laenge ? 0 : pos + 1;
+	}
+
+	/**
+	 * Erfragt fuer ein Objekt die skalierte Gesamt-Guete ueber alle Werte
+	 * im Fenster.
+	 *
+	 * @param objekt
+	 *            die Nummer des Objekts
+	 * @return die Gesamt-Guete, 1.0 fuer ein leeres Fenster oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public final double getSummenIndex(final int objekt) {
+		if (nichtVerrechenbar[objekt] > 0) {
+			return GueteRechner.NICHT_VERRECHENBAR;
+		}
+		if (gewichtet[objekt] > 0) {
+			final double gewichteGesamt = summeGewichte[objekt]
+					+ summeGewichteKorrektur[objekt];
+			if (gewichteGesamt == 0) {
+				return 1.0;
+			}
+			return (summeGewichtet[objekt] + summeGewichtetKorrektur[objekt])
+					/ gewichteGesamt;
+		}
+		if (fuellstand[objekt] == 0) {
+			return 1.0;
+		}
+		return (summe[objekt] + summeKorrektur[objekt]) / fuellstand[objekt];
+	}
+
+	/**
+	 * Erfragt fuer ein Objekt die Gesamt-Guete ueber alle Werte im Fenster.
+	 *
+	 * @param objekt
+	 *            die Nummer des Objekts
+	 * @return die Gesamt-Guete
+	 */
+	public final GWert getSumme(final int objekt) {
+		final double index = getSummenIndex(objekt);
+		if (!GueteRechner.isVerrechenbar(index)) {
+			return GueteVerfahren.getNichtErmittelbar(verfahren);
+		}
+		try {
+			return new GWert(index, verfahren);
+		} catch (final GueteException e) {
+			// kann nicht passieren, das Verfahren ist immer gesetzt
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Leert das Fenster eines Objekts.
+	 *
+	 * @param objekt
+	 *            die Nummer des Objekts
+	 */
+	public final void zuruecksetzen(final int objekt) {
+		position[objekt] = 0;
+		fuellstand[objekt] = 0;
+		summe[objekt] = 0.0;
+		summeGewichtet[objekt] = 0.0;
+		summeGewichte[objekt] = 0.0;
+		summeKorrektur[objekt] = 0.0;
+		summeGewichtetKorrektur[objekt] = 0.0;
+		summeGewichteKorrektur[objekt] = 0.0;
+		nichtVerrechenbar[objekt] = 0;
+		gewichtet[objekt] = 0;
+	}
+
+	/**
+	 * Nimmt einen verdraengten Wert aus den laufenden Summen heraus.
+	 *
+	 * @param objekt
+	 *            die Nummer des Objekts
+	 * @param index
+	 *            der Guete-Index des verdraengten Wertes
+	 * @param gewichtung
+	 *            die Gewichtung des verdraengten Wertes
+	 */
+	private void entferne(final int objekt, final double index,
+			final double gewichtung) {
+		if (GueteRechner.isVerrechenbar(index)) {
+			final double betrag = Math.abs(gewichtung);
+			addiere(summe, summeKorrektur, objekt, -index);
+			addiere(summeGewichtet, summeGewichtetKorrektur, objekt,
+					-(betrag * index));
+			addiere(summeGewichte, summeGewichteKorrektur, objekt, -betrag);
+			if (gewichtung != 1.0) {
+				gewichtet[objekt]--;
+			}
+		} else {
+			nichtVerrechenbar[objekt]--;
+		}
+	}
+
+	/**
+	 * Addiert einen Wert kompensiert (nach Neumaier) zur laufenden Summe
+	 * eines Objekts. Der Rundungsfehler der Addition wird exakt bestimmt
+	 * und in der Korrektur aufgefangen; der Wert der Summe ist die Summe aus
+	 * laufender Summe und Korrektur.
+	 *
+	 * @param summen
+	 *            die laufenden Summen
+	 * @param korrekturen
+	 *            die Korrekturen der laufenden Summen
+	 * @param objekt
+	 *            die Nummer des Objekts
+	 * @param wert
+	 *            der zu addierende Wert
+	 */
+	private static void addiere(final double[] summen,
+			final double[] korrekturen, final int objekt, final double wert) {
+		final double alt = summen[objekt];
+		final double neu = alt + wert;
+		if (Math.abs(alt) >= Math.abs(wert)) {
+			korrekturen[objekt] += alt - neu + wert;
+		} else {
+			korrekturen[objekt] += wert - neu + alt;
+		}
+		summen[objekt] = neu;
+	}
+
+}
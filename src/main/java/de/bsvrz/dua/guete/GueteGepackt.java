@@ -0,0 +1,639 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import de.bsvrz.dua.guete.vorschriften.Festkomma;
+
+/**
+ * Gepackte Darstellung eines Guetewertes als <code>long</code>.<br>
+ * Damit lassen sich die Gueten grosser Objektmengen ohne Objekt-Overhead in
+ * primitiven Feldern oder Collections halten. Der Aufbau ist:
+ * <ul>
+ * <li>Bits 0-15: der unskalierte Guete-Index als <code>short</code> (ggf.
+ * ein Zustand, also <code>-1</code> bis <code>-3</code>),</li>
+ * <li>Bits 16-23: der Code des Guete-Verfahrens,</li>
+ * <li>Bits 24-31: Kennzeichen (siehe {@link #NICHT_VERRECHENBAR}),</li>
+ * <li>Bits 32-63: die Gewichtung als <code>float</code>.</li>
+ * </ul>
+ * Die Umwandlung von und nach {@link GWert} ist fuer Guetewerte verlustfrei,
+ * deren Index auf dem Raster des DAV-Attributs <code>Güte.Index</code>
+ * liegt (also insbesondere fuer alle aus DAV-Daten gelesenen Werte) und
+ * deren Gewichtung als <code>float</code> darstellbar ist. Zwischenergebnisse
+ * werden wie beim Export in ein DAV-Datum auf dieses Raster gerundet.<br>
+ * Die Berechnungen entsprechen denen von {@link GueteVerfahren}, erwarten
+ * und liefern aber gepackte Werte. Fuer das Verfahren
+ * {@link GueteVerfahren#STANDARD} werden dabei keine Objekte erzeugt, fuer
+ * Verfahren mit der Berechnungsvorschrift {@link Festkomma} wird direkt auf
+ * den unskalierten Indizes gerechnet.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteGepackt {
+
+	/**
+	 * Kennzeichen fuer einen nicht verrechenbaren Guete-Index.
+	 */
+	public static final int NICHT_VERRECHENBAR = 0x01;
+
+	/**
+	 * Gepackter Guetewert <code>nicht ermittelbar/fehlerhaft</code> mit
+	 * Standardverfahren.
+	 */
+	public static final long STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR = packe(
+			GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT,
+			GueteVerfahren.STANDARD.getCode(), 1.0);
+
+	/**
+	 * Gepackter Guetewert <code>1.0</code> mit Standardverfahren (Ergebnis
+	 * fuer eine leere Menge).
+	 */
+	private static final long STD_MAX = packe(GueteIndex.MAX_UNSKALIERT,
+			GueteVerfahren.STANDARD.getCode(), 1.0);
+
+	/**
+	 * Code des Standardverfahrens.
+	 */
+	private static final int STANDARD = GueteVerfahren.STANDARD.getCode();
+
+	/**
+	 * Position des Verfahrens.
+	 */
+	private static final int VERFAHREN_BITS = 16;
+
+	/**
+	 * Position der Kennzeichen.
+	 */
+	private static final int KENNZEICHEN_BITS = 24;
+
+	/**
+	 * Position der Gewichtung.
+	 */
+	private static final int GEWICHTUNG_BITS = 32;
+
+	/**
+	 * Maske fuer ein Byte.
+	 */
+	private static final int BYTE = 0xFF;
+
+	/**
+	 * Markierung im Ergebnis von {@link #pruefe(long[], int, int)} fuer eine
+	 * Menge mit nicht verrechenbarem Wert.
+	 */
+	private static final int MENGE_NICHT_VERRECHENBAR = 0x100;
+
+	/**
+	 * Standardkonstruktor.
+	 */
+	private GueteGepackt() {
+		// keine Instanzen
+	}
+
+	/**
+	 * Packt einen Guetewert.
+	 *
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index (ggf. ein Zustand). Werte
+	 *            ausserhalb des Wertebereichs von <code>short</code> werden
+	 *            als <code>nicht ermittelbar/fehlerhaft</code> gepackt
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens (<code>0</code> bis
+	 *            {@link GueteVerfahren#MAX_CODE})
+	 * @param gewichtung
+	 *            die Gewichtung
+	 * @return der gepackte Guetewert
+	 */
+	public static long packe(final long indexUnskaliert, final int verfahren,
+			final double gewichtung) {
+		if (verfahren < 0 || verfahren > GueteVerfahren.MAX_CODE) {
+			throw new IllegalArgumentException(
+					"Ungueltiger Code fuer ein Guete-Verfahren: " + verfahren); //$NON-NLS-1$
+		}
+
+		long index = indexUnskaliert;
+		if (index < Short.MIN_VALUE || index > Short.MAX_VALUE) {
+			index = GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+		}
+		final int kennzeichen = GueteIndex.isZustand(index) ? NICHT_VERRECHENBAR
+				: 0;
+
+		return (index & 0xFFFFL) | ((long) verfahren << VERFAHREN_BITS)
+				| ((long) kennzeichen << KENNZEICHEN_BITS)
+				| ((long) Float.floatToIntBits((float) gewichtung) << GEWICHTUNG_BITS);
+	}
+
+	/**
+	 * Packt einen Guetewert.
+	 *
+	 * @param wert
+	 *            der Guetewert (<code>!= null</code>). Bei einem aus einem
+	 *            DAV-Datum gelesenen, noch nicht dekodierten Wert wird der
+	 *            Code des Verfahrens aus dem DAV-Datum uebernommen, auch wenn
+	 *            kein Verfahren mit diesem Code registriert ist
+	 * @return der gepackte Guetewert
+	 */
+	public static long packe(final GWert wert) {
+		return packe(wert.getIndexUnskaliert(), wert.getVerfahrenCode(),
+				wert.getGewichtung());
+	}
+
+	/**
+	 * Entpackt einen Guetewert. Ungewichtete Werte werden als gemeinsam
+	 * genutzte Instanzen geliefert (siehe {@link GueteVerfahren#getGWert(long)}).
+	 *
+	 * @param gepackt
+	 *            der gepackte Guetewert
+	 * @return der Guetewert
+	 */
+	public static GWert entpacke(final long gepackt) {
+		final GueteVerfahren verfahren = GueteVerfahren
+				.getZustand(getVerfahren(gepackt));
+		final double gewichtung = getGewichtung(gepackt);
+		if (gewichtung == 1.0) {
+			return GueteVerfahren.getGWert(getIndexUnskaliert(gepackt),
+					verfahren);
+		}
+		return new GWert(getIndexUnskaliert(gepackt), verfahren, gewichtung);
+	}
+
+	/**
+	 * Erfragt den unskalierten Guete-Index.
+	 *
+	 * @param gepackt
+	 *            der gepackte Guetewert
+	 * @return der unskalierte Guete-Index (ggf. ein Zustand)
+	 */
+	public static long getIndexUnskaliert(final long gepackt) {
+		return (short) gepackt;
+	}
+
+	/**
+	 * Erfragt den skalierten Guete-Index.
+	 *
+	 * @param gepackt
+	 *            der gepackte Guetewert
+	 * @return der skalierte Guete-Index oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public static double getIndex(final long gepackt) {
+		return GueteIndex.skaliere(getIndexUnskaliert(gepackt));
+	}
+
+	/**
+	 * Erfragt den Code des Guete-Verfahrens.
+	 *
+	 * @param gepackt
+	 *            der gepackte Guetewert
+	 * @return der Code des Guete-Verfahrens
+	 */
+	public static int getVerfahren(final long gepackt) {
+		return (int) (gepackt >>> VERFAHREN_BITS) & BYTE;
+	}
+
+	/**
+	 * Erfragt die Kennzeichen.
+	 *
+	 * @param gepackt
+	 *            der gepackte Guetewert
+	 * @return die Kennzeichen
+	 */
+	public static int getKennzeichen(final long gepackt) {
+		return (int) (gepackt >>> KENNZEICHEN_BITS) & BYTE;
+	}
+
+	/**
+	 * Erfragt, ob der Guetewert verrechenbar ist.
+	 *
+	 * @param gepackt
+	 *            der gepackte Guetewert
+	 * @return ob der Guetewert verrechenbar ist
+	 */
+	public static boolean isVerrechenbar(final long gepackt) {
+		return (getKennzeichen(gepackt) & NICHT_VERRECHENBAR) == 0;
+	}
+
+	/**
+	 * Erfragt die Gewichtung.
+	 *
+	 * @param gepackt
+	 *            der gepackte Guetewert
+	 * @return die Gewichtung
+	 */
+	public static double getGewichtung(final long gepackt) {
+		return Float.intBitsToFloat((int) (gepackt >>> GEWICHTUNG_BITS));
+	}
+
+	/**
+	 * Erfragt eine gewichtete Version des uebergebenen Guetewerts (siehe
+	 * {@link GueteVerfahren#gewichte(GWert, double)}).
+	 *
+	 * @param gepackt
+	 *            der gepackte Guetewert
+	 * @param gewichtung
+	 *            die neue Gewichtung
+	 * @return der gepackte, gewichtete Guetewert
+	 */
+	public static long gewichte(final long gepackt, final double gewichtung) {
+		return (gepackt & 0xFFFFFFFFL)
+				| ((long) Float.floatToIntBits((float) gewichtung) << GEWICHTUNG_BITS);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer eine Verknuepfung mit dem Operator "
+	 * <code>*</code>" (siehe {@link GueteVerfahren#produkt(GWert...)}).
+	 *
+	 * @param werte
+	 *            die gepackten Guetewerte
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die gepackte Gesamt-Guete
+	 * @throws GueteException
+	 *             wenn die Verfahren der uebergebenen Werte nicht identisch
+	 *             sind
+	 */
+	public static long produkt(final long[] werte, final int offset,
+			final int anzahl) throws GueteException {
+		if (anzahl == 0) {
+			return STD_MAX;
+		}
+		final int pruefung = pruefe(werte, offset, anzahl);
+		if ((pruefung & MENGE_NICHT_VERRECHENBAR) != 0) {
+			return nichtErmittelbar(pruefung & BYTE);
+		}
+		if (pruefung == STANDARD) {
+			double produkt = 1.0;
+			for (int i = offset; i < offset + anzahl; i++) {
+				produkt *= getIndex(werte[i]);
+			}
+			return ergebnis(produkt, pruefung);
+		}
+		if (isFestkomma(pruefung)) {
+			return packe(festkommaProdukt(werte, offset, anzahl), pruefung,
+					1.0);
+		}
+		return ergebnis(GueteRechner.produkt(pruefung, indizes(werte, offset,
+				anzahl), 0, anzahl), pruefung);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer eine Verknuepfung mit dem Operator "
+	 * <code>/</code>" (siehe {@link GueteVerfahren#quotient(GWert...)}).
+	 *
+	 * @param werte
+	 *            die gepackten Guetewerte
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die gepackte Gesamt-Guete
+	 * @throws GueteException
+	 *             wenn die Verfahren der uebergebenen Werte nicht identisch
+	 *             sind
+	 */
+	public static long quotient(final long[] werte, final int offset,
+			final int anzahl) throws GueteException {
+		if (anzahl == 0) {
+			return STD_MAX;
+		}
+		final int pruefung = pruefe(werte, offset, anzahl);
+		if ((pruefung & MENGE_NICHT_VERRECHENBAR) != 0) {
+			return nichtErmittelbar(pruefung & BYTE);
+		}
+		if (pruefung == STANDARD) {
+			double produkt = 1.0;
+			for (int i = offset; i < offset + anzahl; i++) {
+				produkt *= getIndex(werte[i]);
+			}
+			return ergebnis(produkt, pruefung);
+		}
+		if (isFestkomma(pruefung)) {
+			return packe(festkommaProdukt(werte, offset, anzahl), pruefung,
+					1.0);
+		}
+		return ergebnis(GueteRechner.quotient(pruefung, indizes(werte,
+				offset, anzahl), 0, anzahl), pruefung);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer eine Verknuepfung mit dem Operator "
+	 * <code>+</code>" (siehe {@link GueteVerfahren#summe(GWert...)}).
+	 *
+	 * @param werte
+	 *            die gepackten Guetewerte
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die gepackte Gesamt-Guete
+	 * @throws GueteException
+	 *             wenn die Verfahren der uebergebenen Werte nicht identisch
+	 *             sind
+	 */
+	public static long summe(final long[] werte, final int offset,
+			final int anzahl) throws GueteException {
+		if (anzahl == 0) {
+			return STD_MAX;
+		}
+		final int pruefung = pruefe(werte, offset, anzahl);
+		if ((pruefung & MENGE_NICHT_VERRECHENBAR) != 0) {
+			return nichtErmittelbar(pruefung & BYTE);
+		}
+		if (pruefung == STANDARD) {
+			return ergebnis(s(werte, offset, anzahl), pruefung);
+		}
+		if (isFestkomma(pruefung)) {
+			return packe(festkommaSumme(werte, offset, anzahl), pruefung, 1.0);
+		}
+		return ergebnis(GueteRechner.summe(pruefung, indizes(werte, offset,
+				anzahl), gewichte(werte, offset, anzahl), 0, anzahl),
+				pruefung);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer eine Verknuepfung mit dem Operator "
+	 * <code>-</code>" (siehe {@link GueteVerfahren#differenz(GWert...)}).
+	 *
+	 * @param werte
+	 *            die gepackten Guetewerte
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die gepackte Gesamt-Guete
+	 * @throws GueteException
+	 *             wenn die Verfahren der uebergebenen Werte nicht identisch
+	 *             sind
+	 */
+	public static long differenz(final long[] werte, final int offset,
+			final int anzahl) throws GueteException {
+		if (anzahl == 0) {
+			return STD_MAX;
+		}
+		final int pruefung = pruefe(werte, offset, anzahl);
+		if ((pruefung & MENGE_NICHT_VERRECHENBAR) != 0) {
+			return nichtErmittelbar(pruefung & BYTE);
+		}
+		if (pruefung == STANDARD) {
+			return ergebnis(s(werte, offset, anzahl), pruefung);
+		}
+		if (isFestkomma(pruefung)) {
+			return packe(festkommaSumme(werte, offset, anzahl), pruefung, 1.0);
+		}
+		return ergebnis(GueteRechner.differenz(pruefung, indizes(werte,
+				offset, anzahl), gewichte(werte, offset, anzahl), 0, anzahl),
+				pruefung);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer einen mit dem Exponenten
+	 * <b>exponent</b> potenzierten Wert (siehe
+	 * {@link GueteVerfahren#exp(GWert, double)}).
+	 *
+	 * @param wert
+	 *            der gepackte Guetewert
+	 * @param exponent
+	 *            der Exponent
+	 * @return die gepackte Gesamt-Guete
+	 */
+	public static long exp(final long wert, final double exponent) {
+		final int verfahren = getVerfahren(wert);
+		if (!isVerrechenbar(wert)) {
+			return nichtErmittelbar(verfahren);
+		}
+		if (isFestkomma(verfahren)) {
+			return packe(Festkomma.exp(getIndexUnskaliert(wert), exponent),
+					verfahren, 1.0);
+		}
+		return ergebnis(GueteRechner.exp(verfahren, getIndex(wert), exponent),
+				verfahren);
+	}
+
+	/**
+	 * Prueft eine Menge gepackter Guetewerte wie {@link WerteMenge}: Die
+	 * Pruefung endet mit dem ersten nicht verrechenbaren Wert.
+	 *
+	 * @param werte
+	 *            die gepackten Guetewerte
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente (<code>&gt; 0</code>)
+	 * @return der Code des gemeinsamen Verfahrens, ggf. markiert mit
+	 *         {@link #MENGE_NICHT_VERRECHENBAR}
+	 * @throws GueteException
+	 *             wenn die Verfahren der uebergebenen Werte nicht identisch
+	 *             sind
+	 */
+	private static int pruefe(final long[] werte, final int offset,
+			final int anzahl) throws GueteException {
+		int verfahren = -1;
+		for (int i = offset; i < offset + anzahl; i++) {
+			if (!isVerrechenbar(werte[i])) {
+				return (verfahren < 0 ? STANDARD : verfahren)
+						| MENGE_NICHT_VERRECHENBAR;
+			}
+			if (verfahren < 0) {
+				verfahren = getVerfahren(werte[i]);
+			} else if (verfahren != getVerfahren(werte[i])) {
+				throw GueteException.UNTERSCHIEDLICHE_VERFAHREN;
+			}
+		}
+		return verfahren;
+	}
+
+	/**
+	 * Summe nach dem Standardverfahren (siehe
+	 * {@link de.bsvrz.dua.guete.vorschriften.Standard#s(double...)} bzw.
+	 * {@link de.bsvrz.dua.guete.vorschriften.Standard#sw(double[]...)}).
+	 *
+	 * @param werte
+	 *            die gepackten, verrechenbaren Guetewerte
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente (<code>&gt; 0</code>)
+	 * @return der skalierte Guete-Index der Summe
+	 */
+	private static double s(final long[] werte, final int offset,
+			final int anzahl) {
+		double summe = 0.0;
+		double summeGewichtet = 0.0;
+		double summeGewichte = 0.0;
+		boolean gewichtet = false;
+		for (int i = offset; i < offset + anzahl; i++) {
+			final double index = getIndex(werte[i]);
+			final double gewichtung = getGewichtung(werte[i]);
+			if (gewichtung != 1.0) {
+				gewichtet = true;
+			}
+			summe += index;
+			summeGewichtet += Math.abs(gewichtung) * index;
+			summeGewichte += Math.abs(gewichtung);
+		}
+		if (!gewichtet) {
+			return summe / anzahl;
+		}
+		if (summeGewichte != 0) {
+			return summeGewichtet / summeGewichte;
+		}
+		return 1.0;
+	}
+
+	/**
+	 * Erfragt, ob ein Verfahren die Berechnungsvorschrift {@link Festkomma}
+	 * verwendet. Unterklassen koennen die Vorschrift aendern und werden
+	 * deshalb wie alle anderen Verfahren behandelt.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @return ob direkt auf den unskalierten Indizes gerechnet wird
+	 */
+	private static boolean isFestkomma(final int verfahren) {
+		final GueteVerfahren gueteVerfahren = GueteVerfahren
+				.getZustand(verfahren);
+		return gueteVerfahren != null
+				&& gueteVerfahren.getBerechnungsVorschrift().getClass() == Festkomma.class;
+	}
+
+	/**
+	 * Produkt nach {@link Festkomma#produkt(long[], int, int)}.
+	 *
+	 * @param werte
+	 *            die gepackten, verrechenbaren Guetewerte
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return der unskalierte Guete-Index des Produkts
+	 */
+	private static long festkommaProdukt(final long[] werte, final int offset,
+			final int anzahl) {
+		long produkt = Festkomma.EINS;
+		for (int i = offset; i < offset + anzahl; i++) {
+			produkt = Festkomma.mal(produkt, getIndexUnskaliert(werte[i]));
+		}
+		return produkt;
+	}
+
+	/**
+	 * Summe nach {@link Festkomma#summe(long[], long[], int, int)}.
+	 * Ungewichtete Werte gehen mit der Gewichtung {@link Festkomma#EINS} ein,
+	 * was dem ungewichteten Mittel entspricht.
+	 *
+	 * @param werte
+	 *            die gepackten, verrechenbaren Guetewerte
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return der unskalierte Guete-Index der Summe
+	 */
+	private static long festkommaSumme(final long[] werte, final int offset,
+			final int anzahl) {
+		long summe = 0;
+		long summeGewichte = 0;
+		for (int i = offset; i < offset + anzahl; i++) {
+			final long gewicht = Festkomma.gewicht(getGewichtung(werte[i]));
+			summe += gewicht * getIndexUnskaliert(werte[i]);
+			summeGewichte += gewicht;
+		}
+		if (summeGewichte == 0) {
+			return Festkomma.EINS;
+		}
+		return Festkomma.teile(summe, summeGewichte);
+	}
+
+	/**
+	 * Erzeugt die skalierten Guete-Indizes fuer {@link GueteRechner}.
+	 *
+	 * @param werte
+	 *            die gepackten Guetewerte
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return die skalierten Guete-Indizes
+	 */
+	private static double[] indizes(final long[] werte, final int offset,
+			final int anzahl) {
+		final double[] indizes = new double[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			indizes[i] = getIndex(werte[offset + i]);
+		}
+		return indizes;
+	}
+
+	/**
+	 * Erzeugt die Gewichtungen fuer {@link GueteRechner}.
+	 *
+	 * @param werte
+	 *            die gepackten Guetewerte
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return die Gewichtungen
+	 */
+	private static double[] gewichte(final long[] werte, final int offset,
+			final int anzahl) {
+		final double[] gewichte = new double[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			gewichte[i] = getGewichtung(werte[offset + i]);
+		}
+		return gewichte;
+	}
+
+	/**
+	 * Packt ein Berechnungsergebnis.
+	 *
+	 * @param index
+	 *            der skalierte Guete-Index
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @return das gepackte Ergebnis
+	 */
+	private static long ergebnis(final double index, final int verfahren) {
+		return packe(GueteIndex.unskaliere(index), verfahren, 1.0);
+	}
+
+	/**
+	 * Erzeugt einen gepackten Guetewert
+	 * <code>nicht ermittelbar/fehlerhaft</code>.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @return der gepackte Guetewert
+	 */
+	private static long nichtErmittelbar(final int verfahren) {
+		return packe(GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT, verfahren,
+				1.0);
+	}
+
+}
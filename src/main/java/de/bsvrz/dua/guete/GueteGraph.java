@@ -0,0 +1,435 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.HashMap;
+import java.util.List;
+import java.util.Map;
+
+import de.bsvrz.dua.guete.formel.GueteFormel;
+
+/**
+ * Berechnet abgeleitete Gueten, die ueber Formeln (siehe
+ * {@link GueteFormel}) von Eingangs-Gueten und anderen abgeleiteten Gueten
+ * abhaengen, inkrementell.<br>
+ * Die abgeleiteten Werte werden einmal deklariert, z.B.
+ * <code>ableitung("qKfz", "s(qLkw, qPkw)")</code>. Die Variablen einer
+ * Formel bezeichnen bereits deklarierte Werte; unbekannte Namen werden als
+ * neue Eingaenge angelegt. Da eine Formel nur auf bereits deklarierte Werte
+ * verweisen kann, ist der Graph frei von Zyklen und die Reihenfolge der
+ * Deklaration eine gueltige Berechnungsreihenfolge.<br>
+ * Danach werden nur noch die Guete-Indizes der Eingaenge gesetzt;
+ * {@link #berechne()} berechnet ausschliesslich die Werte neu, die von einem
+ * geaenderten Wert abhaengen, und setzt die Neuberechnung nur fort, wenn
+ * sich ein Ergebnis tatsaechlich geaendert hat. Der Aufwand je Datensatz
+ * haengt damit von der Anzahl der geaenderten Eingaenge ab und nicht von
+ * der Anzahl der Formeln. Alle Guete-Indizes werden in primitiven Feldern
+ * gehalten, bei der Berechnung werden keine Objekte erzeugt.<br>
+ * Die Klasse ist nicht threadsicher.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteGraph {
+
+	/**
+	 * Das Berechnungs-Verfahren aller Werte.
+	 */
+	private final GueteVerfahren verfahren;
+
+	/**
+	 * Die Nummern der Werte je Name.
+	 */
+	private final Map<String, Integer> namen = new HashMap<String, Integer>();
+
+	/**
+	 * Die Anzahl der Werte (Eingaenge und abgeleitete Werte).
+	 */
+	private int anzahl;
+
+	/**
+	 * Die aktuellen Guete-Indizes der Werte.
+	 */
+	private double[] werte = new double[16];
+
+	/**
+	 * Die Formel je abgeleitetem Wert bzw. <code>null</code> fuer einen
+	 * Eingang.
+	 */
+	private GueteFormel[] formeln = new GueteFormel[16];
+
+	/**
+	 * Die Nummern der Werte je Slot der Formel eines abgeleiteten Wertes.
+	 */
+	private int[][] quellen = new int[16][];
+
+	/**
+	 * Die Guete-Indizes je Slot der Formel eines abgeleiteten Wertes fuer die
+	 * Auswertung.
+	 */
+	private double[][] argumente = new double[16][];
+
+	/**
+	 * Die Nummern der direkt abhaengigen Werte je Wert.
+	 */
+	private int[][] abhaengige = new int[16][];
+
+	/**
+	 * Die Anzahl der direkt abhaengigen Werte je Wert.
+	 */
+	private int[] abhaengigeAnzahl = new int[16];
+
+	/**
+	 * Die neu zu berechnenden Werte.
+	 */
+	private final BitSet schmutzig = new BitSet();
+
+	/**
+	 * Erzeugt einen leeren Graphen.
+	 *
+	 * @param verfahren
+	 *            das Berechnungs-Verfahren aller Werte
+	 * @throws IllegalArgumentException
+	 *             wenn kein Verfahren angegeben wurde
+	 */
+	public GueteGraph(final GueteVerfahren verfahren) {
+		if (verfahren == null) {
+			throw new IllegalArgumentException(
+					"Es wurde kein Verfahren zur Berechnung der Guete angegeben"); //$NON-NLS-1$
+		}
+		this.verfahren = verfahren;
+	}
+
+	/**
+	 * Erfragt das Berechnungs-Verfahren aller Werte.
+	 *
+	 * @return das Berechnungs-Verfahren
+	 */
+	public GueteVerfahren getVerfahren() {
+		return verfahren;
+	}
+
+	/**
+	 * Erfragt die Anzahl der Werte (Eingaenge und abgeleitete Werte).
+	 *
+	 * @return die Anzahl der Werte
+	 */
+	public int getAnzahl() {
+		return anzahl;
+	}
+
+	/**
+	 * Erfragt die Nummer eines Wertes.
+	 *
+	 * @param name
+	 *            der Name des Wertes
+	 * @return die Nummer oder <code>-1</code>, wenn kein Wert dieses Namens
+	 *         deklariert ist
+	 */
+	public int getNummer(final String name) {
+		final Integer nummer = namen.get(name);
+		return nummer == null ? -1 : nummer.intValue();
+	}
+
+	/**
+	 * Deklariert einen Eingang. Sein Guete-Index ist bis zum ersten Setzen
+	 * nicht verrechenbar.
+	 *
+	 * @param name
+	 *            der Name des Eingangs
+	 * @return die Nummer des Eingangs (ist der Eingang bereits deklariert,
+	 *         dessen bisherige Nummer)
+	 * @throws IllegalArgumentException
+	 *             wenn unter dem Namen bereits ein abgeleiteter Wert
+	 *             deklariert ist
+	 */
+	public int eingang(final String name) {
+		final int vorhanden = getNummer(name);
+		if (vorhanden >= 0) {
+			if (formeln[vorhanden] != null) {
+				throw new IllegalArgumentException(
+						"Kein Eingang, sondern ein abgeleiteter Wert: " + name); //$NON-NLS-1$
+			}
+			return vorhanden;
+		}
+		return neuerWert(name, null);
+	}
+
+	/**
+	 * Deklariert einen abgeleiteten Wert.
+	 *
+	 * @param name
+	 *            der Name des Wertes
+	 * @param formel
+	 *            die Formel (siehe {@link GueteFormel})
+	 * @return die Nummer des Wertes
+	 * @throws IllegalArgumentException
+	 *             wenn die Formel syntaktisch nicht korrekt ist, der Name
+	 *             bereits vergeben ist oder die Formel auf den Wert selbst
+	 *             verweist
+	 */
+	public int ableitung(final String name, final String formel) {
+		return ableitung(name, new GueteFormel(formel));
+	}
+
+	/**
+	 * Deklariert einen abgeleiteten Wert.
+	 *
+	 * @param name
+	 *            der Name des Wertes
+	 * @param formel
+	 *            die Formel
+	 * @return die Nummer des Wertes
+	 * @throws IllegalArgumentException
+	 *             wenn der Name bereits vergeben ist oder die Formel auf den
+	 *             Wert selbst verweist
+	 */
+	public int ableitung(final String name, final GueteFormel formel) {
+		if (formel == null) {
+			throw new IllegalArgumentException("Es wurde keine Formel angegeben"); //$NON-NLS-1$
+		}
+		if (namen.containsKey(name)) {
+			throw new IllegalArgumentException("Name bereits vergeben: " + name); //$NON-NLS-1$
+		}
+		final List<String> variablen = formel.getVariablen();
+		if (variablen.contains(name)) {
+			throw new IllegalArgumentException(
+					"Die Formel verweist auf den Wert selbst: " + name); //$NON-NLS-1$
+		}
+
+		final int[] slots = new int[variablen.size()];
+		for (int i = 0; i < slots.length; i++) {
+			final int quelle = getNummer(variablen.get(i));
+			slots[i] = quelle >= 0 ? quelle : neuerWert(variablen.get(i), null);
+		}
+		final int nummer = neuerWert(name, formel);
+		quellen[nummer] = slots;
+		argumente[nummer] = new double[slots.length];
+		for (final int quelle : slots) {
+			neueAbhaengigkeit(quelle, nummer);
+		}
+		schmutzig.set(nummer);
+		return nummer;
+	}
+
+	/**
+	 * Setzt den Guete-Index eines Eingangs.
+	 *
+	 * @param eingang
+	 *            die Nummer des Eingangs
+	 * @param index
+	 *            der skalierte Guete-Index oder
+	 *            {@link GueteRechner#NICHT_VERRECHENBAR}
+	 * @throws IllegalArgumentException
+	 *             wenn der Wert kein Eingang ist
+	 */
+	public void setze(final int eingang, final double index) {
+		if (eingang < 0 || eingang >= anzahl || formeln[eingang] != null) {
+			throw new IllegalArgumentException("Kein Eingang: " + eingang); //$NON-NLS-1$
+		}
+		if (Double.compare(werte[eingang], index) == 0) {
+			return;
+		}
+		werte[eingang] = index;
+		markiereAbhaengige(eingang);
+	}
+
+	/**
+	 * Setzt den Guete-Index eines Eingangs aus einem unskalierten Wert.
+	 *
+	 * @param eingang
+	 *            die Nummer des Eingangs
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index (ggf. ein Zustand)
+	 * @throws IllegalArgumentException
+	 *             wenn der Wert kein Eingang ist
+	 */
+	public void setzeUnskaliert(final int eingang, final long indexUnskaliert) {
+		setze(eingang, GueteIndex.skaliere(indexUnskaliert));
+	}
+
+	/**
+	 * Setzt den Guete-Index eines Eingangs aus einem Guetewert. Die
+	 * Gewichtung des Guetewertes wird nicht beruecksichtigt, es gelten die
+	 * Gewichtungen der Formeln.
+	 *
+	 * @param eingang
+	 *            die Nummer des Eingangs
+	 * @param wert
+	 *            der Guetewert
+	 * @throws GueteException
+	 *             wenn der Guetewert ein anderes Berechnungs-Verfahren
+	 *             verlangt
+	 * @throws IllegalArgumentException
+	 *             wenn der Wert kein Eingang ist
+	 */
+	public void setze(final int eingang, final GWert wert)
+			throws GueteException {
+		if (!wert.isVerrechenbar()) {
+			setze(eingang, GueteRechner.NICHT_VERRECHENBAR);
+			return;
+		}
+		if (wert.getVerfahren() != verfahren) {
+			throw GueteException.UNTERSCHIEDLICHE_VERFAHREN;
+		}
+		setze(eingang, wert.getIndex());
+	}
+
+	/**
+	 * Erfragt den aktuellen Guete-Index eines Wertes. Fuer abgeleitete Werte
+	 * ist das der Stand der letzten Berechnung.
+	 *
+	 * @param nummer
+	 *            die Nummer des Wertes
+	 * @return der skalierte Guete-Index oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public double getIndex(final int nummer) {
+		if (nummer < 0 || nummer >= anzahl) {
+			throw new IllegalArgumentException("Unbekannter Wert: " + nummer); //$NON-NLS-1$
+		}
+		return werte[nummer];
+	}
+
+	/**
+	 * Erfragt den aktuellen Guetewert eines Wertes (siehe
+	 * {@link #getIndex(int)}).
+	 *
+	 * @param nummer
+	 *            die Nummer des Wertes
+	 * @return der Guetewert
+	 */
+	public GWert getGWert(final int nummer) {
+		final double index = getIndex(nummer);
+		if (Double.isNaN(index)) {
+			return GueteVerfahren.getNichtErmittelbar(verfahren);
+		}
+		try {
+			return new GWert(index, verfahren);
+		} catch (final GueteException e) {
+			// kann nicht passieren, das Verfahren ist immer gesetzt
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Berechnet alle abgeleiteten Werte neu, die seit der letzten Berechnung
+	 * von einem geaenderten Guete-Index abhaengen. Die Neuberechnung endet an
+	 * Werten, deren Ergebnis sich nicht geaendert hat.
+	 *
+	 * @return die Anzahl der neu berechneten Werte
+	 */
+	public int berechne() {
+		final int code = verfahren.getCode();
+		int berechnet = 0;
+		// abhaengige Werte haben immer groessere Nummern, werden also im
+		// selben Durchlauf erreicht
+		for (int nummer = schmutzig.nextSetBit(0); nummer >= 0; nummer = schmutzig
+				.nextSetBit(nummer + 1)) {
+			schmutzig.clear(nummer);
+			final int[] slots = quellen[nummer];
+			final double[] indizes = argumente[nummer];
+			for (int i = 0; i < slots.length; i++) {
+				indizes[i] = werte[slots[i]];
+			}
+			final double index = formeln[nummer].berechne(code, indizes, 0);
+			berechnet++;
+			if (Double.compare(werte[nummer], index) != 0) {
+				werte[nummer] = index;
+				markiereAbhaengige(nummer);
+			}
+		}
+		return berechnet;
+	}
+
+	/**
+	 * Legt einen neuen Wert an.
+	 *
+	 * @param name
+	 *            der Name des Wertes
+	 * @param formel
+	 *            die Formel oder <code>null</code> fuer einen Eingang
+	 * @return die Nummer des Wertes
+	 */
+	private int neuerWert(final String name, final GueteFormel formel) {
+		if (name == null || name.isEmpty()) {
+			throw new IllegalArgumentException("Es wurde kein Name angegeben"); //$NON-NLS-1$
+		}
+		if (anzahl == werte.length) {
+			final int laenge = 2 * anzahl;
+			werte = Arrays.copyOf(werte, laenge);
+			formeln = Arrays.copyOf(formeln, laenge);
+			quellen = Arrays.copyOf(quellen, laenge);
+			argumente = Arrays.copyOf(argumente, laenge);
+			abhaengige = Arrays.copyOf(abhaengige, laenge);
+			abhaengigeAnzahl = Arrays.copyOf(abhaengigeAnzahl, laenge);
+		}
+		final int nummer = anzahl++;
+		werte[nummer] = GueteRechner.NICHT_VERRECHENBAR;
+		formeln[nummer] = formel;
+		namen.put(name, nummer);
+		return nummer;
+	}
+
+	/**
+	 * Traegt einen abhaengigen Wert ein.
+	 *
+	 * @param quelle
+	 *            die Nummer des Wertes, von dem abgehangen wird
+	 * @param ziel
+	 *            die Nummer des abhaengigen Wertes
+	 */
+	private void neueAbhaengigkeit(final int quelle, final int ziel) {
+		int[] liste = abhaengige[quelle];
+		final int laenge = abhaengigeAnzahl[quelle];
+		if (liste == null) {
+			liste = new int[4];
+		} else if (laenge == liste.length) {
+			liste = Arrays.copyOf(liste, 2 * laenge);
+		}
+		liste[laenge] = ziel;
+		abhaengige[quelle] = liste;
+		abhaengigeAnzahl[quelle] = laenge + 1;
+	}
+
+	/**
+	 * Markiert alle direkt abhaengigen Werte eines Wertes zur Neuberechnung.
+	 *
+	 * @param nummer
+	 *            die Nummer des geaenderten Wertes
+	 */
+	private void markiereAbhaengige(final int nummer) {
+		final int[] liste = abhaengige[nummer];
+		for (int i = 0; i < abhaengigeAnzahl[nummer]; i++) {
+			schmutzig.set(liste[i]);
+		}
+	}
+
+}
@@ -0,0 +1,581 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import java.util.Arrays;
+import java.util.BitSet;
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveAction;
+
+/**
+ * Berechnet die Guete entlang einer festen Hierarchie von Objekten (z.B.
+ * Detektor, Fahrstreifen, Messquerschnitt, Strecke) von den Blaettern zur
+ * Wurzel.<br>
+ * Die Hierarchie wird einmal aufgebaut: Zuerst werden die Blaetter angelegt,
+ * danach jeder Knoten mit seinen (bereits angelegten) Kindern, der
+ * Verknuepfung und ggf. den Gewichtungen der Kanten. Danach werden nur noch
+ * die Guete-Indizes der Blaetter gesetzt; {@link #berechne()} berechnet
+ * ausschliesslich die Knoten neu, unterhalb derer sich ein Guete-Index
+ * geaendert hat. Die Verknuepfungen werden wie in {@link GueteVerfahren}
+ * ueber {@link GueteRechner} bzw. die Berechnungsvorschrift des Verfahrens
+ * berechnet.<br>
+ * Die Knoten werden stufenweise (nach ihrer Hoehe ueber den Blaettern)
+ * berechnet. Die Knoten einer Stufe sind voneinander unabhaengig und koennen
+ * mit {@link #berechne(ForkJoinPool)} parallel berechnet werden.<br>
+ * Die Klasse ist nicht threadsicher.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteHierarchie {
+
+	/**
+	 * Kennzeichnet ein Blatt bzw. einen Knoten ohne Eltern.
+	 */
+	private static final int KEINER = -1;
+
+	/**
+	 * Die Anzahl der Knoten einer Stufe, ab der diese parallel berechnet
+	 * wird.
+	 */
+	private static final int PARALLEL_AB = 1024;
+
+	/**
+	 * Das Berechnungs-Verfahren aller Werte.
+	 */
+	private final GueteVerfahren verfahren;
+
+	/**
+	 * Die Anzahl der Knoten (einschliesslich der Blaetter).
+	 */
+	private int anzahl;
+
+	/**
+	 * Die aktuellen Guete-Indizes der Knoten.
+	 */
+	private double[] werte = new double[16];
+
+	/**
+	 * Die Verknuepfung je Knoten bzw. {@link #KEINER} fuer ein Blatt.
+	 */
+	private int[] operation = new int[16];
+
+	/**
+	 * Die Position der ersten Kante je Knoten.
+	 */
+	private int[] erste = new int[16];
+
+	/**
+	 * Die Anzahl der Kinder je Knoten.
+	 */
+	private int[] kinder = new int[16];
+
+	/**
+	 * Der Elternknoten je Knoten bzw. {@link #KEINER}.
+	 */
+	private int[] eltern = new int[16];
+
+	/**
+	 * Die Position der Kante zum Elternknoten je Knoten.
+	 */
+	private int[] kante = new int[16];
+
+	/**
+	 * Die Hoehe je Knoten ueber den Blaettern (Blaetter haben die Hoehe 0).
+	 */
+	private int[] hoehe = new int[16];
+
+	/**
+	 * Zeigt je Knoten an, ob sich der Guete-Index bei der letzten Berechnung
+	 * geaendert hat.
+	 */
+	private boolean[] geaendert = new boolean[16];
+
+	/**
+	 * Die Anzahl der Kanten.
+	 */
+	private int kanten;
+
+	/**
+	 * Die Guete-Indizes der Kinder je Kante. Die Kanten eines Knotens liegen
+	 * hintereinander, so dass sie direkt mit {@link GueteRechner} verrechnet
+	 * werden koennen.
+	 */
+	private double[] eingaben = new double[16];
+
+	/**
+	 * Die Gewichtungen je Kante.
+	 */
+	private double[] gewichte = new double[16];
+
+	/**
+	 * Die neu zu berechnenden Knoten.
+	 */
+	private final BitSet schmutzig = new BitSet();
+
+	/**
+	 * Die neu zu berechnenden Knoten je Stufe (erst bei Bedarf angelegt).
+	 */
+	private int[][] stufen;
+
+	/**
+	 * Die Anzahl der neu zu berechnenden Knoten je Stufe.
+	 */
+	private int[] stufenLaenge;
+
+	/**
+	 * Erzeugt eine leere Hierarchie.
+	 *
+	 * @param verfahren
+	 *            das Berechnungs-Verfahren aller Werte
+	 * @throws IllegalArgumentException
+	 *             wenn kein Verfahren angegeben wurde
+	 */
+	public GueteHierarchie(final GueteVerfahren verfahren) {
+		if (verfahren == null) {
+			throw new IllegalArgumentException(
+					"Es wurde kein Verfahren zur Berechnung der Guete angegeben"); //$NON-NLS-1$
+		}
+		this.verfahren = verfahren;
+	}
+
+	/**
+	 * Erfragt das Berechnungs-Verfahren aller Werte.
+	 *
+	 * @return das Berechnungs-Verfahren
+	 */
+	public GueteVerfahren getVerfahren() {
+		return verfahren;
+	}
+
+	/**
+	 * Erfragt die Anzahl der Knoten (einschliesslich der Blaetter).
+	 *
+	 * @return die Anzahl der Knoten
+	 */
+	public int getAnzahl() {
+		return anzahl;
+	}
+
+	/**
+	 * Legt ein neues Blatt an. Sein Guete-Index ist bis zum ersten Setzen
+	 * nicht verrechenbar.
+	 *
+	 * @return die Nummer des Blattes
+	 */
+	public int neuesBlatt() {
+		return neuerKnoten(KEINER, 0);
+	}
+
+	/**
+	 * Legt einen neuen Knoten mit ungewichteten Kanten an.
+	 *
+	 * @param verknuepfung
+	 *            die Verknuepfung der Kinder ({@link GueteRechner#PRODUKT},
+	 *            {@link GueteRechner#QUOTIENT}, {@link GueteRechner#SUMME}
+	 *            oder {@link GueteRechner#DIFFERENZ})
+	 * @param kindKnoten
+	 *            die Nummern der Kinder
+	 * @return die Nummer des Knotens
+	 * @throws IllegalArgumentException
+	 *             wenn die Verknuepfung unbekannt ist oder eines der Kinder
+	 *             nicht existiert bzw. bereits einen Elternknoten hat
+	 */
+	public int neuerKnoten(final int verknuepfung, final int... kindKnoten) {
+		return neuerKnoten(verknuepfung, kindKnoten, null);
+	}
+
+	/**
+	 * Legt einen neuen Knoten an.
+	 *
+	 * @param verknuepfung
+	 *            die Verknuepfung der Kinder ({@link GueteRechner#PRODUKT},
+	 *            {@link GueteRechner#QUOTIENT}, {@link GueteRechner#SUMME}
+	 *            oder {@link GueteRechner#DIFFERENZ})
+	 * @param kindKnoten
+	 *            die Nummern der Kinder
+	 * @param kantenGewichte
+	 *            die Gewichtungen der Kinder in derselben Reihenfolge oder
+	 *            <code>null</code>, wenn die Kanten nicht gewichtet sind (nur
+	 *            bei Summe und Differenz erlaubt)
+	 * @return die Nummer des Knotens
+	 * @throws IllegalArgumentException
+	 *             wenn die Verknuepfung unbekannt ist, die Gewichtungen nicht
+	 *             passen oder eines der Kinder nicht existiert bzw. bereits
+	 *             einen Elternknoten hat
+	 */
+	public int neuerKnoten(final int verknuepfung, final int[] kindKnoten,
+			final double[] kantenGewichte) {
+		if (!GueteRechner.isVerknuepfung(verknuepfung)) {
+			throw new IllegalArgumentException("Unbekannte Verknuepfung: " //$NON-NLS-1$
+					+ verknuepfung);
+		}
+		if (kantenGewichte != null) {
+			if (verknuepfung != GueteRechner.SUMME
+					&& verknuepfung != GueteRechner.DIFFERENZ) {
+				throw new IllegalArgumentException(
+						"Gewichtung nur bei Summe und Differenz erlaubt"); //$NON-NLS-1$
+			}
+			if (kantenGewichte.length != kindKnoten.length) {
+				throw new IllegalArgumentException(
+						"Anzahl der Gewichtungen passt nicht zur Anzahl der Kinder"); //$NON-NLS-1$
+			}
+		}
+		for (int i = 0; i < kindKnoten.length; i++) {
+			final int kind = kindKnoten[i];
+			if (kind < 0 || kind >= anzahl) {
+				throw new IllegalArgumentException("Unbekannter Knoten: " //$NON-NLS-1$
+						+ kind);
+			}
+			if (eltern[kind] != KEINER) {
+				throw new IllegalArgumentException("Knoten " + kind //$NON-NLS-1$
+						+ " hat bereits einen Elternknoten"); //$NON-NLS-1$
+			}
+			for (int j = 0; j < i; j++) {
+				if (kindKnoten[j] == kind) {
+					throw new IllegalArgumentException("Knoten " + kind //$NON-NLS-1$
+							+ " ist mehrfach angegeben"); //$NON-NLS-1$
+				}
+			}
+		}
+
+		final int knoten = neuerKnoten(verknuepfung, kindKnoten.length);
+		hoehe[knoten] = 1;
+		for (int i = 0; i < kindKnoten.length; i++) {
+			final int kind = kindKnoten[i];
+			final int k = erste[knoten] + i;
+			eltern[kind] = knoten;
+			kante[kind] = k;
+			eingaben[k] = werte[kind];
+			gewichte[k] = kantenGewichte == null ? 1.0 : kantenGewichte[i];
+			hoehe[knoten] = Math.max(hoehe[knoten], hoehe[kind] + 1);
+		}
+		schmutzig.set(knoten);
+		return knoten;
+	}
+
+	/**
+	 * Setzt den Guete-Index eines Blattes.
+	 *
+	 * @param blatt
+	 *            die Nummer des Blattes
+	 * @param index
+	 *            der skalierte Guete-Index oder
+	 *            {@link GueteRechner#NICHT_VERRECHENBAR}
+	 * @throws IllegalArgumentException
+	 *             wenn der Knoten kein Blatt ist
+	 */
+	public void setze(final int blatt, final double index) {
+		if (blatt < 0 || blatt >= anzahl || operation[blatt] != KEINER) {
+			throw new IllegalArgumentException("Kein Blatt: " + blatt); //$NON-NLS-1$
+		}
+		if (Double.compare(werte[blatt], index) == 0) {
+			return;
+		}
+		werte[blatt] = index;
+		if (eltern[blatt] != KEINER) {
+			eingaben[kante[blatt]] = index;
+			schmutzig.set(eltern[blatt]);
+		}
+	}
+
+	/**
+	 * Setzt den Guete-Index eines Blattes aus einem unskalierten Wert.
+	 *
+	 * @param blatt
+	 *            die Nummer des Blattes
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index (ggf. ein Zustand)
+	 * @throws IllegalArgumentException
+	 *             wenn der Knoten kein Blatt ist
+	 */
+	public void setzeUnskaliert(final int blatt, final long indexUnskaliert) {
+		setze(blatt, GueteIndex.skaliere(indexUnskaliert));
+	}
+
+	/**
+	 * Setzt den Guete-Index eines Blattes aus einem Guetewert. Die
+	 * Gewichtung des Guetewertes wird nicht beruecksichtigt, es gelten die
+	 * Gewichtungen der Kanten.
+	 *
+	 * @param blatt
+	 *            die Nummer des Blattes
+	 * @param wert
+	 *            der Guetewert
+	 * @throws GueteException
+	 *             wenn der Guetewert ein anderes Berechnungs-Verfahren
+	 *             verlangt
+	 * @throws IllegalArgumentException
+	 *             wenn der Knoten kein Blatt ist
+	 */
+	public void setze(final int blatt, final GWert wert) throws GueteException {
+		if (!wert.isVerrechenbar()) {
+			setze(blatt, GueteRechner.NICHT_VERRECHENBAR);
+			return;
+		}
+		if (wert.getVerfahren() != verfahren) {
+			throw GueteException.UNTERSCHIEDLICHE_VERFAHREN;
+		}
+		setze(blatt, wert.getIndex());
+	}
+
+	/**
+	 * Erfragt den aktuellen Guete-Index eines Knotens. Fuer andere Knoten als
+	 * Blaetter ist das der Stand der letzten Berechnung.
+	 *
+	 * @param knoten
+	 *            die Nummer des Knotens
+	 * @return der skalierte Guete-Index oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public double getIndex(final int knoten) {
+		if (knoten < 0 || knoten >= anzahl) {
+			throw new IllegalArgumentException("Unbekannter Knoten: " + knoten); //$NON-NLS-1$
+		}
+		return werte[knoten];
+	}
+
+	/**
+	 * Erfragt den aktuellen Guetewert eines Knotens (siehe
+	 * {@link #getIndex(int)}).
+	 *
+	 * @param knoten
+	 *            die Nummer des Knotens
+	 * @return der Guetewert
+	 */
+	public GWert getGWert(final int knoten) {
+		final double index = getIndex(knoten);
+		if (Double.isNaN(index)) {
+			return GueteVerfahren.getNichtErmittelbar(verfahren);
+		}
+		try {
+			return new GWert(index, verfahren);
+		} catch (final GueteException e) {
+			// kann nicht passieren, das Verfahren ist immer gesetzt
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Berechnet alle Knoten neu, unterhalb derer sich seit der letzten
+	 * Berechnung ein Guete-Index geaendert hat.
+	 *
+	 * @return die Anzahl der neu berechneten Knoten
+	 */
+	public int berechne() {
+		return berechne(null);
+	}
+
+	/**
+	 * Berechnet alle Knoten neu, unterhalb derer sich seit der letzten
+	 * Berechnung ein Guete-Index geaendert hat. Stufen mit vielen neu zu
+	 * berechnenden Knoten werden parallel berechnet.
+	 *
+	 * @param pool
+	 *            der Pool fuer die parallele Berechnung oder
+	 *            <code>null</code> fuer eine Berechnung im aufrufenden Thread
+	 * @return die Anzahl der neu berechneten Knoten
+	 */
+	public int berechne(final ForkJoinPool pool) {
+		if (schmutzig.isEmpty()) {
+			return 0;
+		}
+		bereiteStufenVor();
+		for (int k = schmutzig.nextSetBit(0); k >= 0; k = schmutzig
+				.nextSetBit(k + 1)) {
+			stufen[hoehe[k]][stufenLaenge[hoehe[k]]++] = k;
+		}
+
+		int berechnet = 0;
+		for (int stufe = 1; stufe < stufen.length; stufe++) {
+			final int[] knoten = stufen[stufe];
+			final int laenge = stufenLaenge[stufe];
+			if (laenge == 0) {
+				continue;
+			}
+			if (pool != null && laenge >= PARALLEL_AB) {
+				pool.invoke(new Abschnitt(knoten, 0, laenge));
+			} else {
+				berechne(knoten, 0, laenge);
+			}
+
+			for (int i = 0; i < laenge; i++) {
+				final int k = knoten[i];
+				final int elternKnoten = eltern[k];
+				if (geaendert[k] && elternKnoten != KEINER
+						&& !schmutzig.get(elternKnoten)) {
+					schmutzig.set(elternKnoten);
+					stufen[hoehe[elternKnoten]][stufenLaenge[hoehe[elternKnoten]]++] = elternKnoten;
+				}
+			}
+			berechnet += laenge;
+		}
+
+		schmutzig.clear();
+		Arrays.fill(stufenLaenge, 0);
+		return berechnet;
+	}
+
+	/**
+	 * Berechnet einen Bereich der Knoten einer Stufe.
+	 *
+	 * @param knoten
+	 *            die Knoten der Stufe
+	 * @param von
+	 *            die erste Position
+	 * @param bis
+	 *            die Position hinter der letzten Position
+	 */
+	private void berechne(final int[] knoten, final int von, final int bis) {
+		final int code = verfahren.getCode();
+		for (int i = von; i < bis; i++) {
+			final int k = knoten[i];
+			final double index = GueteRechner.berechne(operation[k], code,
+					eingaben, gewichte, erste[k], kinder[k]);
+			geaendert[k] = Double.compare(werte[k], index) != 0;
+			werte[k] = index;
+			if (eltern[k] != KEINER) {
+				eingaben[kante[k]] = index;
+			}
+		}
+	}
+
+	/**
+	 * Legt einen Knoten an.
+	 *
+	 * @param verknuepfung
+	 *            die Verknuepfung bzw. {@link #KEINER} fuer ein Blatt
+	 * @param anzahlKinder
+	 *            die Anzahl der Kinder
+	 * @return die Nummer des Knotens
+	 */
+	private int neuerKnoten(final int verknuepfung, final int anzahlKinder) {
+		if (anzahl == werte.length) {
+			final int groesse = 2 * anzahl;
+			werte = Arrays.copyOf(werte, groesse);
+			operation = Arrays.copyOf(operation, groesse);
+			erste = Arrays.copyOf(erste, groesse);
+			kinder = Arrays.copyOf(kinder, groesse);
+			eltern = Arrays.copyOf(eltern, groesse);
+			kante = Arrays.copyOf(kante, groesse);
+			hoehe = Arrays.copyOf(hoehe, groesse);
+			geaendert = Arrays.copyOf(geaendert, groesse);
+		}
+		if (kanten + anzahlKinder > eingaben.length) {
+			final int groesse = Math.max(2 * eingaben.length, kanten
+					+ anzahlKinder);
+			eingaben = Arrays.copyOf(eingaben, groesse);
+			gewichte = Arrays.copyOf(gewichte, groesse);
+		}
+
+		final int knoten = anzahl++;
+		werte[knoten] = GueteRechner.NICHT_VERRECHENBAR;
+		operation[knoten] = verknuepfung;
+		erste[knoten] = kanten;
+		kinder[knoten] = anzahlKinder;
+		eltern[knoten] = KEINER;
+		kante[knoten] = KEINER;
+		hoehe[knoten] = 0;
+		kanten += anzahlKinder;
+		stufen = null;
+		return knoten;
+	}
+
+	/**
+	 * Legt nach einer Aenderung der Hierarchie die Felder fuer die Stufen an.
+	 */
+	private void bereiteStufenVor() {
+		if (stufen != null) {
+			return;
+		}
+		int maxHoehe = 0;
+		for (int k = 0; k < anzahl; k++) {
+			maxHoehe = Math.max(maxHoehe, hoehe[k]);
+		}
+		final int[] groesse = new int[maxHoehe + 1];
+		for (int k = 0; k < anzahl; k++) {
+			groesse[hoehe[k]]++;
+		}
+		stufen = new int[maxHoehe + 1][];
+		for (int stufe = 0; stufe <= maxHoehe; stufe++) {
+			stufen[stufe] = new int[groesse[stufe]];
+		}
+		stufenLaenge = new int[maxHoehe + 1];
+	}
+
+	/**
+	 * Teilaufgabe fuer einen Bereich der Knoten einer Stufe.
+	 */
+	private final class Abschnitt extends RecursiveAction {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Die Knoten der Stufe.
+		 */
+		private final int[] knoten;
+
+		/**
+		 * Die erste Position.
+		 */
+		private final int von;
+
+		/**
+		 * Die Position hinter der letzten Position.
+		 */
+		private final int bis;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param knoten
+		 *            die Knoten der Stufe
+		 * @param von
+		 *            die erste Position
+		 * @param bis
+		 *            die Position hinter der letzten Position
+		 */
+		private Abschnitt(final int[] knoten, final int von, final int bis) {
+			this.knoten = knoten;
+			this.von = von;
+			this.bis = bis;
+		}
+
+		@Override
+		protected void compute() {
+			if (bis - von <= PARALLEL_AB) {
+				berechne(knoten, von, bis);
+				return;
+			}
+			final int mitte = (von + bis) >>> 1;
+			invokeAll(new Abschnitt(knoten, von, mitte), new Abschnitt(
+					knoten, mitte, bis));
+		}
+	}
+
+}
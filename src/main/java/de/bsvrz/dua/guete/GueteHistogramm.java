@@ -0,0 +1,504 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import java.util.Arrays;
+
+import de.bsvrz.dav.daf.main.Data;
+
+/**
+ * Haeufigkeitsverteilung von Guete-Indizes je Guete-Verfahren mit festem
+ * Speicherbedarf (z.B. fuer Median, 5%- und 95%-Perzentil oder den Anteil
+ * der Gueten unterhalb einer Schwelle ueber alle Messstellen eines
+ * Intervalls).<br>
+ * Die unskalierten Guete-Indizes <code>0</code> bis
+ * {@link GueteIndex#MAX_UNSKALIERT} werden in Klassen der Breite
+ * {@link #getBreite()} gezaehlt (bei Breite <code>1</code> also exakt).
+ * Das Hinzufuegen eines Wertes hat konstanten Aufwand. Fuer die Abfragen
+ * werden je {@link #BLOCK} Klassen zusaetzlich zusammengefasst, so dass eine
+ * Abfrage hoechstens die Bloecke und die Klassen eines Blocks durchlaeuft.
+ * Nicht verrechenbare Werte (Zustaende) werden je Verfahren nur gezaehlt.
+ * <br>
+ * Histogramme gleicher Breite koennen vereinigt werden, z.B. nachdem jeder
+ * Thread ein eigenes Histogramm gefuellt hat. Die Klasse ist nicht
+ * threadsicher.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteHistogramm {
+
+	/**
+	 * Die Anzahl der Klassen, die fuer die Abfragen zu einem Block
+	 * zusammengefasst werden.
+	 */
+	public static final int BLOCK = 128;
+
+	/**
+	 * Die Breite einer Klasse (unskaliert).
+	 */
+	private final int breite;
+
+	/**
+	 * Die Anzahl der Klassen.
+	 */
+	private final int klassen;
+
+	/**
+	 * Die Anzahl der verrechenbaren Werte je Klasse und Verfahren (erst bei
+	 * Bedarf angelegt).
+	 */
+	private final long[][] anzahlen = new long[GueteVerfahren.MAX_CODE + 1][];
+
+	/**
+	 * Die Anzahl der verrechenbaren Werte je Block und Verfahren (erst bei
+	 * Bedarf angelegt).
+	 */
+	private final long[][] bloecke = new long[GueteVerfahren.MAX_CODE + 1][];
+
+	/**
+	 * Die Anzahl der verrechenbaren Werte je Verfahren.
+	 */
+	private final long[] summen = new long[GueteVerfahren.MAX_CODE + 1];
+
+	/**
+	 * Die Anzahl der nicht verrechenbaren Werte je Verfahren.
+	 */
+	private final long[] nichtVerrechenbar = new long[GueteVerfahren.MAX_CODE + 1];
+
+	/**
+	 * Erzeugt ein exaktes Histogramm mit einer Klasse je unskaliertem
+	 * Guete-Index.
+	 */
+	public GueteHistogramm() {
+		this(1);
+	}
+
+	/**
+	 * Erzeugt ein Histogramm mit Klassen der angegebenen Breite.
+	 *
+	 * @param breite
+	 *            die Breite einer Klasse (unskaliert, z.B. <code>100</code>
+	 *            fuer Klassen von je <code>0.01</code>)
+	 * @throws IllegalArgumentException
+	 *             wenn die Breite nicht zwischen <code>1</code> und
+	 *             <code>{@link GueteIndex#MAX_UNSKALIERT} + 1</code> liegt
+	 */
+	public GueteHistogramm(final int breite) {
+		if (breite < 1 || breite > GueteIndex.MAX_UNSKALIERT + 1) {
+			throw new IllegalArgumentException("Ungueltige Breite: " + breite); //$NON-NLS-1$
+		}
+		this.breite = breite;
+		this.klassen = (int) (GueteIndex.MAX_UNSKALIERT / breite) + 1;
+	}
+
+	/**
+	 * Erfragt die Breite einer Klasse.
+	 *
+	 * @return die Breite einer Klasse (unskaliert)
+	 */
+	public int getBreite() {
+		return breite;
+	}
+
+	/**
+	 * Erfragt die Anzahl der Klassen.
+	 *
+	 * @return die Anzahl der Klassen
+	 */
+	public int getKlassen() {
+		return klassen;
+	}
+
+	/**
+	 * Fuegt einen Guete-Index hinzu.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index (ggf. ein Zustand). Indizes
+	 *            ueber {@link GueteIndex#MAX_UNSKALIERT} werden der letzten
+	 *            Klasse zugeordnet
+	 * @throws IllegalArgumentException
+	 *             wenn der Code des Verfahrens ungueltig ist
+	 */
+	public void addiere(final int verfahren, final long indexUnskaliert) {
+		pruefeVerfahren(verfahren);
+		if (GueteIndex.isZustand(indexUnskaliert)) {
+			nichtVerrechenbar[verfahren]++;
+			return;
+		}
+		final int klasse = indexUnskaliert >= GueteIndex.MAX_UNSKALIERT ? klassen - 1
+				: (int) (indexUnskaliert / breite);
+		if (anzahlen[verfahren] == null) {
+			lege(verfahren);
+		}
+		anzahlen[verfahren][klasse]++;
+		bloecke[verfahren][klasse / BLOCK]++;
+		summen[verfahren]++;
+	}
+
+	/**
+	 * Fuegt einen Guetewert hinzu. Die Gewichtung wird nicht beruecksichtigt.
+	 *
+	 * @param wert
+	 *            der Guetewert
+	 * @throws IllegalArgumentException
+	 *             wenn der Code des Verfahrens ungueltig ist
+	 */
+	public void addiere(final GWert wert) {
+		addiere(wert.getVerfahrenCode(), wert.getIndexUnskaliert());
+	}
+
+	/**
+	 * Fuegt die Guete eines Attributs aus einem DAV-Datum hinzu, ohne einen
+	 * Guetewert zu erzeugen.
+	 *
+	 * @param davDatum
+	 *            ein DAV-Datum (<code>!= null</code>)
+	 * @param attributName
+	 *            der Name des Attributs, unterhalb dem ein Item
+	 *            <code>Güte</code> im übergebenen DAV-Datum steht
+	 * @throws IllegalArgumentException
+	 *             wenn der Code des Verfahrens ungueltig ist
+	 */
+	public void addiere(final Data davDatum, final String attributName) {
+		if (GueteMetriken.AKTIV) {
+			GueteMetriken.erfasseDekodierung(1);
+		}
+		addiere(davDatum.getItem(attributName).getItem(GueteLeser.GUETE));
+	}
+
+	/**
+	 * Fuegt die Guete aller Attribute eines Lesers aus einem DAV-Datum hinzu,
+	 * ohne Guetewerte zu erzeugen.
+	 *
+	 * @param leser
+	 *            der Leser mit den Namen der Attribute
+	 * @param davDatum
+	 *            ein DAV-Datum (<code>!= null</code>)
+	 * @throws IllegalArgumentException
+	 *             wenn der Code eines Verfahrens ungueltig ist
+	 */
+	public void addiere(final GueteLeser leser, final Data davDatum) {
+		if (GueteMetriken.AKTIV) {
+			GueteMetriken.erfasseDekodierung(leser.getAnzahl());
+		}
+		for (int i = 0; i < leser.getAnzahl(); i++) {
+			addiere(davDatum.getItem(leser.getAttributName(i)).getItem(
+					GueteLeser.GUETE));
+		}
+	}
+
+	/**
+	 * Fuegt spaltenweise vorliegende Guete-Indizes hinzu (z.B. aus
+	 * {@link GueteLeser#lese(Data, long[], int[], boolean[], int)}).
+	 *
+	 * @param indizes
+	 *            die unskalierten Guete-Indizes (ggf. Zustaende)
+	 * @param verfahren
+	 *            die Codes der Guete-Verfahren
+	 * @param offset
+	 *            die Position des ersten Wertes
+	 * @param anzahl
+	 *            die Anzahl der Werte
+	 * @throws IllegalArgumentException
+	 *             wenn der Code eines Verfahrens ungueltig ist
+	 */
+	public void addiere(final long[] indizes, final int[] verfahren,
+			final int offset, final int anzahl) {
+		for (int i = offset; i < offset + anzahl; i++) {
+			addiere(verfahren[i], indizes[i]);
+		}
+	}
+
+	/**
+	 * Fuegt die Anzahlen eines Verfahrens hinzu, wie sie z.B. ein anderer
+	 * Rechner mit {@link #getAnzahlen(int)} und
+	 * {@link #getAnzahlNichtVerrechenbar(int)} ermittelt hat.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @param anzahlenJeKlasse
+	 *            die Anzahl der verrechenbaren Werte je Klasse
+	 * @param anzahlNichtVerrechenbar
+	 *            die Anzahl der nicht verrechenbaren Werte
+	 * @throws IllegalArgumentException
+	 *             wenn der Code des Verfahrens ungueltig ist oder die Anzahl
+	 *             der Klassen nicht passt
+	 */
+	public void addiere(final int verfahren, final long[] anzahlenJeKlasse,
+			final long anzahlNichtVerrechenbar) {
+		pruefeVerfahren(verfahren);
+		if (anzahlenJeKlasse.length != klassen) {
+			throw new IllegalArgumentException("Erwartet werden " + klassen //$NON-NLS-1$
+					+ " Klassen statt " + anzahlenJeKlasse.length); //$NON-NLS-1$
+		}
+		nichtVerrechenbar[verfahren] += anzahlNichtVerrechenbar;
+		if (anzahlen[verfahren] == null) {
+			lege(verfahren);
+		}
+		for (int klasse = 0; klasse < klassen; klasse++) {
+			anzahlen[verfahren][klasse] += anzahlenJeKlasse[klasse];
+			bloecke[verfahren][klasse / BLOCK] += anzahlenJeKlasse[klasse];
+			summen[verfahren] += anzahlenJeKlasse[klasse];
+		}
+	}
+
+	/**
+	 * Fuegt alle Werte eines anderen Histogramms hinzu.
+	 *
+	 * @param andere
+	 *            das andere Histogramm (wird nicht veraendert)
+	 * @throws IllegalArgumentException
+	 *             wenn die Breite der Klassen nicht uebereinstimmt
+	 */
+	public void vereinige(final GueteHistogramm andere) {
+		if (andere.breite != breite) {
+			throw new IllegalArgumentException("Unterschiedliche Breite: " //$NON-NLS-1$
+					+ breite + " und " + andere.breite); //$NON-NLS-1$
+		}
+		for (int verfahren = 0; verfahren < summen.length; verfahren++) {
+			if (andere.anzahlen[verfahren] != null) {
+				addiere(verfahren, andere.anzahlen[verfahren],
+						andere.nichtVerrechenbar[verfahren]);
+			} else {
+				nichtVerrechenbar[verfahren] += andere.nichtVerrechenbar[verfahren];
+			}
+		}
+	}
+
+	/**
+	 * Entfernt alle Werte (z.B. zu Beginn eines neuen Intervalls). Der
+	 * angelegte Speicher bleibt erhalten.
+	 */
+	public void leere() {
+		for (int verfahren = 0; verfahren < summen.length; verfahren++) {
+			if (anzahlen[verfahren] != null) {
+				Arrays.fill(anzahlen[verfahren], 0);
+				Arrays.fill(bloecke[verfahren], 0);
+			}
+		}
+		Arrays.fill(summen, 0);
+		Arrays.fill(nichtVerrechenbar, 0);
+	}
+
+	/**
+	 * Erfragt die Anzahl der verrechenbaren Werte eines Verfahrens.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @return die Anzahl der verrechenbaren Werte
+	 */
+	public long getAnzahl(final int verfahren) {
+		pruefeVerfahren(verfahren);
+		return summen[verfahren];
+	}
+
+	/**
+	 * Erfragt die Anzahl der nicht verrechenbaren Werte (Zustaende) eines
+	 * Verfahrens.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @return die Anzahl der nicht verrechenbaren Werte
+	 */
+	public long getAnzahlNichtVerrechenbar(final int verfahren) {
+		pruefeVerfahren(verfahren);
+		return nichtVerrechenbar[verfahren];
+	}
+
+	/**
+	 * Erfragt die Anzahl der verrechenbaren Werte je Klasse eines
+	 * Verfahrens.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @return eine Kopie der Anzahlen (Klasse <code>k</code> umfasst die
+	 *         unskalierten Indizes ab <code>k * </code>{@link #getBreite()})
+	 */
+	public long[] getAnzahlen(final int verfahren) {
+		pruefeVerfahren(verfahren);
+		if (anzahlen[verfahren] == null) {
+			return new long[klassen];
+		}
+		return anzahlen[verfahren].clone();
+	}
+
+	/**
+	 * Erfragt ein Perzentil der verrechenbaren Werte eines Verfahrens.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @param anteil
+	 *            der Anteil (z.B. <code>0.05</code> fuer das
+	 *            5%-Perzentil, <code>0.5</code> fuer den Median)
+	 * @return der kleinste unskalierte Guete-Index einer Klasse, bis zu der
+	 *         mindestens der angegebene Anteil der Werte reicht, oder
+	 *         {@link GueteIndex#NICHT_ERMITTELBAR_BZW_FEHLERHAFT}, wenn
+	 *         keine verrechenbaren Werte vorliegen
+	 * @throws IllegalArgumentException
+	 *             wenn der Anteil nicht zwischen <code>0</code> und
+	 *             <code>1</code> liegt
+	 */
+	public long getPerzentilUnskaliert(final int verfahren,
+			final double anteil) {
+		pruefeVerfahren(verfahren);
+		if (!(anteil >= 0 && anteil <= 1)) {
+			throw new IllegalArgumentException("Ungueltiger Anteil: " + anteil); //$NON-NLS-1$
+		}
+		final long gesamt = summen[verfahren];
+		if (gesamt == 0) {
+			return GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+		}
+		final long rang = Math.max(1, (long) Math.ceil(anteil * gesamt));
+
+		final long[] block = bloecke[verfahren];
+		long bisher = 0;
+		int b = 0;
+		while (bisher + block[b] < rang) {
+			bisher += block[b];
+			b++;
+		}
+		final long[] klasse = anzahlen[verfahren];
+		int k = b * BLOCK;
+		while (bisher + klasse[k] < rang) {
+			bisher += klasse[k];
+			k++;
+		}
+		return (long) k * breite;
+	}
+
+	/**
+	 * Erfragt ein Perzentil der verrechenbaren Werte eines Verfahrens (siehe
+	 * {@link #getPerzentilUnskaliert(int, double)}).
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @param anteil
+	 *            der Anteil
+	 * @return der skalierte Guete-Index oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}, wenn keine
+	 *         verrechenbaren Werte vorliegen
+	 */
+	public double getPerzentil(final int verfahren, final double anteil) {
+		final long perzentil = getPerzentilUnskaliert(verfahren, anteil);
+		if (GueteIndex.isZustand(perzentil)) {
+			return GueteRechner.NICHT_VERRECHENBAR;
+		}
+		return GueteIndex.skaliere(perzentil);
+	}
+
+	/**
+	 * Erfragt den Median der verrechenbaren Werte eines Verfahrens.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @return der skalierte Guete-Index oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}, wenn keine
+	 *         verrechenbaren Werte vorliegen
+	 */
+	public double getMedian(final int verfahren) {
+		return getPerzentil(verfahren, 0.5);
+	}
+
+	/**
+	 * Erfragt den Anteil der verrechenbaren Werte eines Verfahrens, deren
+	 * Guete unterhalb einer Schwelle liegt. Bei Klassen mit einer Breite
+	 * groesser <code>1</code> werden nur die Klassen gezaehlt, die
+	 * vollstaendig unterhalb der Schwelle liegen.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @param schwelle
+	 *            die Schwelle (skalierter Guete-Index)
+	 * @return der Anteil zwischen <code>0</code> und <code>1</code> oder
+	 *         <code>NaN</code>, wenn keine verrechenbaren Werte vorliegen
+	 */
+	public double getAnteilUnter(final int verfahren, final double schwelle) {
+		pruefeVerfahren(verfahren);
+		final long gesamt = summen[verfahren];
+		if (gesamt == 0) {
+			return Double.NaN;
+		}
+		final long grenze = Math.min(klassen, Math.max(0,
+				GueteIndex.unskaliere(schwelle) / breite));
+
+		final long[] block = bloecke[verfahren];
+		final long[] klasse = anzahlen[verfahren];
+		long unter = 0;
+		int k = 0;
+		while (k + BLOCK <= grenze) {
+			unter += block[k / BLOCK];
+			k += BLOCK;
+		}
+		while (k < grenze) {
+			unter += klasse[k];
+			k++;
+		}
+		return (double) unter / gesamt;
+	}
+
+	/**
+	 * Fuegt die Guete aus einem Item <code>Güte</code> hinzu.
+	 *
+	 * @param guete
+	 *            das Item <code>Güte</code>
+	 */
+	private void addiere(final Data guete) {
+		addiere(guete.getUnscaledValue(GueteLeser.VERFAHREN).intValue(), guete
+				.getUnscaledValue(GueteLeser.INDEX).longValue());
+	}
+
+	/**
+	 * Legt die Klassen und Bloecke eines Verfahrens an.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 */
+	private void lege(final int verfahren) {
+		anzahlen[verfahren] = new long[klassen];
+		bloecke[verfahren] = new long[(klassen + BLOCK - 1) / BLOCK];
+	}
+
+	/**
+	 * Prueft den Code eines Guete-Verfahrens.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @throws IllegalArgumentException
+	 *             wenn der Code ungueltig ist
+	 */
+	private static void pruefeVerfahren(final int verfahren) {
+		if (verfahren < 0 || verfahren > GueteVerfahren.MAX_CODE) {
+			throw new IllegalArgumentException("Ungueltiger Code: " //$NON-NLS-1$
+					+ verfahren);
+		}
+	}
+
+}
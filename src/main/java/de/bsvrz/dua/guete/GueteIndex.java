@@ -0,0 +1,126 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import de.bsvrz.sys.funclib.bitctrl.dua.DUAKonstanten;
+
+/**
+ * Umrechnung zwischen dem unskalierten Guete-Index, wie er im DAV-Attribut
+ * <code>Güte.Index</code> steht, und dem skalierten Guete-Index, mit dem
+ * gerechnet wird.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteIndex {
+
+	/**
+	 * Skalierung des DAV-Attributs <code>Güte.Index</code>.
+	 */
+	public static final double SKALIERUNG = 0.0001;
+
+	/**
+	 * Groesster gueltiger unskalierter Guete-Index (entspricht 1.0).
+	 */
+	public static final long MAX_UNSKALIERT = 10000;
+
+	/**
+	 * Kleinster gueltiger unskalierter Guete-Index (entspricht 0.0).
+	 */
+	public static final long MIN_UNSKALIERT = 0;
+
+	/**
+	 * Unskalierter Guete-Index fuer den Zustand
+	 * <code>nicht ermittelbar/fehlerhaft</code>.
+	 */
+	public static final long NICHT_ERMITTELBAR_BZW_FEHLERHAFT = DUAKonstanten.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+
+	/**
+	 * Obere Grenze fuer skalierte Indizes, die noch unskaliert werden.
+	 */
+	private static final double GUETE_MAX = 10000;
+
+	/**
+	 * Untere Grenze fuer skalierte Indizes, die noch unskaliert werden.
+	 */
+	private static final double GUETE_MIN = 0;
+
+	/**
+	 * Standardkonstruktor.
+	 */
+	private GueteIndex() {
+		// keine Instanzen
+	}
+
+	/**
+	 * Erfragt, ob ein unskalierter Guete-Index einen Zustand (
+	 * <code>fehlerhaft</code>, <code>nicht ermittelbar</code> oder
+	 * <code>nicht ermittelbar/fehlerhaft</code>) darstellt. Zustaende werden
+	 * im DAV als negative Werte codiert.
+	 *
+	 * @param indexUnskaliert
+	 *            ein unskalierter Guete-Index
+	 * @return ob der Index einen Zustand darstellt
+	 */
+	public static boolean isZustand(final long indexUnskaliert) {
+		return indexUnskaliert < 0;
+	}
+
+	/**
+	 * Skaliert einen unskalierten Guete-Index.
+	 *
+	 * @param indexUnskaliert
+	 *            ein unskalierter Guete-Index
+	 * @return der skalierte Guete-Index oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}, wenn der Index einen
+	 *         Zustand darstellt
+	 */
+	public static double skaliere(final long indexUnskaliert) {
+		if (isZustand(indexUnskaliert)) {
+			return GueteRechner.NICHT_VERRECHENBAR;
+		}
+		return indexUnskaliert * SKALIERUNG;
+	}
+
+	/**
+	 * Erfragt den unskalierten Wert eines skalierten Guete-Index.
+	 *
+	 * @param index
+	 *            ein skalierter Guete-Index
+	 * @return der unskalierte Guete-Index oder
+	 *         {@link #NICHT_ERMITTELBAR_BZW_FEHLERHAFT}, wenn der Index nicht
+	 *         verrechenbar ist oder ausserhalb des Wertebereichs liegt
+	 */
+	public static long unskaliere(final double index) {
+		if (index >= GUETE_MIN && index <= GUETE_MAX) {
+			return Math.round(index / SKALIERUNG);
+		}
+		return NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+	}
+
+}
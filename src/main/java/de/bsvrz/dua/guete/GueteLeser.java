@@ -0,0 +1,230 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import de.bsvrz.dav.daf.main.Data;
+import de.bsvrz.sys.funclib.bitctrl.dua.DUAKonstanten;
+
+/**
+ * Liest die Guete mehrerer Attribute eines DAV-Datensatzes (z.B. aller
+ * Fahrstreifen eines Messquerschnitts) ohne Zwischenobjekte.<br>
+ * Die Attribute werden einmalig bei der Erzeugung festgelegt. Je Attribut
+ * und Datensatz wird das Attribut-Item genau einmal aufgeloest und daraus
+ * <code>Güte.Index</code>, <code>Güte.Verfahren</code> und ggf.
+ * <code>Wert</code> direkt als primitive Werte gelesen. Es werden weder
+ * {@link de.bsvrz.sys.funclib.bitctrl.dua.GanzZahl}- noch
+ * {@link GWert}-Objekte erzeugt, solange nicht ausdruecklich nach einem
+ * {@link GWert} gefragt wird.<br>
+ * Instanzen sind unveraenderlich und koennen von mehreren Threads
+ * gemeinsam verwendet werden.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteLeser {
+
+	/**
+	 * Name des Items, unter dem die Guete eines Attributs steht.
+	 */
+	static final String GUETE = "Güte"; //$NON-NLS-1$
+
+	/**
+	 * Name des Guete-Index innerhalb des Items {@link #GUETE}.
+	 */
+	static final String INDEX = "Index"; //$NON-NLS-1$
+
+	/**
+	 * Name des Guete-Verfahrens innerhalb des Items {@link #GUETE}.
+	 */
+	static final String VERFAHREN = "Verfahren"; //$NON-NLS-1$
+
+	/**
+	 * Name des Messwerts eines Attributs.
+	 */
+	static final String WERT = "Wert"; //$NON-NLS-1$
+
+	/**
+	 * Die Namen der gelesenen Attribute.
+	 */
+	private final String[] attribute;
+
+	/**
+	 * Standardkonstruktor.
+	 *
+	 * @param attributNamen
+	 *            die Namen der Attribute, unterhalb denen jeweils ein Item
+	 *            <code>Güte</code> steht. Also z.B. <code>qKfz</code> fuer
+	 *            ein DAV-Kurzzeitdatum
+	 */
+	public GueteLeser(final String... attributNamen) {
+		attribute = attributNamen.clone();
+		for (final String attribut : attribute) {
+			if (attribut == null) {
+				throw new NullPointerException(
+						"Attributname ist <<null>>"); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Erfragt die Anzahl der gelesenen Attribute.
+	 *
+	 * @return die Anzahl der gelesenen Attribute
+	 */
+	public int getAnzahl() {
+		return attribute.length;
+	}
+
+	/**
+	 * Erfragt den Namen eines gelesenen Attributs.
+	 *
+	 * @param attribut
+	 *            die Nummer des Attributs
+	 * @return der Name des Attributs
+	 */
+	public String getAttributName(final int attribut) {
+		return attribute[attribut];
+	}
+
+	/**
+	 * Liest die Guete aller Attribute eines Datensatzes in primitive Felder.
+	 * Der Wert des Attributs <code>i</code> steht danach jeweils an der
+	 * Position <code>offset + i</code>.
+	 *
+	 * @param datum
+	 *            ein DAV-Datum (<code>!= null</code>)
+	 * @param indizes
+	 *            nimmt die unskalierten Guete-Indizes (ggf. Zustaende) auf
+	 * @param verfahren
+	 *            nimmt die Codes der Guete-Verfahren auf
+	 * @param wertNichtErmittelbar
+	 *            nimmt auf, ob der Wert des Attributs im Zustand
+	 *            <code>nicht ermittelbar</code> steht (darf
+	 *            <code>null</code> sein, dann wird der Wert nicht gelesen)
+	 * @param offset
+	 *            die Position fuer das erste Attribut in den Zielfeldern
+	 */
+	public void lese(final Data datum, final long[] indizes,
+			final int[] verfahren, final boolean[] wertNichtErmittelbar,
+			final int offset) {
+		if (GueteMetriken.AKTIV) {
+			GueteMetriken.erfasseDekodierung(attribute.length);
+		}
+		for (int i = 0; i < attribute.length; i++) {
+			final Data item = datum.getItem(attribute[i]);
+			final Data guete = item.getItem(GUETE);
+			indizes[offset + i] = guete.getUnscaledValue(INDEX).longValue();
+			verfahren[offset + i] = guete.getUnscaledValue(VERFAHREN)
+					.intValue();
+			if (wertNichtErmittelbar != null) {
+				wertNichtErmittelbar[offset + i] = item.getUnscaledValue(WERT)
+						.longValue() == DUAKonstanten.NICHT_ERMITTELBAR;
+			}
+		}
+	}
+
+	/**
+	 * Liest die Guete aller Attribute eines Datensatzes als Guetewerte.
+	 *
+	 * @param datum
+	 *            ein DAV-Datum (<code>!= null</code>)
+	 * @param ziel
+	 *            nimmt die Guetewerte auf
+	 * @param offset
+	 *            die Position fuer das erste Attribut im Zielfeld
+	 */
+	public void lese(final Data datum, final GWert[] ziel, final int offset) {
+		for (int i = 0; i < attribute.length; i++) {
+			ziel[offset + i] = lese(datum, i);
+		}
+	}
+
+	/**
+	 * Liest die Guete eines Attributs als Guetewert (entspricht
+	 * {@link GWert#lese(Data, String)}).
+	 *
+	 * @param datum
+	 *            ein DAV-Datum (<code>!= null</code>)
+	 * @param attribut
+	 *            die Nummer des Attributs
+	 * @return der Guetewert
+	 */
+	public GWert lese(final Data datum, final int attribut) {
+		if (GueteMetriken.AKTIV) {
+			GueteMetriken.erfasseDekodierung(1);
+		}
+		final Data guete = datum.getItem(attribute[attribut]).getItem(GUETE);
+		return GueteVerfahren.getGWert(guete.getUnscaledValue(INDEX)
+				.longValue(), GueteVerfahren.getZustand(guete
+				.getUnscaledValue(VERFAHREN).intValue()));
+	}
+
+	/**
+	 * Liest den unskalierten Guete-Index eines Attributs.
+	 *
+	 * @param datum
+	 *            ein DAV-Datum (<code>!= null</code>)
+	 * @param attribut
+	 *            die Nummer des Attributs
+	 * @return der unskalierte Guete-Index (ggf. ein Zustand)
+	 */
+	public long leseIndexUnskaliert(final Data datum, final int attribut) {
+		return datum.getItem(attribute[attribut]).getItem(GUETE)
+				.getUnscaledValue(INDEX).longValue();
+	}
+
+	/**
+	 * Liest den Code des Guete-Verfahrens eines Attributs.
+	 *
+	 * @param datum
+	 *            ein DAV-Datum (<code>!= null</code>)
+	 * @param attribut
+	 *            die Nummer des Attributs
+	 * @return der Code des Guete-Verfahrens
+	 */
+	public int leseVerfahren(final Data datum, final int attribut) {
+		return datum.getItem(attribute[attribut]).getItem(GUETE)
+				.getUnscaledValue(VERFAHREN).intValue();
+	}
+
+	/**
+	 * Liest, ob der Wert eines Attributs im Zustand
+	 * <code>nicht ermittelbar</code> steht.
+	 *
+	 * @param datum
+	 *            ein DAV-Datum (<code>!= null</code>)
+	 * @param attribut
+	 *            die Nummer des Attributs
+	 * @return ob der Wert im Zustand <code>nicht ermittelbar</code> steht
+	 */
+	public boolean isWertNichtErmittelbar(final Data datum, final int attribut) {
+		return datum.getItem(attribute[attribut]).getUnscaledValue(WERT)
+				.longValue() == DUAKonstanten.NICHT_ERMITTELBAR;
+	}
+
+}
@@ -0,0 +1,335 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import java.lang.management.ManagementFactory;
+import java.util.Arrays;
+import java.util.concurrent.atomic.LongAdder;
+
+import javax.management.JMException;
+import javax.management.ObjectName;
+
+/**
+ * Messwerte zur Gueteberechnung (Aufrufe, Rechenzeiten, nicht verrechenbare
+ * Ergebnisse usw.).<br>
+ * Die Erfassung wird ueber die System-Eigenschaft {@value #EIGENSCHAFT}
+ * (<code>-Dde.bsvrz.dua.guete.metriken=true</code>) eingeschaltet. Da
+ * {@link #AKTIV} eine Konstante ist, entfernt der JIT-Compiler die Erfassung
+ * bei ausgeschalteter Eigenschaft vollstaendig. Bei eingeschalteter
+ * Eigenschaft werden die Messwerte unter {@value #OBJEKT_NAME} am
+ * Plattform-MBean-Server angemeldet; gezaehlt wird ueber {@link LongAdder},
+ * so dass parallele Berechnungen sich nicht gegenseitig ausbremsen.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteMetriken implements GueteMetrikenMXBean {
+
+	/**
+	 * Name der System-Eigenschaft, mit der die Erfassung eingeschaltet wird.
+	 */
+	public static final String EIGENSCHAFT = "de.bsvrz.dua.guete.metriken"; //$NON-NLS-1$
+
+	/**
+	 * Name, unter dem die Messwerte am MBean-Server angemeldet werden.
+	 */
+	public static final String OBJEKT_NAME = "de.bsvrz.dua.guete:type=GueteMetriken"; //$NON-NLS-1$
+
+	/**
+	 * Zeigt an, ob die Erfassung eingeschaltet ist.
+	 */
+	public static final boolean AKTIV = Boolean.getBoolean(EIGENSCHAFT);
+
+	/**
+	 * Die Namen der Operationen, indiziert ueber deren Codes in
+	 * {@link GueteRechner} ({@link GueteRechner#PRODUKT} bis
+	 * {@link GueteRechner#EXP}).
+	 */
+	private static final String[] OPERATIONEN = { "produkt", "quotient", //$NON-NLS-1$ //$NON-NLS-2$
+			"summe", "differenz", "exp" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	/**
+	 * Anzahl der Felder einer Verteilung.
+	 */
+	private static final int VERTEILUNG = 40;
+
+	/**
+	 * Die Messwerte (<code>null</code>, wenn die Erfassung ausgeschaltet
+	 * ist).
+	 */
+	private static final GueteMetriken INSTANZ = AKTIV ? melde(new GueteMetriken())
+			: null;
+
+	/**
+	 * Die Anzahl der Aufrufe je Operation.
+	 */
+	private final LongAdder[] aufrufe = erzeuge(OPERATIONEN.length);
+
+	/**
+	 * Die Rechenzeit je Operation.
+	 */
+	private final LongAdder[] dauer = erzeuge(OPERATIONEN.length);
+
+	/**
+	 * Die Verteilung der Rechenzeiten je Operation.
+	 */
+	private final LongAdder[][] dauerVerteilung = new LongAdder[OPERATIONEN.length][];
+
+	/**
+	 * Die Verteilung der Anzahl der Eingaben.
+	 */
+	private final LongAdder[] anzahlVerteilung = erzeuge(VERTEILUNG);
+
+	/**
+	 * Die Anzahl der nicht verrechenbaren Ergebnisse.
+	 */
+	private final LongAdder nichtVerrechenbar = new LongAdder();
+
+	/**
+	 * Die Anzahl der Aufrufe mit unterschiedlichen Verfahren.
+	 */
+	private final LongAdder unterschiedlicheVerfahren = new LongAdder();
+
+	/**
+	 * Die Anzahl der gelesenen Guetewerte.
+	 */
+	private final LongAdder dekodierungen = new LongAdder();
+
+	/**
+	 * Die Anzahl der geschriebenen Guetewerte.
+	 */
+	private final LongAdder exporte = new LongAdder();
+
+	/**
+	 * Standardkonstruktor.
+	 */
+	private GueteMetriken() {
+		for (int i = 0; i < OPERATIONEN.length; i++) {
+			dauerVerteilung[i] = erzeuge(VERTEILUNG);
+		}
+	}
+
+	/**
+	 * Erfragt die Messwerte.
+	 *
+	 * @return die Messwerte oder <code>null</code>, wenn die Erfassung
+	 *         ausgeschaltet ist
+	 */
+	public static GueteMetrikenMXBean getInstanz() {
+		return INSTANZ;
+	}
+
+	/**
+	 * Erfasst einen Aufruf einer Operation. Darf nur bei eingeschalteter
+	 * Erfassung aufgerufen werden.
+	 *
+	 * @param operation
+	 *            der Code der Operation in {@link GueteRechner}
+	 * @param anzahl
+	 *            die Anzahl der Eingaben
+	 * @param start
+	 *            der Startzeitpunkt ({@link System#nanoTime()})
+	 * @param ergebnis
+	 *            das Ergebnis
+	 * @return das Ergebnis
+	 */
+	static GWert erfasse(final int operation, final int anzahl,
+			final long start, final GWert ergebnis) {
+		final long zeit = System.nanoTime() - start;
+		INSTANZ.aufrufe[operation].increment();
+		INSTANZ.dauer[operation].add(zeit);
+		INSTANZ.dauerVerteilung[operation][getFeld(zeit)].increment();
+		INSTANZ.anzahlVerteilung[getFeld(anzahl)].increment();
+		if (!ergebnis.isVerrechenbar()) {
+			INSTANZ.nichtVerrechenbar.increment();
+		}
+		return ergebnis;
+	}
+
+	/**
+	 * Erfasst einen Aufruf mit unterschiedlichen Verfahren. Darf nur bei
+	 * eingeschalteter Erfassung aufgerufen werden.
+	 */
+	static void erfasseUnterschiedlicheVerfahren() {
+		INSTANZ.unterschiedlicheVerfahren.increment();
+	}
+
+	/**
+	 * Erfasst gelesene Guetewerte. Darf nur bei eingeschalteter Erfassung
+	 * aufgerufen werden.
+	 *
+	 * @param anzahl
+	 *            die Anzahl der gelesenen Guetewerte
+	 */
+	static void erfasseDekodierung(final int anzahl) {
+		INSTANZ.dekodierungen.add(anzahl);
+	}
+
+	/**
+	 * Erfasst geschriebene Guetewerte. Darf nur bei eingeschalteter
+	 * Erfassung aufgerufen werden.
+	 *
+	 * @param anzahl
+	 *            die Anzahl der geschriebenen Guetewerte
+	 */
+	static void erfasseExport(final int anzahl) {
+		INSTANZ.exporte.add(anzahl);
+	}
+
+	@Override
+	public String[] getOperationen() {
+		return OPERATIONEN.clone();
+	}
+
+	@Override
+	public long[] getAufrufe() {
+		return summen(aufrufe);
+	}
+
+	@Override
+	public long[] getDauer() {
+		return summen(dauer);
+	}
+
+	@Override
+	public long[] getDauerVerteilung(final String operation) {
+		final int index = Arrays.asList(OPERATIONEN).indexOf(operation);
+		if (index < 0) {
+			throw new IllegalArgumentException("Unbekannte Operation: " //$NON-NLS-1$
+					+ operation);
+		}
+		return summen(dauerVerteilung[index]);
+	}
+
+	@Override
+	public long[] getAnzahlVerteilung() {
+		return summen(anzahlVerteilung);
+	}
+
+	@Override
+	public long getNichtVerrechenbareErgebnisse() {
+		return nichtVerrechenbar.sum();
+	}
+
+	@Override
+	public long getUnterschiedlicheVerfahren() {
+		return unterschiedlicheVerfahren.sum();
+	}
+
+	@Override
+	public long getDekodierungen() {
+		return dekodierungen.sum();
+	}
+
+	@Override
+	public long getExporte() {
+		return exporte.sum();
+	}
+
+	@Override
+	public void zuruecksetzen() {
+		for (int i = 0; i < OPERATIONEN.length; i++) {
+			aufrufe[i].reset();
+			dauer[i].reset();
+			for (final LongAdder feld : dauerVerteilung[i]) {
+				feld.reset();
+			}
+		}
+		for (final LongAdder feld : anzahlVerteilung) {
+			feld.reset();
+		}
+		nichtVerrechenbar.reset();
+		unterschiedlicheVerfahren.reset();
+		dekodierungen.reset();
+		exporte.reset();
+	}
+
+	/**
+	 * Erfragt das Feld einer Verteilung fuer einen Wert.
+	 *
+	 * @param wert
+	 *            der Wert
+	 * @return das Feld (Anzahl der signifikanten Bits, hoechstens das letzte
+	 *         Feld)
+	 */
+	private static int getFeld(final long wert) {
+		return Math.min(VERTEILUNG - 1, 64 - Long
+				.numberOfLeadingZeros(Math.max(0, wert)));
+	}
+
+	/**
+	 * Erzeugt ein Feld von Zaehlern.
+	 *
+	 * @param anzahl
+	 *            die Anzahl der Zaehler
+	 * @return die Zaehler
+	 */
+	private static LongAdder[] erzeuge(final int anzahl) {
+		final LongAdder[] zaehler = new LongAdder[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			zaehler[i] = new LongAdder();
+		}
+		return zaehler;
+	}
+
+	/**
+	 * Erfragt die aktuellen Staende eines Feldes von Zaehlern.
+	 *
+	 * @param zaehler
+	 *            die Zaehler
+	 * @return die Staende
+	 */
+	private static long[] summen(final LongAdder[] zaehler) {
+		final long[] ergebnis = new long[zaehler.length];
+		for (int i = 0; i < zaehler.length; i++) {
+			ergebnis[i] = zaehler[i].sum();
+		}
+		return ergebnis;
+	}
+
+	/**
+	 * Meldet die Messwerte am Plattform-MBean-Server an. Schlaegt die
+	 * Anmeldung fehl (z.B. weil die Bibliothek in mehreren Classloadern
+	 * geladen wurde), wird trotzdem gezaehlt; die Messwerte sind dann nur
+	 * ueber {@link #getInstanz()} erreichbar.
+	 *
+	 * @param metriken
+	 *            die Messwerte
+	 * @return die Messwerte
+	 */
+	private static GueteMetriken melde(final GueteMetriken metriken) {
+		try {
+			ManagementFactory.getPlatformMBeanServer().registerMBean(metriken,
+					new ObjectName(OBJEKT_NAME));
+		} catch (final JMException e) {
+			// die Messwerte werden trotzdem erfasst
+		}
+		return metriken;
+	}
+
+}
@@ -0,0 +1,124 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+/**
+ * JMX-Schnittstelle der Messwerte zur Gueteberechnung (siehe
+ * {@link GueteMetriken}).
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public interface GueteMetrikenMXBean {
+
+	/**
+	 * Erfragt die Namen der erfassten Operationen.
+	 *
+	 * @return die Namen der Operationen (<code>produkt</code>,
+	 *         <code>quotient</code>, <code>summe</code>,
+	 *         <code>differenz</code>, <code>exp</code>)
+	 */
+	String[] getOperationen();
+
+	/**
+	 * Erfragt die Anzahl der Aufrufe je Operation.
+	 *
+	 * @return die Anzahl der Aufrufe in der Reihenfolge von
+	 *         {@link #getOperationen()}
+	 */
+	long[] getAufrufe();
+
+	/**
+	 * Erfragt die gesamte Rechenzeit je Operation.
+	 *
+	 * @return die Rechenzeit in Nanosekunden in der Reihenfolge von
+	 *         {@link #getOperationen()}
+	 */
+	long[] getDauer();
+
+	/**
+	 * Erfragt die Verteilung der Rechenzeiten einer Operation. Das Feld
+	 * <code>i</code> zaehlt die Aufrufe mit einer Rechenzeit von
+	 * <code>2<sup>i-1</sup></code> bis unter <code>2<sup>i</sup></code>
+	 * Nanosekunden (Feld 0: unter einer Nanosekunde), das letzte Feld alle
+	 * laengeren Aufrufe.
+	 *
+	 * @param operation
+	 *            der Name der Operation
+	 * @return die Verteilung der Rechenzeiten
+	 */
+	long[] getDauerVerteilung(String operation);
+
+	/**
+	 * Erfragt die Verteilung der Anzahl der Eingaben je Aufruf ueber alle
+	 * Operationen. Das Feld <code>i</code> zaehlt die Aufrufe mit
+	 * <code>2<sup>i-1</sup></code> bis unter <code>2<sup>i</sup></code>
+	 * Eingaben (Feld 0: keine Eingabe), das letzte Feld alle groesseren
+	 * Aufrufe.
+	 *
+	 * @return die Verteilung der Anzahl der Eingaben
+	 */
+	long[] getAnzahlVerteilung();
+
+	/**
+	 * Erfragt die Anzahl der Ergebnisse mit dem Zustand
+	 * <code>nicht ermittelbar/fehlerhaft</code>.
+	 *
+	 * @return die Anzahl der nicht verrechenbaren Ergebnisse
+	 */
+	long getNichtVerrechenbareErgebnisse();
+
+	/**
+	 * Erfragt die Anzahl der Aufrufe, die wegen unterschiedlicher
+	 * Guete-Verfahren der Eingaben mit einer {@link GueteException}
+	 * abgebrochen wurden.
+	 *
+	 * @return die Anzahl der Aufrufe mit unterschiedlichen Verfahren
+	 */
+	long getUnterschiedlicheVerfahren();
+
+	/**
+	 * Erfragt die Anzahl der aus DAV-Daten gelesenen Guetewerte.
+	 *
+	 * @return die Anzahl der gelesenen Guetewerte
+	 */
+	long getDekodierungen();
+
+	/**
+	 * Erfragt die Anzahl der in DAV-Daten geschriebenen Guetewerte.
+	 *
+	 * @return die Anzahl der geschriebenen Guetewerte
+	 */
+	long getExporte();
+
+	/**
+	 * Setzt alle Zaehler zurueck.
+	 */
+	void zuruecksetzen();
+
+}
@@ -0,0 +1,429 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import java.util.concurrent.ForkJoinPool;
+import java.util.concurrent.RecursiveTask;
+
+import de.bsvrz.dua.guete.vorschriften.Standard;
+
+/**
+ * Parallele Berechnung der Gesamt-Guete grosser Mengen von Guete-Indizes
+ * ueber Fork/Join.<br>
+ * Die Eingabe wird in Bloecke fester Groesse ({@link #BLOCK_GROESSE})
+ * zerlegt, die jeweils der Reihe nach in einem {@link GueteAkkumulator}
+ * gesammelt werden. Die Teilergebnisse werden in einem festen Binaerbaum
+ * ueber die Bloecke mit {@link GueteAkkumulator#vereinige(GueteAkkumulator)}
+ * zusammengefasst. Die Reihenfolge aller Gleitkomma-Operationen haengt damit
+ * nur von der Anzahl der Werte ab, nicht von der Anzahl der Threads oder
+ * der Ausfuehrungsreihenfolge: Dieselbe Eingabe liefert immer bitgenau
+ * dasselbe Ergebnis. Fuer hoechstens {@link #BLOCK_GROESSE} Werte ist das
+ * Ergebnis identisch mit dem von {@link GueteVerfahren}, darueber nur bis
+ * auf Rundungsfehler.<br>
+ * Parallel berechnet werden nur Verfahren nach der Standard-Vorschrift; fuer
+ * alle anderen Verfahren wird wie in {@link GueteRechner} sequentiell
+ * gerechnet.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteParallel {
+
+	/**
+	 * Anzahl der Werte je Block.
+	 */
+	public static final int BLOCK_GROESSE = 4096;
+
+	/**
+	 * Anzahl der Bloecke, bis zu der eine Teilaufgabe nicht weiter
+	 * aufgeteilt, sondern (nach demselben Baum) im aktuellen Thread berechnet
+	 * wird.
+	 */
+	private static final int SEQUENTIELLE_BLOECKE = 4;
+
+	/**
+	 * Standardkonstruktor.
+	 */
+	private GueteParallel() {
+		// keine Instanzen
+	}
+
+	/**
+	 * Sammelt die uebergebenen Guete-Indizes parallel in einem Akkumulator.
+	 *
+	 * @param pool
+	 *            der Pool, in dem gerechnet wird
+	 * @param indizes
+	 *            die skalierten Guete-Indizes (bzw.
+	 *            {@link GueteRechner#NICHT_VERRECHENBAR})
+	 * @param gewichte
+	 *            die Gewichtungen der Guete-Indizes oder <code>null</code>,
+	 *            wenn die Werte nicht gewichtet sind
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return der Akkumulator mit allen Werten
+	 */
+	public static GueteAkkumulator akkumuliere(final ForkJoinPool pool,
+			final double[] indizes, final double[] gewichte, final int offset,
+			final int anzahl) {
+		final Aufgabe aufgabe = new Aufgabe(indizes, gewichte, null, offset,
+				anzahl, 0, getBloecke(anzahl));
+		return pool.invoke(aufgabe).akkumulator;
+	}
+
+	/**
+	 * Sammelt die uebergebenen Guetewerte parallel in einem Akkumulator. Wie
+	 * in {@link GueteVerfahren} gilt die Menge nach dem ersten nicht
+	 * verrechenbaren Wert als nicht verrechenbar; alle weiteren Werte werden
+	 * ignoriert, d.h. auch deren Verfahren wird nicht mehr geprueft.
+	 *
+	 * @param pool
+	 *            der Pool, in dem gerechnet wird
+	 * @param werte
+	 *            die Guetewerte
+	 * @return der Akkumulator mit allen Werten
+	 * @throws GueteException
+	 *             wenn die Guetewerte unterschiedliche oder nicht nach der
+	 *             Standard-Vorschrift rechnende Verfahren verlangen
+	 */
+	public static GueteAkkumulator akkumuliere(final ForkJoinPool pool,
+			final GWert... werte) throws GueteException {
+		final Aufgabe aufgabe = new Aufgabe(null, null, werte, 0,
+				werte.length, 0, getBloecke(werte.length));
+		final Teilergebnis ergebnis = pool.invoke(aufgabe);
+		if (ergebnis.fehler != null) {
+			throw ergebnis.fehler;
+		}
+		return ergebnis.akkumulator;
+	}
+
+	/**
+	 * Berechnet parallel die Gesamt-Guete fuer eine Verknuepfung mit dem
+	 * Operator "<code>+</code>" (siehe
+	 * {@link GueteRechner#summe(int, double[], double[], int, int)}).
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param gewichte
+	 *            die Gewichtungen oder <code>null</code>
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Guete, 1.0 fuer eine leere Menge oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public static double summe(final int verfahren, final double[] indizes,
+			final double[] gewichte, final int offset, final int anzahl) {
+		if (!isStandard(verfahren)) {
+			return GueteRechner.summe(verfahren, indizes, gewichte, offset,
+					anzahl);
+		}
+		return akkumuliere(ForkJoinPool.commonPool(), indizes, gewichte,
+				offset, anzahl).getSummenIndex();
+	}
+
+	/**
+	 * Berechnet parallel die Gesamt-Guete fuer eine Verknuepfung mit dem
+	 * Operator "<code>-</code>" (siehe
+	 * {@link GueteRechner#differenz(int, double[], double[], int, int)}).
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param gewichte
+	 *            die Gewichtungen oder <code>null</code>
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Guete, 1.0 fuer eine leere Menge oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public static double differenz(final int verfahren,
+			final double[] indizes, final double[] gewichte, final int offset,
+			final int anzahl) {
+		if (!isStandard(verfahren)) {
+			return GueteRechner.differenz(verfahren, indizes, gewichte,
+					offset, anzahl);
+		}
+		return akkumuliere(ForkJoinPool.commonPool(), indizes, gewichte,
+				offset, anzahl).getSummenIndex();
+	}
+
+	/**
+	 * Berechnet parallel die Gesamt-Guete fuer eine Verknuepfung mit dem
+	 * Operator "<code>*</code>" (siehe
+	 * {@link GueteRechner#produkt(int, double[], int, int)}).
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Guete, 1.0 fuer eine leere Menge oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public static double produkt(final int verfahren, final double[] indizes,
+			final int offset, final int anzahl) {
+		if (!isStandard(verfahren)) {
+			return GueteRechner.produkt(verfahren, indizes, offset, anzahl);
+		}
+		return akkumuliere(ForkJoinPool.commonPool(), indizes, null, offset,
+				anzahl).getProduktIndex();
+	}
+
+	/**
+	 * Berechnet parallel die Gesamt-Guete fuer eine Verknuepfung mit dem
+	 * Operator "<code>/</code>" (siehe
+	 * {@link GueteRechner#quotient(int, double[], int, int)}).
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Guete, 1.0 fuer eine leere Menge oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public static double quotient(final int verfahren, final double[] indizes,
+			final int offset, final int anzahl) {
+		if (!isStandard(verfahren)) {
+			return GueteRechner.quotient(verfahren, indizes, offset, anzahl);
+		}
+		return akkumuliere(ForkJoinPool.commonPool(), indizes, null, offset,
+				anzahl).getProduktIndex();
+	}
+
+	/**
+	 * Erfragt, ob ein Verfahren nach der Standard-Vorschrift rechnet.
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @return ob das Verfahren nach der Standard-Vorschrift rechnet
+	 */
+	private static boolean isStandard(final int verfahren) {
+		final GueteVerfahren gueteVerfahren = GueteVerfahren
+				.getZustand(verfahren);
+		return gueteVerfahren != null
+				&& gueteVerfahren.getBerechnungsVorschrift().getClass() == Standard.class;
+	}
+
+	/**
+	 * Erfragt die Anzahl der Bloecke fuer eine Anzahl von Werten.
+	 *
+	 * @param anzahl
+	 *            die Anzahl der Werte
+	 * @return die Anzahl der Bloecke (mindestens 1)
+	 */
+	private static int getBloecke(final int anzahl) {
+		return Math.max(1, (anzahl + BLOCK_GROESSE - 1) / BLOCK_GROESSE);
+	}
+
+	/**
+	 * Teilaufgabe fuer einen Bereich von Bloecken.
+	 */
+	private static final class Aufgabe extends RecursiveTask<Teilergebnis> {
+
+		private static final long serialVersionUID = 1L;
+
+		/**
+		 * Die Guete-Indizes (bzw. <code>null</code>, wenn Guetewerte
+		 * verrechnet werden).
+		 */
+		private final double[] indizes;
+
+		/**
+		 * Die Gewichtungen oder <code>null</code>.
+		 */
+		private final double[] gewichte;
+
+		/**
+		 * Die Guetewerte (bzw. <code>null</code>, wenn Guete-Indizes
+		 * verrechnet werden).
+		 */
+		private final GWert[] werte;
+
+		/**
+		 * Der Index des ersten Elements der gesamten Eingabe.
+		 */
+		private final int offset;
+
+		/**
+		 * Die Anzahl der Elemente der gesamten Eingabe.
+		 */
+		private final int anzahl;
+
+		/**
+		 * Der erste Block dieser Teilaufgabe.
+		 */
+		private final int vonBlock;
+
+		/**
+		 * Der Block hinter dem letzten Block dieser Teilaufgabe.
+		 */
+		private final int bisBlock;
+
+		/**
+		 * Konstruktor.
+		 *
+		 * @param indizes
+		 *            die Guete-Indizes oder <code>null</code>
+		 * @param gewichte
+		 *            die Gewichtungen oder <code>null</code>
+		 * @param werte
+		 *            die Guetewerte oder <code>null</code>
+		 * @param offset
+		 *            der Index des ersten Elements der gesamten Eingabe
+		 * @param anzahl
+		 *            die Anzahl der Elemente der gesamten Eingabe
+		 * @param vonBlock
+		 *            der erste Block dieser Teilaufgabe
+		 * @param bisBlock
+		 *            der Block hinter dem letzten Block dieser Teilaufgabe
+		 */
+		private Aufgabe(final double[] indizes, final double[] gewichte,
+				final GWert[] werte, final int offset, final int anzahl,
+				final int vonBlock, final int bisBlock) {
+			this.indizes = indizes;
+			this.gewichte = gewichte;
+			this.werte = werte;
+			this.offset = offset;
+			this.anzahl = anzahl;
+			this.vonBlock = vonBlock;
+			this.bisBlock = bisBlock;
+		}
+
+		@Override
+		protected Teilergebnis compute() {
+			if (bisBlock - vonBlock == 1) {
+				return sammle();
+			}
+
+			final int mitte = (vonBlock + bisBlock) >>> 1;
+			final Aufgabe links = new Aufgabe(indizes, gewichte, werte,
+					offset, anzahl, vonBlock, mitte);
+			final Aufgabe rechts = new Aufgabe(indizes, gewichte, werte,
+					offset, anzahl, mitte, bisBlock);
+			final Teilergebnis ergebnis;
+			final Teilergebnis rechtesErgebnis;
+			if (bisBlock - vonBlock <= SEQUENTIELLE_BLOECKE) {
+				ergebnis = links.compute();
+				rechtesErgebnis = rechts.compute();
+			} else {
+				rechts.fork();
+				ergebnis = links.compute();
+				rechtesErgebnis = rechts.join();
+			}
+
+			ergebnis.vereinige(rechtesErgebnis);
+			return ergebnis;
+		}
+
+		/**
+		 * Sammelt die Werte eines Blocks. Ein unpassendes Verfahren wird nur
+		 * vermerkt, da es keine Rolle spielt, wenn bereits ein frueherer
+		 * Block einen nicht verrechenbaren Wert enthaelt.
+		 *
+		 * @return das Teilergebnis des Blocks
+		 */
+		private Teilergebnis sammle() {
+			final Teilergebnis ergebnis = new Teilergebnis();
+			final GueteAkkumulator akkumulator = ergebnis.akkumulator;
+			final int von = offset + vonBlock * BLOCK_GROESSE;
+			final int bis = Math.min(offset + anzahl, von + BLOCK_GROESSE);
+			for (int i = von; i < bis && akkumulator.isVerrechenbar(); i++) {
+				if (werte != null) {
+					try {
+						akkumulator.addiere(werte[i]);
+					} catch (final GueteException e) {
+						ergebnis.fehler = e;
+						break;
+					}
+				} else if (gewichte != null) {
+					akkumulator.addiere(indizes[i], gewichte[i]);
+				} else {
+					akkumulator.addiere(indizes[i]);
+				}
+			}
+			return ergebnis;
+		}
+	}
+
+	/**
+	 * Teilergebnis einer {@link Aufgabe}: die bis zum ersten nicht
+	 * verrechenbaren Wert bzw. bis zum ersten unpassenden Verfahren
+	 * gesammelten Werte.
+	 */
+	private static final class Teilergebnis {
+
+		/**
+		 * Der Akkumulator mit den gesammelten Werten.
+		 */
+		private final GueteAkkumulator akkumulator = new GueteAkkumulator();
+
+		/**
+		 * Der Fehler beim Sammeln oder <code>null</code>, wenn alle Werte
+		 * (bis zum ersten nicht verrechenbaren Wert) gesammelt wurden.
+		 */
+		private GueteException fehler;
+
+		/**
+		 * Uebernimmt das Teilergebnis der nachfolgenden Werte. Wie beim
+		 * sequentiellen Sammeln bleibt das Teilergebnis unveraendert, wenn
+		 * es bereits einen Fehler enthaelt oder nicht verrechenbar ist.
+		 *
+		 * @param rechts
+		 *            das Teilergebnis der nachfolgenden Werte
+		 */
+		private void vereinige(final Teilergebnis rechts) {
+			if (fehler != null || !akkumulator.isVerrechenbar()) {
+				return;
+			}
+			try {
+				akkumulator.vereinige(rechts.akkumulator);
+			} catch (final GueteException e) {
+				fehler = e;
+				return;
+			}
+			fehler = rechts.fehler;
+		}
+	}
+
+}
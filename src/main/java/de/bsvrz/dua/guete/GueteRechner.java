@@ -0,0 +1,715 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+
+import de.bsvrz.dua.guete.vorschriften.IGuete;
+
+/**
+ * Primitive Schnittstelle zur Gueteberechnung.<br>
+ * Alle Methoden arbeiten auf vom Aufrufer verwalteten Feldern von
+ * Guete-Indizes und Gewichtungen und liefern den skalierten Guete-Index des
+ * Ergebnisses. Ein nicht verrechenbarer Guete-Index (Zustand
+ * <code>fehlerhaft</code>, <code>nicht ermittelbar</code> oder
+ * <code>nicht ermittelbar/fehlerhaft</code>) wird durch
+ * {@link #NICHT_VERRECHENBAR} dargestellt. Enthaelt eine Eingabe einen
+ * solchen Wert, so ist auch das Ergebnis nicht verrechenbar.<br>
+ * Fuer das Verfahren {@link GueteVerfahren#STANDARD} werden die Ergebnisse
+ * ohne Objekterzeugung berechnet und sind identisch mit denen der
+ * Berechnungsvorschrift {@link de.bsvrz.dua.guete.vorschriften.Standard}.
+ * Die Verknuepfungen sind ueber die Codes {@link #PRODUKT},
+ * {@link #QUOTIENT}, {@link #SUMME} und {@link #DIFFERENZ} auch ueber
+ * {@link #berechne(int, int, double[], double[], int, int)} aufrufbar, so
+ * dass Klassen, die die Verknuepfung als Parameter fuehren, keine eigenen
+ * Codes und Fallunterscheidungen benoetigen.
+ * Fuer haeufig verwendete Exponenten koennen mit
+ * {@link #registriereExponent(double)} Tabellen angelegt werden, aus denen
+ * {@link #exp(int, double, double)} die Potenzen aller Guete-Indizes des
+ * DAV-Wertebereichs liest. Dieselben Tabellen verwendet
+ * {@link #expUnskaliert(long, double)} fuer die auf das Raster gerundeten
+ * Potenzen der Berechnungsvorschrift
+ * {@link de.bsvrz.dua.guete.vorschriften.Festkomma}.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteRechner {
+
+	/**
+	 * Darstellung eines nicht verrechenbaren Guete-Index.
+	 */
+	public static final double NICHT_VERRECHENBAR = Double.NaN;
+
+	/**
+	 * Code der Verknuepfung {@link #produkt(int, double[], int, int)}.
+	 */
+	public static final int PRODUKT = 0;
+
+	/**
+	 * Code der Verknuepfung {@link #quotient(int, double[], int, int)}.
+	 */
+	public static final int QUOTIENT = 1;
+
+	/**
+	 * Code der Verknuepfung
+	 * {@link #summe(int, double[], double[], int, int)}.
+	 */
+	public static final int SUMME = 2;
+
+	/**
+	 * Code der Verknuepfung
+	 * {@link #differenz(int, double[], double[], int, int)}.
+	 */
+	public static final int DIFFERENZ = 3;
+
+	/**
+	 * Code der Operation {@link #exp(int, double, double)}. Da sie einen
+	 * Exponenten benoetigt, ist sie ueber
+	 * {@link #berechne(int, int, double[], double[], int, int)} nicht
+	 * aufrufbar.
+	 */
+	public static final int EXP = 4;
+
+	/**
+	 * Guete, die fuer eine leere Menge von Guete-Indizes geliefert wird.
+	 */
+	private static final double LEERE_MENGE = 1.0;
+
+	/**
+	 * Code des Standardverfahrens.
+	 */
+	private static final int STANDARD = GueteVerfahren.STANDARD.getCode();
+
+	/**
+	 * Die Tabellen der registrierten Exponenten. Das Feld wird bei einer
+	 * Registrierung ersetzt, so dass beim Lesen keine Sperre noetig ist.
+	 */
+	private static final AtomicReference<ExpTabelle[]> EXP_TABELLEN = new AtomicReference<ExpTabelle[]>(
+			new ExpTabelle[0]);
+
+	/**
+	 * Standardkonstruktor.
+	 */
+	private GueteRechner() {
+		// keine Instanzen
+	}
+
+	/**
+	 * Erfragt, ob der uebergebene Guete-Index verrechenbar ist.
+	 *
+	 * @param index
+	 *            ein Guete-Index
+	 * @return ob der uebergebene Guete-Index verrechenbar ist
+	 */
+	public static boolean isVerrechenbar(final double index) {
+		return !Double.isNaN(index);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer eine Verknuepfung mit dem Operator "
+	 * <code>*</code>".
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Guete, 1.0 fuer eine leere Menge oder
+	 *         {@link #NICHT_VERRECHENBAR}
+	 */
+	public static double produkt(final int verfahren, final double[] indizes,
+			final int offset, final int anzahl) {
+		if (!isVerrechenbar(indizes, offset, anzahl)) {
+			return NICHT_VERRECHENBAR;
+		}
+		if (verfahren == STANDARD) {
+			return p(indizes, offset, anzahl);
+		}
+		return getVorschrift(verfahren).p(indizes, offset, anzahl);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer eine Verknuepfung mit dem Operator "
+	 * <code>/</code>".
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Guete, 1.0 fuer eine leere Menge oder
+	 *         {@link #NICHT_VERRECHENBAR}
+	 */
+	public static double quotient(final int verfahren, final double[] indizes,
+			final int offset, final int anzahl) {
+		if (!isVerrechenbar(indizes, offset, anzahl)) {
+			return NICHT_VERRECHENBAR;
+		}
+		if (verfahren == STANDARD) {
+			return p(indizes, offset, anzahl);
+		}
+		return getVorschrift(verfahren).q(indizes, offset, anzahl);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer eine Verknuepfung mit dem Operator "
+	 * <code>+</code>". Ist mindestens eine Gewichtung ungleich 1.0, so wird
+	 * die gewichtete Vorschrift angewendet.
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param gewichte
+	 *            die Gewichtungen der Guete-Indizes (an denselben Positionen
+	 *            wie die Indizes) oder <code>null</code>, wenn die Werte
+	 *            nicht gewichtet sind
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Guete, 1.0 fuer eine leere Menge oder
+	 *         {@link #NICHT_VERRECHENBAR}
+	 */
+	public static double summe(final int verfahren, final double[] indizes,
+			final double[] gewichte, final int offset, final int anzahl) {
+		if (!isVerrechenbar(indizes, offset, anzahl)) {
+			return NICHT_VERRECHENBAR;
+		}
+		final boolean gewichtet = isGewichtet(gewichte, offset, anzahl);
+		if (verfahren == STANDARD) {
+			return gewichtet ? sw(indizes, gewichte, offset, anzahl) : s(
+					indizes, offset, anzahl);
+		}
+		final IGuete vorschrift = getVorschrift(verfahren);
+		return gewichtet ? vorschrift.sw(indizes, gewichte, offset, anzahl)
+				: vorschrift.s(indizes, offset, anzahl);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer eine Verknuepfung mit dem Operator "
+	 * <code>-</code>". Ist mindestens eine Gewichtung ungleich 1.0, so wird
+	 * die gewichtete Vorschrift angewendet.
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param gewichte
+	 *            die Gewichtungen der Guete-Indizes (an denselben Positionen
+	 *            wie die Indizes) oder <code>null</code>, wenn die Werte
+	 *            nicht gewichtet sind
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Guete, 1.0 fuer eine leere Menge oder
+	 *         {@link #NICHT_VERRECHENBAR}
+	 */
+	public static double differenz(final int verfahren,
+			final double[] indizes, final double[] gewichte, final int offset,
+			final int anzahl) {
+		if (!isVerrechenbar(indizes, offset, anzahl)) {
+			return NICHT_VERRECHENBAR;
+		}
+		final boolean gewichtet = isGewichtet(gewichte, offset, anzahl);
+		if (verfahren == STANDARD) {
+			return gewichtet ? sw(indizes, gewichte, offset, anzahl) : s(
+					indizes, offset, anzahl);
+		}
+		final IGuete vorschrift = getVorschrift(verfahren);
+		return gewichtet ? vorschrift.dw(indizes, gewichte, offset, anzahl)
+				: vorschrift.d(indizes, offset, anzahl);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer eine ueber ihren Code angegebene
+	 * Verknuepfung.
+	 *
+	 * @param verknuepfung
+	 *            die Verknuepfung ({@link #PRODUKT}, {@link #QUOTIENT},
+	 *            {@link #SUMME} oder {@link #DIFFERENZ})
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param gewichte
+	 *            die Gewichtungen der Guete-Indizes oder <code>null</code>,
+	 *            wenn die Werte nicht gewichtet sind (wird nur fuer
+	 *            {@link #SUMME} und {@link #DIFFERENZ} ausgewertet)
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Guete, 1.0 fuer eine leere Menge oder
+	 *         {@link #NICHT_VERRECHENBAR}
+	 * @throws IllegalArgumentException
+	 *             wenn die Verknuepfung unbekannt ist
+	 */
+	public static double berechne(final int verknuepfung, final int verfahren,
+			final double[] indizes, final double[] gewichte, final int offset,
+			final int anzahl) {
+		switch (verknuepfung) {
+		case PRODUKT:
+			return produkt(verfahren, indizes, offset, anzahl);
+		case QUOTIENT:
+			return quotient(verfahren, indizes, offset, anzahl);
+		case SUMME:
+			return summe(verfahren, indizes, gewichte, offset, anzahl);
+		case DIFFERENZ:
+			return differenz(verfahren, indizes, gewichte, offset, anzahl);
+		default:
+			throw new IllegalArgumentException("Unbekannte Verknuepfung: " //$NON-NLS-1$
+					+ verknuepfung);
+		}
+	}
+
+	/**
+	 * Erfragt, ob ein Code eine ueber
+	 * {@link #berechne(int, int, double[], double[], int, int)} aufrufbare
+	 * Verknuepfung bezeichnet.
+	 *
+	 * @param verknuepfung
+	 *            der Code
+	 * @return ob der Code {@link #PRODUKT}, {@link #QUOTIENT},
+	 *         {@link #SUMME} oder {@link #DIFFERENZ} ist
+	 */
+	public static boolean isVerknuepfung(final int verknuepfung) {
+		return verknuepfung >= PRODUKT && verknuepfung <= DIFFERENZ;
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer einen mit dem Exponenten
+	 * <b>exponent</b> potenzierten Wert.
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param index
+	 *            der Guete-Index
+	 * @param exponent
+	 *            der Exponent
+	 * @return die Gesamt-Guete oder {@link #NICHT_VERRECHENBAR}
+	 */
+	public static double exp(final int verfahren, final double index,
+			final double exponent) {
+		if (!isVerrechenbar(index)) {
+			return NICHT_VERRECHENBAR;
+		}
+		if (verfahren == STANDARD) {
+			final ExpTabelle tabelle = getExpTabelle(exponent);
+			return tabelle == null ? Math.pow(index, exponent) : tabelle
+					.potenz(index);
+		}
+		return getVorschrift(verfahren).e(index, exponent);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer mehrere mit dem Exponenten
+	 * <b>exponent</b> potenzierte Werte (siehe
+	 * {@link #exp(int, double, double)}).
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @param exponent
+	 *            der Exponent
+	 * @param ergebnis
+	 *            nimmt die Gesamt-Gueten bzw. {@link #NICHT_VERRECHENBAR} an
+	 *            denselben Positionen auf (darf <code>indizes</code> sein)
+	 */
+	public static void exp(final int verfahren, final double[] indizes,
+			final int offset, final int anzahl, final double exponent,
+			final double[] ergebnis) {
+		final ExpTabelle tabelle = verfahren == STANDARD ? getExpTabelle(exponent)
+				: null;
+		if (tabelle != null) {
+			for (int i = offset; i < offset + anzahl; i++) {
+				ergebnis[i] = isVerrechenbar(indizes[i]) ? tabelle
+						.potenz(indizes[i]) : NICHT_VERRECHENBAR;
+			}
+		} else {
+			for (int i = offset; i < offset + anzahl; i++) {
+				ergebnis[i] = exp(verfahren, indizes[i], exponent);
+			}
+		}
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete fuer mehrere mit dem Exponenten
+	 * <b>exponent</b> potenzierte Werte, die als unskalierte Guete-Indizes
+	 * vorliegen (siehe {@link #exp(int, double, double)}).
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizesUnskaliert
+	 *            die unskalierten Guete-Indizes (ggf. Zustaende)
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @param exponent
+	 *            der Exponent
+	 * @param ergebnis
+	 *            nimmt die skalierten Gesamt-Gueten bzw.
+	 *            {@link #NICHT_VERRECHENBAR} an denselben Positionen auf
+	 */
+	public static void exp(final int verfahren,
+			final long[] indizesUnskaliert, final int offset,
+			final int anzahl, final double exponent, final double[] ergebnis) {
+		final ExpTabelle tabelle = verfahren == STANDARD ? getExpTabelle(exponent)
+				: null;
+		for (int i = offset; i < offset + anzahl; i++) {
+			final long indexUnskaliert = indizesUnskaliert[i];
+			if (tabelle != null && indexUnskaliert >= GueteIndex.MIN_UNSKALIERT
+					&& indexUnskaliert <= GueteIndex.MAX_UNSKALIERT) {
+				ergebnis[i] = tabelle.werte[(int) indexUnskaliert];
+			} else {
+				ergebnis[i] = exp(verfahren,
+						GueteIndex.skaliere(indexUnskaliert), exponent);
+			}
+		}
+	}
+
+	/**
+	 * Berechnet die auf das Raster des DAV-Attributs gerundete Potenz eines
+	 * unskalierten Guete-Index. Die Potenz wird mit
+	 * {@link StrictMath#pow(double, double)} berechnet und kaufmaennisch
+	 * gerundet, so dass das Ergebnis auf allen Plattformen identisch ist.
+	 * Fuer Indizes von {@link GueteIndex#MIN_UNSKALIERT} bis
+	 * {@link GueteIndex#MAX_UNSKALIERT} wird es aus der Tabelle gelesen, wenn
+	 * der Exponent mit {@link #registriereExponent(double)} registriert ist.
+	 *
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index
+	 * @param exponent
+	 *            der Exponent
+	 * @return die unskalierte Potenz ({@link Long#MAX_VALUE}, wenn sie nicht
+	 *         endlich ist) oder
+	 *         {@link GueteIndex#NICHT_ERMITTELBAR_BZW_FEHLERHAFT}, wenn der
+	 *         Index einen Zustand darstellt
+	 */
+	public static long expUnskaliert(final long indexUnskaliert,
+			final double exponent) {
+		if (GueteIndex.isZustand(indexUnskaliert)) {
+			return GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+		}
+		if (indexUnskaliert <= GueteIndex.MAX_UNSKALIERT) {
+			final ExpTabelle tabelle = getExpTabelle(exponent);
+			if (tabelle != null) {
+				return tabelle.gerundet[(int) indexUnskaliert];
+			}
+		}
+		return potenzUnskaliert(indexUnskaliert, exponent);
+	}
+
+	/**
+	 * Legt fuer einen Exponenten eine Tabelle mit den Potenzen aller
+	 * Guete-Indizes von {@link GueteIndex#MIN_UNSKALIERT} bis
+	 * {@link GueteIndex#MAX_UNSKALIERT} an. Das Standardverfahren und
+	 * {@link #expUnskaliert(long, double)} lesen die Potenz eines solchen
+	 * Index danach aus der Tabelle statt sie zu berechnen; das Ergebnis ist
+	 * identisch. Fuer andere Indizes (z.B. Zwischenergebnisse) und andere
+	 * Exponenten wird weiterhin gerechnet.<br>
+	 * Eine Tabelle belegt etwa 160 KByte und kann nicht wieder entfernt
+	 * werden. Sie sollte deshalb nur fuer die wenigen Exponenten angelegt
+	 * werden, die in den Formeln einer Anwendung tatsaechlich vorkommen
+	 * (z.B. <code>0.5</code> oder <code>2</code>).
+	 *
+	 * @param exponent
+	 *            der Exponent
+	 * @throws IllegalArgumentException
+	 *             wenn der Exponent keine endliche Zahl ist
+	 */
+	public static void registriereExponent(final double exponent) {
+		if (Double.isNaN(exponent) || Double.isInfinite(exponent)) {
+			throw new IllegalArgumentException("Ungueltiger Exponent: " //$NON-NLS-1$
+					+ exponent);
+		}
+		ExpTabelle tabelle = null;
+		ExpTabelle[] alt;
+		ExpTabelle[] neu;
+		do {
+			alt = EXP_TABELLEN.get();
+			for (final ExpTabelle vorhanden : alt) {
+				if (vorhanden.exponent == exponent) {
+					return;
+				}
+			}
+			if (tabelle == null) {
+				tabelle = new ExpTabelle(exponent);
+			}
+			neu = Arrays.copyOf(alt, alt.length + 1);
+			neu[alt.length] = tabelle;
+		} while (!EXP_TABELLEN.compareAndSet(alt, neu));
+	}
+
+	/**
+	 * Erfragt die Tabelle fuer einen Exponenten.
+	 *
+	 * @param exponent
+	 *            der Exponent
+	 * @return die Tabelle oder <code>null</code>, wenn fuer den Exponenten
+	 *         keine Tabelle registriert ist
+	 */
+	private static ExpTabelle getExpTabelle(final double exponent) {
+		for (final ExpTabelle tabelle : EXP_TABELLEN.get()) {
+			if (tabelle.exponent == exponent) {
+				return tabelle;
+			}
+		}
+		return null;
+	}
+
+	/**
+	 * Berechnet die gerundete Potenz eines unskalierten Guete-Index ohne
+	 * Tabelle (siehe {@link #expUnskaliert(long, double)}).
+	 *
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index (<code>&gt;= 0</code>)
+	 * @param exponent
+	 *            der Exponent
+	 * @return die unskalierte Potenz
+	 */
+	private static long potenzUnskaliert(final long indexUnskaliert,
+			final double exponent) {
+		return Math.round(StrictMath.pow((double) indexUnskaliert
+				/ GueteIndex.MAX_UNSKALIERT, exponent)
+				* GueteIndex.MAX_UNSKALIERT);
+	}
+
+	/**
+	 * Erfragt, ob alle Guete-Indizes des uebergebenen Bereichs verrechenbar
+	 * sind.
+	 *
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return ob alle Guete-Indizes verrechenbar sind
+	 */
+	private static boolean isVerrechenbar(final double[] indizes,
+			final int offset, final int anzahl) {
+		for (int i = offset; i < offset + anzahl; i++) {
+			if (Double.isNaN(indizes[i])) {
+				return false;
+			}
+		}
+		return true;
+	}
+
+	/**
+	 * Erfragt, ob eine der Gewichtungen des uebergebenen Bereichs ungleich
+	 * 1.0 ist.
+	 *
+	 * @param gewichte
+	 *            die Gewichtungen (darf <code>null</code> sein)
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return ob einer der Werte gewichtet ist
+	 */
+	private static boolean isGewichtet(final double[] gewichte,
+			final int offset, final int anzahl) {
+		if (gewichte != null) {
+			for (int i = offset; i < offset + anzahl; i++) {
+				if (gewichte[i] != 1.0) {
+					return true;
+				}
+			}
+		}
+		return false;
+	}
+
+	/**
+	 * Tabelle der Potenzen aller Guete-Indizes des DAV-Wertebereichs fuer
+	 * einen Exponenten.
+	 */
+	private static final class ExpTabelle {
+
+		/**
+		 * Der Exponent.
+		 */
+		private final double exponent;
+
+		/**
+		 * Die Potenzen je unskaliertem Guete-Index.
+		 */
+		private final double[] werte;
+
+		/**
+		 * Die gerundeten unskalierten Potenzen je unskaliertem Guete-Index
+		 * (siehe {@link GueteRechner#expUnskaliert(long, double)}).
+		 */
+		private final long[] gerundet;
+
+		/**
+		 * Berechnet die Tabelle.
+		 *
+		 * @param exponent
+		 *            der Exponent
+		 */
+		private ExpTabelle(final double exponent) {
+			this.exponent = exponent;
+			this.werte = new double[(int) GueteIndex.MAX_UNSKALIERT + 1];
+			this.gerundet = new long[werte.length];
+			for (int i = 0; i < werte.length; i++) {
+				werte[i] = Math.pow(GueteIndex.skaliere(i), exponent);
+				gerundet[i] = potenzUnskaliert(i, exponent);
+			}
+		}
+
+		/**
+		 * Erfragt die Potenz eines (verrechenbaren) Guete-Index. Liegt der
+		 * Index genau auf einem Wert des DAV-Wertebereichs, so wird die
+		 * Potenz aus der Tabelle gelesen, sonst berechnet.
+		 *
+		 * @param index
+		 *            der skalierte Guete-Index
+		 * @return die Potenz
+		 */
+		private double potenz(final double index) {
+			final long indexUnskaliert = Math.round(index
+					/ GueteIndex.SKALIERUNG);
+			if (indexUnskaliert >= GueteIndex.MIN_UNSKALIERT
+					&& indexUnskaliert <= GueteIndex.MAX_UNSKALIERT
+					&& GueteIndex.skaliere(indexUnskaliert) == index) {
+				return werte[(int) indexUnskaliert];
+			}
+			return Math.pow(index, exponent);
+		}
+	}
+
+	/**
+	 * Arithmetisches Mittel wie in
+	 * {@link de.bsvrz.dua.guete.vorschriften.Standard#s(double...)}.
+	 *
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return das arithmetische Mittel oder 1.0 fuer eine leere Menge
+	 */
+	private static double s(final double[] indizes, final int offset,
+			final int anzahl) {
+		if (anzahl == 0) {
+			return LEERE_MENGE;
+		}
+		double summe = 0.0;
+		for (int i = offset; i < offset + anzahl; i++) {
+			summe += indizes[i];
+		}
+		return summe / anzahl;
+	}
+
+	/**
+	 * Gewichtetes arithmetisches Mittel wie in
+	 * {@link de.bsvrz.dua.guete.vorschriften.Standard#sw(double[]...)}.
+	 *
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param gewichte
+	 *            die Gewichtungen
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return das gewichtete arithmetische Mittel oder 1.0 fuer eine leere
+	 *         Menge bzw. eine Gewichtssumme von 0
+	 */
+	private static double sw(final double[] indizes, final double[] gewichte,
+			final int offset, final int anzahl) {
+		double summe = 0.0;
+		double summeGewichte = 0.0;
+		for (int i = offset; i < offset + anzahl; i++) {
+			final double gewichtung = Math.abs(gewichte[i]);
+			summe += gewichtung * indizes[i];
+			summeGewichte += gewichtung;
+		}
+		if (summeGewichte != 0) {
+			return summe / summeGewichte;
+		}
+		return LEERE_MENGE;
+	}
+
+	/**
+	 * Produkt wie in
+	 * {@link de.bsvrz.dua.guete.vorschriften.Standard#p(double...)}.
+	 *
+	 * @param indizes
+	 *            die Guete-Indizes
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return das Produkt oder 1.0 fuer eine leere Menge
+	 */
+	private static double p(final double[] indizes, final int offset,
+			final int anzahl) {
+		double produkt = 1.0;
+		for (int i = offset; i < offset + anzahl; i++) {
+			produkt *= indizes[i];
+		}
+		return produkt;
+	}
+
+	/**
+	 * Erfragt die Berechnungsvorschrift eines Gueteverfahrens.
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @return die Berechnungsvorschrift
+	 */
+	private static IGuete getVorschrift(final int verfahren) {
+		final GueteVerfahren gueteVerfahren = GueteVerfahren
+				.getZustand(verfahren);
+		if (gueteVerfahren == null) {
+			throw new IllegalArgumentException(
+					"Unbekanntes Guete-Berechnungsverfahren: " + verfahren); //$NON-NLS-1$
+		}
+		return gueteVerfahren.getBerechnungsVorschrift();
+	}
+
+}
@@ -0,0 +1,156 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import de.bsvrz.dav.daf.main.Data;
+
+/**
+ * Schreibt die Guete mehrerer Attribute eines DAV-Datensatzes in einem
+ * Durchlauf.<br>
+ * Die Attribute werden einmalig bei der Erzeugung festgelegt. Je Attribut
+ * wird das Item <code>Güte</code> genau einmal aufgeloest und
+ * <code>Index</code> und <code>Verfahren</code> direkt aus primitiven Werten
+ * gesetzt, ohne dass dafuer Objekte erzeugt werden. Das Gegenstueck zum
+ * Lesen ist {@link GueteLeser}.<br>
+ * Instanzen sind unveraenderlich und koennen von mehreren Threads
+ * gemeinsam verwendet werden.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteSchreiber {
+
+	/**
+	 * Die Namen der geschriebenen Attribute.
+	 */
+	private final String[] attribute;
+
+	/**
+	 * Standardkonstruktor.
+	 *
+	 * @param attributNamen
+	 *            die Namen der Attribute, unterhalb denen jeweils ein Item
+	 *            <code>Güte</code> steht. Also z.B. <code>qKfz</code> fuer
+	 *            ein DAV-Kurzzeitdatum
+	 */
+	public GueteSchreiber(final String... attributNamen) {
+		attribute = attributNamen.clone();
+		for (final String attribut : attribute) {
+			if (attribut == null) {
+				throw new NullPointerException(
+						"Attributname ist <<null>>"); //$NON-NLS-1$
+			}
+		}
+	}
+
+	/**
+	 * Erfragt die Anzahl der geschriebenen Attribute.
+	 *
+	 * @return die Anzahl der geschriebenen Attribute
+	 */
+	public int getAnzahl() {
+		return attribute.length;
+	}
+
+	/**
+	 * Erfragt den Namen eines geschriebenen Attributs.
+	 *
+	 * @param attribut
+	 *            die Nummer des Attributs
+	 * @return der Name des Attributs
+	 */
+	public String getAttributName(final int attribut) {
+		return attribute[attribut];
+	}
+
+	/**
+	 * Schreibt die Guete aller Attribute aus primitiven Feldern in einen
+	 * Datensatz. Der Wert des Attributs <code>i</code> wird jeweils von der
+	 * Position <code>offset + i</code> gelesen.
+	 *
+	 * @param zielDatum
+	 *            ein veraenderbares DAV-Datum (<code>!= null</code>)
+	 * @param indizes
+	 *            die unskalierten Guete-Indizes (ggf. Zustaende)
+	 * @param verfahren
+	 *            die Codes der Guete-Verfahren
+	 * @param offset
+	 *            die Position fuer das erste Attribut in den Quellfeldern
+	 */
+	public void schreibe(final Data zielDatum, final long[] indizes,
+			final int[] verfahren, final int offset) {
+		for (int i = 0; i < attribute.length; i++) {
+			schreibe(zielDatum, i, indizes[offset + i], verfahren[offset + i]);
+		}
+	}
+
+	/**
+	 * Schreibt die Guete aller Attribute aus Guetewerten in einen Datensatz
+	 * (entspricht {@link GWert#exportiere(Data, String)} fuer jedes
+	 * Attribut).
+	 *
+	 * @param zielDatum
+	 *            ein veraenderbares DAV-Datum (<code>!= null</code>)
+	 * @param werte
+	 *            die Guetewerte
+	 * @param offset
+	 *            die Position fuer das erste Attribut im Quellfeld
+	 */
+	public void schreibe(final Data zielDatum, final GWert[] werte,
+			final int offset) {
+		for (int i = 0; i < attribute.length; i++) {
+			final GWert wert = werte[offset + i];
+			schreibe(zielDatum, i, wert.getIndexUnskaliert(), wert
+					.getVerfahrenCode());
+		}
+	}
+
+	/**
+	 * Schreibt die Guete eines Attributs in einen Datensatz.
+	 *
+	 * @param zielDatum
+	 *            ein veraenderbares DAV-Datum (<code>!= null</code>)
+	 * @param attribut
+	 *            die Nummer des Attributs
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index (ggf. ein Zustand)
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 */
+	public void schreibe(final Data zielDatum, final int attribut,
+			final long indexUnskaliert, final int verfahren) {
+		final Data guete = zielDatum.getItem(attribute[attribut]).getItem(
+				GueteLeser.GUETE);
+		guete.getUnscaledValue(GueteLeser.INDEX).set(indexUnskaliert);
+		guete.getUnscaledValue(GueteLeser.VERFAHREN).set(verfahren);
+		if (GueteMetriken.AKTIV) {
+			GueteMetriken.erfasseExport(1);
+		}
+	}
+
+}
@@ -0,0 +1,336 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+/**
+ * Berechnet die Gesamt-Guete fuer viele Gruppen von Guete-Indizes in einem
+ * Durchlauf.<br>
+ * Die Eingaben liegen spaltenweise vor: Die Guete-Indizes (und ggf. die
+ * Gewichtungen und Gueltigkeiten) aller Gruppen stehen hintereinander in
+ * jeweils einem Feld. Die Gruppe <code>g</code> umfasst die Elemente
+ * <code>gruppen[g]</code> (einschliesslich) bis <code>gruppen[g + 1]</code>
+ * (ausschliesslich); das Feld <code>gruppen</code> enthaelt also einen
+ * Eintrag mehr als es Gruppen gibt. Pro Gruppe wird ein Ergebnis in das
+ * Zielfeld geschrieben. Die Ergebnisse sind identisch mit denen von
+ * {@link GueteRechner} und damit von {@link GueteVerfahren}.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteStapel {
+
+	/**
+	 * Standardkonstruktor.
+	 */
+	private GueteStapel() {
+		// keine Instanzen
+	}
+
+	/**
+	 * Berechnet fuer jede Gruppe die Gesamt-Guete fuer eine Verknuepfung mit
+	 * dem Operator "<code>*</code>".
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes aller Gruppen
+	 * @param gueltig
+	 *            die Gueltigkeit der einzelnen Guete-Indizes oder
+	 *            <code>null</code>, wenn alle gueltig sind
+	 * @param gruppen
+	 *            die Anfaenge der Gruppen und das Ende der letzten Gruppe
+	 * @param ergebnis
+	 *            nimmt die skalierte Gesamt-Guete der Gruppen auf (
+	 *            {@link GueteRechner#NICHT_VERRECHENBAR}, wenn ein Wert der
+	 *            Gruppe nicht gueltig ist)
+	 */
+	public static void produkt(final int verfahren, final double[] indizes,
+			final boolean[] gueltig, final int[] gruppen,
+			final double[] ergebnis) {
+		berechne(GueteRechner.PRODUKT, verfahren, indizes, null, gueltig,
+				gruppen, ergebnis, null);
+	}
+
+	/**
+	 * Berechnet fuer jede Gruppe die Gesamt-Guete fuer eine Verknuepfung mit
+	 * dem Operator "<code>*</code>".
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes aller Gruppen
+	 * @param gueltig
+	 *            die Gueltigkeit der einzelnen Guete-Indizes oder
+	 *            <code>null</code>, wenn alle gueltig sind
+	 * @param gruppen
+	 *            die Anfaenge der Gruppen und das Ende der letzten Gruppe
+	 * @param ergebnis
+	 *            nimmt die unskalierte Gesamt-Guete der Gruppen auf (siehe
+	 *            {@link GueteIndex#unskaliere(double)})
+	 */
+	public static void produkt(final int verfahren, final double[] indizes,
+			final boolean[] gueltig, final int[] gruppen, final long[] ergebnis) {
+		berechne(GueteRechner.PRODUKT, verfahren, indizes, null, gueltig,
+				gruppen, null, ergebnis);
+	}
+
+	/**
+	 * Berechnet fuer jede Gruppe die Gesamt-Guete fuer eine Verknuepfung mit
+	 * dem Operator "<code>/</code>".
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes aller Gruppen
+	 * @param gueltig
+	 *            die Gueltigkeit der einzelnen Guete-Indizes oder
+	 *            <code>null</code>, wenn alle gueltig sind
+	 * @param gruppen
+	 *            die Anfaenge der Gruppen und das Ende der letzten Gruppe
+	 * @param ergebnis
+	 *            nimmt die skalierte Gesamt-Guete der Gruppen auf (
+	 *            {@link GueteRechner#NICHT_VERRECHENBAR}, wenn ein Wert der
+	 *            Gruppe nicht gueltig ist)
+	 */
+	public static void quotient(final int verfahren, final double[] indizes,
+			final boolean[] gueltig, final int[] gruppen,
+			final double[] ergebnis) {
+		berechne(GueteRechner.QUOTIENT, verfahren, indizes, null, gueltig,
+				gruppen, ergebnis, null);
+	}
+
+	/**
+	 * Berechnet fuer jede Gruppe die Gesamt-Guete fuer eine Verknuepfung mit
+	 * dem Operator "<code>/</code>".
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes aller Gruppen
+	 * @param gueltig
+	 *            die Gueltigkeit der einzelnen Guete-Indizes oder
+	 *            <code>null</code>, wenn alle gueltig sind
+	 * @param gruppen
+	 *            die Anfaenge der Gruppen und das Ende der letzten Gruppe
+	 * @param ergebnis
+	 *            nimmt die unskalierte Gesamt-Guete der Gruppen auf (siehe
+	 *            {@link GueteIndex#unskaliere(double)})
+	 */
+	public static void quotient(final int verfahren, final double[] indizes,
+			final boolean[] gueltig, final int[] gruppen, final long[] ergebnis) {
+		berechne(GueteRechner.QUOTIENT, verfahren, indizes, null, gueltig,
+				gruppen, null, ergebnis);
+	}
+
+	/**
+	 * Berechnet fuer jede Gruppe die Gesamt-Guete fuer eine Verknuepfung mit
+	 * dem Operator "<code>+</code>". Ist in einer Gruppe mindestens eine
+	 * Gewichtung ungleich 1.0, so wird fuer diese Gruppe die gewichtete
+	 * Vorschrift angewendet.
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes aller Gruppen
+	 * @param gewichte
+	 *            die Gewichtungen aller Gruppen oder <code>null</code>, wenn
+	 *            die Werte nicht gewichtet sind
+	 * @param gueltig
+	 *            die Gueltigkeit der einzelnen Guete-Indizes oder
+	 *            <code>null</code>, wenn alle gueltig sind
+	 * @param gruppen
+	 *            die Anfaenge der Gruppen und das Ende der letzten Gruppe
+	 * @param ergebnis
+	 *            nimmt die skalierte Gesamt-Guete der Gruppen auf (
+	 *            {@link GueteRechner#NICHT_VERRECHENBAR}, wenn ein Wert der
+	 *            Gruppe nicht gueltig ist)
+	 */
+	public static void summe(final int verfahren, final double[] indizes,
+			final double[] gewichte, final boolean[] gueltig,
+			final int[] gruppen, final double[] ergebnis) {
+		berechne(GueteRechner.SUMME, verfahren, indizes, gewichte, gueltig,
+				gruppen, ergebnis, null);
+	}
+
+	/**
+	 * Berechnet fuer jede Gruppe die Gesamt-Guete fuer eine Verknuepfung mit
+	 * dem Operator "<code>+</code>". Ist in einer Gruppe mindestens eine
+	 * Gewichtung ungleich 1.0, so wird fuer diese Gruppe die gewichtete
+	 * Vorschrift angewendet.
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes aller Gruppen
+	 * @param gewichte
+	 *            die Gewichtungen aller Gruppen oder <code>null</code>, wenn
+	 *            die Werte nicht gewichtet sind
+	 * @param gueltig
+	 *            die Gueltigkeit der einzelnen Guete-Indizes oder
+	 *            <code>null</code>, wenn alle gueltig sind
+	 * @param gruppen
+	 *            die Anfaenge der Gruppen und das Ende der letzten Gruppe
+	 * @param ergebnis
+	 *            nimmt die unskalierte Gesamt-Guete der Gruppen auf (siehe
+	 *            {@link GueteIndex#unskaliere(double)})
+	 */
+	public static void summe(final int verfahren, final double[] indizes,
+			final double[] gewichte, final boolean[] gueltig,
+			final int[] gruppen, final long[] ergebnis) {
+		berechne(GueteRechner.SUMME, verfahren, indizes, gewichte, gueltig,
+				gruppen, null, ergebnis);
+	}
+
+	/**
+	 * Berechnet fuer jede Gruppe die Gesamt-Guete fuer eine Verknuepfung mit
+	 * dem Operator "<code>-</code>". Ist in einer Gruppe mindestens eine
+	 * Gewichtung ungleich 1.0, so wird fuer diese Gruppe die gewichtete
+	 * Vorschrift angewendet.
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes aller Gruppen
+	 * @param gewichte
+	 *            die Gewichtungen aller Gruppen oder <code>null</code>, wenn
+	 *            die Werte nicht gewichtet sind
+	 * @param gueltig
+	 *            die Gueltigkeit der einzelnen Guete-Indizes oder
+	 *            <code>null</code>, wenn alle gueltig sind
+	 * @param gruppen
+	 *            die Anfaenge der Gruppen und das Ende der letzten Gruppe
+	 * @param ergebnis
+	 *            nimmt die skalierte Gesamt-Guete der Gruppen auf (
+	 *            {@link GueteRechner#NICHT_VERRECHENBAR}, wenn ein Wert der
+	 *            Gruppe nicht gueltig ist)
+	 */
+	public static void differenz(final int verfahren, final double[] indizes,
+			final double[] gewichte, final boolean[] gueltig,
+			final int[] gruppen, final double[] ergebnis) {
+		berechne(GueteRechner.DIFFERENZ, verfahren, indizes, gewichte, gueltig,
+				gruppen, ergebnis, null);
+	}
+
+	/**
+	 * Berechnet fuer jede Gruppe die Gesamt-Guete fuer eine Verknuepfung mit
+	 * dem Operator "<code>-</code>". Ist in einer Gruppe mindestens eine
+	 * Gewichtung ungleich 1.0, so wird fuer diese Gruppe die gewichtete
+	 * Vorschrift angewendet.
+	 *
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes aller Gruppen
+	 * @param gewichte
+	 *            die Gewichtungen aller Gruppen oder <code>null</code>, wenn
+	 *            die Werte nicht gewichtet sind
+	 * @param gueltig
+	 *            die Gueltigkeit der einzelnen Guete-Indizes oder
+	 *            <code>null</code>, wenn alle gueltig sind
+	 * @param gruppen
+	 *            die Anfaenge der Gruppen und das Ende der letzten Gruppe
+	 * @param ergebnis
+	 *            nimmt die unskalierte Gesamt-Guete der Gruppen auf (siehe
+	 *            {@link GueteIndex#unskaliere(double)})
+	 */
+	public static void differenz(final int verfahren, final double[] indizes,
+			final double[] gewichte, final boolean[] gueltig,
+			final int[] gruppen, final long[] ergebnis) {
+		berechne(GueteRechner.DIFFERENZ, verfahren, indizes, gewichte, gueltig,
+				gruppen, null, ergebnis);
+	}
+
+	/**
+	 * Berechnet die Gesamt-Guete aller Gruppen.
+	 *
+	 * @param operation
+	 *            der Code der Verknuepfung in {@link GueteRechner}
+	 * @param verfahren
+	 *            der Code des Gueteverfahrens
+	 * @param indizes
+	 *            die Guete-Indizes aller Gruppen
+	 * @param gewichte
+	 *            die Gewichtungen aller Gruppen oder <code>null</code>
+	 * @param gueltig
+	 *            die Gueltigkeit der einzelnen Guete-Indizes oder
+	 *            <code>null</code>
+	 * @param gruppen
+	 *            die Anfaenge der Gruppen und das Ende der letzten Gruppe
+	 * @param skaliert
+	 *            nimmt die skalierten Ergebnisse auf (oder <code>null</code>)
+	 * @param unskaliert
+	 *            nimmt die unskalierten Ergebnisse auf (oder
+	 *            <code>null</code>)
+	 */
+	private static void berechne(final int operation, final int verfahren,
+			final double[] indizes, final double[] gewichte,
+			final boolean[] gueltig, final int[] gruppen,
+			final double[] skaliert, final long[] unskaliert) {
+		final int gruppenAnzahl = gruppen.length - 1;
+		for (int gruppe = 0; gruppe < gruppenAnzahl; gruppe++) {
+			final int anfang = gruppen[gruppe];
+			final int anzahl = gruppen[gruppe + 1] - anfang;
+
+			double index = GueteRechner.NICHT_VERRECHENBAR;
+			if (isGueltig(gueltig, anfang, anzahl)) {
+				index = GueteRechner.berechne(operation, verfahren, indizes,
+						gewichte, anfang, anzahl);
+			}
+
+			if (skaliert != null) {
+				skaliert[gruppe] = index;
+			} else {
+				unskaliert[gruppe] = GueteIndex.unskaliere(index);
+			}
+		}
+	}
+
+	/**
+	 * Erfragt, ob alle Werte eines Bereichs gueltig sind.
+	 *
+	 * @param gueltig
+	 *            die Gueltigkeiten oder <code>null</code>
+	 * @param anfang
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return ob alle Werte gueltig sind
+	 */
+	private static boolean isGueltig(final boolean[] gueltig,
+			final int anfang, final int anzahl) {
+		if (gueltig != null) {
+			for (int i = anfang; i < anfang + anzahl; i++) {
+				if (!gueltig[i]) {
+					return false;
+				}
+			}
+		}
+		return true;
+	}
+
+}
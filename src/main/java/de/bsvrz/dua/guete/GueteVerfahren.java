@@ -31,11 +31,10 @@ package de.bsvrz.dua.guete;
 import de.bsvrz.dua.guete.vorschriften.IGuete;
 import de.bsvrz.dua.guete.vorschriften.Standard;
 import de.bsvrz.sys.funclib.bitctrl.daf.AbstractDavZustand;
-import de.bsvrz.sys.funclib.bitctrl.dua.GanzZahl;
-import de.bsvrz.sys.funclib.bitctrl.dua.MesswertZustand;
 
-import java.util.HashMap;
-import java.util.Map;
+import java.util.Arrays;
+import java.util.concurrent.atomic.AtomicReference;
+import java.util.concurrent.atomic.AtomicReferenceArray;
 
 /**
  * Repräsentiert den DAV-Enumerationstypen <code>att.güteVerfahren</code>.
@@ -45,19 +44,23 @@ import java.util.Map;
 public final class GueteVerfahren extends AbstractDavZustand {
 
 	/**
-	 * Der Wertebereich dieses DAV-Enumerationstypen.
+	 * Groesster zulaessiger Code eines Gueteverfahrens.
 	 */
-	private static Map<Integer, GueteVerfahren> werteBereich = new HashMap<Integer, GueteVerfahren>();
+	public static final int MAX_CODE = 255;
 
 	/**
-	 * Standard-Guete mit Status <code>nicht ermittelbar/fehlerhaft</code>.
+	 * Der Wertebereich dieses DAV-Enumerationstypen. Das Feld ist ueber den
+	 * Code indiziert und wird bei jeder Registrierung als Kopie ersetzt, so
+	 * dass lesende Threads ohne Sperren immer einen konsistenten Stand sehen.
 	 */
-	private static final GanzZahl FEHLERHAFT_BZW_NICHT_ERMITTELBAR = GanzZahl
-			.getGueteIndex();
-	static {
-		FEHLERHAFT_BZW_NICHT_ERMITTELBAR
-				.setZustand(MesswertZustand.FEHLERHAFT_BZW_NICHT_ERMITTELBAR);
-	}
+	private static final AtomicReference<GueteVerfahren[]> WERTE_BEREICH = new AtomicReference<GueteVerfahren[]>(
+			new GueteVerfahren[0]);
+
+	/**
+	 * Anzahl der Zustaende (<code>-1</code> bis <code>-3</code>), die vor
+	 * den gueltigen Guete-Indizes gespeichert werden.
+	 */
+	private static final long ZUSTAENDE = -GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
 
 	/**
 	 * Standardverfahren gemäß Anwenderforderungen.
@@ -69,8 +72,8 @@ public final class GueteVerfahren extends AbstractDavZustand {
 	 * GWert mit Status <code>nicht ermittelbar/fehlerhaft</code> und
 	 * Standardverfahren.
 	 */
-	public static final GWert STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR = new GWert(
-			FEHLERHAFT_BZW_NICHT_ERMITTELBAR, GueteVerfahren.STANDARD, false);
+	public static final GWert STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR = STANDARD
+			.getGWert(GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT);
 
 	/**
 	 * Standardwert für die Guete.
@@ -80,7 +83,15 @@ public final class GueteVerfahren extends AbstractDavZustand {
 	/**
 	 * die angewendete Berechnungsvorschrift.
 	 */
-	private IGuete berechnungsVorschrift = null;
+	private final IGuete berechnungsVorschrift;
+
+	/**
+	 * Die gemeinsam genutzten Guetewerte dieses Verfahrens, indiziert ueber
+	 * den um {@link #ZUSTAENDE} verschobenen unskalierten Guete-Index. Die
+	 * Eintraege werden bei der ersten Anfrage erzeugt.
+	 */
+	private final AtomicReferenceArray<GWert> gueteWerte = new AtomicReferenceArray<GWert>(
+			(int) (ZUSTAENDE + GueteIndex.MAX_UNSKALIERT + 1));
 
 	/**
 	 * Standardkonstruktor.
@@ -96,7 +107,50 @@ public final class GueteVerfahren extends AbstractDavZustand {
 			final IGuete berechnungsVorschrift) {
 		super(code, name);
 		this.berechnungsVorschrift = berechnungsVorschrift;
-		werteBereich.put(code, this);
+		if (code < 0 || code > MAX_CODE) {
+			throw new IllegalArgumentException(
+					"Ungueltiger Code eines Gueteverfahrens: " + code); //$NON-NLS-1$
+		}
+		if (berechnungsVorschrift == null) {
+			throw new IllegalArgumentException(
+					"Es wurde keine Berechnungsvorschrift angegeben"); //$NON-NLS-1$
+		}
+
+		GueteVerfahren[] alt;
+		GueteVerfahren[] neu;
+		do {
+			alt = WERTE_BEREICH.get();
+			if (code < alt.length && alt[code] != null) {
+				throw new IllegalStateException("Der Code " + code //$NON-NLS-1$
+						+ " ist bereits durch das Gueteverfahren " //$NON-NLS-1$
+						+ alt[code] + " belegt"); //$NON-NLS-1$
+			}
+			neu = Arrays.copyOf(alt, Math.max(alt.length, code + 1));
+			neu[code] = this;
+		} while (!WERTE_BEREICH.compareAndSet(alt, neu));
+	}
+
+	/**
+	 * Registriert ein weiteres Gueteverfahren. Das Verfahren steht danach in
+	 * allen Threads ueber {@link #getZustand(int)} zur Verfuegung.
+	 * 
+	 * @param name
+	 *            der Name des Gueteverfahrens
+	 * @param code
+	 *            der Code des Gueteverfahrens im DAV (
+	 *            <code>0 &lt;= code &lt;= </code>{@link #MAX_CODE})
+	 * @param berechnungsVorschrift
+	 *            die Berechnungsvorschrift des Gueteverfahrens
+	 * @return das registrierte Gueteverfahren
+	 * @throws IllegalArgumentException
+	 *             wenn der Code ungueltig ist oder keine
+	 *             Berechnungsvorschrift angegeben wurde
+	 * @throws IllegalStateException
+	 *             wenn der Code bereits belegt ist
+	 */
+	public static GueteVerfahren registriere(final String name,
+			final int code, final IGuete berechnungsVorschrift) {
+		return new GueteVerfahren(name, code, berechnungsVorschrift);
 	}
 
 	/**
@@ -113,14 +167,80 @@ public final class GueteVerfahren extends AbstractDavZustand {
 	 * 
 	 * @param code
 	 *            der Code des Enumerations-Wertes
-	 * @return den Wert dieses DAV-Enumerationstypen mit dem übergebenen Code.
+	 * @return den Wert dieses DAV-Enumerationstypen mit dem übergebenen Code
+	 *         oder <code>null</code>, wenn kein Verfahren mit diesem Code
+	 *         registriert ist
 	 */
 	public static GueteVerfahren getZustand(int code) {
-		return werteBereich.get(code);
+		final GueteVerfahren[] werte = WERTE_BEREICH.get();
+		if (code >= 0 && code < werte.length) {
+			return werte[code];
+		}
+		return null;
+	}
+
+	/**
+	 * Erzeugt einen Guetewert mit Status
+	 * <code>nicht ermittelbar/fehlerhaft</code>.
+	 * 
+	 * @param verfahren
+	 *            das Berechnungsverfahren des Guetewerts
+	 * @return der Guetewert
+	 */
+	static GWert getNichtErmittelbar(final GueteVerfahren verfahren) {
+		return getGWert(GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT, verfahren);
+	}
+
+	/**
+	 * Erfragt den Guetewert fuer einen unskalierten Guete-Index (ggf. einen
+	 * Zustand), wie er in einem DAV-Datum steht.<br>
+	 * Fuer alle Indizes von {@link GueteIndex#NICHT_ERMITTELBAR_BZW_FEHLERHAFT}
+	 * bis {@link GueteIndex#MAX_UNSKALIERT} wird immer dieselbe
+	 * (unveraenderliche) Instanz geliefert.
+	 * 
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index
+	 * @return der Guetewert
+	 */
+	public GWert getGWert(final long indexUnskaliert) {
+		final long position = indexUnskaliert + ZUSTAENDE;
+		if (position < 0 || position >= gueteWerte.length()) {
+			return new GWert(indexUnskaliert, this);
+		}
+
+		final GWert wert = gueteWerte.get((int) position);
+		if (wert != null) {
+			return wert;
+		}
+		gueteWerte.compareAndSet((int) position, null, new GWert(
+				indexUnskaliert, this));
+		return gueteWerte.get((int) position);
+	}
+
+	/**
+	 * Erfragt den Guetewert fuer einen unskalierten Guete-Index, wie er in
+	 * einem DAV-Datum steht (siehe {@link #getGWert(long)}).
+	 * 
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index
+	 * @param verfahren
+	 *            das Guete-Verfahren (darf <code>null</code> sein, dann wird
+	 *            immer eine neue Instanz erzeugt)
+	 * @return der Guetewert
+	 */
+	static GWert getGWert(final long indexUnskaliert,
+			final GueteVerfahren verfahren) {
+		if (verfahren == null) {
+			return new GWert(indexUnskaliert, null);
+		}
+		return verfahren.getGWert(indexUnskaliert);
 	}
 
 	/**
-	 * Erfragt eine gewichtete Version des uebergebenen Guetewerts.
+	 * Erfragt eine gewichtete Version des uebergebenen Guetewerts.<br>
+	 * Das Ergebnis ist ein Zwischenergebnis; die Rohwerte eines von aussen
+	 * gelesenen Guetewerts bleiben nur bei {@link GWert#mitGewichtung(double)}
+	 * erhalten.
 	 * 
 	 * @param quellGuete
 	 *            ein Guetewert
@@ -133,11 +253,8 @@ public final class GueteVerfahren extends AbstractDavZustand {
 	 */
 	public static GWert gewichte(final GWert quellGuete, final double gewichtung)
 			throws GueteException {
-		GWert ergebnis = new GWert(quellGuete.getIndex(), quellGuete
-				.getVerfahren());
-		ergebnis.setGewichtung(gewichtung);
-
-		return ergebnis;
+		return new GWert(quellGuete.getIndex(), quellGuete.getVerfahren(),
+				gewichtung);
 	}
 
 	/**
@@ -158,21 +275,13 @@ public final class GueteVerfahren extends AbstractDavZustand {
 	 */
 	public static GWert produkt(final GWert... quellGueten)
 			throws GueteException {
-		GWert ergebnis = new GWert(STANDARD_GUETE, STANDARD);
-
-		if (quellGueten != null && quellGueten.length > 0) {
-			WerteMenge werteMenge = new WerteMenge(quellGueten);
-			if (werteMenge.isVerrechenbar()) {
-				ergebnis = new GWert(werteMenge.getVerfahren()
-						.getBerechnungsVorschrift().p(werteMenge.getIndizes()),
-						werteMenge.getVerfahren());
-			} else {
-				ergebnis = new GWert(FEHLERHAFT_BZW_NICHT_ERMITTELBAR,
-						werteMenge.getVerfahren(), false);
-			}
+		if (!GueteMetriken.AKTIV) {
+			return berechne(GueteRechner.PRODUKT, quellGueten);
 		}
-
-		return ergebnis;
+		final long start = System.nanoTime();
+		return GueteMetriken.erfasse(GueteRechner.PRODUKT,
+				quellGueten == null ? 0 : quellGueten.length, start,
+				berechne(GueteRechner.PRODUKT, quellGueten));
 	}
 
 	/**
@@ -193,21 +302,13 @@ public final class GueteVerfahren extends AbstractDavZustand {
 	 */
 	public static GWert quotient(final GWert... quellGueten)
 			throws GueteException {
-		GWert ergebnis = new GWert(STANDARD_GUETE, STANDARD);
-
-		if (quellGueten != null && quellGueten.length > 0) {
-			WerteMenge werteMenge = new WerteMenge(quellGueten);
-			if (werteMenge.isVerrechenbar()) {
-				ergebnis = new GWert(werteMenge.getVerfahren()
-						.getBerechnungsVorschrift().q(werteMenge.getIndizes()),
-						werteMenge.getVerfahren());
-			} else {
-				ergebnis = new GWert(FEHLERHAFT_BZW_NICHT_ERMITTELBAR,
-						werteMenge.getVerfahren(), false);
-			}
+		if (!GueteMetriken.AKTIV) {
+			return berechne(GueteRechner.QUOTIENT, quellGueten);
 		}
-
-		return ergebnis;
+		final long start = System.nanoTime();
+		return GueteMetriken.erfasse(GueteRechner.QUOTIENT,
+				quellGueten == null ? 0 : quellGueten.length, start,
+				berechne(GueteRechner.QUOTIENT, quellGueten));
 	}
 
 	/**
@@ -226,30 +327,15 @@ public final class GueteVerfahren extends AbstractDavZustand {
 	 *             wenn die Verfahren zur Berechnung der Guete innerhalb der
 	 *             uebergebenen Datensaetze nicht identisch sind
 	 */
-	public static GWert summe(final GWert... quellGueten) throws GueteException {
-		GWert ergebnis = new GWert(STANDARD_GUETE, STANDARD);
-
-		if (quellGueten != null && quellGueten.length > 0) {
-			WerteMenge werteMenge = new WerteMenge(quellGueten);
-			if (werteMenge.isVerrechenbar()) {
-				if (werteMenge.isGewichtet()) {
-					ergebnis = new GWert(werteMenge.getVerfahren()
-							.getBerechnungsVorschrift().sw(
-									werteMenge.getIndizesMitGewichtung()),
-							werteMenge.getVerfahren());
-				} else {
-					ergebnis = new GWert(werteMenge.getVerfahren()
-							.getBerechnungsVorschrift().s(
-									werteMenge.getIndizes()), werteMenge
-							.getVerfahren());
-				}
-			} else {
-				ergebnis = new GWert(FEHLERHAFT_BZW_NICHT_ERMITTELBAR,
-						werteMenge.getVerfahren(), false);
-			}
+	public static GWert summe(final GWert... quellGueten)
+			throws GueteException {
+		if (!GueteMetriken.AKTIV) {
+			return berechne(GueteRechner.SUMME, quellGueten);
 		}
-
-		return ergebnis;
+		final long start = System.nanoTime();
+		return GueteMetriken.erfasse(GueteRechner.SUMME,
+				quellGueten == null ? 0 : quellGueten.length, start,
+				berechne(GueteRechner.SUMME, quellGueten));
 	}
 
 	/**
@@ -270,29 +356,13 @@ public final class GueteVerfahren extends AbstractDavZustand {
 	 */
 	public static GWert differenz(final GWert... quellGueten)
 			throws GueteException {
-		GWert ergebnis = new GWert(STANDARD_GUETE, STANDARD);
-
-		if (quellGueten != null && quellGueten.length > 0) {
-			WerteMenge werteMenge = new WerteMenge(quellGueten);
-			if (werteMenge.isVerrechenbar()) {
-				if (werteMenge.isGewichtet()) {
-					ergebnis = new GWert(werteMenge.getVerfahren()
-							.getBerechnungsVorschrift().dw(
-									werteMenge.getIndizesMitGewichtung()),
-							werteMenge.getVerfahren());
-				} else {
-					ergebnis = new GWert(werteMenge.getVerfahren()
-							.getBerechnungsVorschrift().d(
-									werteMenge.getIndizes()), werteMenge
-							.getVerfahren());
-				}
-			} else {
-				ergebnis = new GWert(FEHLERHAFT_BZW_NICHT_ERMITTELBAR,
-						werteMenge.getVerfahren(), false);
-			}
+		if (!GueteMetriken.AKTIV) {
+			return berechne(GueteRechner.DIFFERENZ, quellGueten);
 		}
-
-		return ergebnis;
+		final long start = System.nanoTime();
+		return GueteMetriken.erfasse(GueteRechner.DIFFERENZ,
+				quellGueten == null ? 0 : quellGueten.length, start,
+				berechne(GueteRechner.DIFFERENZ, quellGueten));
 	}
 
 	/**
@@ -312,16 +382,350 @@ public final class GueteVerfahren extends AbstractDavZustand {
 	 */
 	public static GWert exp(final GWert quellGuete, final double exponent)
 			throws GueteException {
-		GWert ergebnis = new GWert(FEHLERHAFT_BZW_NICHT_ERMITTELBAR, quellGuete
-				.getVerfahren(), false);
+		if (!GueteMetriken.AKTIV) {
+			return berechneExp(quellGuete, exponent);
+		}
+		final long start = System.nanoTime();
+		return GueteMetriken.erfasse(GueteRechner.EXP, 1, start,
+				berechneExp(quellGuete, exponent));
+	}
 
-		if (quellGuete.isVerrechenbar()) {
-			ergebnis = new GWert(quellGuete.getVerfahren()
-					.getBerechnungsVorschrift().e(quellGuete.getIndex(),
-							exponent), quellGuete.getVerfahren());
+	/**
+	 * Berechnet {@link #exp(GWert, double)}.
+	 * 
+	 * @param quellGuete
+	 *            der Güte-Datensatz
+	 * @param exponent
+	 *            der Exponent
+	 * @return die Gesamt-Güte
+	 * @throws GueteException
+	 *             falls ungueltige Werte uebergeben worden sind
+	 */
+	private static GWert berechneExp(final GWert quellGuete,
+			final double exponent) throws GueteException {
+		if (!quellGuete.isVerrechenbar()) {
+			return getNichtErmittelbar(quellGuete.getVerfahren());
 		}
+		return new GWert(GueteRechner.exp(quellGuete.getVerfahren().getCode(),
+				quellGuete.getIndex(), exponent), quellGuete.getVerfahren());
+	}
 
-		return ergebnis;
+	/**
+	 * Berechnet wie {@link #produkt(GWert...)} die Gesamt-Guete, meldet
+	 * unterschiedliche Berechnungsverfahren aber ueber den Status statt ueber
+	 * eine Ausnahme.
+	 * 
+	 * @param ergebnis
+	 *            nimmt Status und Gesamt-Guete auf
+	 * @param quellGueten
+	 *            die Güte-Datensätze aus denen die Gesamtgüte berechnet werden
+	 *            soll
+	 * @return der Status (siehe {@link GueteErgebnis#getStatus()})
+	 */
+	public static int produkt(final GueteErgebnis ergebnis,
+			final GWert... quellGueten) {
+		return berechne(GueteRechner.PRODUKT, ergebnis, quellGueten);
+	}
+
+	/**
+	 * Berechnet wie {@link #quotient(GWert...)} die Gesamt-Guete, meldet
+	 * unterschiedliche Berechnungsverfahren aber ueber den Status statt ueber
+	 * eine Ausnahme.
+	 * 
+	 * @param ergebnis
+	 *            nimmt Status und Gesamt-Guete auf
+	 * @param quellGueten
+	 *            die Güte-Datensätze aus denen die Gesamtgüte berechnet werden
+	 *            soll
+	 * @return der Status (siehe {@link GueteErgebnis#getStatus()})
+	 */
+	public static int quotient(final GueteErgebnis ergebnis,
+			final GWert... quellGueten) {
+		return berechne(GueteRechner.QUOTIENT, ergebnis, quellGueten);
+	}
+
+	/**
+	 * Berechnet wie {@link #summe(GWert...)} die Gesamt-Guete, meldet
+	 * unterschiedliche Berechnungsverfahren aber ueber den Status statt ueber
+	 * eine Ausnahme.
+	 * 
+	 * @param ergebnis
+	 *            nimmt Status und Gesamt-Guete auf
+	 * @param quellGueten
+	 *            die Güte-Datensätze aus denen die Gesamtgüte berechnet werden
+	 *            soll
+	 * @return der Status (siehe {@link GueteErgebnis#getStatus()})
+	 */
+	public static int summe(final GueteErgebnis ergebnis,
+			final GWert... quellGueten) {
+		return berechne(GueteRechner.SUMME, ergebnis, quellGueten);
+	}
+
+	/**
+	 * Berechnet wie {@link #differenz(GWert...)} die Gesamt-Guete, meldet
+	 * unterschiedliche Berechnungsverfahren aber ueber den Status statt ueber
+	 * eine Ausnahme.
+	 * 
+	 * @param ergebnis
+	 *            nimmt Status und Gesamt-Guete auf
+	 * @param quellGueten
+	 *            die Güte-Datensätze aus denen die Gesamtgüte berechnet werden
+	 *            soll
+	 * @return der Status (siehe {@link GueteErgebnis#getStatus()})
+	 */
+	public static int differenz(final GueteErgebnis ergebnis,
+			final GWert... quellGueten) {
+		return berechne(GueteRechner.DIFFERENZ, ergebnis, quellGueten);
+	}
+
+	/**
+	 * Berechnet wie {@link #exp(GWert, double)} die Gesamt-Guete ohne
+	 * Ausnahme.
+	 * 
+	 * @param ergebnis
+	 *            nimmt Status und Gesamt-Guete auf
+	 * @param quellGuete
+	 *            der Güte-Datensatz
+	 * @param exponent
+	 *            der Exponent
+	 * @return der Status (siehe {@link GueteErgebnis#getStatus()})
+	 */
+	public static int exp(final GueteErgebnis ergebnis,
+			final GWert quellGuete, final double exponent) {
+		final long start = GueteMetriken.AKTIV ? System.nanoTime() : 0;
+		final GWert wert;
+		if (!quellGuete.isVerrechenbar()) {
+			wert = getNichtErmittelbar(quellGuete.getVerfahren());
+		} else {
+			wert = zwischenergebnis(GueteRechner.exp(quellGuete.getVerfahren()
+					.getCode(), quellGuete.getIndex(), exponent), quellGuete
+					.getVerfahren());
+		}
+		if (GueteMetriken.AKTIV) {
+			GueteMetriken.erfasse(GueteRechner.EXP, 1, start, wert);
+		}
+		return ergebnis.setze(wert);
+	}
+
+	/**
+	 * Berechnet eine Verknuepfung von Guetewerten.
+	 * 
+	 * @param operation
+	 *            die Verknuepfung (siehe {@link Arbeitsbereich#berechne})
+	 * @param quellGueten
+	 *            die Güte-Datensätze
+	 * @return die Gesamt-Guete
+	 * @throws GueteException
+	 *             wenn die Verfahren zur Berechnung der Guete innerhalb der
+	 *             uebergebenen Datensaetze nicht identisch sind
+	 */
+	private static GWert berechne(final int operation,
+			final GWert... quellGueten) throws GueteException {
+		if (quellGueten == null || quellGueten.length == 0) {
+			return new GWert(STANDARD_GUETE, STANDARD);
+		}
+		return Arbeitsbereich.uebernimm(quellGueten).berechne(operation,
+				quellGueten.length);
+	}
+
+	/**
+	 * Berechnet eine Verknuepfung von Guetewerten ohne Ausnahme.
+	 * 
+	 * @param operation
+	 *            die Verknuepfung (siehe {@link Arbeitsbereich#berechne})
+	 * @param ergebnis
+	 *            nimmt Status und Gesamt-Guete auf
+	 * @param quellGueten
+	 *            die Güte-Datensätze
+	 * @return der Status
+	 */
+	private static int berechne(final int operation,
+			final GueteErgebnis ergebnis, final GWert... quellGueten) {
+		final long start = GueteMetriken.AKTIV ? System.nanoTime() : 0;
+		final int anzahl = quellGueten == null ? 0 : quellGueten.length;
+		final GWert wert;
+		if (anzahl == 0) {
+			wert = STANDARD.getGWert(GueteIndex.MAX_UNSKALIERT);
+		} else {
+			final Arbeitsbereich puffer = Arbeitsbereich.lade(quellGueten);
+			if (puffer.unterschiedlicheVerfahren) {
+				return ergebnis.setze(GueteErgebnis.UNTERSCHIEDLICHE_VERFAHREN,
+						getNichtErmittelbar(quellGueten[0].getVerfahren()));
+			}
+			wert = puffer.berechne(operation, anzahl);
+		}
+		if (GueteMetriken.AKTIV) {
+			GueteMetriken.erfasse(operation, anzahl, start, wert);
+		}
+		return ergebnis.setze(wert);
+	}
+
+	/**
+	 * Erzeugt ein Zwischenergebnis mit bekanntem Verfahren.
+	 * 
+	 * @param index
+	 *            der Guete-Index
+	 * @param verfahren
+	 *            das Berechnungsverfahren (<code>!= null</code>)
+	 * @return das Zwischenergebnis
+	 */
+	private static GWert zwischenergebnis(final double index,
+			final GueteVerfahren verfahren) {
+		try {
+			return new GWert(index, verfahren);
+		} catch (final GueteException e) {
+			// kann nicht passieren, das Verfahren ist immer gesetzt
+			throw new IllegalStateException(e);
+		}
+	}
+
+	/**
+	 * Threadlokaler Arbeitsbereich, in den die Guete-Indizes und Gewichtungen
+	 * einer Menge von Guetewerten fuer die Berechnung mit
+	 * {@link GueteRechner} uebernommen werden. Die Felder werden nur bei
+	 * Bedarf vergroessert, so dass wiederholte Berechnungen keine weiteren
+	 * Objekte erzeugen.
+	 */
+	private static final class Arbeitsbereich {
+
+		/**
+		 * Die Arbeitsbereiche der einzelnen Threads.
+		 */
+		private static final ThreadLocal<Arbeitsbereich> PUFFER = ThreadLocal
+				.withInitial(Arbeitsbereich::new);
+
+		/**
+		 * Die Guete-Indizes.
+		 */
+		private double[] indizes = new double[16];
+
+		/**
+		 * Die Gewichtungen.
+		 */
+		private double[] gewichte = new double[16];
+
+		/**
+		 * Das gemeinsame Berechnungs-Verfahren der uebernommenen Werte.
+		 */
+		private GueteVerfahren verfahren;
+
+		/**
+		 * Zeigt an, ob alle uebernommenen Werte verrechenbar sind.
+		 */
+		private boolean verrechenbar;
+
+		/**
+		 * Zeigt an, ob einer der uebernommenen Werte gewichtet ist.
+		 */
+		private boolean gewichtet;
+
+		/**
+		 * Zeigt an, ob die uebernommenen Werte unterschiedliche
+		 * Berechnungs-Verfahren verlangen.
+		 */
+		private boolean unterschiedlicheVerfahren;
+
+		/**
+		 * Uebernimmt die uebergebenen Guetewerte in den Arbeitsbereich des
+		 * aktuellen Threads (siehe {@link #lade(GWert...)}).
+		 * 
+		 * @param datenSaetze
+		 *            die Guete-Datensaetze (darf nicht <code>null</code> oder
+		 *            leer sein)
+		 * @return der Arbeitsbereich des aktuellen Threads
+		 * @throws GueteException
+		 *             wenn die uebergebenen Datensaetze nicht alle dasselbe
+		 *             Berechnungs-Verfahren implementieren
+		 */
+		private static Arbeitsbereich uebernimm(final GWert... datenSaetze)
+				throws GueteException {
+			final Arbeitsbereich puffer = lade(datenSaetze);
+			if (puffer.unterschiedlicheVerfahren) {
+				throw GueteException.UNTERSCHIEDLICHE_VERFAHREN;
+			}
+			return puffer;
+		}
+
+		/**
+		 * Uebernimmt die uebergebenen Guetewerte in den Arbeitsbereich des
+		 * aktuellen Threads. Die Pruefung erfolgt dabei wie in
+		 * {@link WerteMenge}: Die Uebernahme endet mit dem ersten nicht
+		 * verrechenbaren Wert bzw. mit dem ersten Wert, der ein anderes
+		 * Berechnungs-Verfahren verlangt.
+		 * 
+		 * @param datenSaetze
+		 *            die Guete-Datensaetze (darf nicht <code>null</code> oder
+		 *            leer sein)
+		 * @return der Arbeitsbereich des aktuellen Threads
+		 */
+		private static Arbeitsbereich lade(final GWert... datenSaetze) {
+			final Arbeitsbereich puffer = PUFFER.get();
+			if (puffer.indizes.length < datenSaetze.length) {
+				puffer.indizes = new double[datenSaetze.length];
+				puffer.gewichte = new double[datenSaetze.length];
+			}
+
+			GueteVerfahren gemeinsamesVerfahren = null;
+			puffer.verrechenbar = true;
+			puffer.gewichtet = false;
+			puffer.unterschiedlicheVerfahren = false;
+			for (int i = 0; i < datenSaetze.length; i++) {
+				final GWert wert = datenSaetze[i];
+				if (!wert.isVerrechenbar()) {
+					puffer.verrechenbar = false;
+					break;
+				}
+				if (gemeinsamesVerfahren == null) {
+					gemeinsamesVerfahren = wert.getVerfahren();
+				} else if (gemeinsamesVerfahren != wert.getVerfahren()) {
+					if (GueteMetriken.AKTIV) {
+						GueteMetriken.erfasseUnterschiedlicheVerfahren();
+					}
+					puffer.unterschiedlicheVerfahren = true;
+					break;
+				}
+				puffer.indizes[i] = wert.getIndex();
+				puffer.gewichte[i] = wert.getGewichtung();
+				if (wert.getGewichtung() != 1.0) {
+					puffer.gewichtet = true;
+				}
+			}
+
+			puffer.verfahren = gemeinsamesVerfahren == null ? STANDARD
+					: gemeinsamesVerfahren;
+			return puffer;
+		}
+
+		/**
+		 * Erfragt die Gewichtungen fuer {@link GueteRechner}.
+		 * 
+		 * @return die Gewichtungen oder <code>null</code>, wenn keiner der
+		 *         uebernommenen Werte gewichtet ist
+		 */
+		private double[] getGewichte() {
+			return gewichtet ? gewichte : null;
+		}
+
+		/**
+		 * Berechnet die Gesamt-Guete der uebernommenen Werte.
+		 * 
+		 * @param operation
+		 *            die Verknuepfung ({@link GueteRechner#PRODUKT},
+		 *            {@link GueteRechner#QUOTIENT},
+		 *            {@link GueteRechner#SUMME} oder
+		 *            {@link GueteRechner#DIFFERENZ})
+		 * @param anzahl
+		 *            die Anzahl der uebernommenen Werte
+		 * @return die Gesamt-Guete
+		 */
+		private GWert berechne(final int operation, final int anzahl) {
+			if (!verrechenbar) {
+				return getNichtErmittelbar(verfahren);
+			}
+			return zwischenergebnis(GueteRechner.berechne(operation,
+					verfahren.getCode(), indizes, getGewichte(), 0, anzahl),
+					verfahren);
+		}
 	}
 
 }
@@ -0,0 +1,588 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import java.util.Arrays;
+import java.util.Comparator;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.ExecutorService;
+import java.util.concurrent.Executors;
+import java.util.concurrent.ThreadFactory;
+import java.util.concurrent.TimeUnit;
+import java.util.concurrent.atomic.AtomicInteger;
+import java.util.concurrent.atomic.AtomicIntegerArray;
+
+/**
+ * Verteilt die Gueteberechnung vieler Objekte eines Intervalls (z.B. der
+ * Minutenwerte aller Messquerschnitte) auf mehrere Threads und garantiert,
+ * dass das Ergebnis zu einer festen Frist vorliegt.<br>
+ * Je Intervall werden die Berechnungen (siehe {@link Aufgabe}) mit einer
+ * Frist und einer Prioritaet eingeplant und nach aufsteigender Frist und
+ * absteigender Prioritaet abgearbeitet. {@link Intervall#berechne()} kehrt
+ * spaetestens zur Frist des Intervalls zurueck. Berechnungen, die bis zu
+ * ihrer Frist nicht abgeschlossen sind, erhalten den Guetewert
+ * {@link GueteVerfahren#STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR}; ihr spaeter
+ * eintreffendes Ergebnis wird verworfen. Zu jedem Intervall werden der
+ * kleinste Zeitvorrat (Schlupf) der rechtzeitig abgeschlossenen
+ * Berechnungen und die Anzahl der Fristueberschreitungen geliefert.<br>
+ * Alle Fristen sind Zeitpunkte im Sinne von {@link System#nanoTime()}.<br>
+ * Die Berechnungen laufen wahlweise in einem Pool fester Groesse oder, ab
+ * Java 21, in virtuellen Threads (siehe {@link #mitVirtuellenThreads(int)}).
+ * Eine Berechnung, die ihre Frist ueberschreitet, belegt ihren Thread bis zu
+ * ihrem Ende; im Pool fester Groesse stehen nachfolgenden Intervallen dann
+ * entsprechend weniger Threads zur Verfuegung.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteZeitplaner implements AutoCloseable {
+
+	/**
+	 * Status: Die Berechnung wartet auf einen Thread.
+	 */
+	public static final int OFFEN = 0;
+
+	/**
+	 * Status: Die Berechnung laeuft.
+	 */
+	public static final int LAEUFT = 1;
+
+	/**
+	 * Status: Die Berechnung wurde rechtzeitig abgeschlossen.
+	 */
+	public static final int FERTIG = 2;
+
+	/**
+	 * Status: Die Frist der Berechnung ist abgelaufen.
+	 */
+	public static final int UEBERSCHRITTEN = 3;
+
+	/**
+	 * Status: Die Berechnung ist mit einer Ausnahme abgebrochen.
+	 */
+	public static final int FEHLER = 4;
+
+	/**
+	 * Die Berechnung der Guete eines Objekts.
+	 */
+	public interface Aufgabe {
+
+		/**
+		 * Berechnet die Guete, z.B. ueber
+		 * {@link GueteVerfahren#summe(GWert...)}.
+		 *
+		 * @return die Guete
+		 * @throws GueteException
+		 *             wenn die Guete nicht berechnet werden kann
+		 */
+		GWert berechne() throws GueteException;
+	}
+
+	/**
+	 * Die Anzahl der Berechnungen, die hoechstens gleichzeitig laufen.
+	 */
+	private final int parallelitaet;
+
+	/**
+	 * Fuehrt die Berechnungen aus.
+	 */
+	private final ExecutorService ausfuehrung;
+
+	/**
+	 * Zeigt an, ob die Berechnungen in virtuellen Threads laufen.
+	 */
+	private final boolean virtuell;
+
+	/**
+	 * Erzeugt einen Zeitplaner mit einem Pool fester Groesse.
+	 *
+	 * @param parallelitaet
+	 *            die Anzahl der Threads
+	 * @throws IllegalArgumentException
+	 *             wenn die Anzahl nicht positiv ist
+	 */
+	public GueteZeitplaner(final int parallelitaet) {
+		this(parallelitaet, null);
+	}
+
+	/**
+	 * Erzeugt einen Zeitplaner.
+	 *
+	 * @param parallelitaet
+	 *            die Anzahl der gleichzeitigen Berechnungen
+	 * @param ausfuehrung
+	 *            die Ausfuehrung in virtuellen Threads oder
+	 *            <code>null</code> fuer einen Pool fester Groesse
+	 */
+	private GueteZeitplaner(final int parallelitaet,
+			final ExecutorService ausfuehrung) {
+		if (parallelitaet < 1) {
+			throw new IllegalArgumentException(
+					"Ungueltige Anzahl von Threads: " + parallelitaet); //$NON-NLS-1$
+		}
+		this.parallelitaet = parallelitaet;
+		this.virtuell = ausfuehrung != null;
+		this.ausfuehrung = ausfuehrung != null ? ausfuehrung : Executors
+				.newFixedThreadPool(parallelitaet, new ThreadFactory() {
+
+					/**
+					 * Die Nummer des naechsten Threads.
+					 */
+					private final AtomicInteger nummer = new AtomicInteger();
+
+					@Override
+					public Thread newThread(final Runnable r) {
+						final Thread thread = new Thread(r,
+								"GueteZeitplaner-" + nummer.incrementAndGet()); //$NON-NLS-1$
+						thread.setDaemon(true);
+						return thread;
+					}
+				});
+	}
+
+	/**
+	 * Erzeugt einen Zeitplaner, dessen Berechnungen in virtuellen Threads
+	 * laufen. Stellt die JVM keine virtuellen Threads zur Verfuegung (vor
+	 * Java 21), wird ein Pool fester Groesse verwendet.
+	 *
+	 * @param parallelitaet
+	 *            die Anzahl der gleichzeitigen Berechnungen je Intervall
+	 * @return der Zeitplaner
+	 * @throws IllegalArgumentException
+	 *             wenn die Anzahl nicht positiv ist
+	 */
+	public static GueteZeitplaner mitVirtuellenThreads(final int parallelitaet) {
+		ExecutorService virtuelleThreads = null;
+		try {
+			virtuelleThreads = (ExecutorService) Executors.class.getMethod(
+					"newVirtualThreadPerTaskExecutor").invoke(null); //$NON-NLS-1$
+		} catch (final ReflectiveOperationException e) {
+			// aeltere JVM, Pool fester Groesse verwenden
+		}
+		return new GueteZeitplaner(parallelitaet, virtuelleThreads);
+	}
+
+	/**
+	 * Erfragt die Anzahl der gleichzeitigen Berechnungen.
+	 *
+	 * @return die Anzahl
+	 */
+	public int getParallelitaet() {
+		return parallelitaet;
+	}
+
+	/**
+	 * Erfragt, ob die Berechnungen in virtuellen Threads laufen.
+	 *
+	 * @return ob virtuelle Threads verwendet werden
+	 */
+	public boolean isVirtuell() {
+		return virtuell;
+	}
+
+	/**
+	 * Legt ein neues Intervall an.
+	 *
+	 * @param frist
+	 *            der Zeitpunkt (siehe {@link System#nanoTime()}), zu dem die
+	 *            Ergebnisse aller Berechnungen des Intervalls vorliegen
+	 *            muessen
+	 * @return das Intervall
+	 */
+	public Intervall neuesIntervall(final long frist) {
+		return new Intervall(frist);
+	}
+
+	/**
+	 * Beendet alle Threads. Laufende Berechnungen werden unterbrochen.
+	 */
+	@Override
+	public void close() {
+		ausfuehrung.shutdownNow();
+	}
+
+	/**
+	 * Die Berechnungen eines Intervalls. Ein Intervall wird von einem Thread
+	 * eingeplant und genau einmal berechnet.
+	 */
+	public final class Intervall {
+
+		/**
+		 * Die Frist des Intervalls.
+		 */
+		private final long frist;
+
+		/**
+		 * Die Anzahl der eingeplanten Berechnungen.
+		 */
+		private int anzahl;
+
+		/**
+		 * Die Berechnungen.
+		 */
+		private Aufgabe[] aufgaben = new Aufgabe[16];
+
+		/**
+		 * Die Fristen der Berechnungen.
+		 */
+		private long[] fristen = new long[16];
+
+		/**
+		 * Die Prioritaeten der Berechnungen.
+		 */
+		private int[] prioritaeten = new int[16];
+
+		/**
+		 * Die Ergebnisse der Berechnungen. Ein Ergebnis wird vor dem Setzen
+		 * des Status geschrieben und ist nur im Status {@link #FERTIG}
+		 * gueltig.
+		 */
+		private GWert[] werte;
+
+		/**
+		 * Die Endzeitpunkte der Berechnungen.
+		 */
+		private long[] enden;
+
+		/**
+		 * Der Status je Berechnung.
+		 */
+		private AtomicIntegerArray status;
+
+		/**
+		 * Die Berechnungen in der Reihenfolge ihrer Abarbeitung.
+		 */
+		private int[] reihenfolge;
+
+		/**
+		 * Die Position der naechsten abzuarbeitenden Berechnung in
+		 * {@link #reihenfolge}.
+		 */
+		private final AtomicInteger naechste = new AtomicInteger();
+
+		/**
+		 * Zaehlt die noch nicht abgeschlossenen Berechnungen.
+		 */
+		private CountDownLatch offen;
+
+		/**
+		 * Die Anzahl der Fristueberschreitungen.
+		 */
+		private int ueberschreitungen;
+
+		/**
+		 * Die Anzahl der mit einer Ausnahme abgebrochenen Berechnungen.
+		 */
+		private int fehler;
+
+		/**
+		 * Der kleinste Zeitvorrat der rechtzeitig abgeschlossenen
+		 * Berechnungen in Nanosekunden.
+		 */
+		private long schlupf = Long.MAX_VALUE;
+
+		/**
+		 * Erzeugt ein leeres Intervall.
+		 *
+		 * @param frist
+		 *            die Frist des Intervalls
+		 */
+		private Intervall(final long frist) {
+			this.frist = frist;
+		}
+
+		/**
+		 * Erfragt die Frist des Intervalls.
+		 *
+		 * @return die Frist (siehe {@link System#nanoTime()})
+		 */
+		public long getFrist() {
+			return frist;
+		}
+
+		/**
+		 * Erfragt die Anzahl der eingeplanten Berechnungen.
+		 *
+		 * @return die Anzahl
+		 */
+		public int getAnzahl() {
+			return anzahl;
+		}
+
+		/**
+		 * Plant eine Berechnung mit der Frist des Intervalls ein.
+		 *
+		 * @param aufgabe
+		 *            die Berechnung
+		 * @param prioritaet
+		 *            die Prioritaet (hoehere Werte werden bei gleicher Frist
+		 *            zuerst berechnet)
+		 * @return die Nummer der Berechnung
+		 */
+		public int plane(final Aufgabe aufgabe, final int prioritaet) {
+			return plane(aufgabe, frist, prioritaet);
+		}
+
+		/**
+		 * Plant eine Berechnung ein.
+		 *
+		 * @param aufgabe
+		 *            die Berechnung
+		 * @param aufgabenFrist
+		 *            die Frist der Berechnung (siehe {@link System#nanoTime()}
+		 *            ), hoechstens die Frist des Intervalls
+		 * @param prioritaet
+		 *            die Prioritaet (hoehere Werte werden bei gleicher Frist
+		 *            zuerst berechnet)
+		 * @return die Nummer der Berechnung
+		 * @throws IllegalStateException
+		 *             wenn das Intervall bereits berechnet wurde
+		 */
+		public int plane(final Aufgabe aufgabe, final long aufgabenFrist,
+				final int prioritaet) {
+			if (aufgabe == null) {
+				throw new IllegalArgumentException(
+						"Es wurde keine Berechnung angegeben"); //$NON-NLS-1$
+			}
+			if (status != null) {
+				throw new IllegalStateException(
+						"Das Intervall wurde bereits berechnet"); //$NON-NLS-1$
+			}
+			if (anzahl == aufgaben.length) {
+				aufgaben = Arrays.copyOf(aufgaben, 2 * anzahl);
+				fristen = Arrays.copyOf(fristen, 2 * anzahl);
+				prioritaeten = Arrays.copyOf(prioritaeten, 2 * anzahl);
+			}
+			aufgaben[anzahl] = aufgabe;
+			fristen[anzahl] = aufgabenFrist - frist > 0 ? frist : aufgabenFrist;
+			prioritaeten[anzahl] = prioritaet;
+			return anzahl++;
+		}
+
+		/**
+		 * Fuehrt alle Berechnungen aus und wartet bis alle abgeschlossen
+		 * sind, hoechstens aber bis zur Frist des Intervalls. Danach sind
+		 * alle nicht rechtzeitig abgeschlossenen Berechnungen als
+		 * {@link #UEBERSCHRITTEN} gekennzeichnet.
+		 *
+		 * @throws InterruptedException
+		 *             wenn der aufrufende Thread beim Warten unterbrochen
+		 *             wurde
+		 * @throws IllegalStateException
+		 *             wenn das Intervall bereits berechnet wurde
+		 */
+		public void berechne() throws InterruptedException {
+			if (status != null) {
+				throw new IllegalStateException(
+						"Das Intervall wurde bereits berechnet"); //$NON-NLS-1$
+			}
+			werte = new GWert[anzahl];
+			enden = new long[anzahl];
+			status = new AtomicIntegerArray(anzahl);
+			offen = new CountDownLatch(anzahl);
+			reihenfolge = sortiere();
+
+			final Runnable arbeiter = this::arbeite;
+			for (int i = 0; i < Math.min(parallelitaet, anzahl); i++) {
+				ausfuehrung.execute(arbeiter);
+			}
+			try {
+				offen.await(frist - System.nanoTime(), TimeUnit.NANOSECONDS);
+			} finally {
+				werteAus();
+			}
+		}
+
+		/**
+		 * Erfragt den Status einer Berechnung.
+		 *
+		 * @param nummer
+		 *            die Nummer der Berechnung
+		 * @return {@link #OFFEN}, {@link #LAEUFT}, {@link #FERTIG},
+		 *         {@link #UEBERSCHRITTEN} oder {@link #FEHLER}
+		 */
+		public int getStatus(final int nummer) {
+			if (status == null) {
+				return OFFEN;
+			}
+			return status.get(nummer);
+		}
+
+		/**
+		 * Erfragt das Ergebnis einer Berechnung.
+		 *
+		 * @param nummer
+		 *            die Nummer der Berechnung
+		 * @return die berechnete Guete oder
+		 *         {@link GueteVerfahren#STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR},
+		 *         wenn die Berechnung nicht rechtzeitig abgeschlossen wurde
+		 */
+		public GWert getWert(final int nummer) {
+			if (getStatus(nummer) == FERTIG && werte[nummer] != null) {
+				return werte[nummer];
+			}
+			return GueteVerfahren.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR;
+		}
+
+		/**
+		 * Erfragt die Anzahl der Berechnungen, die ihre Frist ueberschritten
+		 * haben.
+		 *
+		 * @return die Anzahl
+		 */
+		public int getUeberschreitungen() {
+			return ueberschreitungen;
+		}
+
+		/**
+		 * Erfragt die Anzahl der mit einer Ausnahme abgebrochenen
+		 * Berechnungen.
+		 *
+		 * @return die Anzahl
+		 */
+		public int getFehler() {
+			return fehler;
+		}
+
+		/**
+		 * Erfragt den kleinsten Zeitvorrat zwischen dem Ende und der Frist
+		 * der rechtzeitig abgeschlossenen Berechnungen.
+		 *
+		 * @return der Zeitvorrat in Nanosekunden oder
+		 *         {@link Long#MAX_VALUE}, wenn keine Berechnung rechtzeitig
+		 *         abgeschlossen wurde
+		 */
+		public long getSchlupf() {
+			return schlupf;
+		}
+
+		/**
+		 * Arbeitet Berechnungen in der geplanten Reihenfolge ab, bis keine
+		 * mehr offen ist.
+		 */
+		private void arbeite() {
+			int position;
+			while ((position = naechste.getAndIncrement()) < anzahl) {
+				final int nummer = reihenfolge[position];
+				if (!status.compareAndSet(nummer, OFFEN, LAEUFT)) {
+					// bereits als ueberschritten gekennzeichnet
+					continue;
+				}
+				if (System.nanoTime() - fristen[nummer] > 0) {
+					schliesseAb(nummer, UEBERSCHRITTEN);
+					continue;
+				}
+
+				int ergebnis = FERTIG;
+				try {
+					werte[nummer] = aufgaben[nummer].berechne();
+				} catch (final GueteException | RuntimeException e) {
+					ergebnis = FEHLER;
+				}
+				enden[nummer] = System.nanoTime();
+				if (enden[nummer] - fristen[nummer] > 0) {
+					ergebnis = UEBERSCHRITTEN;
+				}
+				schliesseAb(nummer, ergebnis);
+			}
+		}
+
+		/**
+		 * Schliesst eine laufende Berechnung ab, sofern sie nicht
+		 * zwischenzeitlich als ueberschritten gekennzeichnet wurde.
+		 *
+		 * @param nummer
+		 *            die Nummer der Berechnung
+		 * @param ergebnis
+		 *            der neue Status
+		 */
+		private void schliesseAb(final int nummer, final int ergebnis) {
+			if (status.compareAndSet(nummer, LAEUFT, ergebnis)) {
+				offen.countDown();
+			}
+		}
+
+		/**
+		 * Kennzeichnet alle nicht abgeschlossenen Berechnungen als
+		 * ueberschritten und ermittelt Schlupf und Ueberschreitungen.
+		 */
+		private void werteAus() {
+			for (int nummer = 0; nummer < anzahl; nummer++) {
+				int aktuell = status.get(nummer);
+				while ((aktuell == OFFEN || aktuell == LAEUFT)
+						&& !status.compareAndSet(nummer, aktuell,
+								UEBERSCHRITTEN)) {
+					aktuell = status.get(nummer);
+				}
+				switch (status.get(nummer)) {
+				case FERTIG:
+					schlupf = Math.min(schlupf, fristen[nummer]
+							- enden[nummer]);
+					break;
+				case FEHLER:
+					fehler++;
+					break;
+				default:
+					ueberschreitungen++;
+					break;
+				}
+			}
+		}
+
+		/**
+		 * Ermittelt die Reihenfolge der Abarbeitung: aufsteigend nach der
+		 * Frist, bei gleicher Frist absteigend nach der Prioritaet.
+		 *
+		 * @return die Nummern der Berechnungen in der Reihenfolge ihrer
+		 *         Abarbeitung
+		 */
+		private int[] sortiere() {
+			final Integer[] nummern = new Integer[anzahl];
+			for (int i = 0; i < anzahl; i++) {
+				nummern[i] = i;
+			}
+			Arrays.sort(nummern, new Comparator<Integer>() {
+
+				@Override
+				public int compare(final Integer a, final Integer b) {
+					final long differenz = fristen[a] - fristen[b];
+					if (differenz != 0) {
+						return differenz < 0 ? -1 : 1;
+					}
+					return Integer.compare(prioritaeten[b], prioritaeten[a]);
+				}
+			});
+			final int[] ergebnis = new int[anzahl];
+			for (int i = 0; i < anzahl; i++) {
+				ergebnis[i] = nummern[i];
+			}
+			return ergebnis;
+		}
+	}
+
+}
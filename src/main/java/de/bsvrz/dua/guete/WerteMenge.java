@@ -95,9 +95,7 @@ public class WerteMenge {
 			}
 
 			if (alleVerfahren.size() > 1) {
-				throw new GueteException(
-						"Die uebergebenen Datensaetze verlangen" + //$NON-NLS-1$
-								" unterschiedliche Guete-Berechnungsverfahren"); //$NON-NLS-1$
+				throw GueteException.UNTERSCHIEDLICHE_VERFAHREN;
 			}
 		}
 
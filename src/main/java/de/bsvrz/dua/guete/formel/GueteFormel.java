@@ -0,0 +1,280 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete.formel;
+
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+
+import de.bsvrz.dua.guete.GueteRechner;
+import de.bsvrz.dua.guete.GueteVerfahren;
+
+/**
+ * Eine uebersetzte Formel zur Berechnung einer zusammengesetzten Guete, z.B.
+ * <code>p(s(a, b), e(c, 0.5))</code>.<br>
+ * Die Formel wird einmal in ein flaches Programm fuer eine Stapelmaschine
+ * uebersetzt und kann danach beliebig oft ohne Objekterzeugung ueber
+ * primitiven Guete-Indizes ausgewertet werden. Jede Funktion wird dabei wie
+ * in {@link GueteVerfahren} ueber {@link GueteRechner} berechnet; ein nicht
+ * verrechenbarer Index ({@link GueteRechner#NICHT_VERRECHENBAR}) pflanzt
+ * sich also genau so fort wie bei der Berechnung ueber
+ * {@link de.bsvrz.dua.guete.GWert}-Objekte.<br>
+ * <br>
+ * Syntax:
+ * <ul>
+ * <li><code>p(...)</code> bzw. <code>produkt(...)</code>: Verknuepfung mit
+ * dem Operator "<code>*</code>",</li>
+ * <li><code>q(...)</code> bzw. <code>quotient(...)</code>: Verknuepfung mit
+ * dem Operator "<code>/</code>",</li>
+ * <li><code>s(...)</code>, <code>sw(...)</code> bzw. <code>summe(...)</code>:
+ * Verknuepfung mit dem Operator "<code>+</code>",</li>
+ * <li><code>d(...)</code>, <code>dw(...)</code> bzw.
+ * <code>differenz(...)</code>: Verknuepfung mit dem Operator
+ * "<code>-</code>",</li>
+ * <li><code>e(x, exponent)</code> bzw. <code>exp(x, exponent)</code>:
+ * Potenzierung mit einem konstanten Exponenten.</li>
+ * </ul>
+ * Die Argumente von Summe und Differenz koennen mit
+ * <code>argument:gewichtung</code> gewichtet werden; wie in
+ * {@link GueteVerfahren} wird die gewichtete Vorschrift angewendet, sobald
+ * eine Gewichtung ungleich 1.0 ist. Alle anderen Bezeichner sind Variablen,
+ * denen in der Reihenfolge ihres ersten Auftretens Plaetze (Slots)
+ * zugeordnet werden.<br>
+ * Eine Formel ist unveraenderlich und kann von mehreren Threads gleichzeitig
+ * ausgewertet werden.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteFormel {
+
+	/**
+	 * Befehl: Guete-Index einer Variablen auf den Stapel legen. Die
+	 * uebrigen Befehle sind die Codes der Verknuepfungen und der
+	 * Potenzierung in {@link GueteRechner}.
+	 */
+	static final int LADE = -1;
+
+	/**
+	 * Laenge eines Befehls (Befehl und zwei Operanden).
+	 */
+	static final int BEFEHL_LAENGE = 3;
+
+	/**
+	 * Die Arbeitsbereiche der einzelnen Threads.
+	 */
+	private static final ThreadLocal<Arbeitsbereich> PUFFER = ThreadLocal
+			.withInitial(Arbeitsbereich::new);
+
+	/**
+	 * Der Quelltext der Formel.
+	 */
+	private final String quelltext;
+
+	/**
+	 * Das Programm: je Befehl der Befehlscode und zwei Operanden. Fuer eine
+	 * Verknuepfung sind das die Anzahl der Argumente und der Index der
+	 * ersten Gewichtung in den Konstanten (<code>-1</code>, wenn die
+	 * Argumente nicht gewichtet sind).
+	 */
+	private final int[] programm;
+
+	/**
+	 * Die Konstanten (Gewichtungen und Exponenten) des Programms.
+	 */
+	private final double[] konstanten;
+
+	/**
+	 * Die Namen der Variablen in der Reihenfolge ihrer Slots.
+	 */
+	private final List<String> variablen;
+
+	/**
+	 * Die maximale Tiefe des Stapels.
+	 */
+	private final int tiefe;
+
+	/**
+	 * Uebersetzt eine Formel.
+	 *
+	 * @param quelltext
+	 *            die Formel
+	 * @throws IllegalArgumentException
+	 *             wenn die Formel syntaktisch nicht korrekt ist
+	 */
+	public GueteFormel(final String quelltext) {
+		final Uebersetzer uebersetzer = new Uebersetzer(quelltext);
+		this.quelltext = quelltext;
+		this.programm = uebersetzer.getProgramm();
+		this.konstanten = uebersetzer.getKonstanten();
+		this.variablen = Collections.unmodifiableList(uebersetzer
+				.getVariablen());
+		this.tiefe = uebersetzer.getTiefe();
+	}
+
+	/**
+	 * Erfragt die Namen der Variablen in der Reihenfolge ihrer Slots.
+	 *
+	 * @return die Namen der Variablen
+	 */
+	public List<String> getVariablen() {
+		return variablen;
+	}
+
+	/**
+	 * Erfragt den Slot einer Variablen.
+	 *
+	 * @param name
+	 *            der Name der Variablen
+	 * @return der Slot oder <code>-1</code>, wenn die Formel keine Variable
+	 *         dieses Namens enthaelt
+	 */
+	public int getSlot(final String name) {
+		return variablen.indexOf(name);
+	}
+
+	/**
+	 * Wertet die Formel aus.
+	 *
+	 * @param verfahren
+	 *            das Guete-Verfahren aller Variablen
+	 * @param indizes
+	 *            die skalierten Guete-Indizes der Variablen (bzw.
+	 *            {@link GueteRechner#NICHT_VERRECHENBAR}) in der Reihenfolge
+	 *            ihrer Slots
+	 * @return der skalierte Guete-Index des Ergebnisses oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public double berechne(final GueteVerfahren verfahren,
+			final double... indizes) {
+		return berechne(verfahren.getCode(), indizes, 0);
+	}
+
+	/**
+	 * Wertet die Formel aus.
+	 *
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens aller Variablen
+	 * @param indizes
+	 *            die skalierten Guete-Indizes der Variablen (bzw.
+	 *            {@link GueteRechner#NICHT_VERRECHENBAR})
+	 * @param offset
+	 *            der Index des Guete-Index fuer den Slot <code>0</code>
+	 * @return der skalierte Guete-Index des Ergebnisses oder
+	 *         {@link GueteRechner#NICHT_VERRECHENBAR}
+	 */
+	public double berechne(final int verfahren, final double[] indizes,
+			final int offset) {
+		final Arbeitsbereich puffer = PUFFER.get();
+		if (puffer.stapel.length < tiefe) {
+			puffer.stapel = new double[tiefe];
+			puffer.gewichte = new double[tiefe];
+		}
+		final double[] stapel = puffer.stapel;
+
+		int zeiger = 0;
+		for (int i = 0; i < programm.length; i += BEFEHL_LAENGE) {
+			final int befehl = programm[i];
+			final int operand = programm[i + 1];
+			if (befehl == LADE) {
+				stapel[zeiger++] = indizes[offset + operand];
+			} else if (befehl == GueteRechner.EXP) {
+				stapel[zeiger - 1] = GueteRechner.exp(verfahren,
+						stapel[zeiger - 1], konstanten[programm[i + 2]]);
+			} else {
+				zeiger -= operand;
+				stapel[zeiger] = GueteRechner.berechne(befehl, verfahren,
+						stapel, puffer.getGewichte(konstanten,
+								programm[i + 2], zeiger, operand), zeiger,
+						operand);
+				zeiger++;
+			}
+		}
+		return stapel[0];
+	}
+
+	@Override
+	public boolean equals(final Object obj) {
+		return obj instanceof GueteFormel
+				&& Arrays.equals(programm, ((GueteFormel) obj).programm)
+				&& Arrays.equals(konstanten, ((GueteFormel) obj).konstanten)
+				&& variablen.equals(((GueteFormel) obj).variablen);
+	}
+
+	@Override
+	public int hashCode() {
+		return 31 * Arrays.hashCode(programm) + variablen.hashCode();
+	}
+
+	@Override
+	public String toString() {
+		return quelltext;
+	}
+
+	/**
+	 * Threadlokaler Arbeitsbereich fuer die Auswertung. Die Felder werden nur
+	 * bei Bedarf vergroessert.
+	 */
+	private static final class Arbeitsbereich {
+
+		/**
+		 * Der Stapel der Guete-Indizes.
+		 */
+		private double[] stapel = new double[16];
+
+		/**
+		 * Die Gewichtungen zu den Guete-Indizes auf dem Stapel.
+		 */
+		private double[] gewichte = new double[16];
+
+		/**
+		 * Erfragt die Gewichtungen fuer die Argumente einer Verknuepfung.
+		 *
+		 * @param konstanten
+		 *            die Konstanten des Programms
+		 * @param konstante
+		 *            der Index der ersten Gewichtung in den Konstanten oder
+		 *            <code>-1</code>, wenn die Argumente nicht gewichtet sind
+		 * @param zeiger
+		 *            die Position des ersten Arguments auf dem Stapel
+		 * @param anzahl
+		 *            die Anzahl der Argumente
+		 * @return die Gewichtungen an den Positionen der Argumente oder
+		 *         <code>null</code>
+		 */
+		private double[] getGewichte(final double[] konstanten,
+				final int konstante, final int zeiger, final int anzahl) {
+			if (konstante < 0) {
+				return null;
+			}
+			System.arraycopy(konstanten, konstante, gewichte, zeiger, anzahl);
+			return gewichte;
+		}
+	}
+
+}
@@ -0,0 +1,413 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete.formel;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.List;
+
+import de.bsvrz.dua.guete.GueteRechner;
+
+/**
+ * Uebersetzt den Quelltext einer {@link GueteFormel} per rekursivem Abstieg
+ * in das Programm der Stapelmaschine (Postfix-Reihenfolge).
+ *
+ * @author BitCtrl Systems GmbH
+ */
+final class Uebersetzer {
+
+	/**
+	 * Der Quelltext.
+	 */
+	private final String text;
+
+	/**
+	 * Die aktuelle Position im Quelltext.
+	 */
+	private int position;
+
+	/**
+	 * Die Namen der Variablen in der Reihenfolge ihres ersten Auftretens.
+	 */
+	private final List<String> variablen = new ArrayList<String>();
+
+	/**
+	 * Das bisher erzeugte Programm.
+	 */
+	private int[] programm = new int[16 * GueteFormel.BEFEHL_LAENGE];
+
+	/**
+	 * Die Laenge des bisher erzeugten Programms.
+	 */
+	private int programmLaenge;
+
+	/**
+	 * Die bisher erzeugten Konstanten.
+	 */
+	private double[] konstanten = new double[8];
+
+	/**
+	 * Die Anzahl der bisher erzeugten Konstanten.
+	 */
+	private int konstantenAnzahl;
+
+	/**
+	 * Die Tiefe des Stapels nach dem bisher erzeugten Programm.
+	 */
+	private int tiefe;
+
+	/**
+	 * Die maximale Tiefe des Stapels.
+	 */
+	private int maxTiefe;
+
+	/**
+	 * Uebersetzt eine Formel.
+	 *
+	 * @param text
+	 *            der Quelltext der Formel
+	 * @throws IllegalArgumentException
+	 *             wenn die Formel syntaktisch nicht korrekt ist
+	 */
+	Uebersetzer(final String text) {
+		if (text == null) {
+			throw new IllegalArgumentException("Keine Formel angegeben"); //$NON-NLS-1$
+		}
+		this.text = text;
+		ausdruck();
+		ueberspringeLeerzeichen();
+		if (position < text.length()) {
+			throw fehler("Unerwartetes Zeichen"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Erfragt das erzeugte Programm.
+	 *
+	 * @return das Programm
+	 */
+	int[] getProgramm() {
+		return Arrays.copyOf(programm, programmLaenge);
+	}
+
+	/**
+	 * Erfragt die erzeugten Konstanten.
+	 *
+	 * @return die Konstanten
+	 */
+	double[] getKonstanten() {
+		return Arrays.copyOf(konstanten, konstantenAnzahl);
+	}
+
+	/**
+	 * Erfragt die Namen der Variablen in der Reihenfolge ihrer Slots.
+	 *
+	 * @return die Namen der Variablen
+	 */
+	List<String> getVariablen() {
+		return variablen;
+	}
+
+	/**
+	 * Erfragt die maximale Tiefe des Stapels.
+	 *
+	 * @return die maximale Tiefe des Stapels
+	 */
+	int getTiefe() {
+		return maxTiefe;
+	}
+
+	/**
+	 * Uebersetzt einen Ausdruck (Funktionsaufruf oder Variable).
+	 */
+	private void ausdruck() {
+		ueberspringeLeerzeichen();
+		final String name = bezeichner();
+		ueberspringeLeerzeichen();
+		if (position < text.length() && text.charAt(position) == '(') {
+			position++;
+			funktion(name);
+		} else {
+			int slot = variablen.indexOf(name);
+			if (slot < 0) {
+				slot = variablen.size();
+				variablen.add(name);
+			}
+			befehl(GueteFormel.LADE, slot, 0);
+		}
+	}
+
+	/**
+	 * Uebersetzt einen Funktionsaufruf nach der oeffnenden Klammer.
+	 *
+	 * @param name
+	 *            der Name der Funktion
+	 */
+	private void funktion(final String name) {
+		switch (name) {
+		case "p": //$NON-NLS-1$
+		case "produkt": //$NON-NLS-1$
+			befehl(GueteRechner.PRODUKT, argumente(null), -1);
+			break;
+		case "q": //$NON-NLS-1$
+		case "quotient": //$NON-NLS-1$
+			befehl(GueteRechner.QUOTIENT, argumente(null), -1);
+			break;
+		case "s": //$NON-NLS-1$
+		case "sw": //$NON-NLS-1$
+		case "summe": //$NON-NLS-1$
+			gewichteteFunktion(GueteRechner.SUMME);
+			break;
+		case "d": //$NON-NLS-1$
+		case "dw": //$NON-NLS-1$
+		case "differenz": //$NON-NLS-1$
+			gewichteteFunktion(GueteRechner.DIFFERENZ);
+			break;
+		case "e": //$NON-NLS-1$
+		case "exp": //$NON-NLS-1$
+			ausdruck();
+			erwarte(',');
+			final int exponent = konstante(zahl());
+			erwarte(')');
+			befehl(GueteRechner.EXP, 0, exponent);
+			break;
+		default:
+			throw fehler("Unbekannte Funktion '" + name + "'"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Uebersetzt eine Summe bzw. Differenz nach der oeffnenden Klammer.
+	 *
+	 * @param befehl
+	 *            der Befehl
+	 */
+	private void gewichteteFunktion(final int befehl) {
+		final List<Double> gewichte = new ArrayList<Double>();
+		final int anzahl = argumente(gewichte);
+
+		int erste = -1;
+		if (!gewichte.isEmpty()) {
+			erste = konstantenAnzahl;
+			for (final Double gewichtung : gewichte) {
+				konstante(gewichtung == null ? 1.0 : gewichtung);
+			}
+		}
+		befehl(befehl, anzahl, erste);
+	}
+
+	/**
+	 * Uebersetzt die Argumente eines Funktionsaufrufs bis einschliesslich
+	 * der schliessenden Klammer.
+	 *
+	 * @param gewichte
+	 *            die Liste fuer die Gewichtungen der Argumente (
+	 *            <code>null</code> fuer ein nicht gewichtetes Argument) oder
+	 *            <code>null</code>, wenn die Funktion keine Gewichtungen
+	 *            erlaubt. Bleibt leer, wenn kein Argument gewichtet ist
+	 * @return die Anzahl der Argumente
+	 */
+	private int argumente(final List<Double> gewichte) {
+		final List<Double> argumentGewichte = new ArrayList<Double>();
+		boolean gewichtet = false;
+		int anzahl = 0;
+		do {
+			ausdruck();
+			anzahl++;
+			ueberspringeLeerzeichen();
+			Double gewichtung = null;
+			if (position < text.length() && text.charAt(position) == ':') {
+				if (gewichte == null) {
+					throw fehler("Gewichtung nur bei Summe und Differenz erlaubt"); //$NON-NLS-1$
+				}
+				position++;
+				gewichtung = zahl();
+				gewichtet = true;
+				ueberspringeLeerzeichen();
+			}
+			argumentGewichte.add(gewichtung);
+		} while (naechstes(','));
+		erwarte(')');
+
+		if (gewichtet) {
+			gewichte.addAll(argumentGewichte);
+		}
+		return anzahl;
+	}
+
+	/**
+	 * Liest einen Bezeichner.
+	 *
+	 * @return der Bezeichner
+	 */
+	private String bezeichner() {
+		final int anfang = position;
+		if (position < text.length()
+				&& (Character.isLetter(text.charAt(position)) || text
+						.charAt(position) == '_')) {
+			position++;
+			while (position < text.length()
+					&& (Character.isLetterOrDigit(text.charAt(position))
+							|| text.charAt(position) == '_' || text
+							.charAt(position) == '.')) {
+				position++;
+			}
+		}
+		if (anfang == position) {
+			throw fehler("Funktion oder Variable erwartet"); //$NON-NLS-1$
+		}
+		return text.substring(anfang, position);
+	}
+
+	/**
+	 * Liest eine Zahl.
+	 *
+	 * @return die Zahl
+	 */
+	private double zahl() {
+		ueberspringeLeerzeichen();
+		final int anfang = position;
+		while (position < text.length()) {
+			final char zeichen = text.charAt(position);
+			final boolean vorzeichen = (zeichen == '+' || zeichen == '-')
+					&& (position == anfang || Character.toLowerCase(text
+							.charAt(position - 1)) == 'e');
+			if (!vorzeichen && !Character.isDigit(zeichen) && zeichen != '.'
+					&& zeichen != 'e' && zeichen != 'E') {
+				break;
+			}
+			position++;
+		}
+		try {
+			final double zahl = Double.parseDouble(text.substring(anfang,
+					position));
+			if (Double.isNaN(zahl) || Double.isInfinite(zahl)) {
+				throw new NumberFormatException();
+			}
+			return zahl;
+		} catch (final NumberFormatException e) {
+			position = anfang;
+			throw fehler("Zahl erwartet"); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Erwartet ein bestimmtes Zeichen.
+	 *
+	 * @param zeichen
+	 *            das Zeichen
+	 */
+	private void erwarte(final char zeichen) {
+		if (!naechstes(zeichen)) {
+			throw fehler("'" + zeichen + "' erwartet"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+	}
+
+	/**
+	 * Liest ein bestimmtes Zeichen, falls es das naechste ist.
+	 *
+	 * @param zeichen
+	 *            das Zeichen
+	 * @return ob das Zeichen gelesen wurde
+	 */
+	private boolean naechstes(final char zeichen) {
+		ueberspringeLeerzeichen();
+		if (position < text.length() && text.charAt(position) == zeichen) {
+			position++;
+			return true;
+		}
+		return false;
+	}
+
+	/**
+	 * Ueberspringt Leerzeichen.
+	 */
+	private void ueberspringeLeerzeichen() {
+		while (position < text.length()
+				&& Character.isWhitespace(text.charAt(position))) {
+			position++;
+		}
+	}
+
+	/**
+	 * Haengt einen Befehl an das Programm an.
+	 *
+	 * @param befehl
+	 *            der Befehlscode
+	 * @param operand
+	 *            der erste Operand (Slot bzw. Anzahl der Argumente)
+	 * @param konstante
+	 *            der zweite Operand (Index in den Konstanten)
+	 */
+	private void befehl(final int befehl, final int operand,
+			final int konstante) {
+		if (programmLaenge + GueteFormel.BEFEHL_LAENGE > programm.length) {
+			programm = Arrays.copyOf(programm, 2 * programm.length);
+		}
+		programm[programmLaenge++] = befehl;
+		programm[programmLaenge++] = operand;
+		programm[programmLaenge++] = konstante;
+
+		if (befehl == GueteFormel.LADE) {
+			tiefe++;
+			maxTiefe = Math.max(maxTiefe, tiefe);
+		} else if (befehl != GueteRechner.EXP) {
+			tiefe -= operand - 1;
+		}
+	}
+
+	/**
+	 * Haengt eine Konstante an.
+	 *
+	 * @param wert
+	 *            der Wert
+	 * @return der Index der Konstanten
+	 */
+	private int konstante(final double wert) {
+		if (konstantenAnzahl == konstanten.length) {
+			konstanten = Arrays.copyOf(konstanten, 2 * konstanten.length);
+		}
+		konstanten[konstantenAnzahl] = wert;
+		return konstantenAnzahl++;
+	}
+
+	/**
+	 * Erzeugt eine Ausnahme fuer einen Syntaxfehler an der aktuellen
+	 * Position.
+	 *
+	 * @param meldung
+	 *            die Fehlermeldung
+	 * @return die Ausnahme
+	 */
+	private IllegalArgumentException fehler(final String meldung) {
+		return new IllegalArgumentException(meldung + " an Position " //$NON-NLS-1$
+				+ position + ": " + text); //$NON-NLS-1$
+	}
+
+}
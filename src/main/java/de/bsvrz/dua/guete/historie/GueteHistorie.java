@@ -0,0 +1,658 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete.historie;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+
+import de.bsvrz.dua.guete.GWert;
+import de.bsvrz.dua.guete.GueteAkkumulator;
+import de.bsvrz.dua.guete.GueteException;
+import de.bsvrz.dua.guete.GueteGepackt;
+import de.bsvrz.dua.guete.GueteIndex;
+import de.bsvrz.dua.guete.GueteVerfahren;
+
+/**
+ * Zeitreihe von Guetewerten (unskalierter Guete-Index und Code des
+ * Guete-Verfahrens) eines Objekts, die in zwei in den Speicher abgebildeten
+ * Spaltendateien gehalten wird. Es koennen nur Werte mit streng monoton
+ * steigendem Zeitstempel angehaengt werden.
+ * <ul>
+ * <li><code>&lt;name&gt;.zeit</code> enthaelt die Zeitstempel als Laeufe
+ * <code>(Start, Abstand, Ende)</code> mit konstantem Abstand,</li>
+ * <li><code>&lt;name&gt;.guete</code> enthaelt die Guetewerte als Laeufe
+ * <code>(Index, Verfahren, Ende)</code> mit gleichem Wert.</li>
+ * </ul>
+ * <code>Ende</code> ist dabei jeweils die fortlaufende Position hinter dem
+ * letzten Wert des Laufs, so dass eine Position per binaerer Suche gefunden
+ * wird. Zyklische Daten mit ueber lange Strecken gleicher Guete belegen so
+ * nur wenige Bytes.<br>
+ * Die Lesemethoden arbeiten direkt auf der Abbildung der Dateien und
+ * schreiben in vom Aufrufer verwaltete Felder (gepackt nach
+ * {@link GueteGepackt}) bzw. in einen {@link GueteAkkumulator}.<br>
+ * Aenderungen sind erst nach {@link #sync()} bzw. {@link #close()} sicher
+ * auf dem Datentraeger. Ein neuer Lauf wird erst geschrieben und danach im
+ * Dateikopf gezaehlt. Beim Oeffnen werden unvollstaendig geschriebene Laeufe
+ * am Ende verworfen und die beiden Dateien, falls sie nach einem Absturz
+ * unterschiedlich weit geschrieben wurden, auf den gemeinsamen Stand
+ * gekuerzt. Eine Historie ist nicht threadsicher.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class GueteHistorie implements Closeable {
+
+	/**
+	 * Kennung der Zeitstempel-Spalte.
+	 */
+	private static final int KENNUNG_ZEIT = 0x47485A54;
+
+	/**
+	 * Kennung der Guete-Spalte.
+	 */
+	private static final int KENNUNG_GUETE = 0x47484754;
+
+	/**
+	 * Laenge eines Laufs der Zeitstempel-Spalte: <code>long</code> Start,
+	 * <code>int</code> Abstand, <code>int</code> Ende.
+	 */
+	private static final int ZEIT_SATZ = 16;
+
+	/**
+	 * Position des Abstands innerhalb eines Zeitstempel-Laufs.
+	 */
+	private static final int ZEIT_ABSTAND = 8;
+
+	/**
+	 * Position des Endes innerhalb eines Zeitstempel-Laufs.
+	 */
+	private static final int ZEIT_ENDE = 12;
+
+	/**
+	 * Laenge eines Laufs der Guete-Spalte: <code>short</code> Index,
+	 * <code>short</code> Verfahren, <code>int</code> Ende.
+	 */
+	private static final int GUETE_SATZ = 8;
+
+	/**
+	 * Position des Verfahrens innerhalb eines Guete-Laufs.
+	 */
+	private static final int GUETE_VERFAHREN = 2;
+
+	/**
+	 * Position des Endes innerhalb eines Guete-Laufs.
+	 */
+	private static final int GUETE_ENDE = 4;
+
+	/**
+	 * Die Zeitstempel-Spalte.
+	 */
+	private final Spalte zeit;
+
+	/**
+	 * Die Guete-Spalte.
+	 */
+	private final Spalte guete;
+
+	/**
+	 * Die Anzahl der gespeicherten Werte.
+	 */
+	private int anzahl;
+
+	/**
+	 * Der Zeitstempel des letzten Wertes.
+	 */
+	private long letzterZeitStempel;
+
+	/**
+	 * Oeffnet eine Historie bzw. legt sie neu an.
+	 *
+	 * @param verzeichnis
+	 *            das Verzeichnis der Spaltendateien
+	 * @param name
+	 *            der Name der Historie (z.B. die PID des Objekts)
+	 * @throws IOException
+	 *             wenn die Spaltendateien nicht geoeffnet werden koennen
+	 */
+	public GueteHistorie(final File verzeichnis, final String name)
+			throws IOException {
+		zeit = new Spalte(new File(verzeichnis, name + ".zeit"), //$NON-NLS-1$
+				KENNUNG_ZEIT, ZEIT_SATZ);
+		try {
+			guete = new Spalte(new File(verzeichnis, name + ".guete"), //$NON-NLS-1$
+					KENNUNG_GUETE, GUETE_SATZ);
+		} catch (final IOException e) {
+			zeit.close();
+			throw e;
+		}
+
+		verwerfeUngeschriebeneLaeufe(zeit, ZEIT_ENDE);
+		verwerfeUngeschriebeneLaeufe(guete, GUETE_ENDE);
+		anzahl = Math.min(getEnde(zeit, ZEIT_ENDE), getEnde(guete, GUETE_ENDE));
+		kuerze(zeit, ZEIT_ENDE);
+		kuerze(guete, GUETE_ENDE);
+		if (anzahl > 0) {
+			letzterZeitStempel = getZeitStempel(anzahl - 1);
+		}
+	}
+
+	/**
+	 * Haengt einen Guetewert an.
+	 *
+	 * @param zeitStempel
+	 *            der Zeitstempel (groesser als der des letzten Wertes)
+	 * @param wert
+	 *            der Guetewert
+	 * @throws IOException
+	 *             wenn die Spaltendateien nicht vergroessert werden koennen
+	 */
+	public void anhaengen(final long zeitStempel, final GWert wert)
+			throws IOException {
+		anhaengen(zeitStempel, wert.getIndexUnskaliert(), wert
+				.getVerfahrenCode());
+	}
+
+	/**
+	 * Haengt einen Guetewert an.
+	 *
+	 * @param zeitStempel
+	 *            der Zeitstempel (groesser als der des letzten Wertes)
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index (ggf. ein Zustand). Werte
+	 *            ausserhalb des Wertebereichs von <code>short</code> werden
+	 *            als <code>nicht ermittelbar/fehlerhaft</code> gespeichert
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @throws IOException
+	 *             wenn die Spaltendateien nicht vergroessert werden koennen
+	 */
+	public void anhaengen(final long zeitStempel, final long indexUnskaliert,
+			final int verfahren) throws IOException {
+		if (anzahl > 0 && zeitStempel <= letzterZeitStempel) {
+			throw new IllegalArgumentException(
+					"Zeitstempel nicht groesser als der des letzten Wertes: " //$NON-NLS-1$
+							+ zeitStempel);
+		}
+		if (anzahl == Integer.MAX_VALUE) {
+			throw new IOException("Historie ist voll"); //$NON-NLS-1$
+		}
+		if (verfahren < 0 || verfahren > GueteVerfahren.MAX_CODE) {
+			throw new IllegalArgumentException(
+					"Ungueltiger Code fuer ein Guete-Verfahren: " + verfahren); //$NON-NLS-1$
+		}
+		long index = indexUnskaliert;
+		if (index < Short.MIN_VALUE || index > Short.MAX_VALUE) {
+			index = GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+		}
+
+		haengeZeitStempelAn(zeitStempel);
+		haengeGueteAn((short) index, (short) verfahren);
+		anzahl++;
+		letzterZeitStempel = zeitStempel;
+	}
+
+	/**
+	 * Erfragt die Anzahl der gespeicherten Werte.
+	 *
+	 * @return die Anzahl der gespeicherten Werte
+	 */
+	public int getAnzahl() {
+		return anzahl;
+	}
+
+	/**
+	 * Erfragt die Position des ersten Wertes, dessen Zeitstempel nicht vor
+	 * dem uebergebenen Zeitstempel liegt.
+	 *
+	 * @param zeitStempel
+	 *            ein Zeitstempel
+	 * @return die Position (<code>0</code> bis {@link #getAnzahl()})
+	 */
+	public int getPosition(final long zeitStempel) {
+		final MappedByteBuffer puffer = zeit.getPuffer();
+
+		// letzter Lauf, der nicht nach dem Zeitstempel beginnt
+		int unten = 0;
+		int oben = zeit.getLaeufe() - 1;
+		int lauf = -1;
+		while (unten <= oben) {
+			final int mitte = (unten + oben) >>> 1;
+			if (puffer.getLong(zeit.getAdresse(mitte)) <= zeitStempel) {
+				lauf = mitte;
+				unten = mitte + 1;
+			} else {
+				oben = mitte - 1;
+			}
+		}
+		if (lauf < 0) {
+			return 0;
+		}
+
+		final int adresse = zeit.getAdresse(lauf);
+		final int anfang = getAnfang(zeit, ZEIT_ENDE, lauf);
+		final int ende = puffer.getInt(adresse + ZEIT_ENDE);
+		final long start = puffer.getLong(adresse);
+		final int abstand = puffer.getInt(adresse + ZEIT_ABSTAND);
+		final long schritte;
+		if (zeitStempel == start) {
+			schritte = 0;
+		} else if (abstand == 0) {
+			schritte = 1;
+		} else {
+			schritte = (zeitStempel - start + abstand - 1) / abstand;
+		}
+		return (int) Math.min(ende, anfang + schritte);
+	}
+
+	/**
+	 * Erfragt den Zeitstempel eines Wertes.
+	 *
+	 * @param position
+	 *            die Position des Wertes
+	 * @return der Zeitstempel
+	 */
+	public long getZeitStempel(final int position) {
+		pruefePosition(position);
+		final int lauf = getLauf(zeit, ZEIT_ENDE, position);
+		final int adresse = zeit.getAdresse(lauf);
+		final MappedByteBuffer puffer = zeit.getPuffer();
+		return puffer.getLong(adresse)
+				+ (long) puffer.getInt(adresse + ZEIT_ABSTAND)
+				* (position - getAnfang(zeit, ZEIT_ENDE, lauf));
+	}
+
+	/**
+	 * Erfragt einen Guetewert.
+	 *
+	 * @param position
+	 *            die Position des Wertes
+	 * @return der Guetewert gepackt nach {@link GueteGepackt}
+	 */
+	public long getGepackt(final int position) {
+		pruefePosition(position);
+		return getGepacktAusLauf(getLauf(guete, GUETE_ENDE, position));
+	}
+
+	/**
+	 * Liest einen Bereich von Werten.
+	 *
+	 * @param von
+	 *            die Position des ersten Wertes
+	 * @param bis
+	 *            die Position hinter dem letzten Wert
+	 * @param zeitStempel
+	 *            das Feld fuer die Zeitstempel oder <code>null</code>, wenn
+	 *            die Zeitstempel nicht benoetigt werden
+	 * @param gepackt
+	 *            das Feld fuer die Guetewerte, gepackt nach
+	 *            {@link GueteGepackt}, oder <code>null</code>, wenn die
+	 *            Guetewerte nicht benoetigt werden
+	 * @param offset
+	 *            die Position in den Feldern fuer den ersten Wert
+	 */
+	public void lese(final int von, final int bis, final long[] zeitStempel,
+			final long[] gepackt, final int offset) {
+		pruefeBereich(von, bis);
+		if (von == bis) {
+			return;
+		}
+
+		if (zeitStempel != null) {
+			final MappedByteBuffer puffer = zeit.getPuffer();
+			int lauf = getLauf(zeit, ZEIT_ENDE, von);
+			int anfang = getAnfang(zeit, ZEIT_ENDE, lauf);
+			int position = von;
+			while (position < bis) {
+				final int adresse = zeit.getAdresse(lauf);
+				final long start = puffer.getLong(adresse);
+				final int abstand = puffer.getInt(adresse + ZEIT_ABSTAND);
+				final int ende = Math.min(bis, puffer.getInt(adresse
+						+ ZEIT_ENDE));
+				for (; position < ende; position++) {
+					zeitStempel[offset + position - von] = start
+							+ (long) abstand * (position - anfang);
+				}
+				anfang = ende;
+				lauf++;
+			}
+		}
+
+		if (gepackt != null) {
+			final MappedByteBuffer puffer = guete.getPuffer();
+			int lauf = getLauf(guete, GUETE_ENDE, von);
+			int position = von;
+			while (position < bis) {
+				final long wert = getGepacktAusLauf(lauf);
+				final int ende = Math.min(bis, puffer.getInt(guete
+						.getAdresse(lauf)
+						+ GUETE_ENDE));
+				for (; position < ende; position++) {
+					gepackt[offset + position - von] = wert;
+				}
+				lauf++;
+			}
+		}
+	}
+
+	/**
+	 * Uebergibt die Guetewerte eines Zeitbereichs an einen Akkumulator.
+	 *
+	 * @param von
+	 *            der Zeitstempel, ab dem die Werte uebergeben werden
+	 * @param bis
+	 *            der Zeitstempel, vor dem die Werte uebergeben werden
+	 * @param akkumulator
+	 *            der Akkumulator
+	 * @throws GueteException
+	 *             wenn die Guetewerte unterschiedliche oder vom Akkumulator
+	 *             nicht unterstuetzte Verfahren verlangen
+	 */
+	public void summiere(final long von, final long bis,
+			final GueteAkkumulator akkumulator) throws GueteException {
+		final int anfang = getPosition(von);
+		summiere(anfang, Math.max(anfang, getPosition(bis)), akkumulator);
+	}
+
+	/**
+	 * Uebergibt einen Bereich von Guetewerten an einen Akkumulator.
+	 *
+	 * @param von
+	 *            die Position des ersten Wertes
+	 * @param bis
+	 *            die Position hinter dem letzten Wert
+	 * @param akkumulator
+	 *            der Akkumulator
+	 * @throws GueteException
+	 *             wenn die Guetewerte unterschiedliche oder vom Akkumulator
+	 *             nicht unterstuetzte Verfahren verlangen
+	 */
+	public void summiere(final int von, final int bis,
+			final GueteAkkumulator akkumulator) throws GueteException {
+		pruefeBereich(von, bis);
+		if (von == bis) {
+			return;
+		}
+
+		final MappedByteBuffer puffer = guete.getPuffer();
+		int lauf = getLauf(guete, GUETE_ENDE, von);
+		int position = von;
+		while (position < bis) {
+			final int adresse = guete.getAdresse(lauf);
+			final int ende = Math.min(bis, puffer.getInt(adresse + GUETE_ENDE));
+			final short code = puffer.getShort(adresse + GUETE_VERFAHREN);
+			final GueteVerfahren verfahren = GueteVerfahren.getZustand(code);
+			if (verfahren == null) {
+				throw new GueteException(
+						"Unbekanntes Guete-Berechnungsverfahren: " + code); //$NON-NLS-1$
+			}
+
+			// der erste Wert eines Laufs prueft das Verfahren, die weiteren
+			// sind identisch
+			final GWert wert = verfahren.getGWert(puffer.getShort(adresse));
+			akkumulator.addiere(wert);
+			if (!akkumulator.isVerrechenbar()) {
+				return;
+			}
+			for (position++; position < ende; position++) {
+				akkumulator.addiere(wert.getIndex());
+			}
+			lauf++;
+		}
+	}
+
+	/**
+	 * Schreibt alle Aenderungen auf den Datentraeger.
+	 */
+	public void sync() {
+		zeit.sync();
+		guete.sync();
+	}
+
+	@Override
+	public void close() throws IOException {
+		try {
+			zeit.close();
+		} finally {
+			guete.close();
+		}
+	}
+
+	/**
+	 * Haengt einen Zeitstempel an die Zeitstempel-Spalte an.
+	 *
+	 * @param zeitStempel
+	 *            der Zeitstempel
+	 * @throws IOException
+	 *             wenn die Spaltendatei nicht vergroessert werden kann
+	 */
+	private void haengeZeitStempelAn(final long zeitStempel)
+			throws IOException {
+		final int laeufe = zeit.getLaeufe();
+		if (laeufe > 0) {
+			final MappedByteBuffer puffer = zeit.getPuffer();
+			final int adresse = zeit.getAdresse(laeufe - 1);
+			final int laenge = anzahl - getAnfang(zeit, ZEIT_ENDE, laeufe - 1);
+			final long abstand = zeitStempel - letzterZeitStempel;
+			if (laenge == 1 && abstand <= Integer.MAX_VALUE) {
+				puffer.putInt(adresse + ZEIT_ABSTAND, (int) abstand);
+				puffer.putInt(adresse + ZEIT_ENDE, anzahl + 1);
+				return;
+			}
+			if (abstand == puffer.getInt(adresse + ZEIT_ABSTAND)) {
+				puffer.putInt(adresse + ZEIT_ENDE, anzahl + 1);
+				return;
+			}
+		}
+
+		final int adresse = zeit.neuerLauf();
+		final MappedByteBuffer puffer = zeit.getPuffer();
+		puffer.putLong(adresse, zeitStempel);
+		puffer.putInt(adresse + ZEIT_ABSTAND, 0);
+		puffer.putInt(adresse + ZEIT_ENDE, anzahl + 1);
+		zeit.uebernehmeLauf();
+	}
+
+	/**
+	 * Haengt einen Guetewert an die Guete-Spalte an.
+	 *
+	 * @param index
+	 *            der unskalierte Guete-Index
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @throws IOException
+	 *             wenn die Spaltendatei nicht vergroessert werden kann
+	 */
+	private void haengeGueteAn(final short index, final short verfahren)
+			throws IOException {
+		final int laeufe = guete.getLaeufe();
+		if (laeufe > 0) {
+			final MappedByteBuffer puffer = guete.getPuffer();
+			final int adresse = guete.getAdresse(laeufe - 1);
+			if (puffer.getShort(adresse) == index
+					&& puffer.getShort(adresse + GUETE_VERFAHREN) == verfahren) {
+				puffer.putInt(adresse + GUETE_ENDE, anzahl + 1);
+				return;
+			}
+		}
+
+		final int adresse = guete.neuerLauf();
+		final MappedByteBuffer puffer = guete.getPuffer();
+		puffer.putShort(adresse, index);
+		puffer.putShort(adresse + GUETE_VERFAHREN, verfahren);
+		puffer.putInt(adresse + GUETE_ENDE, anzahl + 1);
+		guete.uebernehmeLauf();
+	}
+
+	/**
+	 * Erfragt einen Guetewert gepackt nach {@link GueteGepackt}.
+	 *
+	 * @param lauf
+	 *            die Nummer des Guete-Laufs
+	 * @return der gepackte Guetewert
+	 */
+	private long getGepacktAusLauf(final int lauf) {
+		final MappedByteBuffer puffer = guete.getPuffer();
+		final int adresse = guete.getAdresse(lauf);
+		return GueteGepackt.packe(puffer.getShort(adresse), puffer
+				.getShort(adresse + GUETE_VERFAHREN), 1.0);
+	}
+
+	/**
+	 * Entfernt am Ende einer Spalte Laeufe, die nicht vollstaendig auf den
+	 * Datentraeger gelangt sind (z.B. weil die Seiten der Abbildung in
+	 * anderer Reihenfolge als der Dateikopf geschrieben wurden). Solche
+	 * Laeufe erkennt man daran, dass ihr Ende nicht hinter dem Ende des
+	 * vorherigen Laufs liegt.
+	 *
+	 * @param spalte
+	 *            die Spalte
+	 * @param endePosition
+	 *            die Position des Endes innerhalb eines Laufs
+	 */
+	private static void verwerfeUngeschriebeneLaeufe(final Spalte spalte,
+			final int endePosition) {
+		int letzter = spalte.getLaeufe() - 1;
+		while (letzter >= 0
+				&& getEnde(spalte, endePosition) <= getAnfang(spalte,
+						endePosition, letzter)) {
+			spalte.entferneLetztenLauf();
+			letzter--;
+		}
+	}
+
+	/**
+	 * Kuerzt eine Spalte auf {@link #anzahl} Werte.
+	 *
+	 * @param spalte
+	 *            die Spalte
+	 * @param endePosition
+	 *            die Position des Endes innerhalb eines Laufs
+	 */
+	private void kuerze(final Spalte spalte, final int endePosition) {
+		while (getEnde(spalte, endePosition) > anzahl) {
+			final int letzter = spalte.getLaeufe() - 1;
+			if (getAnfang(spalte, endePosition, letzter) >= anzahl) {
+				spalte.entferneLetztenLauf();
+			} else {
+				spalte.getPuffer().putInt(
+						spalte.getAdresse(letzter) + endePosition, anzahl);
+			}
+		}
+	}
+
+	/**
+	 * Sucht den Lauf, der eine Position enthaelt.
+	 *
+	 * @param spalte
+	 *            die Spalte
+	 * @param endePosition
+	 *            die Position des Endes innerhalb eines Laufs
+	 * @param position
+	 *            die Position eines gespeicherten Wertes
+	 * @return die Nummer des Laufs
+	 */
+	private static int getLauf(final Spalte spalte, final int endePosition,
+			final int position) {
+		final MappedByteBuffer puffer = spalte.getPuffer();
+		int unten = 0;
+		int oben = spalte.getLaeufe() - 1;
+		while (unten < oben) {
+			final int mitte = (unten + oben) >>> 1;
+			if (puffer.getInt(spalte.getAdresse(mitte) + endePosition) > position) {
+				oben = mitte;
+			} else {
+				unten = mitte + 1;
+			}
+		}
+		return unten;
+	}
+
+	/**
+	 * Erfragt die Position des ersten Wertes eines Laufs.
+	 *
+	 * @param spalte
+	 *            die Spalte
+	 * @param endePosition
+	 *            die Position des Endes innerhalb eines Laufs
+	 * @param lauf
+	 *            die Nummer des Laufs
+	 * @return die Position des ersten Wertes
+	 */
+	private static int getAnfang(final Spalte spalte, final int endePosition,
+			final int lauf) {
+		if (lauf == 0) {
+			return 0;
+		}
+		return spalte.getPuffer().getInt(
+				spalte.getAdresse(lauf - 1) + endePosition);
+	}
+
+	/**
+	 * Erfragt die Position hinter dem letzten Wert einer Spalte.
+	 *
+	 * @param spalte
+	 *            die Spalte
+	 * @param endePosition
+	 *            die Position des Endes innerhalb eines Laufs
+	 * @return die Position hinter dem letzten Wert
+	 */
+	private static int getEnde(final Spalte spalte, final int endePosition) {
+		return getAnfang(spalte, endePosition, spalte.getLaeufe());
+	}
+
+	/**
+	 * Prueft eine Position.
+	 *
+	 * @param position
+	 *            die Position
+	 */
+	private void pruefePosition(final int position) {
+		if (position < 0 || position >= anzahl) {
+			throw new IndexOutOfBoundsException("Position: " + position //$NON-NLS-1$
+					+ ", Anzahl: " + anzahl); //$NON-NLS-1$
+		}
+	}
+
+	/**
+	 * Prueft einen Bereich von Positionen.
+	 *
+	 * @param von
+	 *            die Position des ersten Wertes
+	 * @param bis
+	 *            die Position hinter dem letzten Wert
+	 */
+	private void pruefeBereich(final int von, final int bis) {
+		if (von < 0 || bis > anzahl || von > bis) {
+			throw new IndexOutOfBoundsException("Bereich: " + von + " - " //$NON-NLS-1$ //$NON-NLS-2$
+					+ bis + ", Anzahl: " + anzahl); //$NON-NLS-1$
+		}
+	}
+
+}
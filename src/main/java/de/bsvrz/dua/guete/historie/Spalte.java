@@ -0,0 +1,223 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete.historie;
+
+import java.io.Closeable;
+import java.io.File;
+import java.io.IOException;
+import java.nio.MappedByteBuffer;
+import java.nio.channels.FileChannel;
+import java.nio.channels.FileChannel.MapMode;
+import java.nio.file.StandardOpenOption;
+
+/**
+ * Eine in den Speicher abgebildete Spaltendatei aus Laeufen fester Laenge.
+ * <br>
+ * Die Datei beginnt mit einem Kopf von {@link #KOPF} Bytes (Kennung,
+ * Version, Anzahl der Laeufe), danach folgen die Laeufe. Waechst die Datei
+ * ueber die abgebildete Groesse hinaus, wird sie mit doppelter Groesse neu
+ * abgebildet. Eine Spalte ist nicht threadsicher.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+final class Spalte implements Closeable {
+
+	/**
+	 * Laenge des Dateikopfes in Bytes.
+	 */
+	static final int KOPF = 16;
+
+	/**
+	 * Version des Dateiformats.
+	 */
+	private static final int VERSION = 1;
+
+	/**
+	 * Position der Anzahl der Laeufe im Dateikopf.
+	 */
+	private static final int LAEUFE = 8;
+
+	/**
+	 * Groesse, mit der eine Datei mindestens abgebildet wird.
+	 */
+	private static final int MIN_GROESSE = 64 * 1024;
+
+	/**
+	 * Der Kanal zur Datei.
+	 */
+	private final FileChannel kanal;
+
+	/**
+	 * Die Laenge eines Laufs in Bytes.
+	 */
+	private final int satzLaenge;
+
+	/**
+	 * Die aktuelle Abbildung der Datei.
+	 */
+	private MappedByteBuffer puffer;
+
+	/**
+	 * Die Anzahl der Laeufe.
+	 */
+	private int laeufe;
+
+	/**
+	 * Oeffnet eine Spaltendatei bzw. legt sie neu an.
+	 *
+	 * @param datei
+	 *            die Datei
+	 * @param kennung
+	 *            die Kennung der Spaltenart
+	 * @param satzLaenge
+	 *            die Laenge eines Laufs in Bytes
+	 * @throws IOException
+	 *             wenn die Datei nicht geoeffnet werden kann oder keine
+	 *             Spaltendatei der erwarteten Art ist
+	 */
+	Spalte(final File datei, final int kennung, final int satzLaenge)
+			throws IOException {
+		this.satzLaenge = satzLaenge;
+		this.kanal = FileChannel.open(datei.toPath(),
+				StandardOpenOption.CREATE, StandardOpenOption.READ,
+				StandardOpenOption.WRITE);
+		try {
+			final long groesse = kanal.size();
+			if (groesse > Integer.MAX_VALUE) {
+				throw new IOException("Spaltendatei zu gross: " + datei); //$NON-NLS-1$
+			}
+			puffer = kanal.map(MapMode.READ_WRITE, 0, Math.max(groesse,
+					MIN_GROESSE));
+			if (groesse == 0) {
+				puffer.putInt(0, kennung);
+				puffer.putInt(4, VERSION);
+				puffer.putLong(LAEUFE, 0);
+			} else {
+				if (groesse < KOPF || puffer.getInt(0) != kennung
+						|| puffer.getInt(4) != VERSION) {
+					throw new IOException("Keine gueltige Spaltendatei: " //$NON-NLS-1$
+							+ datei);
+				}
+				final long anzahl = puffer.getLong(LAEUFE);
+				if (anzahl < 0 || KOPF + anzahl * satzLaenge > groesse) {
+					throw new IOException("Spaltendatei beschaedigt: " + datei); //$NON-NLS-1$
+				}
+				laeufe = (int) anzahl;
+			}
+		} catch (final IOException | RuntimeException e) {
+			kanal.close();
+			throw e;
+		}
+	}
+
+	/**
+	 * Erfragt die Anzahl der Laeufe.
+	 *
+	 * @return die Anzahl der Laeufe
+	 */
+	int getLaeufe() {
+		return laeufe;
+	}
+
+	/**
+	 * Erfragt die aktuelle Abbildung der Datei. Die Abbildung wird durch
+	 * {@link #neuerLauf()} ggf. ersetzt.
+	 *
+	 * @return die aktuelle Abbildung der Datei
+	 */
+	MappedByteBuffer getPuffer() {
+		return puffer;
+	}
+
+	/**
+	 * Erfragt die Adresse eines Laufs innerhalb der Abbildung.
+	 *
+	 * @param lauf
+	 *            die Nummer des Laufs
+	 * @return die Adresse
+	 */
+	int getAdresse(final int lauf) {
+		return KOPF + lauf * satzLaenge;
+	}
+
+	/**
+	 * Stellt Platz fuer einen neuen Lauf hinter dem letzten Lauf bereit. Der
+	 * Lauf zaehlt erst nach {@link #uebernehmeLauf()} zur Spalte, so dass
+	 * der Dateikopf nach einem Absturz nie auf einen ungeschriebenen Lauf
+	 * verweist.
+	 *
+	 * @return die Adresse des neuen Laufs
+	 * @throws IOException
+	 *             wenn die Datei nicht vergroessert werden kann
+	 */
+	int neuerLauf() throws IOException {
+		final long benoetigt = KOPF + (long) (laeufe + 1) * satzLaenge;
+		if (benoetigt > puffer.capacity()) {
+			if (benoetigt > Integer.MAX_VALUE) {
+				throw new IOException("Spaltendatei ist voll"); //$NON-NLS-1$
+			}
+			final long groesse = Math.min(Integer.MAX_VALUE, Math.max(
+					benoetigt, 2L * puffer.capacity()));
+			puffer = kanal.map(MapMode.READ_WRITE, 0, groesse);
+		}
+		return getAdresse(laeufe);
+	}
+
+	/**
+	 * Uebernimmt den mit {@link #neuerLauf()} bereitgestellten und bereits
+	 * geschriebenen Lauf in die Spalte und traegt die neue Anzahl der Laeufe
+	 * in den Dateikopf ein.
+	 */
+	void uebernehmeLauf() {
+		laeufe++;
+		puffer.putLong(LAEUFE, laeufe);
+	}
+
+	/**
+	 * Entfernt den letzten Lauf.
+	 */
+	void entferneLetztenLauf() {
+		laeufe--;
+		puffer.putLong(LAEUFE, laeufe);
+	}
+
+	/**
+	 * Schreibt alle Aenderungen auf den Datentraeger.
+	 */
+	void sync() {
+		puffer.force();
+	}
+
+	@Override
+	public void close() throws IOException {
+		sync();
+		kanal.close();
+	}
+
+}
@@ -0,0 +1,462 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete.vorschriften;
+
+import de.bsvrz.dua.guete.GueteIndex;
+import de.bsvrz.dua.guete.GueteRechner;
+
+/**
+ * Berechnungsvorschrift, die die Formeln von {@link Standard} auf
+ * unskalierten Guete-Indizes in Festkomma-Darstellung (<code>10000</code>
+ * entspricht <code>1.0</code>, wie im DAV-Attribut <code>Güte.Index</code>)
+ * auswertet.<br>
+ * Jede Operation rundet ihr Ergebnis kaufmaennisch (<code>0.5</code> wird
+ * aufgerundet) auf das Raster des DAV-Attributs:
+ * <ul>
+ * <li><code>s</code>, <code>d</code>: gerundetes arithmetisches Mittel der
+ * Summe der Indizes,</li>
+ * <li><code>sw</code>, <code>dw</code>: die Betraege der Gewichtungen werden
+ * auf vier Nachkommastellen gerundet, das Ergebnis ist der gerundete
+ * Quotient aus der Summe der gewichteten Indizes und der Summe der
+ * Gewichtungen,</li>
+ * <li><code>p</code>, <code>q</code>: Multiplikation von links nach rechts,
+ * wobei nach jedem Schritt gerundet wird,</li>
+ * <li><code>e</code>: gerundeter Wert von {@link StrictMath#pow(double,
+ * double)}, fuer Indizes im Wertebereich des DAV-Attributs und mit
+ * {@link GueteRechner#registriereExponent(double)} registrierte Exponenten
+ * aus einer Tabelle gelesen.</li>
+ * </ul>
+ * Da ausser <code>e</code> nur mit ganzen Zahlen gerechnet wird und
+ * {@link StrictMath} auf allen Plattformen dasselbe Ergebnis liefert, sind
+ * die Ergebnisse unabhaengig von JVM, Reihenfolge der Threads und
+ * Optimierungen des JIT-Compilers bitgenau reproduzierbar. Sie weichen vom
+ * Standardverfahren hoechstens um die Rundung auf das Raster ab.<br>
+ * Neben der Schnittstelle {@link IGuete} werden statische Methoden auf
+ * unskalierten Indizes angeboten, die ohne Umrechnung ueber
+ * <code>double</code> auskommen. Ein Verfahren mit dieser Vorschrift wird
+ * ueber <code>GueteVerfahren.registriere(name, code, new Festkomma())</code>
+ * angemeldet; <code>GueteGepackt</code> rechnet fuer solche Verfahren direkt
+ * auf den gepackten Indizes.<br>
+ * Die Indizes und Gewichtungen muessen so klein bleiben, dass Produkte und
+ * Summen nicht ueberlaufen. Fuer Indizes aus dem Wertebereich des
+ * DAV-Attributs ist das bei Gewichtungen bis <code>10^6</code> und
+ * Mengen bis <code>10^4</code> Elementen sicher.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class Festkomma implements IGuete {
+
+	/**
+	 * Der unskalierte Index fuer <code>1.0</code>.
+	 */
+	public static final long EINS = GueteIndex.MAX_UNSKALIERT;
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Ueber allen Werten wird hier das gerundete arithmetische Mittel
+	 * berechnet.
+	 */
+	public final double s(final double... quellGueten) {
+		if (quellGueten == null) {
+			return 1.0;
+		}
+		return s(quellGueten, 0, quellGueten.length);
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Ueber allen Werten wird hier das gerundete arithmetische Mittel
+	 * berechnet.
+	 */
+	public final double s(final double[] indizes, final int offset,
+			final int anzahl) {
+		if (anzahl == 0) {
+			return 1.0;
+		}
+		long summe = 0;
+		for (int i = offset; i < offset + anzahl; i++) {
+			final long index = unskaliere(indizes[i]);
+			if (index < 0) {
+				return Double.NaN;
+			}
+			summe += index;
+		}
+		return GueteIndex.skaliere(teile(summe, anzahl));
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Ueber allen Werten wird hier das gerundete arithmetische Mittel unter
+	 * vorheriger Gewichtung der Einzelnwerte berechnet.
+	 */
+	public double sw(final double[]... quellGuetenMitGewichtung) {
+		if (quellGuetenMitGewichtung == null
+				|| quellGuetenMitGewichtung.length == 0) {
+			return 1.0;
+		}
+		long summe = 0;
+		long summeGewichte = 0;
+		for (final double[] gueteMitGewichtung : quellGuetenMitGewichtung) {
+			final long index = unskaliere(gueteMitGewichtung[0]);
+			if (index < 0) {
+				return Double.NaN;
+			}
+			final long gewicht = gewicht(gueteMitGewichtung[1]);
+			summe += gewicht * index;
+			summeGewichte += gewicht;
+		}
+		if (summeGewichte == 0) {
+			return 1.0;
+		}
+		return GueteIndex.skaliere(teile(summe, summeGewichte));
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Ueber allen Werten wird hier das gerundete arithmetische Mittel
+	 * berechnet.
+	 */
+	public final double d(final double... quellGueten) {
+		return s(quellGueten);
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Ueber allen Werten wird hier das gerundete arithmetische Mittel unter
+	 * vorheriger Gewichtung der Einzelnwerte berechnet.
+	 */
+	public double dw(final double[]... quellGuetenMitGewichtung) {
+		return sw(quellGuetenMitGewichtung);
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Ueber allen Werten wird hier das gerundete arithmetische Mittel unter
+	 * vorheriger Gewichtung der Einzelnwerte berechnet. Unterklassen
+	 * rechnen wie in {@link IGuete} ueber {@link #sw(double[]...)}, damit
+	 * deren Ueberschreibungen wirksam bleiben.
+	 */
+	public double sw(final double[] indizes, final double[] gewichte,
+			final int offset, final int anzahl) {
+		if (getClass() != Festkomma.class) {
+			// eine Unterklasse kann sw(double[]...) ueberschrieben haben
+			return IGuete.super.sw(indizes, gewichte, offset, anzahl);
+		}
+		long summe = 0;
+		long summeGewichte = 0;
+		for (int i = offset; i < offset + anzahl; i++) {
+			final long index = unskaliere(indizes[i]);
+			if (index < 0) {
+				return Double.NaN;
+			}
+			final long gewicht = gewicht(gewichte[i]);
+			summe += gewicht * index;
+			summeGewichte += gewicht;
+		}
+		if (summeGewichte == 0) {
+			return 1.0;
+		}
+		return GueteIndex.skaliere(teile(summe, summeGewichte));
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Ueber allen Werten wird hier das gerundete arithmetische Mittel
+	 * berechnet.
+	 */
+	public final double d(final double[] indizes, final int offset,
+			final int anzahl) {
+		return s(indizes, offset, anzahl);
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Ueber allen Werten wird hier das gerundete arithmetische Mittel unter
+	 * vorheriger Gewichtung der Einzelnwerte berechnet. Unterklassen
+	 * rechnen wie in {@link IGuete} ueber {@link #dw(double[]...)}, damit
+	 * deren Ueberschreibungen wirksam bleiben.
+	 */
+	public double dw(final double[] indizes, final double[] gewichte,
+			final int offset, final int anzahl) {
+		if (getClass() != Festkomma.class) {
+			// eine Unterklasse kann dw(double[]...) ueberschrieben haben
+			return IGuete.super.dw(indizes, gewichte, offset, anzahl);
+		}
+		return sw(indizes, gewichte, offset, anzahl);
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Die Potenz wird auf das Raster des DAV-Attributs gerundet.
+	 */
+	public final double e(final double quellGuete, final double exponent) {
+		return GueteIndex.skaliere(exp(unskaliere(quellGuete), exponent));
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Die einzelnen Werte werden hier multiplikativ miteinander verknuepft,
+	 * nach jedem Schritt wird gerundet.
+	 */
+	public final double p(final double... quellGueten) {
+		if (quellGueten == null) {
+			return 1.0;
+		}
+		return p(quellGueten, 0, quellGueten.length);
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Die einzelnen Werte werden hier multiplikativ miteinander verknuepft,
+	 * nach jedem Schritt wird gerundet.
+	 */
+	public final double p(final double[] indizes, final int offset,
+			final int anzahl) {
+		long produkt = EINS;
+		for (int i = offset; i < offset + anzahl; i++) {
+			final long index = unskaliere(indizes[i]);
+			if (index < 0) {
+				return Double.NaN;
+			}
+			produkt = mal(produkt, index);
+		}
+		return GueteIndex.skaliere(produkt);
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Die einzelnen Werte werden hier multiplikativ miteinander verknuepft,
+	 * nach jedem Schritt wird gerundet.
+	 */
+	public final double q(final double... quellGueten) {
+		return p(quellGueten);
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Die einzelnen Werte werden hier multiplikativ miteinander verknuepft,
+	 * nach jedem Schritt wird gerundet.
+	 */
+	public final double q(final double[] indizes, final int offset,
+			final int anzahl) {
+		return p(indizes, offset, anzahl);
+	}
+
+	/**
+	 * Berechnet das Produkt unskalierter Guete-Indizes.
+	 *
+	 * @param indizes
+	 *            die unskalierten Guete-Indizes
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return das Produkt, {@link #EINS} fuer eine leere Menge oder
+	 *         {@link GueteIndex#NICHT_ERMITTELBAR_BZW_FEHLERHAFT}, wenn
+	 *         einer der Indizes einen Zustand darstellt
+	 */
+	public static long produkt(final long[] indizes, final int offset,
+			final int anzahl) {
+		long produkt = EINS;
+		for (int i = offset; i < offset + anzahl; i++) {
+			if (indizes[i] < 0) {
+				return GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+			}
+			produkt = mal(produkt, indizes[i]);
+		}
+		return produkt;
+	}
+
+	/**
+	 * Berechnet den Quotienten unskalierter Guete-Indizes (siehe
+	 * {@link #produkt(long[], int, int)}).
+	 *
+	 * @param indizes
+	 *            die unskalierten Guete-Indizes
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return der Quotient, {@link #EINS} fuer eine leere Menge oder
+	 *         {@link GueteIndex#NICHT_ERMITTELBAR_BZW_FEHLERHAFT}, wenn
+	 *         einer der Indizes einen Zustand darstellt
+	 */
+	public static long quotient(final long[] indizes, final int offset,
+			final int anzahl) {
+		return produkt(indizes, offset, anzahl);
+	}
+
+	/**
+	 * Berechnet die Summe unskalierter Guete-Indizes.
+	 *
+	 * @param indizes
+	 *            die unskalierten Guete-Indizes
+	 * @param gewichte
+	 *            die Gewichtungen in Festkomma-Darstellung (siehe
+	 *            {@link #gewicht(double)}) oder <code>null</code> fuer eine
+	 *            ungewichtete Summe
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return die Summe, {@link #EINS} fuer eine leere Menge bzw. eine
+	 *         Gewichtssumme von 0 oder
+	 *         {@link GueteIndex#NICHT_ERMITTELBAR_BZW_FEHLERHAFT}, wenn
+	 *         einer der Indizes einen Zustand darstellt
+	 */
+	public static long summe(final long[] indizes, final long[] gewichte,
+			final int offset, final int anzahl) {
+		long summe = 0;
+		long summeGewichte = 0;
+		for (int i = offset; i < offset + anzahl; i++) {
+			if (indizes[i] < 0) {
+				return GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+			}
+			final long gewicht = gewichte == null ? EINS : Math
+					.abs(gewichte[i]);
+			summe += gewicht * indizes[i];
+			summeGewichte += gewicht;
+		}
+		if (summeGewichte == 0) {
+			return EINS;
+		}
+		return teile(summe, summeGewichte);
+	}
+
+	/**
+	 * Berechnet die Differenz unskalierter Guete-Indizes (siehe
+	 * {@link #summe(long[], long[], int, int)}).
+	 *
+	 * @param indizes
+	 *            die unskalierten Guete-Indizes
+	 * @param gewichte
+	 *            die Gewichtungen in Festkomma-Darstellung oder
+	 *            <code>null</code> fuer eine ungewichtete Differenz
+	 * @param offset
+	 *            der Index des ersten Elements
+	 * @param anzahl
+	 *            die Anzahl der Elemente
+	 * @return die Differenz, {@link #EINS} fuer eine leere Menge bzw. eine
+	 *         Gewichtssumme von 0 oder
+	 *         {@link GueteIndex#NICHT_ERMITTELBAR_BZW_FEHLERHAFT}, wenn
+	 *         einer der Indizes einen Zustand darstellt
+	 */
+	public static long differenz(final long[] indizes, final long[] gewichte,
+			final int offset, final int anzahl) {
+		return summe(indizes, gewichte, offset, anzahl);
+	}
+
+	/**
+	 * Berechnet die gerundete Potenz eines unskalierten Guete-Index (siehe
+	 * {@link GueteRechner#expUnskaliert(long, double)}). Fuer Indizes von
+	 * <code>0</code> bis {@link #EINS} wird das Ergebnis aus einer Tabelle
+	 * gelesen, wenn der Exponent mit
+	 * {@link GueteRechner#registriereExponent(double)} registriert ist.
+	 *
+	 * @param index
+	 *            der unskalierte Guete-Index
+	 * @param exponent
+	 *            der Exponent
+	 * @return die Potenz ({@link Long#MAX_VALUE}, wenn sie nicht endlich
+	 *         ist) oder
+	 *         {@link GueteIndex#NICHT_ERMITTELBAR_BZW_FEHLERHAFT}, wenn der
+	 *         Index einen Zustand darstellt
+	 */
+	public static long exp(final long index, final double exponent) {
+		return GueteRechner.expUnskaliert(index, exponent);
+	}
+
+	/**
+	 * Multipliziert zwei unskalierte Guete-Indizes und rundet das Ergebnis.
+	 *
+	 * @param a
+	 *            der erste unskalierte Guete-Index (<code>&gt;= 0</code>)
+	 * @param b
+	 *            der zweite unskalierte Guete-Index (<code>&gt;= 0</code>)
+	 * @return das gerundete Produkt
+	 */
+	public static long mal(final long a, final long b) {
+		return teile(a * b, EINS);
+	}
+
+	/**
+	 * Teilt zwei nicht negative ganze Zahlen und rundet kaufmaennisch.
+	 *
+	 * @param zaehler
+	 *            der Zaehler (<code>&gt;= 0</code>)
+	 * @param nenner
+	 *            der Nenner (<code>&gt; 0</code>)
+	 * @return der gerundete Quotient
+	 */
+	public static long teile(final long zaehler, final long nenner) {
+		return (zaehler + nenner / 2) / nenner;
+	}
+
+	/**
+	 * Rechnet eine Gewichtung in die Festkomma-Darstellung um.
+	 *
+	 * @param gewichtung
+	 *            die Gewichtung
+	 * @return der auf vier Nachkommastellen gerundete Betrag der Gewichtung
+	 *         mal {@link #EINS}
+	 */
+	public static long gewicht(final double gewichtung) {
+		return Math.round(Math.abs(gewichtung) * EINS);
+	}
+
+	/**
+	 * Rechnet einen skalierten in einen unskalierten Guete-Index um.
+	 *
+	 * @param index
+	 *            der skalierte Guete-Index
+	 * @return der auf das Raster gerundete unskalierte Guete-Index oder
+	 *         {@link GueteIndex#NICHT_ERMITTELBAR_BZW_FEHLERHAFT}, wenn der
+	 *         Index nicht verrechenbar ist
+	 */
+	private static long unskaliere(final double index) {
+		if (index >= 0) {
+			return Math.round(index / GueteIndex.SKALIERUNG);
+		}
+		return GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+	}
+
+}
@@ -28,9 +28,18 @@
 
 package de.bsvrz.dua.guete.vorschriften;
 
+import java.util.Arrays;
+
 /**
  * <code>interface</code>, das von allen Klassen implementiert werden sollte,
  * die eine Berechnungsvorschrift zur Güteberechnung zur Verfügung stellen.
+ * <br>
+ * Neben den Methoden für Parameterlisten gibt es Varianten, die einen
+ * Bereich primitiver Felder verrechnen (Indizes und Gewichtungen in
+ * getrennten Feldern an denselben Positionen). Deren Standard-Implementierung
+ * kopiert den Bereich und ruft die Methode für Parameterlisten auf;
+ * Implementierungen sollten sie überschreiben, wenn ohne Kopie gerechnet
+ * werden kann.
  * 
  * @author BitCtrl Systems GmbH, Thierfelder
  */
@@ -138,4 +147,132 @@ public interface IGuete {
 	 */
 	double e(final double quellGuete, final double exponent);
 
+	/**
+	 * Wie {@link #p(double...)}, verrechnet aber die Güte-Indizes
+	 * <code>indizes[offset]</code> bis
+	 * <code>indizes[offset + anzahl - 1]</code>.
+	 * 
+	 * @param indizes
+	 *            die Güte-Indizes
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Güte oder 1.0, für den Fall, dass eine leere Menge
+	 *         übergeben wurde
+	 */
+	default double p(final double[] indizes, final int offset,
+			final int anzahl) {
+		return p(Arrays.copyOfRange(indizes, offset, offset + anzahl));
+	}
+
+	/**
+	 * Wie {@link #q(double...)}, verrechnet aber die Güte-Indizes
+	 * <code>indizes[offset]</code> bis
+	 * <code>indizes[offset + anzahl - 1]</code>.
+	 * 
+	 * @param indizes
+	 *            die Güte-Indizes
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Güte oder 1.0, für den Fall, dass eine leere Menge
+	 *         übergeben wurde
+	 */
+	default double q(final double[] indizes, final int offset,
+			final int anzahl) {
+		return q(Arrays.copyOfRange(indizes, offset, offset + anzahl));
+	}
+
+	/**
+	 * Wie {@link #s(double...)}, verrechnet aber die Güte-Indizes
+	 * <code>indizes[offset]</code> bis
+	 * <code>indizes[offset + anzahl - 1]</code>.
+	 * 
+	 * @param indizes
+	 *            die Güte-Indizes
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Güte oder 1.0, für den Fall, dass eine leere Menge
+	 *         übergeben wurde
+	 */
+	default double s(final double[] indizes, final int offset,
+			final int anzahl) {
+		return s(Arrays.copyOfRange(indizes, offset, offset + anzahl));
+	}
+
+	/**
+	 * Wie {@link #sw(double[]...)}, erwartet die Güte-Indizes und ihre
+	 * Gewichtungen aber in getrennten Feldern und verrechnet die Elemente
+	 * <code>offset</code> bis <code>offset + anzahl - 1</code>.
+	 * 
+	 * @param indizes
+	 *            die Güte-Indizes
+	 * @param gewichte
+	 *            die Gewichtungen (an denselben Positionen wie die Indizes)
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Güte oder 1.0, für den Fall, dass eine leere Menge
+	 *         übergeben wurde
+	 */
+	default double sw(final double[] indizes, final double[] gewichte,
+			final int offset, final int anzahl) {
+		final double[][] paare = new double[anzahl][];
+		for (int i = 0; i < anzahl; i++) {
+			paare[i] = new double[] { indizes[offset + i],
+					gewichte[offset + i] };
+		}
+		return sw(paare);
+	}
+
+	/**
+	 * Wie {@link #d(double...)}, verrechnet aber die Güte-Indizes
+	 * <code>indizes[offset]</code> bis
+	 * <code>indizes[offset + anzahl - 1]</code>.
+	 * 
+	 * @param indizes
+	 *            die Güte-Indizes
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Güte oder 1.0, für den Fall, dass eine leere Menge
+	 *         übergeben wurde
+	 */
+	default double d(final double[] indizes, final int offset,
+			final int anzahl) {
+		return d(Arrays.copyOfRange(indizes, offset, offset + anzahl));
+	}
+
+	/**
+	 * Wie {@link #dw(double[]...)}, erwartet die Güte-Indizes und ihre
+	 * Gewichtungen aber in getrennten Feldern und verrechnet die Elemente
+	 * <code>offset</code> bis <code>offset + anzahl - 1</code>.
+	 * 
+	 * @param indizes
+	 *            die Güte-Indizes
+	 * @param gewichte
+	 *            die Gewichtungen (an denselben Positionen wie die Indizes)
+	 * @param offset
+	 *            der Index des ersten zu verrechnenden Elements
+	 * @param anzahl
+	 *            die Anzahl der zu verrechnenden Elemente
+	 * @return die Gesamt-Güte oder 1.0, für den Fall, dass eine leere Menge
+	 *         übergeben wurde
+	 */
+	default double dw(final double[] indizes, final double[] gewichte,
+			final int offset, final int anzahl) {
+		final double[][] paare = new double[anzahl][];
+		for (int i = 0; i < anzahl; i++) {
+			paare[i] = new double[] { indizes[offset + i],
+					gewichte[offset + i] };
+		}
+		return dw(paare);
+	}
+
 }
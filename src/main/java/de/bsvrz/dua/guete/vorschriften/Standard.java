@@ -41,17 +41,27 @@ public class Standard implements IGuete {
 	 * Ueber allen Werten wird hier das arithmetische Mittel berechnet
 	 */
 	public final double s(final double... quellGueten) {
-		double summe = 0.0;
-		double mittelwert = 1.0;
-
-		if (quellGueten != null && quellGueten.length != 0) {
-			for (double guete : quellGueten) {
-				summe += guete;
-			}
-			mittelwert = summe / quellGueten.length;
+		if (quellGueten == null) {
+			return 1.0;
 		}
+		return s(quellGueten, 0, quellGueten.length);
+	}
 
-		return mittelwert;
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Ueber allen Werten wird hier das arithmetische Mittel berechnet
+	 */
+	public final double s(final double[] indizes, final int offset,
+			final int anzahl) {
+		if (anzahl == 0) {
+			return 1.0;
+		}
+		double summe = 0.0;
+		for (int i = offset; i < offset + anzahl; i++) {
+			summe += indizes[i];
+		}
+		return summe / anzahl;
 	}
 
 	/**
@@ -100,6 +110,60 @@ public class Standard implements IGuete {
 		return sw(quellGuetenMitGewichtung);
 	}
 
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Ueber allen Werten wird hier das arithmetische Mittel unter vorheriger
+	 * Gewichtung der Einzelnwerte berechnet. Unterklassen rechnen wie in
+	 * {@link IGuete} ueber {@link #sw(double[]...)}, damit deren
+	 * Ueberschreibungen wirksam bleiben.
+	 */
+	public double sw(final double[] indizes, final double[] gewichte,
+			final int offset, final int anzahl) {
+		if (getClass() != Standard.class) {
+			// eine Unterklasse kann sw(double[]...) ueberschrieben haben
+			return IGuete.super.sw(indizes, gewichte, offset, anzahl);
+		}
+		double summe = 0.0;
+		double summeGewichte = 0.0;
+		for (int i = offset; i < offset + anzahl; i++) {
+			final double gewichtung = Math.abs(gewichte[i]);
+			summe += gewichtung * indizes[i];
+			summeGewichte += gewichtung;
+		}
+		if (summeGewichte != 0) {
+			return summe / summeGewichte;
+		}
+		return 1.0;
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Ueber allen Werten wird hier das arithmetische Mittel berechnet
+	 */
+	public final double d(final double[] indizes, final int offset,
+			final int anzahl) {
+		return s(indizes, offset, anzahl);
+	}
+
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Ueber allen Werten wird hier das arithmetische Mittel unter vorheriger
+	 * Gewichtung der Einzelnwerte berechnet. Unterklassen rechnen wie in
+	 * {@link IGuete} ueber {@link #dw(double[]...)}, damit deren
+	 * Ueberschreibungen wirksam bleiben.
+	 */
+	public double dw(final double[] indizes, final double[] gewichte,
+			final int offset, final int anzahl) {
+		if (getClass() != Standard.class) {
+			// eine Unterklasse kann dw(double[]...) ueberschrieben haben
+			return IGuete.super.dw(indizes, gewichte, offset, anzahl);
+		}
+		return sw(indizes, gewichte, offset, anzahl);
+	}
+
 	/**
 	 * {@inheritDoc}
 	 */
@@ -113,14 +177,23 @@ public class Standard implements IGuete {
 	 * Die einzelnen Werte werden hier multiplikativ miteinander verknüpft
 	 */
 	public final double p(final double... quellGueten) {
-		double produkt = 1.0;
-
-		if (quellGueten != null && quellGueten.length != 0) {
-			for (double guete : quellGueten) {
-				produkt *= guete;
-			}
+		if (quellGueten == null) {
+			return 1.0;
 		}
+		return p(quellGueten, 0, quellGueten.length);
+	}
 
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Die einzelnen Werte werden hier multiplikativ miteinander verknüpft
+	 */
+	public final double p(final double[] indizes, final int offset,
+			final int anzahl) {
+		double produkt = 1.0;
+		for (int i = offset; i < offset + anzahl; i++) {
+			produkt *= indizes[i];
+		}
 		return produkt;
 	}
 
@@ -133,4 +206,14 @@ public class Standard implements IGuete {
 		return p(quellGueten);
 	}
 
+	/**
+	 * {@inheritDoc}.
+	 * 
+	 * Die einzelnen Werte werden hier multiplikativ miteinander verknüpft
+	 */
+	public final double q(final double[] indizes, final int offset,
+			final int anzahl) {
+		return p(indizes, offset, anzahl);
+	}
+
 }
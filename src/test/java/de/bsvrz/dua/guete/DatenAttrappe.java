@@ -0,0 +1,394 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import java.util.Collections;
+import java.util.Iterator;
+import java.util.LinkedHashMap;
+import java.util.Map;
+
+import de.bsvrz.dav.daf.main.Data;
+import de.bsvrz.dav.daf.main.config.AttributeType;
+import de.bsvrz.dav.daf.main.config.IntegerValueState;
+
+/**
+ * Einfacher Ersatz fuer ein DAV-Datum, der ohne Verbindung zum
+ * Datenverteiler und ohne Konfiguration auskommt.<br>
+ * Unterstuetzt werden nur die Zugriffe, die fuer Guetewerte benoetigt
+ * werden (<code>getItem</code>, <code>getUnscaledValue</code>,
+ * <code>getName</code> und die ganzzahligen Zugriffe auf Zahlenwerte); alle
+ * anderen Methoden werfen eine {@link UnsupportedOperationException}. Nach
+ * dem Anlegen erzeugen die Zugriffe keine Objekte, so dass die Attrappe auch
+ * in Messungen des Speicherbedarfs verwendet werden kann.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class DatenAttrappe implements Data {
+
+	/**
+	 * Der Name des Items.
+	 */
+	private final String name;
+
+	/**
+	 * Die Unter-Items.
+	 */
+	private final Map<String, DatenAttrappe> items = new LinkedHashMap<>();
+
+	/**
+	 * Die Zahlenwerte unterhalb dieses Items.
+	 */
+	private final Map<String, Zahl> werte = new LinkedHashMap<>();
+
+	/**
+	 * Standardkonstruktor.
+	 *
+	 * @param name
+	 *            der Name des Items
+	 */
+	private DatenAttrappe(final String name) {
+		this.name = name;
+	}
+
+	/**
+	 * Erzeugt ein Datum, das fuer jedes uebergebene Attribut ein Item mit
+	 * <code>Wert</code> und <code>Güte</code> (<code>Index</code>,
+	 * <code>Verfahren</code>) enthaelt, wie z.B. ein DAV-Kurzzeitdatum. Alle
+	 * Zahlenwerte sind <code>0</code>.
+	 *
+	 * @param attribute
+	 *            die Namen der Attribute
+	 * @return das Datum
+	 */
+	public static DatenAttrappe erzeuge(final String... attribute) {
+		final DatenAttrappe datum = new DatenAttrappe("Datum"); //$NON-NLS-1$
+		for (final String attribut : attribute) {
+			final DatenAttrappe item = new DatenAttrappe(attribut);
+			item.zahl(GueteLeser.WERT);
+			final DatenAttrappe guete = new DatenAttrappe(GueteLeser.GUETE);
+			guete.zahl(GueteLeser.INDEX);
+			guete.zahl(GueteLeser.VERFAHREN);
+			item.items.put(guete.name, guete);
+			datum.items.put(attribut, item);
+		}
+		return datum;
+	}
+
+	/**
+	 * Setzt die Guete eines Attributs.
+	 *
+	 * @param attribut
+	 *            der Name des Attributs
+	 * @param indexUnskaliert
+	 *            der unskalierte Guete-Index (ggf. ein Zustand)
+	 * @param verfahren
+	 *            der Code des Guete-Verfahrens
+	 * @return dieses Datum
+	 */
+	public DatenAttrappe setzeGuete(final String attribut,
+			final long indexUnskaliert, final int verfahren) {
+		final Data guete = getItem(attribut).getItem(GueteLeser.GUETE);
+		guete.getUnscaledValue(GueteLeser.INDEX).set(indexUnskaliert);
+		guete.getUnscaledValue(GueteLeser.VERFAHREN).set(verfahren);
+		return this;
+	}
+
+	/**
+	 * Legt einen Zahlenwert unterhalb dieses Items an.
+	 *
+	 * @param zahlName
+	 *            der Name des Zahlenwertes
+	 */
+	private void zahl(final String zahlName) {
+		werte.put(zahlName, new Zahl(zahlName));
+	}
+
+	public DatenAttrappe getItem(final String itemName) {
+		return pruefe(items.get(itemName), itemName);
+	}
+
+	public Data.NumberValue getUnscaledValue(final String itemName) {
+		return pruefe(werte.get(itemName), itemName);
+	}
+
+	public String getName() {
+		return name;
+	}
+
+	public boolean isPlain() {
+		return false;
+	}
+
+	public boolean isList() {
+		return true;
+	}
+
+	public boolean isArray() {
+		return false;
+	}
+
+	public boolean isDefined() {
+		return true;
+	}
+
+	public Iterator<Data> iterator() {
+		// nur die Unter-Items, die Zahlenwerte sind keine Daten
+		return Collections.<Data> unmodifiableCollection(items.values())
+				.iterator();
+	}
+
+	public Data createModifiableCopy() {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data createUnmodifiableCopy() {
+		throw nichtUnterstuetzt();
+	}
+
+	public String valueToString() {
+		return toString();
+	}
+
+	public AttributeType getAttributeType() {
+		throw nichtUnterstuetzt();
+	}
+
+	public void setToDefault() {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.TextValue asTextValue() {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.NumberValue asUnscaledValue() {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.TimeValue asTimeValue() {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.NumberValue asScaledValue() {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.ReferenceValue asReferenceValue() {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.Array asArray() {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.TextValue getTextValue(final String itemName) {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.TimeValue getTimeValue(final String itemName) {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.NumberValue getScaledValue(final String itemName) {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.ReferenceValue getReferenceValue(final String itemName) {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.Array getArray(final String itemName) {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.NumberArray getUnscaledArray(final String itemName) {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.TimeArray getTimeArray(final String itemName) {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.NumberArray getScaledArray(final String itemName) {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.ReferenceArray getReferenceArray(final String itemName) {
+		throw nichtUnterstuetzt();
+	}
+
+	public Data.TextArray getTextArray(final String itemName) {
+		throw nichtUnterstuetzt();
+	}
+
+	@Override
+	public String toString() {
+		final StringBuilder text = new StringBuilder(name).append('{');
+		for (final Zahl zahl : werte.values()) {
+			text.append(zahl.name).append('=').append(zahl.wert).append(' ');
+		}
+		for (final DatenAttrappe item : items.values()) {
+			text.append(item).append(' ');
+		}
+		return text.append('}').toString();
+	}
+
+	/**
+	 * Prueft, ob ein angefragtes Element existiert.
+	 *
+	 * @param <T>
+	 *            der Typ des Elements
+	 * @param element
+	 *            das Element oder <code>null</code>
+	 * @param elementName
+	 *            der angefragte Name
+	 * @return das Element
+	 */
+	private <T> T pruefe(final T element, final String elementName) {
+		if (element == null) {
+			throw new IllegalArgumentException("Unbekanntes Element " //$NON-NLS-1$
+					+ elementName + " in " + name); //$NON-NLS-1$
+		}
+		return element;
+	}
+
+	/**
+	 * Erzeugt die Ausnahme fuer nicht unterstuetzte Zugriffe.
+	 *
+	 * @return die Ausnahme
+	 */
+	private UnsupportedOperationException nichtUnterstuetzt() {
+		return new UnsupportedOperationException(
+				"Nicht unterstuetzt von der Datenattrappe: " + name); //$NON-NLS-1$
+	}
+
+	/**
+	 * Ein ganzzahliger Wert ohne Zustaende und Skalierung.
+	 */
+	private static final class Zahl implements Data.NumberValue {
+
+		/**
+		 * Der Name des Wertes.
+		 */
+		private final String name;
+
+		/**
+		 * Der Wert.
+		 */
+		private long wert;
+
+		/**
+		 * Standardkonstruktor.
+		 *
+		 * @param name
+		 *            der Name des Wertes
+		 */
+		private Zahl(final String name) {
+			this.name = name;
+		}
+
+		public boolean isNumber() {
+			return true;
+		}
+
+		public boolean isState() {
+			return false;
+		}
+
+		public byte byteValue() {
+			return (byte) wert;
+		}
+
+		public short shortValue() {
+			return (short) wert;
+		}
+
+		public int intValue() {
+			return (int) wert;
+		}
+
+		public long longValue() {
+			return wert;
+		}
+
+		public float floatValue() {
+			return wert;
+		}
+
+		public double doubleValue() {
+			return wert;
+		}
+
+		public void set(final int value) {
+			wert = value;
+		}
+
+		public void set(final long value) {
+			wert = value;
+		}
+
+		public void set(final float value) {
+			wert = (long) value;
+		}
+
+		public void set(final double value) {
+			wert = (long) value;
+		}
+
+		public IntegerValueState getState() {
+			return null;
+		}
+
+		public void setState(final IntegerValueState state) {
+			throw new UnsupportedOperationException(name);
+		}
+
+		public String getValueText() {
+			return Long.toString(wert);
+		}
+
+		public String getSuffixText() {
+			return ""; //$NON-NLS-1$
+		}
+
+		public String getText() {
+			return getValueText();
+		}
+
+		public void setText(final String text) {
+			wert = Long.parseLong(text);
+		}
+
+		@Override
+		public String toString() {
+			return getText();
+		}
+	}
+
+}
@@ -0,0 +1,59 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+
+import org.junit.Test;
+
+/**
+ * Tests fuer die Gewichtung von {@link GWert}.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GWertTest {
+
+	/**
+	 * <code>mitGewichtung</code> laesst den Ausgangswert unveraendert.
+	 */
+	@Test
+	public void testMitGewichtung() {
+		final GWert wert = GueteVerfahren.STANDARD.getGWert(8000);
+		assertSame(wert, wert.mitGewichtung(1.0));
+		final GWert gewichtet = wert.mitGewichtung(2.0);
+		assertNotSame(wert, gewichtet);
+		assertEquals(2.0, gewichtet.getGewichtung(), 0.0);
+		assertEquals(1.0, wert.getGewichtung(), 0.0);
+		assertEquals(wert.getIndex(), gewichtet.getIndex(), 0.0);
+		assertSame(wert.getVerfahren(), gewichtet.getVerfahren());
+	}
+
+}
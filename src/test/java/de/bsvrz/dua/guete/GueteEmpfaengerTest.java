@@ -0,0 +1,374 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+
+import org.junit.Test;
+
+import de.bsvrz.dav.daf.main.ResultData;
+
+/**
+ * Tests fuer {@link GueteEmpfaenger}. Die Pakete werden ohne Datenverteiler
+ * aus {@link DatenAttrappe}n zusammengestellt und direkt an
+ * {@link GueteEmpfaenger#update(ResultData[])} uebergeben; die Ergebnisse
+ * werden mit {@link GueteVerfahren} verglichen.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GueteEmpfaengerTest {
+
+	/**
+	 * Die Attribute der Datensaetze.
+	 */
+	private static final String[] ATTRIBUTE = { "qKfz", "qLkw", "vKfz" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+	/**
+	 * Merkt sich die Ergebnisse des letzten Pakets.
+	 */
+	private static final class Sammler implements GueteEmpfaenger.Abnehmer {
+
+		/**
+		 * Die Namen der Attribute.
+		 */
+		private final String[] attribute;
+
+		/**
+		 * Der Status je Datensatz.
+		 */
+		private int[] status;
+
+		/**
+		 * Die unskalierten Gesamt-Gueten je Datensatz.
+		 */
+		private long[] gesamtIndizes;
+
+		/**
+		 * Die Verfahren der Gesamt-Gueten je Datensatz.
+		 */
+		private int[] gesamtVerfahren;
+
+		/**
+		 * Die Datensaetze.
+		 */
+		private ResultData[] datensaetze;
+
+		/**
+		 * Die Guete der Attribute, mit {@link GueteSchreiber} in neue Daten
+		 * geschrieben.
+		 */
+		private DatenAttrappe[] geschrieben;
+
+		/**
+		 * Standardkonstruktor.
+		 *
+		 * @param attribute
+		 *            die Namen der Attribute
+		 */
+		private Sammler(final String... attribute) {
+			this.attribute = attribute;
+		}
+
+		public void verarbeite(final GueteEmpfaenger.Spalten spalten) {
+			final int anzahl = spalten.getAnzahl();
+			final GueteSchreiber schreiber = new GueteSchreiber(attribute);
+			status = new int[anzahl];
+			gesamtIndizes = new long[anzahl];
+			gesamtVerfahren = new int[anzahl];
+			datensaetze = new ResultData[anzahl];
+			geschrieben = new DatenAttrappe[anzahl];
+			for (int i = 0; i < anzahl; i++) {
+				status[i] = spalten.getStatus(i);
+				gesamtIndizes[i] = spalten.getGesamtIndizes()[i];
+				gesamtVerfahren[i] = spalten.getGesamtVerfahren()[i];
+				datensaetze[i] = spalten.getDatensatz(i);
+				geschrieben[i] = DatenAttrappe.erzeuge(attribute);
+				schreiber.schreibe(geschrieben[i], spalten.getIndizes(),
+						spalten.getVerfahren(),
+						i * spalten.getAttributAnzahl());
+			}
+		}
+	}
+
+	/**
+	 * Der Leser fuer alle Tests.
+	 */
+	private final GueteLeser leser = new GueteLeser(ATTRIBUTE);
+
+	/**
+	 * Der Abnehmer fuer alle Tests.
+	 */
+	private final Sammler sammler = new Sammler(ATTRIBUTE);
+
+	/**
+	 * Datensaetze mit einem oder mit gemischten Verfahren werden wie von
+	 * {@link GueteVerfahren} verrechnet.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testGemischteVerfahren() throws GueteException {
+		final int zweites = TestVerfahren.getZweitesStandard().getCode();
+		final ResultData[] paket = {
+				datensatz(0, 9000, 0, 8000, 0, 7000),
+				datensatz(zweites, 9000, zweites, 8000, zweites, 7000),
+				datensatz(0, 9000, zweites, 8000, 0, 7000),
+				datensatz(zweites, 9000, 0, 8000, 0, 7000) };
+
+		for (final int verknuepfung : new int[] { GueteRechner.PRODUKT,
+				GueteRechner.QUOTIENT, GueteRechner.SUMME,
+				GueteRechner.DIFFERENZ }) {
+			new GueteEmpfaenger(leser, verknuepfung, sammler).update(paket);
+			pruefe(paket, verknuepfung, null);
+		}
+		assertEquals(GueteErgebnis.OK, sammler.status[1]);
+		assertEquals(zweites, sammler.gesamtVerfahren[1]);
+		assertEquals(GueteErgebnis.UNTERSCHIEDLICHE_VERFAHREN,
+				sammler.status[2]);
+	}
+
+	/**
+	 * Zustaende machen die Gesamt-Guete ungewichtet nicht ermittelbar und
+	 * beenden die Pruefung der Verfahren; gewichtet wird wie bei
+	 * {@link GueteVerfahren#gewichte(GWert, double)} weiter geprueft.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testZustaende() throws GueteException {
+		final int zweites = TestVerfahren.getZweitesStandard().getCode();
+		final long fehlerhaft = GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+		final ResultData[] paket = {
+				datensatz(0, fehlerhaft, 0, 8000, 0, 7000),
+				datensatz(0, 9000, 0, -1, 0, 7000),
+				datensatz(0, fehlerhaft, zweites, 8000, 0, 7000) };
+		final double[] gewichte = { 1.0, 2.0, 0.5 };
+
+		new GueteEmpfaenger(leser, GueteRechner.SUMME, sammler)
+				.update(paket);
+		pruefe(paket, GueteRechner.SUMME, null);
+		assertEquals(GueteErgebnis.NICHT_ERMITTELBAR, sammler.status[2]);
+
+		new GueteEmpfaenger(leser, GueteRechner.SUMME, gewichte, sammler)
+				.update(paket);
+		pruefe(paket, GueteRechner.SUMME, gewichte);
+		assertEquals(GueteErgebnis.NICHT_ERMITTELBAR, sammler.status[0]);
+		assertEquals(GueteErgebnis.UNTERSCHIEDLICHE_VERFAHREN,
+				sammler.status[2]);
+	}
+
+	/**
+	 * Gewichtete und ungewichtete Verknuepfung entsprechen
+	 * {@link GueteVerfahren}; Gewichtungen von 1.0 aendern nichts.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testGewichtet() throws GueteException {
+		final ResultData[] paket = { datensatz(0, 9000, 0, 3000, 0, 6000),
+				datensatz(0, 10000, 0, 0, 0, 5000) };
+
+		new GueteEmpfaenger(leser, GueteRechner.SUMME, sammler)
+				.update(paket);
+		pruefe(paket, GueteRechner.SUMME, null);
+		final long ungewichtet = sammler.gesamtIndizes[0];
+		assertEquals(6000, ungewichtet);
+
+		new GueteEmpfaenger(leser, GueteRechner.SUMME, new double[] {
+				1.0, 1.0, 1.0 }, sammler).update(paket);
+		assertEquals(ungewichtet, sammler.gesamtIndizes[0]);
+
+		final double[] gewichte = { 4.0, 1.0, -2.0 };
+		for (final int verknuepfung : new int[] { GueteRechner.SUMME,
+				GueteRechner.DIFFERENZ }) {
+			new GueteEmpfaenger(leser, verknuepfung, gewichte, sammler)
+					.update(paket);
+			pruefe(paket, verknuepfung, gewichte);
+		}
+		assertEquals(7286, sammler.gesamtIndizes[0]);
+	}
+
+	/**
+	 * Die Spalten wachsen mit der Groesse der Pakete; Datensaetze ohne Daten
+	 * werden uebergangen.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testSpaltenWachsen() throws GueteException {
+		final GueteEmpfaenger empfaenger = new GueteEmpfaenger(leser,
+				GueteRechner.PRODUKT, sammler);
+
+		final ResultData[] klein = { datensatz(0, 5000, 0, 5000, 0, 5000) };
+		empfaenger.update(klein);
+		pruefe(klein, GueteRechner.PRODUKT, null);
+
+		final ResultData[] gross = new ResultData[100];
+		for (int i = 0; i < gross.length; i++) {
+			if (i % 10 == 3) {
+				gross[i] = new ResultData(null, null, i, null);
+			} else {
+				gross[i] = datensatz(0, 100 * i, 0, 10000 - 50 * i, 0,
+						9000 + i);
+			}
+		}
+		empfaenger.update(gross);
+		assertEquals(90, sammler.datensaetze.length);
+		pruefe(ohneLeere(gross), GueteRechner.PRODUKT, null);
+
+		empfaenger.update(klein);
+		pruefe(klein, GueteRechner.PRODUKT, null);
+	}
+
+	/**
+	 * Ein Leser ohne Attribute liefert fuer ungewichtete Verknuepfungen das
+	 * Ergebnis einer leeren Menge, Gewichtungen sind dafuer unzulaessig.
+	 */
+	@Test
+	public void testOhneAttribute() {
+		final GueteLeser leer = new GueteLeser();
+		final Sammler leerSammler = new Sammler();
+		new GueteEmpfaenger(leer, GueteRechner.SUMME, leerSammler)
+				.update(new ResultData[] { new ResultData(null, null, 0,
+						DatenAttrappe.erzeuge()) });
+		assertEquals(GueteErgebnis.OK, leerSammler.status[0]);
+		assertEquals(GueteIndex.MAX_UNSKALIERT, leerSammler.gesamtIndizes[0]);
+
+		try {
+			new GueteEmpfaenger(leer, GueteRechner.SUMME, new double[0],
+					leerSammler);
+			fail("leere Gewichtungen"); //$NON-NLS-1$
+		} catch (final IllegalArgumentException e) {
+			// erwartet
+		}
+	}
+
+	/**
+	 * Unpassende Gewichtungen werden abgewiesen.
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testGewichteFuerProdukt() {
+		new GueteEmpfaenger(leser, GueteRechner.PRODUKT, new double[] {
+				1.0, 1.0, 1.0 }, sammler);
+	}
+
+	/**
+	 * Erzeugt einen Datensatz mit der Guete der drei Attribute.
+	 *
+	 * @param werte
+	 *            Verfahren und unskalierter Index je Attribut
+	 * @return der Datensatz
+	 */
+	private static ResultData datensatz(final long... werte) {
+		final DatenAttrappe datum = DatenAttrappe.erzeuge(ATTRIBUTE);
+		for (int i = 0; i < ATTRIBUTE.length; i++) {
+			datum.setzeGuete(ATTRIBUTE[i], werte[2 * i + 1],
+					(int) werte[2 * i]);
+		}
+		return new ResultData(null, null, 0, datum);
+	}
+
+	/**
+	 * Entfernt die Datensaetze ohne Daten aus einem Paket.
+	 *
+	 * @param paket
+	 *            das Paket
+	 * @return die Datensaetze mit Daten
+	 */
+	private static ResultData[] ohneLeere(final ResultData[] paket) {
+		int anzahl = 0;
+		final ResultData[] ergebnis = new ResultData[paket.length];
+		for (final ResultData datensatz : paket) {
+			if (datensatz.hasData()) {
+				ergebnis[anzahl++] = datensatz;
+			}
+		}
+		return Arrays.copyOf(ergebnis, anzahl);
+	}
+
+	/**
+	 * Vergleicht die Ergebnisse des letzten Pakets mit {@link GueteVerfahren}
+	 * und die Spalten mit den Daten der Datensaetze.
+	 *
+	 * @param paket
+	 *            die Datensaetze mit Daten
+	 * @param verknuepfung
+	 *            die Verknuepfung
+	 * @param gewichte
+	 *            die Gewichtungen oder <code>null</code>
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	private void pruefe(final ResultData[] paket, final int verknuepfung,
+			final double[] gewichte) throws GueteException {
+		assertEquals(paket.length, sammler.datensaetze.length);
+		for (int d = 0; d < paket.length; d++) {
+			assertSame(paket[d], sammler.datensaetze[d]);
+			assertEquals(paket[d].getData().toString(),
+					sammler.geschrieben[d].toString());
+
+			final GWert[] werte = new GWert[ATTRIBUTE.length];
+			leser.lese(paket[d].getData(), werte, 0);
+			if (gewichte != null) {
+				for (int a = 0; a < werte.length; a++) {
+					werte[a] = GueteVerfahren.gewichte(werte[a], gewichte[a]);
+				}
+			}
+			final GueteErgebnis ergebnis = new GueteErgebnis();
+			final int status;
+			switch (verknuepfung) {
+			case GueteRechner.PRODUKT:
+				status = GueteVerfahren.produkt(ergebnis, werte);
+				break;
+			case GueteRechner.QUOTIENT:
+				status = GueteVerfahren.quotient(ergebnis, werte);
+				break;
+			case GueteRechner.SUMME:
+				status = GueteVerfahren.summe(ergebnis, werte);
+				break;
+			default:
+				status = GueteVerfahren.differenz(ergebnis, werte);
+				break;
+			}
+			assertEquals("Status " + d, status, sammler.status[d]); //$NON-NLS-1$
+			assertEquals("Index " + d, //$NON-NLS-1$
+					ergebnis.getWert().getIndexUnskaliert(),
+					sammler.gesamtIndizes[d]);
+		}
+	}
+
+}
@@ -0,0 +1,192 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import java.util.ArrayDeque;
+import java.util.ArrayList;
+import java.util.Deque;
+import java.util.List;
+import java.util.Random;
+
+import org.junit.Test;
+
+/**
+ * Tests fuer {@link GueteFenster}.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GueteFensterTest {
+
+	/**
+	 * Die Laenge der Fenster.
+	 */
+	private static final int LAENGE = 15;
+
+	/**
+	 * Die Gesamt-Guete entspricht nach jedem Intervall der direkten
+	 * Berechnung ueber die Werte des Fensters.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testWieGueteVerfahren() throws GueteException {
+		final Random zufall = new Random(3);
+		final GueteFenster fenster = new GueteFenster(GueteVerfahren.STANDARD,
+				3, LAENGE);
+		final List<Deque<GWert>> verlauf = neuerVerlauf(3);
+		for (int t = 0; t < 20000; t++) {
+			final int objekt = zufall.nextInt(3);
+			GWert wert = new GWert(zufall.nextInt(10001) * 0.0001,
+					GueteVerfahren.STANDARD);
+			if (objekt == 1) {
+				wert = GueteVerfahren.gewichte(wert, zufall.nextDouble());
+			}
+			if (zufall.nextInt(50) == 0) {
+				wert = GueteVerfahren.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR;
+			}
+			fenster.fuegeHinzu(objekt, wert);
+			pruefe(fenster, objekt, verlauf.get(objekt), wert, 1e-15);
+		}
+	}
+
+	/**
+	 * Auch nach sehr vielen Intervallen und grossen Unterschieden zwischen
+	 * den Gewichtungen sammeln sich keine Rundungsfehler an, obwohl die
+	 * Summen nie neu berechnet werden.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testKeineRundungsfehler() throws GueteException {
+		final Random zufall = new Random(7);
+		final GueteFenster fenster = new GueteFenster(GueteVerfahren.STANDARD,
+				1, LAENGE);
+		final List<Deque<GWert>> verlauf = neuerVerlauf(1);
+		for (int t = 0; t < 1000000; t++) {
+			final double gewichtung = t % 1000 == 0 ? 1e9 : Math.scalb(
+					0.5 + zufall.nextDouble(), zufall.nextInt(20) - 10);
+			final GWert wert = GueteVerfahren.gewichte(new GWert(zufall
+					.nextInt(10001) * 0.0001, GueteVerfahren.STANDARD),
+					gewichtung);
+			fenster.fuegeHinzu(0, wert);
+			if (t % 1000 > LAENGE) {
+				pruefe(fenster, 0, verlauf.get(0), wert, 1e-13);
+			} else {
+				verlauf.get(0).addLast(wert);
+				if (verlauf.get(0).size() > LAENGE) {
+					verlauf.get(0).removeFirst();
+				}
+			}
+		}
+	}
+
+	/**
+	 * Nicht verrechenbare Werte machen das Fenster nicht verrechenbar,
+	 * solange sie sich darin befinden; ein zurueckgesetztes Fenster ist leer.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testNichtVerrechenbarUndZuruecksetzen() throws GueteException {
+		final GueteFenster fenster = new GueteFenster(GueteVerfahren.STANDARD,
+				2, 3);
+		assertEquals(2, fenster.getObjektAnzahl());
+		assertEquals(1.0, fenster.getSummenIndex(0), 0.0);
+
+		fenster.fuegeHinzu(0, GueteVerfahren.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR);
+		fenster.fuegeHinzu(0, GueteVerfahren.STANDARD.getGWert(5000));
+		fenster.fuegeHinzu(0, GueteVerfahren.STANDARD.getGWert(7000));
+		assertTrue(Double.isNaN(fenster.getSummenIndex(0)));
+		assertSame(GueteVerfahren.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR,
+				fenster.getSumme(0));
+		fenster.fuegeHinzu(0, GueteVerfahren.STANDARD.getGWert(9000));
+		assertEquals(3, fenster.getAnzahl(0));
+		assertEquals(0.7, fenster.getSummenIndex(0), 1e-15);
+		assertEquals(1.0, fenster.getSummenIndex(1), 0.0);
+
+		fenster.zuruecksetzen(0);
+		assertEquals(0, fenster.getAnzahl(0));
+		assertEquals(1.0, fenster.getSummenIndex(0), 0.0);
+		fenster.fuegeHinzu(0, 0.25, 1.0);
+		assertEquals(0.25, fenster.getSummenIndex(0), 0.0);
+	}
+
+	/**
+	 * Legt die Verlaeufe der Werte je Objekt an.
+	 *
+	 * @param objektAnzahl
+	 *            die Anzahl der Objekte
+	 * @return die Verlaeufe
+	 */
+	private static List<Deque<GWert>> neuerVerlauf(final int objektAnzahl) {
+		final List<Deque<GWert>> verlauf = new ArrayList<>();
+		for (int i = 0; i < objektAnzahl; i++) {
+			verlauf.add(new ArrayDeque<GWert>());
+		}
+		return verlauf;
+	}
+
+	/**
+	 * Schreibt den Verlauf eines Objekts fort und vergleicht die Gesamt-Guete
+	 * des Fensters mit {@link GueteVerfahren#summe(GWert...)}.
+	 *
+	 * @param fenster
+	 *            das Fenster
+	 * @param objekt
+	 *            die Nummer des Objekts
+	 * @param verlauf
+	 *            die Werte des Objekts im Fenster
+	 * @param wert
+	 *            der hinzugefuegte Wert
+	 * @param toleranz
+	 *            die erlaubte Abweichung
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	private static void pruefe(final GueteFenster fenster, final int objekt,
+			final Deque<GWert> verlauf, final GWert wert,
+			final double toleranz) throws GueteException {
+		verlauf.addLast(wert);
+		if (verlauf.size() > fenster.getLaenge()) {
+			verlauf.removeFirst();
+		}
+		assertEquals(verlauf.size(), fenster.getAnzahl(objekt));
+		final double erwartet = GueteVerfahren.summe(
+				verlauf.toArray(new GWert[verlauf.size()])).getIndex();
+		assertEquals(erwartet, fenster.getSummenIndex(objekt), toleranz);
+	}
+
+}
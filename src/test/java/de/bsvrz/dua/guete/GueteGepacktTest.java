@@ -0,0 +1,155 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+
+import org.junit.Test;
+
+import de.bsvrz.sys.funclib.bitctrl.dua.DUAKonstanten;
+
+/**
+ * Tests fuer das Packen und Entpacken von {@link GWert} mit
+ * {@link GueteGepackt}.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GueteGepacktTest {
+
+	/**
+	 * Die Zustaende werden als <code>short</code> gepackt und beim
+	 * Entpacken mit Vorzeichen erweitert, auch wenn in den hoeheren Bits
+	 * Verfahren und Gewichtung stehen.
+	 */
+	@Test
+	public void testZustaende() {
+		final long[] zustaende = { DUAKonstanten.NICHT_ERMITTELBAR,
+				DUAKonstanten.FEHLERHAFT,
+				DUAKonstanten.NICHT_ERMITTELBAR_BZW_FEHLERHAFT };
+		final GueteVerfahren festkomma = TestVerfahren.getFestkomma();
+		for (final long zustand : zustaende) {
+			final GWert wert = GueteVerfahren.STANDARD.getGWert(zustand);
+			final long gepackt = GueteGepackt.packe(wert);
+			assertEquals(zustand, GueteGepackt.getIndexUnskaliert(gepackt));
+			assertFalse(GueteGepackt.isVerrechenbar(gepackt));
+			assertEquals(GueteVerfahren.STANDARD.getCode(), GueteGepackt
+					.getVerfahren(gepackt));
+			assertSame(wert, GueteGepackt.entpacke(gepackt));
+
+			final long gewichtet = GueteGepackt.packe(festkomma
+					.getGWert(zustand).mitGewichtung(-2.5));
+			assertEquals(zustand, GueteGepackt.getIndexUnskaliert(gewichtet));
+			assertEquals(festkomma.getCode(), GueteGepackt
+					.getVerfahren(gewichtet));
+			assertEquals(-2.5, GueteGepackt.getGewichtung(gewichtet), 0.0);
+			final GWert entpackt = GueteGepackt.entpacke(gewichtet);
+			assertEquals(zustand, entpackt.getIndexUnskaliert());
+			assertFalse(entpackt.isVerrechenbar());
+			assertSame(festkomma, entpackt.getVerfahren());
+
+			final String attribut = "qKfz"; //$NON-NLS-1$
+			final GWert gelesen = new GWert(DatenAttrappe.erzeuge(attribut)
+					.setzeGuete(attribut, zustand, festkomma.getCode()),
+					attribut);
+			assertEquals(gewichtet & 0xFFFFFFFFL, GueteGepackt
+					.packe(gelesen) & 0xFFFFFFFFL);
+		}
+	}
+
+	/**
+	 * Indizes ausserhalb des Wertebereichs von <code>short</code> werden
+	 * als <code>nicht ermittelbar/fehlerhaft</code> gepackt.
+	 */
+	@Test
+	public void testBegrenzung() {
+		final int standard = GueteVerfahren.STANDARD.getCode();
+		for (final long index : new long[] { Short.MAX_VALUE + 1L,
+				Short.MIN_VALUE - 1L, Long.MAX_VALUE, Long.MIN_VALUE,
+				Integer.MAX_VALUE + 1L }) {
+			final long gepackt = GueteGepackt.packe(index, standard, 1.0);
+			assertEquals(GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT,
+					GueteGepackt.getIndexUnskaliert(gepackt));
+			assertFalse(GueteGepackt.isVerrechenbar(gepackt));
+			assertEquals(GueteGepackt.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR,
+					gepackt);
+		}
+
+		final GWert gross = new GWert(40000, GueteVerfahren.STANDARD);
+		final GWert entpackt = GueteGepackt.entpacke(GueteGepackt
+				.packe(gross));
+		assertEquals(GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT, entpackt
+				.getIndexUnskaliert());
+		assertFalse(entpackt.isVerrechenbar());
+
+		for (final long index : new long[] { Short.MAX_VALUE,
+				Short.MIN_VALUE, GueteIndex.MAX_UNSKALIERT,
+				GueteIndex.MIN_UNSKALIERT }) {
+			assertEquals(index, GueteGepackt.getIndexUnskaliert(GueteGepackt
+					.packe(index, standard, 1.0)));
+		}
+	}
+
+	/**
+	 * Die Gewichtung wird als <code>float</code> gepackt; ein entpackter
+	 * Wert traegt die gerundete Gewichtung und wird danach unveraendert
+	 * gepackt.
+	 */
+	@Test
+	public void testGewichtung() {
+		final GWert wert = GueteVerfahren.STANDARD.getGWert(5000);
+		for (final double gewichtung : new double[] { 0.1, 1.0 / 3, -0.7,
+				1.1 }) {
+			final long gepackt = GueteGepackt.packe(wert
+					.mitGewichtung(gewichtung));
+			final double gerundet = (float) gewichtung;
+			assertTrue(gerundet != gewichtung);
+			assertEquals(gerundet, GueteGepackt.getGewichtung(gepackt), 0.0);
+			assertEquals(5000, GueteGepackt.getIndexUnskaliert(gepackt));
+			assertTrue(GueteGepackt.isVerrechenbar(gepackt));
+
+			final GWert entpackt = GueteGepackt.entpacke(gepackt);
+			assertEquals(gerundet, entpackt.getGewichtung(), 0.0);
+			assertEquals(wert.getIndexUnskaliert(), entpackt
+					.getIndexUnskaliert());
+			assertEquals(gepackt, GueteGepackt.packe(entpackt));
+		}
+
+		for (final double gewichtung : new double[] { 2.0, 0.5, -1.0 }) {
+			final long gepackt = GueteGepackt.packe(wert
+					.mitGewichtung(gewichtung));
+			assertEquals(gewichtung, GueteGepackt.entpacke(gepackt)
+					.getGewichtung(), 0.0);
+		}
+		assertSame(wert, GueteGepackt.entpacke(GueteGepackt.packe(wert)));
+	}
+
+}
@@ -0,0 +1,200 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.bsvrz.dua.guete.formel.GueteFormel;
+
+/**
+ * Tests fuer {@link GueteGraph}.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GueteGraphTest {
+
+	/**
+	 * Die Namen der Eingaenge.
+	 */
+	private static final String[] EINGAENGE = { "a", "b", "c", "d", "e" }; //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+
+	/**
+	 * Verkettete Ableitungen liefern dasselbe Ergebnis wie eine einzelne
+	 * Formel, in die die Ableitungen eingesetzt sind, und es werden nur die
+	 * abhaengigen Werte neu berechnet.
+	 */
+	@Test
+	public void testWieEingesetzteFormel() {
+		final GueteGraph graph = new GueteGraph(GueteVerfahren.STANDARD);
+		for (final String eingang : EINGAENGE) {
+			graph.eingang(eingang);
+		}
+		graph.ableitung("ab", "s(a, b:2)"); //$NON-NLS-1$ //$NON-NLS-2$
+		graph.ableitung("cd", "p(c, d)"); //$NON-NLS-1$ //$NON-NLS-2$
+		final int gesamt = graph.ableitung("gesamt", //$NON-NLS-1$
+				"p(ab, e(cd, 0.5), s(e, a))"); //$NON-NLS-1$
+		assertEquals(8, graph.getAnzahl());
+		final GueteFormel formel = new GueteFormel(
+				"p(s(a, b:2), e(p(c, d), 0.5), s(e, a))"); //$NON-NLS-1$
+
+		final Random zufall = new Random(4);
+		final double[] indizes = new double[EINGAENGE.length];
+		Arrays.fill(indizes, Double.NaN);
+		assertEquals(3, graph.berechne());
+		assertTrue(Double.isNaN(graph.getIndex(gesamt)));
+		for (int k = 0; k < 10000; k++) {
+			final int i = zufall.nextInt(EINGAENGE.length);
+			indizes[i] = zufall.nextInt(30) == 0 ? Double.NaN : zufall
+					.nextInt(10001) * 0.0001;
+			graph.setze(graph.getNummer(EINGAENGE[i]), indizes[i]);
+			assertTrue(graph.berechne() <= 3);
+			assertEquals(formel.berechne(GueteVerfahren.STANDARD, indizes),
+					graph.getIndex(gesamt), 0.0);
+		}
+	}
+
+	/**
+	 * Die Neuberechnung endet an Werten, die sich nicht geaendert haben.
+	 */
+	@Test
+	public void testNurGeaenderteWerte() {
+		final GueteGraph graph = new GueteGraph(GueteVerfahren.STANDARD);
+		final int summe = graph.ableitung("summe", "s(a, b)"); //$NON-NLS-1$ //$NON-NLS-2$
+		final int produkt = graph.ableitung("produkt", "p(summe, c)"); //$NON-NLS-1$ //$NON-NLS-2$
+		final int potenz = graph.ableitung("potenz", "e(c, 2)"); //$NON-NLS-1$ //$NON-NLS-2$
+		final int a = graph.getNummer("a"); //$NON-NLS-1$
+		final int b = graph.getNummer("b"); //$NON-NLS-1$
+		final int c = graph.getNummer("c"); //$NON-NLS-1$
+		assertEquals(6, graph.getAnzahl());
+		assertEquals(-1, graph.getNummer("x")); //$NON-NLS-1$
+
+		graph.setze(a, 0.5);
+		graph.setze(b, 1.0);
+		graph.setze(c, 0.5);
+		assertEquals(3, graph.berechne());
+		assertEquals(0.75, graph.getIndex(summe), 1e-15);
+		assertEquals(0.375, graph.getIndex(produkt), 1e-15);
+		assertEquals(0.25, graph.getIndex(potenz), 1e-15);
+		assertEquals(0, graph.berechne());
+
+		graph.setze(c, graph.getIndex(c));
+		assertEquals(0, graph.berechne());
+
+		// die Summe aendert sich nicht, das Produkt wird nicht berechnet
+		graph.setze(a, 1.0);
+		graph.setze(b, 0.5);
+		assertEquals(1, graph.berechne());
+
+		graph.setze(c, 1.0);
+		assertEquals(2, graph.berechne());
+		assertEquals(0.75, graph.getIndex(produkt), 1e-15);
+
+		// spaeter deklarierte Werte duerfen auf berechnete Werte verweisen
+		final int neu = graph.ableitung("neu", "s(q, produkt)"); //$NON-NLS-1$ //$NON-NLS-2$
+		graph.setze(graph.getNummer("q"), 0.25); //$NON-NLS-1$
+		assertEquals(1, graph.berechne());
+		assertEquals(0.5, graph.getIndex(neu), 1e-15);
+		assertEquals(GueteVerfahren.STANDARD, graph.getGWert(neu)
+				.getVerfahren());
+	}
+
+	/**
+	 * Guetewerte eines anderen Verfahrens werden abgewiesen.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testSetzeGWert() throws GueteException {
+		final GueteGraph graph = new GueteGraph(GueteVerfahren.STANDARD);
+		final int eingang = graph.eingang("a"); //$NON-NLS-1$
+		assertEquals(eingang, graph.eingang("a")); //$NON-NLS-1$
+		graph.setze(eingang, new GWert(0.25, GueteVerfahren.STANDARD));
+		assertEquals(0.25, graph.getIndex(eingang), 0.0);
+		try {
+			graph.setze(eingang, new GWert(0.25, TestVerfahren
+					.getZweitesStandard()));
+			fail();
+		} catch (final GueteException e) {
+			assertEquals(GueteException.UNTERSCHIEDLICHE_VERFAHREN, e);
+		}
+		graph.setze(eingang, GueteVerfahren.getNichtErmittelbar(TestVerfahren
+				.getZweitesStandard()));
+		assertTrue(Double.isNaN(graph.getIndex(eingang)));
+	}
+
+	/**
+	 * Ungueltige Deklarationen und Zugriffe werden abgewiesen.
+	 */
+	@Test
+	public void testUngueltig() {
+		final GueteGraph graph = new GueteGraph(GueteVerfahren.STANDARD);
+		final int ab = graph.ableitung("ab", "s(a, b)"); //$NON-NLS-1$ //$NON-NLS-2$
+		final int anzahl = graph.getAnzahl();
+		for (final String[] ableitung : new String[][] {
+				{ "ab", "s(a)" }, //$NON-NLS-1$ //$NON-NLS-2$
+				{ "zz", "s(zz, a)" }, //$NON-NLS-1$ //$NON-NLS-2$
+				{ "yy", "s(a" } }) { //$NON-NLS-1$ //$NON-NLS-2$
+			try {
+				graph.ableitung(ableitung[0], ableitung[1]);
+				fail(ableitung[1]);
+			} catch (final IllegalArgumentException e) {
+				// erwartet
+			}
+		}
+		assertEquals(anzahl, graph.getAnzahl());
+
+		try {
+			graph.eingang("ab"); //$NON-NLS-1$
+			fail();
+		} catch (final IllegalArgumentException e) {
+			// erwartet
+		}
+		try {
+			graph.setze(ab, 0.5);
+			fail();
+		} catch (final IllegalArgumentException e) {
+			// erwartet
+		}
+		try {
+			graph.getIndex(anzahl);
+			fail();
+		} catch (final IllegalArgumentException e) {
+			// erwartet
+		}
+	}
+
+}
@@ -0,0 +1,286 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.List;
+import java.util.Random;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.Test;
+
+/**
+ * Tests fuer {@link GueteHierarchie}.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GueteHierarchieTest {
+
+	/**
+	 * Ein kleiner zufaelliger Baum wird im aufrufenden Thread wie mit
+	 * {@link GueteVerfahren} berechnet.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testZufaelligerBaum() throws GueteException {
+		pruefeZufaelligenBaum(200, null);
+	}
+
+	/**
+	 * Ein grosser zufaelliger Baum, dessen untere Stufen parallel berechnet
+	 * werden, liefert dieselben Ergebnisse wie {@link GueteVerfahren}.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testParallel() throws GueteException {
+		pruefeZufaelligenBaum(40000, ForkJoinPool.commonPool());
+	}
+
+	/**
+	 * Es werden nur die Knoten neu berechnet, unterhalb derer sich ein Index
+	 * geaendert hat.
+	 */
+	@Test
+	public void testInkrementell() {
+		final GueteHierarchie hierarchie = new GueteHierarchie(
+				GueteVerfahren.STANDARD);
+		final int a = hierarchie.neuesBlatt();
+		final int b = hierarchie.neuesBlatt();
+		final int c = hierarchie.neuesBlatt();
+		final int summe = hierarchie.neuerKnoten(GueteRechner.SUMME, a, b);
+		final int wurzel = hierarchie.neuerKnoten(GueteRechner.PRODUKT,
+				summe, c);
+		assertTrue(Double.isNaN(hierarchie.getIndex(a)));
+
+		hierarchie.setze(a, 0.5);
+		hierarchie.setze(b, 1.0);
+		hierarchie.setze(c, 0.8);
+		assertEquals(2, hierarchie.berechne());
+		assertEquals(0.75, hierarchie.getIndex(summe), 1e-15);
+		assertEquals(0.6, hierarchie.getIndex(wurzel), 1e-15);
+		assertEquals(0, hierarchie.berechne());
+
+		hierarchie.setze(c, 0.8);
+		assertEquals(0, hierarchie.berechne());
+		hierarchie.setze(c, 0.4);
+		assertEquals(1, hierarchie.berechne());
+		assertEquals(0.3, hierarchie.getIndex(wurzel), 1e-15);
+
+		// die Summe aendert sich nicht, also auch die Wurzel nicht
+		hierarchie.setze(a, 1.0);
+		hierarchie.setze(b, 0.5);
+		assertEquals(1, hierarchie.berechne());
+
+		hierarchie.setzeUnskaliert(b, GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT);
+		assertEquals(2, hierarchie.berechne());
+		assertTrue(Double.isNaN(hierarchie.getIndex(wurzel)));
+		assertEquals(GueteVerfahren.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR
+				.getIndexUnskaliert(), hierarchie.getGWert(wurzel)
+				.getIndexUnskaliert());
+	}
+
+	/**
+	 * Guetewerte eines anderen Verfahrens werden abgewiesen, nicht
+	 * verrechenbare Guetewerte uebernommen.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testSetzeGWert() throws GueteException {
+		final GueteHierarchie hierarchie = new GueteHierarchie(
+				GueteVerfahren.STANDARD);
+		final int blatt = hierarchie.neuesBlatt();
+		hierarchie.setze(blatt, new GWert(0.25, GueteVerfahren.STANDARD));
+		assertEquals(0.25, hierarchie.getIndex(blatt), 0.0);
+		try {
+			hierarchie.setze(blatt, new GWert(0.25,
+					TestVerfahren.getZweitesStandard()));
+			fail();
+		} catch (final GueteException e) {
+			assertEquals(GueteException.UNTERSCHIEDLICHE_VERFAHREN, e);
+		}
+		hierarchie.setze(blatt, GueteVerfahren.getNichtErmittelbar(
+				TestVerfahren.getZweitesStandard()));
+		assertTrue(Double.isNaN(hierarchie.getIndex(blatt)));
+	}
+
+	/**
+	 * Ungueltige Knoten werden abgewiesen.
+	 */
+	@Test
+	public void testUngueltigeKnoten() {
+		final GueteHierarchie hierarchie = new GueteHierarchie(
+				GueteVerfahren.STANDARD);
+		final int a = hierarchie.neuesBlatt();
+		final int b = hierarchie.neuesBlatt();
+		erwarteFehler(hierarchie, 4, new int[] { a, b }, null);
+		erwarteFehler(hierarchie, GueteRechner.PRODUKT, new int[] { a, b },
+				new double[] { 1, 2 });
+		erwarteFehler(hierarchie, GueteRechner.SUMME, new int[] { a, b },
+				new double[] { 1 });
+		erwarteFehler(hierarchie, GueteRechner.SUMME, new int[] { a, 2 },
+				null);
+		erwarteFehler(hierarchie, GueteRechner.SUMME, new int[] { a, a },
+				null);
+		assertEquals(2, hierarchie.getAnzahl());
+
+		final int knoten = hierarchie.neuerKnoten(GueteRechner.SUMME, a);
+		erwarteFehler(hierarchie, GueteRechner.SUMME, new int[] { a, b },
+				null);
+		try {
+			hierarchie.setze(knoten, 0.5);
+			fail();
+		} catch (final IllegalArgumentException e) {
+			// erwartet
+		}
+	}
+
+	/**
+	 * Prueft, dass ein Knoten nicht angelegt werden kann.
+	 *
+	 * @param hierarchie
+	 *            die Hierarchie
+	 * @param verknuepfung
+	 *            die Verknuepfung
+	 * @param kinder
+	 *            die Kinder
+	 * @param gewichte
+	 *            die Gewichtungen
+	 */
+	private static void erwarteFehler(final GueteHierarchie hierarchie,
+			final int verknuepfung, final int[] kinder, final double[] gewichte) {
+		try {
+			hierarchie.neuerKnoten(verknuepfung, kinder, gewichte);
+			fail();
+		} catch (final IllegalArgumentException e) {
+			// erwartet
+		}
+	}
+
+	/**
+	 * Baut einen zufaelligen Baum auf, aendert mehrfach zufaellige Blaetter
+	 * und vergleicht alle Knoten mit der Berechnung ueber
+	 * {@link GueteVerfahren}.
+	 *
+	 * @param blaetter
+	 *            die Anzahl der Blaetter
+	 * @param pool
+	 *            der Pool fuer die Berechnung oder <code>null</code>
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	private static void pruefeZufaelligenBaum(final int blaetter,
+			final ForkJoinPool pool) throws GueteException {
+		final Random zufall = new Random(11);
+		final GueteHierarchie hierarchie = new GueteHierarchie(
+				GueteVerfahren.STANDARD);
+		final List<int[]> kinder = new ArrayList<>();
+		final List<double[]> gewichte = new ArrayList<>();
+		final List<Integer> verknuepfungen = new ArrayList<>();
+		final List<Integer> offen = new ArrayList<>();
+		for (int i = 0; i < blaetter; i++) {
+			offen.add(hierarchie.neuesBlatt());
+			kinder.add(null);
+			gewichte.add(null);
+			verknuepfungen.add(-1);
+		}
+		while (offen.size() > 1) {
+			final int[] k = new int[Math.min(offen.size(),
+					1 + zufall.nextInt(5))];
+			for (int i = 0; i < k.length; i++) {
+				k[i] = offen.remove(zufall.nextInt(offen.size()));
+			}
+			final int verknuepfung = zufall.nextInt(4);
+			double[] g = null;
+			if (verknuepfung >= GueteRechner.SUMME && zufall.nextBoolean()) {
+				g = new double[k.length];
+				for (int i = 0; i < k.length; i++) {
+					g[i] = 0.5 + zufall.nextDouble();
+				}
+			}
+			offen.add(hierarchie.neuerKnoten(verknuepfung, k, g));
+			kinder.add(k);
+			gewichte.add(g);
+			verknuepfungen.add(verknuepfung);
+		}
+
+		final GWert[] erwartet = new GWert[hierarchie.getAnzahl()];
+		for (int runde = 0; runde < 10; runde++) {
+			final int aenderungen = runde == 0 ? blaetter : 1 + zufall
+					.nextInt(50);
+			for (int i = 0; i < aenderungen; i++) {
+				hierarchie.setzeUnskaliert(runde == 0 ? i : zufall
+						.nextInt(blaetter), zufall.nextInt(100) == 0 ? -1
+						: 9000 + zufall.nextInt(1001));
+			}
+			final int berechnet = hierarchie.berechne(pool);
+			assertTrue(berechnet <= hierarchie.getAnzahl() - blaetter);
+
+			for (int k = 0; k < hierarchie.getAnzahl(); k++) {
+				if (verknuepfungen.get(k) < 0) {
+					erwartet[k] = hierarchie.getGWert(k);
+					continue;
+				}
+				final int[] kk = kinder.get(k);
+				final GWert[] w = new GWert[kk.length];
+				for (int i = 0; i < kk.length; i++) {
+					w[i] = gewichte.get(k) == null ? erwartet[kk[i]]
+							: GueteVerfahren.gewichte(erwartet[kk[i]],
+									gewichte.get(k)[i]);
+				}
+				switch (verknuepfungen.get(k)) {
+				case GueteRechner.PRODUKT:
+					erwartet[k] = GueteVerfahren.produkt(w);
+					break;
+				case GueteRechner.QUOTIENT:
+					erwartet[k] = GueteVerfahren.quotient(w);
+					break;
+				case GueteRechner.SUMME:
+					erwartet[k] = GueteVerfahren.summe(w);
+					break;
+				default:
+					erwartet[k] = GueteVerfahren.differenz(w);
+					break;
+				}
+				assertEquals("Knoten " + k, erwartet[k].getIndex(), //$NON-NLS-1$
+						hierarchie.getIndex(k), 0.0);
+			}
+		}
+	}
+
+}
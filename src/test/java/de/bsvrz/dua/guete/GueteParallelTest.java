@@ -0,0 +1,163 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.concurrent.ForkJoinPool;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests fuer {@link GueteParallel}.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GueteParallelTest {
+
+	/**
+	 * Anzahl der Werte (drei Bloecke).
+	 */
+	private static final int ANZAHL = 3 * GueteParallel.BLOCK_GROESSE;
+
+	/**
+	 * Der Pool fuer die Berechnung.
+	 */
+	private ForkJoinPool pool;
+
+	/**
+	 * Die Guetewerte.
+	 */
+	private GWert[] werte;
+
+	/**
+	 * Legt den Pool und gueltige Guetewerte an.
+	 */
+	@Before
+	public void setUp() {
+		pool = new ForkJoinPool(4);
+		werte = new GWert[ANZAHL];
+		for (int i = 0; i < ANZAHL; i++) {
+			werte[i] = GueteVerfahren.STANDARD.getGWert(5000 + i % 5000);
+		}
+	}
+
+	/**
+	 * Beendet den Pool.
+	 */
+	@After
+	public void tearDown() {
+		pool.shutdown();
+	}
+
+	/**
+	 * Nach einem nicht verrechenbaren Wert im ersten Block wird das Verfahren
+	 * eines Wertes in einem spaeteren Block nicht mehr geprueft.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testNichtVerrechenbarVorUnterschiedlichemVerfahren()
+			throws GueteException {
+		werte[1] = GueteVerfahren.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR;
+		werte[ANZAHL - 1] = TestVerfahren.getZweitesStandard().getGWert(5000);
+
+		final GWert erwartet = GueteVerfahren.summe(werte);
+		final GueteAkkumulator akkumulator = GueteParallel.akkumuliere(pool,
+				werte);
+
+		assertFalse(akkumulator.isVerrechenbar());
+		assertTrue(Double.isNaN(akkumulator.getSummenIndex()));
+		assertEquals(erwartet.getIndex(), akkumulator.getSumme().getIndex(),
+				0.0);
+		assertSame(erwartet.getVerfahren(), akkumulator.getSumme()
+				.getVerfahren());
+	}
+
+	/**
+	 * Ein unterschiedliches Verfahren vor dem ersten nicht verrechenbaren
+	 * Wert fuehrt wie in {@link GueteVerfahren} zu einer Ausnahme, auch wenn
+	 * beide in verschiedenen Bloecken liegen.
+	 */
+	@Test
+	public void testUnterschiedlichesVerfahrenVorNichtVerrechenbarem() {
+		werte[GueteParallel.BLOCK_GROESSE + 1] = TestVerfahren
+				.getZweitesStandard().getGWert(5000);
+		werte[ANZAHL - 1] = GueteVerfahren.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR;
+
+		try {
+			GueteVerfahren.summe(werte);
+			fail("GueteVerfahren.summe");
+		} catch (final GueteException e) {
+			assertSame(GueteException.UNTERSCHIEDLICHE_VERFAHREN, e);
+		}
+		try {
+			GueteParallel.akkumuliere(pool, werte);
+			fail("GueteParallel.akkumuliere");
+		} catch (final GueteException e) {
+			assertSame(GueteException.UNTERSCHIEDLICHE_VERFAHREN, e);
+		}
+	}
+
+	/**
+	 * Das Ergebnis haengt nicht von der Anzahl der Threads ab.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testUnabhaengigVonThreads() throws GueteException {
+		final double[] indizes = new double[ANZAHL];
+		final double[] gewichte = new double[ANZAHL];
+		for (int i = 0; i < ANZAHL; i++) {
+			indizes[i] = werte[i].getIndex();
+			gewichte[i] = 1.0 + i % 7;
+		}
+
+		final double summe = GueteParallel.akkumuliere(new ForkJoinPool(1),
+				indizes, gewichte, 0, ANZAHL).getSummenIndex();
+		assertEquals(summe, GueteParallel.akkumuliere(pool, indizes,
+				gewichte, 0, ANZAHL).getSummenIndex(), 0.0);
+		assertEquals(GueteRechner.summe(0, indizes, gewichte, 0, ANZAHL),
+				summe, 1e-12);
+
+		final GWert[] kurz = Arrays.copyOf(werte, 1000);
+		assertEquals(GueteVerfahren.summe(kurz),
+				GueteParallel.akkumuliere(pool, kurz).getSumme());
+	}
+
+}
@@ -0,0 +1,89 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNull;
+
+import org.junit.Test;
+
+/**
+ * Tests fuer {@link GueteSchreiber} und {@link GueteGepackt#packe(GWert)}
+ * mit Guetewerten, die aus einem DAV-Datum gelesen und noch nicht dekodiert
+ * wurden.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GueteSchreiberTest {
+
+	/**
+	 * Ein Code, unter dem kein Verfahren registriert ist.
+	 */
+	private static final int UNBEKANNT = 254;
+
+	/**
+	 * Der Name des Attributs.
+	 */
+	private static final String ATTRIBUT = "qKfz"; //$NON-NLS-1$
+
+	/**
+	 * Ein durchgereichter Guetewert mit unbekanntem Verfahren wird
+	 * unveraendert geschrieben.
+	 */
+	@Test
+	public void testSchreibeUnbekanntesVerfahren() {
+		assertNull(GueteVerfahren.getZustand(UNBEKANNT));
+		final GWert wert = new GWert(DatenAttrappe.erzeuge(ATTRIBUT)
+				.setzeGuete(ATTRIBUT, 8765, UNBEKANNT), ATTRIBUT);
+
+		final DatenAttrappe ziel = DatenAttrappe.erzeuge(ATTRIBUT);
+		new GueteSchreiber(ATTRIBUT).schreibe(ziel, new GWert[] { wert }, 0);
+		final DatenAttrappe guete = ziel.getItem(ATTRIBUT).getItem(
+				GueteLeser.GUETE);
+		assertEquals(8765, guete.getUnscaledValue(GueteLeser.INDEX)
+				.longValue());
+		assertEquals(UNBEKANNT, guete.getUnscaledValue(GueteLeser.VERFAHREN)
+				.intValue());
+	}
+
+	/**
+	 * Ein durchgereichter Guetewert mit unbekanntem Verfahren wird mit dem
+	 * Code aus dem DAV-Datum gepackt.
+	 */
+	@Test
+	public void testPackeUnbekanntesVerfahren() {
+		final GWert wert = new GWert(DatenAttrappe.erzeuge(ATTRIBUT)
+				.setzeGuete(ATTRIBUT, 8765, UNBEKANNT), ATTRIBUT);
+		final long gepackt = GueteGepackt.packe(wert);
+		assertEquals(8765, GueteGepackt.getIndexUnskaliert(gepackt));
+		assertEquals(UNBEKANNT, GueteGepackt.getVerfahren(gepackt));
+		assertEquals(1.0, GueteGepackt.getGewichtung(gepackt), 0.0);
+	}
+
+}
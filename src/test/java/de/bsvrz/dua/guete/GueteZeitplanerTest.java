@@ -0,0 +1,305 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.ArrayList;
+import java.util.Arrays;
+import java.util.Collections;
+import java.util.List;
+import java.util.concurrent.CountDownLatch;
+import java.util.concurrent.TimeUnit;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests fuer {@link GueteZeitplaner}.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GueteZeitplanerTest {
+
+	/**
+	 * Eine Frist, die in den Tests nicht erreicht wird.
+	 */
+	private static final long REICHLICH = TimeUnit.SECONDS.toNanos(30);
+
+	/**
+	 * Eine Frist, die in den Tests ueberschritten wird.
+	 */
+	private static final long KNAPP = TimeUnit.MILLISECONDS.toNanos(200);
+
+	/**
+	 * Der Zeitplaner.
+	 */
+	private GueteZeitplaner zeitplaner;
+
+	/**
+	 * Haelt blockierende Berechnungen bis zum Ende des Tests auf.
+	 */
+	private CountDownLatch sperre;
+
+	/**
+	 * Legt den Zeitplaner an.
+	 */
+	@Before
+	public void setUp() {
+		zeitplaner = new GueteZeitplaner(4);
+		sperre = new CountDownLatch(1);
+	}
+
+	/**
+	 * Gibt blockierende Berechnungen frei und beendet den Zeitplaner.
+	 */
+	@After
+	public void tearDown() {
+		sperre.countDown();
+		zeitplaner.close();
+	}
+
+	/**
+	 * Rechtzeitig abgeschlossene Berechnungen liefern ihr Ergebnis und einen
+	 * positiven Schlupf.
+	 *
+	 * @throws InterruptedException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testRechtzeitig() throws InterruptedException {
+		pruefeRechtzeitig(zeitplaner);
+	}
+
+	/**
+	 * Mit virtuellen Threads (bzw. dem Pool fester Groesse vor Java 21)
+	 * verhaelt sich der Zeitplaner genauso.
+	 *
+	 * @throws InterruptedException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testVirtuelleThreads() throws InterruptedException {
+		try (GueteZeitplaner virtuell = GueteZeitplaner
+				.mitVirtuellenThreads(4)) {
+			assertEquals(4, virtuell.getParallelitaet());
+			pruefeRechtzeitig(virtuell);
+		}
+	}
+
+	/**
+	 * Berechnungen, die ihre Frist ueberschreiten, halten das Intervall
+	 * nicht auf und liefern den nicht ermittelbaren Guetewert; Ausnahmen
+	 * werden gezaehlt.
+	 *
+	 * @throws InterruptedException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testUeberschreitung() throws InterruptedException {
+		final long beginn = System.nanoTime();
+		final GueteZeitplaner.Intervall intervall = zeitplaner
+				.neuesIntervall(beginn + KNAPP);
+		final GWert wert = GueteVerfahren.STANDARD.getGWert(8000);
+		final int blockiert = intervall.plane(() -> {
+			warte(sperre, REICHLICH);
+			return wert;
+		}, 0);
+		final int frueh = intervall.plane(() -> {
+			warte(new CountDownLatch(1), KNAPP / 2);
+			return wert;
+		}, beginn + KNAPP / 4, 0);
+		final int fehler = intervall.plane(() -> {
+			throw new GueteException("Testfehler"); //$NON-NLS-1$
+		}, 0);
+		final int fertig = intervall.plane(() -> wert, 0);
+
+		intervall.berechne();
+		// die blockierte Berechnung haelt das Intervall nicht auf
+		assertTrue(System.nanoTime() - beginn < KNAPP
+				+ TimeUnit.SECONDS.toNanos(2));
+		assertEquals(GueteZeitplaner.UEBERSCHRITTEN, intervall
+				.getStatus(blockiert));
+		assertEquals(GueteZeitplaner.UEBERSCHRITTEN, intervall.getStatus(frueh));
+		assertEquals(GueteZeitplaner.FEHLER, intervall.getStatus(fehler));
+		assertEquals(GueteZeitplaner.FERTIG, intervall.getStatus(fertig));
+		assertEquals(2, intervall.getUeberschreitungen());
+		assertEquals(1, intervall.getFehler());
+		assertSame(GueteVerfahren.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR,
+				intervall.getWert(blockiert));
+		assertSame(GueteVerfahren.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR,
+				intervall.getWert(frueh));
+		assertSame(GueteVerfahren.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR,
+				intervall.getWert(fehler));
+		assertSame(wert, intervall.getWert(fertig));
+
+		// ein spaet eintreffendes Ergebnis wird verworfen
+		sperre.countDown();
+		Thread.sleep(50);
+		assertEquals(GueteZeitplaner.UEBERSCHRITTEN, intervall
+				.getStatus(blockiert));
+	}
+
+	/**
+	 * Die Berechnungen werden nach aufsteigender Frist und bei gleicher
+	 * Frist nach absteigender Prioritaet abgearbeitet; Fristen nach der des
+	 * Intervalls werden auf diese begrenzt.
+	 *
+	 * @throws InterruptedException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testReihenfolge() throws InterruptedException {
+		try (GueteZeitplaner einzeln = new GueteZeitplaner(1)) {
+			final long frist = System.nanoTime() + REICHLICH;
+			final GueteZeitplaner.Intervall intervall = einzeln
+					.neuesIntervall(frist);
+			final List<Integer> reihenfolge = Collections
+					.synchronizedList(new ArrayList<Integer>());
+			final long[] fristen = { frist, frist - 2, frist, frist - 1,
+					frist + REICHLICH, frist };
+			final int[] prioritaeten = { 1, 0, 5, 0, 9, 1 };
+			for (int i = 0; i < fristen.length; i++) {
+				final int nummer = i;
+				assertEquals(i, intervall.plane(() -> {
+					reihenfolge.add(nummer);
+					return GueteVerfahren.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR;
+				}, fristen[i], prioritaeten[i]));
+			}
+			assertEquals(fristen.length, intervall.getAnzahl());
+			intervall.berechne();
+			assertEquals(Arrays.asList(1, 3, 4, 2, 0, 5), reihenfolge);
+		}
+	}
+
+	/**
+	 * Ein leeres Intervall ist sofort berechnet.
+	 *
+	 * @throws InterruptedException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testLeer() throws InterruptedException {
+		final GueteZeitplaner.Intervall intervall = zeitplaner
+				.neuesIntervall(System.nanoTime() + REICHLICH);
+		final long beginn = System.nanoTime();
+		intervall.berechne();
+		assertTrue(System.nanoTime() - beginn < KNAPP);
+		assertEquals(0, intervall.getUeberschreitungen());
+		assertEquals(Long.MAX_VALUE, intervall.getSchlupf());
+	}
+
+	/**
+	 * Ungueltige Argumente werden abgewiesen.
+	 */
+	@Test
+	public void testUngueltig() {
+		try {
+			new GueteZeitplaner(0).close();
+			fail();
+		} catch (final IllegalArgumentException e) {
+			// erwartet
+		}
+		try {
+			zeitplaner.neuesIntervall(System.nanoTime()).plane(null, 0);
+			fail();
+		} catch (final IllegalArgumentException e) {
+			// erwartet
+		}
+	}
+
+	/**
+	 * Wartet in einer Berechnung auf die Freigabe, hoechstens aber die
+	 * angegebene Zeit.
+	 *
+	 * @param freigabe
+	 *            die Freigabe
+	 * @param dauer
+	 *            die maximale Wartezeit in Nanosekunden
+	 */
+	private static void warte(final CountDownLatch freigabe, final long dauer) {
+		try {
+			freigabe.await(dauer, TimeUnit.NANOSECONDS);
+		} catch (final InterruptedException e) {
+			// der Zeitplaner wird beendet
+			Thread.currentThread().interrupt();
+		}
+	}
+
+	/**
+	 * Berechnet ein Intervall mit vielen schnellen Berechnungen und prueft
+	 * Ergebnisse und Kennzahlen.
+	 *
+	 * @param planer
+	 *            der Zeitplaner
+	 * @throws InterruptedException
+	 *             wird nicht erwartet
+	 */
+	private static void pruefeRechtzeitig(final GueteZeitplaner planer)
+			throws InterruptedException {
+		final long frist = System.nanoTime() + REICHLICH;
+		final GueteZeitplaner.Intervall intervall = planer
+				.neuesIntervall(frist);
+		assertEquals(frist, intervall.getFrist());
+		final GWert a = GueteVerfahren.STANDARD.getGWert(8000);
+		final GWert b = GueteVerfahren.STANDARD.getGWert(6000);
+		for (int i = 0; i < 1000; i++) {
+			intervall.plane(() -> GueteVerfahren.summe(a, b), i % 5);
+		}
+		assertEquals(GueteZeitplaner.OFFEN, intervall.getStatus(0));
+
+		intervall.berechne();
+		for (int i = 0; i < 1000; i++) {
+			assertEquals(GueteZeitplaner.FERTIG, intervall.getStatus(i));
+			assertEquals(0.7, intervall.getWert(i).getIndex(), 1e-15);
+		}
+		assertEquals(0, intervall.getUeberschreitungen());
+		assertEquals(0, intervall.getFehler());
+		assertTrue(intervall.getSchlupf() > 0);
+		assertTrue(intervall.getSchlupf() <= REICHLICH);
+
+		try {
+			intervall.berechne();
+			fail();
+		} catch (final IllegalStateException e) {
+			// erwartet
+		}
+		try {
+			intervall.plane(() -> a, 0);
+			fail();
+		} catch (final IllegalStateException e) {
+			// erwartet
+		}
+	}
+
+}
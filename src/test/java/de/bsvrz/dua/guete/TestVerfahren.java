@@ -0,0 +1,108 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete;
+
+import de.bsvrz.dua.guete.vorschriften.Festkomma;
+import de.bsvrz.dua.guete.vorschriften.IGuete;
+import de.bsvrz.dua.guete.vorschriften.Standard;
+
+/**
+ * Gueteverfahren fuer Tests. Da sich Gueteverfahren nicht wieder abmelden
+ * lassen, werden sie hier fuer alle Tests einer JVM nur einmal registriert.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public final class TestVerfahren {
+
+	/**
+	 * Code eines zweiten Verfahrens nach der Standard-Vorschrift.
+	 */
+	public static final int ZWEITES_STANDARD = 200;
+
+	/**
+	 * Code eines Verfahrens nach der Festkomma-Vorschrift.
+	 */
+	public static final int FESTKOMMA = 203;
+
+	/**
+	 * Standardkonstruktor.
+	 */
+	private TestVerfahren() {
+		// keine Instanzen
+	}
+
+	/**
+	 * Erfragt ein zweites Verfahren nach der Standard-Vorschrift, z.B. um
+	 * unterschiedliche Verfahren zu pruefen.
+	 *
+	 * @return das Verfahren
+	 */
+	public static GueteVerfahren getZweitesStandard() {
+		return registriere("Zweites Standard", ZWEITES_STANDARD, //$NON-NLS-1$
+				new Standard());
+	}
+
+	/**
+	 * Erfragt ein Verfahren nach der Festkomma-Vorschrift.
+	 *
+	 * @return das Verfahren
+	 */
+	public static GueteVerfahren getFestkomma() {
+		return registriere("Festkomma", FESTKOMMA, new Festkomma()); //$NON-NLS-1$
+	}
+
+	/**
+	 * Registriert ein Gueteverfahren, wenn der Code noch nicht belegt ist.
+	 *
+	 * @param name
+	 *            der Name des Verfahrens
+	 * @param code
+	 *            der Code des Verfahrens
+	 * @param vorschrift
+	 *            die Berechnungsvorschrift
+	 * @return das unter dem Code registrierte Verfahren
+	 * @throws IllegalStateException
+	 *             wenn der Code bereits mit einer Vorschrift einer anderen
+	 *             Klasse belegt ist
+	 */
+	public static synchronized GueteVerfahren registriere(final String name,
+			final int code, final IGuete vorschrift) {
+		final GueteVerfahren verfahren = GueteVerfahren.getZustand(code);
+		if (verfahren == null) {
+			return GueteVerfahren.registriere(name, code, vorschrift);
+		}
+		if (verfahren.getBerechnungsVorschrift().getClass() != vorschrift
+				.getClass()) {
+			throw new IllegalStateException("Der Code " + code //$NON-NLS-1$
+					+ " ist bereits durch " + verfahren + " belegt"); //$NON-NLS-1$ //$NON-NLS-2$
+		}
+		return verfahren;
+	}
+
+}
@@ -0,0 +1,178 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete.formel;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotEquals;
+import static org.junit.Assert.assertTrue;
+import static org.junit.Assert.fail;
+
+import java.util.Arrays;
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.bsvrz.dua.guete.GWert;
+import de.bsvrz.dua.guete.GueteException;
+import de.bsvrz.dua.guete.GueteIndex;
+import de.bsvrz.dua.guete.GueteVerfahren;
+
+/**
+ * Tests fuer {@link GueteFormel}.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GueteFormelTest {
+
+	/**
+	 * Das Verfahren fuer alle Tests.
+	 */
+	private static final GueteVerfahren STANDARD = GueteVerfahren.STANDARD;
+
+	/**
+	 * Eine Formel liefert dieselben Indizes wie die verschachtelten Aufrufe
+	 * von {@link GueteVerfahren}, auch wenn einzelne Variablen auf einem
+	 * Zustand stehen.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testWieGueteVerfahren() throws GueteException {
+		final GueteFormel formel = new GueteFormel(
+				" produkt( summe(a, b:2.5), exp(c, 0.5), d(a, c), q(b) ) "); //$NON-NLS-1$
+		assertEquals(Arrays.asList("a", "b", "c"), formel.getVariablen()); //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+
+		final Random zufall = new Random(5);
+		final double[] indizes = new double[3];
+		final GWert[] werte = new GWert[3];
+		int zustaende = 0;
+		for (int k = 0; k < 5000; k++) {
+			for (int i = 0; i < 3; i++) {
+				final long index = zufall.nextInt(20) == 0 ? GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT
+						: zufall.nextInt(10001);
+				werte[i] = STANDARD.getGWert(index);
+				indizes[i] = GueteIndex.skaliere(index);
+			}
+			final GWert erwartet = GueteVerfahren.produkt(GueteVerfahren
+					.summe(werte[0], GueteVerfahren.gewichte(werte[1], 2.5)),
+					GueteVerfahren.exp(werte[2], 0.5), GueteVerfahren
+							.differenz(werte[0], werte[2]), GueteVerfahren
+							.quotient(werte[1]));
+			final double index = formel.berechne(STANDARD, indizes);
+			assertEquals(erwartet.getIndex(), index, 0.0);
+			if (Double.isNaN(index)) {
+				zustaende++;
+			}
+		}
+		assertTrue(zustaende > 0);
+	}
+
+	/**
+	 * Ein nicht verrechenbarer Index macht jede Funktion, in die er eingeht,
+	 * nicht verrechenbar; gewichtet wie ungewichtet.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testNichtVerrechenbar() throws GueteException {
+		final GWert zustand = GueteVerfahren.STD_FEHLERHAFT_BZW_NICHT_ERMITTELBAR;
+		final GWert gut = STANDARD.getGWert(8000);
+		final double[] indizes = { Double.NaN, 0.8 };
+
+		final String[] formeln = { "p(a, b)", "q(b, a)", "s(a, b)", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				"d(b, a)", "sw(a:2, b)", "dw(b:0.5, a:3)", "e(a, 2)", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$
+				"s(p(b, b), e(a, 0.5))" }; //$NON-NLS-1$
+		final GWert[] erwartet = {
+				GueteVerfahren.produkt(zustand, gut),
+				GueteVerfahren.quotient(gut, zustand),
+				GueteVerfahren.summe(zustand, gut),
+				GueteVerfahren.differenz(gut, zustand),
+				GueteVerfahren.summe(GueteVerfahren.gewichte(zustand, 2),
+						gut),
+				GueteVerfahren.differenz(GueteVerfahren.gewichte(gut, 0.5),
+						GueteVerfahren.gewichte(zustand, 3)),
+				GueteVerfahren.exp(zustand, 2),
+				GueteVerfahren.summe(GueteVerfahren.produkt(gut, gut),
+						GueteVerfahren.exp(zustand, 0.5)) };
+		for (int i = 0; i < formeln.length; i++) {
+			final double index = new GueteFormel(formeln[i]).berechne(
+					STANDARD, indizes);
+			assertTrue(formeln[i], Double.isNaN(index));
+			assertEquals(formeln[i], erwartet[i].getIndex(), index, 0.0);
+		}
+	}
+
+	/**
+	 * Die Indizes koennen ab einer beliebigen Position eines Feldes stehen.
+	 */
+	@Test
+	public void testOffset() {
+		final GueteFormel formel = new GueteFormel("sw(x:1, p(y, x):-2e-1)"); //$NON-NLS-1$
+		assertEquals(0, formel.getSlot("x")); //$NON-NLS-1$
+		assertEquals(1, formel.getSlot("y")); //$NON-NLS-1$
+		assertEquals(-1, formel.getSlot("z")); //$NON-NLS-1$
+
+		final double erwartet = formel.berechne(STANDARD, 0.5, 0.25);
+		assertEquals((0.5 + 0.2 * 0.125) / 1.2, erwartet, 1e-15);
+		assertEquals(erwartet, formel.berechne(STANDARD.getCode(),
+				new double[] { 0.0, 0.0, 0.5, 0.25 }, 2), 0.0);
+	}
+
+	/**
+	 * Formeln mit demselben Programm sind gleich.
+	 */
+	@Test
+	public void testGleichheit() {
+		final GueteFormel formel = new GueteFormel("p(a, s(b, c:2))"); //$NON-NLS-1$
+		final GueteFormel gleich = new GueteFormel(" produkt ( a,summe(b,c:2.0))"); //$NON-NLS-1$
+		assertEquals(formel, gleich);
+		assertEquals(formel.hashCode(), gleich.hashCode());
+		assertNotEquals(formel, new GueteFormel("p(a, s(b, c:3))")); //$NON-NLS-1$
+		assertNotEquals(formel, new GueteFormel("p(b, s(a, c:2))")); //$NON-NLS-1$
+	}
+
+	/**
+	 * Syntaktisch falsche Formeln werden abgewiesen.
+	 */
+	@Test
+	public void testSyntaxFehler() {
+		for (final String quelltext : new String[] { "", "p(", "p()", //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$
+				"x(a)", "p(a:2)", "e(a)", "s(a,b) c", "e(a, x)" }) { //$NON-NLS-1$ //$NON-NLS-2$ //$NON-NLS-3$ //$NON-NLS-4$ //$NON-NLS-5$
+			try {
+				new GueteFormel(quelltext);
+				fail(quelltext);
+			} catch (final IllegalArgumentException e) {
+				// erwartet
+			}
+		}
+	}
+
+}
@@ -0,0 +1,496 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete.historie;
+
+import static org.junit.Assert.assertArrayEquals;
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertFalse;
+import static org.junit.Assert.assertNull;
+import static org.junit.Assert.assertTrue;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.file.Files;
+import java.nio.file.StandardCopyOption;
+import java.util.Arrays;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+import de.bsvrz.dua.guete.DatenAttrappe;
+import de.bsvrz.dua.guete.GWert;
+import de.bsvrz.dua.guete.GueteAkkumulator;
+import de.bsvrz.dua.guete.GueteException;
+import de.bsvrz.dua.guete.GueteGepackt;
+import de.bsvrz.dua.guete.GueteIndex;
+import de.bsvrz.dua.guete.GueteVerfahren;
+
+/**
+ * Tests fuer {@link GueteHistorie}.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class GueteHistorieTest {
+
+	/**
+	 * Der Name der Historie.
+	 */
+	private static final String NAME = "historie"; //$NON-NLS-1$
+
+	/**
+	 * Das Verzeichnis der Spaltendateien.
+	 */
+	private File verzeichnis;
+
+	/**
+	 * Die Zeitstempel der angehaengten Werte.
+	 */
+	private long[] zeitStempel = new long[0];
+
+	/**
+	 * Die angehaengten Werte, gepackt nach {@link GueteGepackt}.
+	 */
+	private long[] gepackt = new long[0];
+
+	/**
+	 * Legt ein leeres Verzeichnis an.
+	 *
+	 * @throws IOException
+	 *             wenn das Verzeichnis nicht angelegt werden kann
+	 */
+	@Before
+	public void setUp() throws IOException {
+		verzeichnis = Files.createTempDirectory("guete-historie").toFile(); //$NON-NLS-1$
+	}
+
+	/**
+	 * Loescht das Verzeichnis.
+	 */
+	@After
+	public void tearDown() {
+		for (final File datei : verzeichnis.listFiles()) {
+			datei.delete();
+		}
+		verzeichnis.delete();
+	}
+
+	/**
+	 * Werte an den Grenzen von Zeit- und Guete-Laeufen werden korrekt
+	 * gespeichert und gelesen, auch ueber ein erneutes Oeffnen hinweg.
+	 *
+	 * @throws IOException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testLaufGrenzen() throws IOException {
+		try (GueteHistorie historie = oeffne()) {
+			// konstanter Abstand und gleiche Guete: je ein Lauf
+			for (int i = 0; i < 10; i++) {
+				anhaengen(historie, 60000L * i, 9000, 0);
+			}
+			// Abstand aendert sich, Guete bleibt
+			anhaengen(historie, 600001, 9000, 0);
+			anhaengen(historie, 600002, 9000, 0);
+			// Guete aendert sich, Abstand bleibt
+			anhaengen(historie, 600003, 8000, 0);
+			anhaengen(historie, 600004,
+					GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT, 0);
+			// Wert ausserhalb von short
+			anhaengen(historie, 700000, 40000, 0);
+			pruefe(historie);
+		}
+
+		try (GueteHistorie historie = oeffne()) {
+			pruefe(historie);
+			anhaengen(historie, 700001, 7000, 0);
+			anhaengen(historie, 700002, 7000, 0);
+			pruefe(historie);
+		}
+	}
+
+	/**
+	 * Zeitstempel muessen streng monoton steigen.
+	 *
+	 * @throws IOException
+	 *             wird nicht erwartet
+	 */
+	@Test(expected = IllegalArgumentException.class)
+	public void testZeitstempelNichtSteigend() throws IOException {
+		try (GueteHistorie historie = oeffne()) {
+			historie.anhaengen(1000, 5000, 0);
+			historie.anhaengen(1000, 5000, 0);
+		}
+	}
+
+	/**
+	 * Unterschiedlich weit geschriebene Spaltendateien werden beim Oeffnen
+	 * auf den gemeinsamen Stand gekuerzt; danach kann weiter angehaengt
+	 * werden.
+	 *
+	 * @throws IOException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testKuerzenNachAbsturz() throws IOException {
+		final File zeitDatei = new File(verzeichnis, NAME + ".zeit"); //$NON-NLS-1$
+		final File gueteDatei = new File(verzeichnis, NAME + ".guete"); //$NON-NLS-1$
+		final File zeitKopie = new File(verzeichnis, "kopie.zeit"); //$NON-NLS-1$
+		final File gueteKopie = new File(verzeichnis, "kopie.guete"); //$NON-NLS-1$
+
+		try (GueteHistorie historie = oeffne()) {
+			for (int i = 0; i < 20; i++) {
+				anhaengen(historie, 1000L * i, 5000 + 100 * (i / 3), 0);
+			}
+		}
+		Files.copy(zeitDatei.toPath(), zeitKopie.toPath());
+		Files.copy(gueteDatei.toPath(), gueteKopie.toPath());
+		final long[] zeitStempel20 = zeitStempel.clone();
+		final long[] gepackt20 = gepackt.clone();
+
+		try (GueteHistorie historie = oeffne()) {
+			for (int i = 20; i < 30; i++) {
+				anhaengen(historie, 1000L * i + 7 * (i % 2), 9000 - i, 0);
+			}
+		}
+
+		// Guete-Spalte weiter geschrieben als die Zeit-Spalte
+		Files.copy(zeitKopie.toPath(), zeitDatei.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		zeitStempel = zeitStempel20.clone();
+		gepackt = gepackt20.clone();
+		try (GueteHistorie historie = oeffne()) {
+			pruefe(historie);
+			anhaengen(historie, 50000, 1234, 0);
+			anhaengen(historie, 51000, 1234, 0);
+			pruefe(historie);
+		}
+		try (GueteHistorie historie = oeffne()) {
+			pruefe(historie);
+		}
+
+		// Zeit-Spalte weiter geschrieben als die Guete-Spalte
+		Files.copy(gueteKopie.toPath(), gueteDatei.toPath(),
+				StandardCopyOption.REPLACE_EXISTING);
+		zeitStempel = zeitStempel20.clone();
+		gepackt = gepackt20.clone();
+		try (GueteHistorie historie = oeffne()) {
+			pruefe(historie);
+			anhaengen(historie, 60000, 4321, 0);
+			pruefe(historie);
+		}
+	}
+
+	/**
+	 * Zaehlt der Dateikopf nach einem Absturz einen Lauf, dessen Inhalt
+	 * nicht mehr auf den Datentraeger gelangt ist, wird nur dieser Lauf
+	 * verworfen und die uebrige Historie bleibt erhalten.
+	 *
+	 * @throws IOException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testUngeschriebenerLaufNachAbsturz() throws IOException {
+		try (GueteHistorie historie = oeffne()) {
+			for (int i = 0; i < 20; i++) {
+				anhaengen(historie, 1000L * i + (i % 3), 5000 + 100 * (i / 3),
+						0);
+			}
+		}
+
+		for (final String endung : new String[] { ".zeit", ".guete" }) { //$NON-NLS-1$ //$NON-NLS-2$
+			final File datei = new File(verzeichnis, NAME + endung);
+			try (RandomAccessFile zugriff = new RandomAccessFile(datei, "rw")) { //$NON-NLS-1$
+				zugriff.seek(8);
+				final long laeufe = zugriff.readLong();
+				zugriff.seek(8);
+				zugriff.writeLong(laeufe + 1);
+			}
+			try (GueteHistorie historie = oeffne()) {
+				pruefe(historie);
+				anhaengen(historie, 100000 + zeitStempel.length, 1234, 0);
+				pruefe(historie);
+			}
+			try (GueteHistorie historie = oeffne()) {
+				pruefe(historie);
+			}
+		}
+
+		// ein Lauf, dessen Ende hinter dem Dateikopf zurueckbleibt
+		final File datei = new File(verzeichnis, NAME + ".guete"); //$NON-NLS-1$
+		try (RandomAccessFile zugriff = new RandomAccessFile(datei, "rw")) { //$NON-NLS-1$
+			zugriff.seek(8);
+			final long laeufe = zugriff.readLong();
+			zugriff.seek(8);
+			zugriff.writeLong(laeufe + 1);
+			// Index und Verfahren geschrieben, das Ende (0) noch nicht
+			zugriff.seek(Spalte.KOPF + laeufe * 8);
+			zugriff.writeShort(4321);
+			zugriff.writeShort(0);
+		}
+		try (GueteHistorie historie = oeffne()) {
+			pruefe(historie);
+		}
+	}
+
+	/**
+	 * Guetewerte werden mit dem Code ihres Verfahrens gespeichert, auch wenn
+	 * sie aus einem DAV-Datum mit einem nicht registrierten Verfahren gelesen
+	 * und noch nicht dekodiert wurden.
+	 *
+	 * @throws IOException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testAnhaengenGWert() throws IOException {
+		final int unbekannt = 254;
+		final String attribut = "qKfz"; //$NON-NLS-1$
+		assertNull(GueteVerfahren.getZustand(unbekannt));
+		final GWert durchgereicht = new GWert(DatenAttrappe.erzeuge(attribut)
+				.setzeGuete(attribut, 8765, unbekannt), attribut);
+
+		try (GueteHistorie historie = oeffne()) {
+			historie.anhaengen(1000, GueteVerfahren.STANDARD.getGWert(5000));
+			historie.anhaengen(2000, durchgereicht);
+			assertEquals(GueteGepackt.packe(5000, GueteVerfahren.STANDARD
+					.getCode(), 1.0), historie.getGepackt(0));
+			assertEquals(GueteGepackt.packe(8765, unbekannt, 1.0), historie
+					.getGepackt(1));
+		}
+	}
+
+	/**
+	 * <code>lese</code> und <code>summiere</code> liefern fuer beliebige
+	 * Bereiche dieselben Werte wie {@link GueteVerfahren#summe(GWert...)}.
+	 *
+	 * @throws IOException
+	 *             wird nicht erwartet
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testLeseUndSummiere() throws IOException, GueteException {
+		try (GueteHistorie historie = oeffne()) {
+			long zeit = 0;
+			for (int i = 0; i < 500; i++) {
+				zeit += i % 17 == 0 ? 1 + i : 60000;
+				if (i == 400) {
+					anhaengen(historie, zeit,
+							GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT, 0);
+				} else {
+					anhaengen(historie, zeit, 10000 - 100 * (i / 7 % 50), 0);
+				}
+			}
+
+			final int[][] bereiche = { { 0, 0 }, { 0, 1 }, { 0, 500 },
+					{ 3, 4 }, { 6, 8 }, { 13, 350 }, { 399, 400 },
+					{ 399, 401 }, { 401, 500 }, { 499, 500 } };
+			for (final int[] bereich : bereiche) {
+				final int von = bereich[0];
+				final int bis = bereich[1];
+				final long[] zeiten = new long[bis - von + 2];
+				final long[] werte = new long[bis - von + 2];
+				historie.lese(von, bis, zeiten, werte, 1);
+				assertArrayEquals(Arrays.copyOfRange(zeitStempel, von, bis),
+						Arrays.copyOfRange(zeiten, 1, bis - von + 1));
+				assertArrayEquals(Arrays.copyOfRange(gepackt, von, bis),
+						Arrays.copyOfRange(werte, 1, bis - von + 1));
+
+				final GWert[] gueten = new GWert[bis - von];
+				for (int i = von; i < bis; i++) {
+					gueten[i - von] = GueteGepackt.entpacke(gepackt[i]);
+				}
+				final GWert erwartet = GueteVerfahren.summe(gueten);
+
+				final GueteAkkumulator akkumulator = new GueteAkkumulator();
+				historie.summiere(von, bis, akkumulator);
+				pruefeSumme(erwartet, akkumulator);
+
+				akkumulator.zuruecksetzen();
+				historie.summiere(zeitStempel[von], bis == 500 ? zeit + 1
+						: zeitStempel[bis], akkumulator);
+				pruefeSumme(erwartet, akkumulator);
+			}
+
+			assertEquals(0, historie.getPosition(Long.MIN_VALUE));
+			assertEquals(500, historie.getPosition(zeit + 1));
+			for (int i = 0; i < 500; i++) {
+				assertEquals(i, historie.getPosition(zeitStempel[i]));
+				if (i > 0) {
+					assertEquals(i,
+							historie.getPosition(zeitStempel[i - 1] + 1));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Die Spaltendateien werden mindestens mit 64 KB abgebildet und beim
+	 * Ueberschreiten mit doppelter Groesse neu abgebildet, ohne Werte zu
+	 * verlieren.
+	 *
+	 * @throws IOException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testAbbildungWaechst() throws IOException {
+		final File zeitDatei = new File(verzeichnis, NAME + ".zeit"); //$NON-NLS-1$
+		final File gueteDatei = new File(verzeichnis, NAME + ".guete"); //$NON-NLS-1$
+
+		try (GueteHistorie historie = oeffne()) {
+			assertEquals(64 * 1024, zeitDatei.length());
+			assertEquals(64 * 1024, gueteDatei.length());
+
+			// jeder zweite Wert beginnt einen Zeit-Lauf, jeder Wert einen
+			// Guete-Lauf: 4095 Zeit-Laeufe bzw. 8190 Guete-Laeufe passen in
+			// die erste Abbildung
+			long zeit = 0;
+			for (int i = 0; i < 8190; i++) {
+				zeit += 1 + i % 2;
+				anhaengen(historie, zeit, i % 2 == 0 ? 5000 : 6000, 0);
+			}
+			assertEquals(64 * 1024, zeitDatei.length());
+			assertEquals(64 * 1024, gueteDatei.length());
+
+			// verlaengert den letzten Zeit-Lauf, beginnt einen Guete-Lauf
+			zeit += 2;
+			anhaengen(historie, zeit, 5000, 0);
+			assertEquals(64 * 1024, zeitDatei.length());
+			assertEquals(128 * 1024, gueteDatei.length());
+
+			// beginnt einen Zeit-Lauf, verlaengert den letzten Guete-Lauf
+			zeit += 3;
+			anhaengen(historie, zeit, 5000, 0);
+			assertEquals(128 * 1024, zeitDatei.length());
+			assertEquals(128 * 1024, gueteDatei.length());
+			pruefe(historie);
+		}
+
+		try (GueteHistorie historie = oeffne()) {
+			pruefe(historie);
+		}
+		assertEquals(128 * 1024, zeitDatei.length());
+		assertEquals(128 * 1024, gueteDatei.length());
+	}
+
+	/**
+	 * Dateien einer anderen Art werden nicht geoeffnet.
+	 *
+	 * @throws IOException
+	 *             wird erwartet
+	 */
+	@Test(expected = IOException.class)
+	public void testFalscheKennung() throws IOException {
+		Files.write(new File(verzeichnis, NAME + ".zeit").toPath(), //$NON-NLS-1$
+				new byte[Spalte.KOPF]);
+		oeffne().close();
+	}
+
+	/**
+	 * Oeffnet die Historie im Testverzeichnis.
+	 *
+	 * @return die Historie
+	 * @throws IOException
+	 *             wenn die Historie nicht geoeffnet werden kann
+	 */
+	private GueteHistorie oeffne() throws IOException {
+		return new GueteHistorie(verzeichnis, NAME);
+	}
+
+	/**
+	 * Haengt einen Wert an die Historie und an die erwarteten Werte an.
+	 *
+	 * @param historie
+	 *            die Historie
+	 * @param zeit
+	 *            der Zeitstempel
+	 * @param index
+	 *            der unskalierte Index
+	 * @param verfahren
+	 *            der Code des Verfahrens
+	 * @throws IOException
+	 *             wenn nicht angehaengt werden kann
+	 */
+	private void anhaengen(final GueteHistorie historie, final long zeit,
+			final long index, final int verfahren) throws IOException {
+		historie.anhaengen(zeit, index, verfahren);
+		final int anzahl = zeitStempel.length;
+		zeitStempel = Arrays.copyOf(zeitStempel, anzahl + 1);
+		gepackt = Arrays.copyOf(gepackt, anzahl + 1);
+		zeitStempel[anzahl] = zeit;
+		long gespeichert = index;
+		if (index < Short.MIN_VALUE || index > Short.MAX_VALUE) {
+			gespeichert = GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT;
+		}
+		gepackt[anzahl] = GueteGepackt.packe(gespeichert, verfahren, 1.0);
+	}
+
+	/**
+	 * Vergleicht den gesamten Inhalt der Historie mit den erwarteten Werten.
+	 *
+	 * @param historie
+	 *            die Historie
+	 */
+	private void pruefe(final GueteHistorie historie) {
+		final int anzahl = zeitStempel.length;
+		assertEquals(anzahl, historie.getAnzahl());
+		final long[] zeiten = new long[anzahl];
+		final long[] werte = new long[anzahl];
+		historie.lese(0, anzahl, zeiten, werte, 0);
+		assertArrayEquals(zeitStempel, zeiten);
+		assertArrayEquals(gepackt, werte);
+		for (int i = 0; i < anzahl; i++) {
+			assertEquals(zeitStempel[i], historie.getZeitStempel(i));
+			assertEquals(gepackt[i], historie.getGepackt(i));
+		}
+	}
+
+	/**
+	 * Vergleicht die Summe eines Akkumulators mit einer erwarteten
+	 * Gesamt-Guete.
+	 *
+	 * @param erwartet
+	 *            die erwartete Gesamt-Guete
+	 * @param akkumulator
+	 *            der Akkumulator
+	 */
+	private static void pruefeSumme(final GWert erwartet,
+			final GueteAkkumulator akkumulator) {
+		final GWert summe = akkumulator.getSumme();
+		if (Double.isNaN(erwartet.getIndex())) {
+			assertFalse(akkumulator.isVerrechenbar());
+			assertTrue(Double.isNaN(summe.getIndex()));
+		} else {
+			assertEquals(erwartet.getIndex(), summe.getIndex(), 0.0);
+		}
+		assertEquals(erwartet.getIndexUnskaliert(), summe.getIndexUnskaliert());
+	}
+
+}
@@ -0,0 +1,195 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete.historie;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertNotSame;
+import static org.junit.Assert.assertSame;
+import static org.junit.Assert.fail;
+
+import java.io.File;
+import java.io.IOException;
+import java.io.RandomAccessFile;
+import java.nio.MappedByteBuffer;
+import java.nio.file.Files;
+
+import org.junit.After;
+import org.junit.Before;
+import org.junit.Test;
+
+/**
+ * Tests fuer {@link Spalte}.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class SpalteTest {
+
+	/**
+	 * Kennung der Testspalten.
+	 */
+	private static final int KENNUNG = 0x54455354;
+
+	/**
+	 * Laenge eines Laufs der Testspalten.
+	 */
+	private static final int SATZ = 32;
+
+	/**
+	 * Die Spaltendatei.
+	 */
+	private File datei;
+
+	/**
+	 * Legt eine temporaere Datei an und loescht sie wieder, so dass die
+	 * Spalte neu angelegt wird.
+	 *
+	 * @throws IOException
+	 *             wenn die Datei nicht angelegt werden kann
+	 */
+	@Before
+	public void setUp() throws IOException {
+		datei = File.createTempFile("spalte", ".test"); //$NON-NLS-1$ //$NON-NLS-2$
+		datei.delete();
+	}
+
+	/**
+	 * Loescht die Spaltendatei.
+	 */
+	@After
+	public void tearDown() {
+		datei.delete();
+	}
+
+	/**
+	 * Eine neue Spalte wird mit 64 KB abgebildet und beim Ueberschreiten mit
+	 * doppelter Groesse neu abgebildet; Laeufe bleiben dabei und nach dem
+	 * erneuten Oeffnen erhalten.
+	 *
+	 * @throws IOException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testAbbildung() throws IOException {
+		final int passend = (64 * 1024 - Spalte.KOPF) / SATZ;
+		try (Spalte spalte = new Spalte(datei, KENNUNG, SATZ)) {
+			assertEquals(0, spalte.getLaeufe());
+			assertEquals(64 * 1024, spalte.getPuffer().capacity());
+			assertEquals(64 * 1024, datei.length());
+
+			final MappedByteBuffer erste = spalte.getPuffer();
+			for (int i = 0; i < passend; i++) {
+				final int adresse = spalte.neuerLauf();
+				assertEquals(Spalte.KOPF + i * SATZ, adresse);
+				spalte.getPuffer().putInt(adresse, i);
+				spalte.uebernehmeLauf();
+			}
+			assertSame(erste, spalte.getPuffer());
+
+			spalte.getPuffer().putInt(spalte.neuerLauf(), passend);
+			spalte.uebernehmeLauf();
+			assertNotSame(erste, spalte.getPuffer());
+			assertEquals(128 * 1024, spalte.getPuffer().capacity());
+			assertEquals(128 * 1024, datei.length());
+			for (int i = 0; i <= passend; i++) {
+				assertEquals(i, spalte.getPuffer().getInt(spalte.getAdresse(i)));
+			}
+
+			spalte.entferneLetztenLauf();
+			assertEquals(passend, spalte.getLaeufe());
+		}
+
+		try (Spalte spalte = new Spalte(datei, KENNUNG, SATZ)) {
+			assertEquals(passend, spalte.getLaeufe());
+			assertEquals(128 * 1024, spalte.getPuffer().capacity());
+			assertEquals(passend - 1, spalte.getPuffer().getInt(
+					spalte.getAdresse(passend - 1)));
+		}
+	}
+
+	/**
+	 * Ein bereitgestellter Lauf zaehlt erst nach der Uebernahme, auch nicht
+	 * im Dateikopf.
+	 *
+	 * @throws IOException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testLaufErstNachUebernahme() throws IOException {
+		try (Spalte spalte = new Spalte(datei, KENNUNG, SATZ)) {
+			spalte.getPuffer().putInt(spalte.neuerLauf(), 1);
+			spalte.uebernehmeLauf();
+			final int adresse = spalte.neuerLauf();
+			assertEquals(spalte.getAdresse(1), adresse);
+			assertEquals(1, spalte.getLaeufe());
+			// Absturz, bevor der Lauf geschrieben und uebernommen wurde
+		}
+		try (Spalte spalte = new Spalte(datei, KENNUNG, SATZ)) {
+			assertEquals(1, spalte.getLaeufe());
+			assertEquals(spalte.getAdresse(1), spalte.neuerLauf());
+		}
+	}
+
+	/**
+	 * Dateien mit fremder Kennung oder zu grosser Anzahl von Laeufen werden
+	 * abgewiesen.
+	 *
+	 * @throws IOException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testUngueltig() throws IOException {
+		new Spalte(datei, KENNUNG, SATZ).close();
+		try {
+			new Spalte(datei, KENNUNG + 1, SATZ).close();
+			fail("fremde Kennung"); //$NON-NLS-1$
+		} catch (final IOException e) {
+			// erwartet
+		}
+
+		try (RandomAccessFile zugriff = new RandomAccessFile(datei, "rw")) { //$NON-NLS-1$
+			zugriff.seek(8);
+			zugriff.writeLong(64 * 1024 / SATZ);
+		}
+		try {
+			new Spalte(datei, KENNUNG, SATZ).close();
+			fail("zu viele Laeufe"); //$NON-NLS-1$
+		} catch (final IOException e) {
+			// erwartet
+		}
+
+		Files.write(datei.toPath(), new byte[Spalte.KOPF - 1]);
+		try {
+			new Spalte(datei, KENNUNG, SATZ).close();
+			fail("zu kurz"); //$NON-NLS-1$
+		} catch (final IOException e) {
+			// erwartet
+		}
+	}
+
+}
@@ -0,0 +1,232 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete.vorschriften;
+
+import static org.junit.Assert.assertEquals;
+import static org.junit.Assert.assertTrue;
+
+import java.util.Random;
+
+import org.junit.Test;
+
+import de.bsvrz.dua.guete.GWert;
+import de.bsvrz.dua.guete.GueteException;
+import de.bsvrz.dua.guete.GueteGepackt;
+import de.bsvrz.dua.guete.GueteIndex;
+import de.bsvrz.dua.guete.GueteRechner;
+import de.bsvrz.dua.guete.GueteVerfahren;
+import de.bsvrz.dua.guete.TestVerfahren;
+
+/**
+ * Tests fuer {@link Festkomma}, insbesondere fuer die Rundung auf das Raster
+ * des DAV-Attributs und die bitgenaue Uebereinstimmung der verschiedenen
+ * Rechenwege.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class FestkommaTest {
+
+	/**
+	 * Die Vorschrift fuer die Tests ueber {@link IGuete}.
+	 */
+	private final Festkomma festkomma = new Festkomma();
+
+	/**
+	 * Jede Operation rundet kaufmaennisch auf das Raster.
+	 */
+	@Test
+	public void testRundung() {
+		assertEquals(1, Festkomma.teile(5, 10));
+		assertEquals(0, Festkomma.teile(4, 10));
+		assertEquals(2, Festkomma.teile(15, 10));
+		assertEquals(1, Festkomma.mal(1, 5000));
+		assertEquals(0, Festkomma.mal(1, 4999));
+		assertEquals(1, Festkomma.gewicht(0.00005));
+		assertEquals(25000, Festkomma.gewicht(-2.5));
+
+		// Mittel 1.5 wird aufgerundet
+		assertEquals(2, unskaliert(festkomma.s(0.0001, 0.0002)));
+		assertEquals(2, unskaliert(festkomma.d(0.0002, 0.0001)));
+		// 1 * 0.5 wird auf 1 aufgerundet und nicht auf 0 abgeschnitten
+		assertEquals(1, unskaliert(festkomma.p(0.0001, 0.5)));
+		// nach jedem Schritt wird gerundet: 1 -> 1 -> 1
+		assertEquals(1, unskaliert(festkomma.p(0.0001, 0.5, 0.5)));
+		assertEquals(1, Festkomma.produkt(new long[] { 1, 5000, 5000 }, 0, 3));
+		// (3 * 1 + 1 * 2) / 4 = 1.25
+		assertEquals(1, unskaliert(festkomma.sw(new double[] { 0.0001, 3 },
+				new double[] { 0.0002, -1 })));
+		assertEquals(7071, unskaliert(festkomma.e(0.5, 0.5)));
+	}
+
+	/**
+	 * Leere Mengen, Zustaende und Grenzfaelle der Potenz.
+	 */
+	@Test
+	public void testGrenzfaelle() {
+		assertEquals(Festkomma.EINS, Festkomma.summe(new long[0], null, 0, 0));
+		assertEquals(Festkomma.EINS, Festkomma.produkt(new long[0], 0, 0));
+		assertEquals(Festkomma.EINS, Festkomma.summe(new long[] { 5, 7 },
+				new long[] { 0, 0 }, 0, 2));
+		assertEquals(GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT,
+				Festkomma.summe(new long[] { 1, 2, -1 }, null, 0, 3));
+		assertEquals(GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT,
+				Festkomma.produkt(new long[] { -2, 2 }, 0, 2));
+		assertEquals(GueteIndex.NICHT_ERMITTELBAR_BZW_FEHLERHAFT,
+				Festkomma.exp(-1, 2));
+		assertTrue(Double.isNaN(festkomma.s(0.5, Double.NaN)));
+
+		assertEquals(Long.MAX_VALUE, Festkomma.exp(0, -1));
+		assertEquals(40000, Festkomma.exp(20000, 2));
+		assertEquals(Math.round(StrictMath.pow(0.5, 39) * 10000), Festkomma
+				.exp(5000, 39.0));
+	}
+
+	/**
+	 * Die Potenzen stimmen fuer alle Indizes mit der direkten Berechnung
+	 * ueberein, unabhaengig davon, ob der Exponent im GueteRechner
+	 * registriert ist.
+	 */
+	@Test
+	public void testExpTabelle() {
+		GueteRechner.registriereExponent(0.25);
+		GueteRechner.registriereExponent(3.75);
+		for (int e = 0; e < 8; e++) {
+			final double exponent = 0.25 + 0.5 * e;
+			for (long index = 0; index <= Festkomma.EINS; index++) {
+				final long erwartet = Math.round(StrictMath.pow(
+						(double) index / Festkomma.EINS, exponent)
+						* Festkomma.EINS);
+				if (erwartet != Festkomma.exp(index, exponent)) {
+					assertEquals("Index " + index + ", Exponent " + exponent, //$NON-NLS-1$ //$NON-NLS-2$
+							erwartet, Festkomma.exp(index, exponent));
+				}
+			}
+		}
+	}
+
+	/**
+	 * Die Summe haengt nicht von der Reihenfolge der Werte ab.
+	 */
+	@Test
+	public void testReihenfolge() {
+		final Random zufall = new Random(3);
+		final int anzahl = 1000;
+		final long[] indizes = new long[anzahl];
+		final long[] gewichte = new long[anzahl];
+		for (int i = 0; i < anzahl; i++) {
+			indizes[i] = zufall.nextInt(10001);
+			gewichte[i] = Festkomma.gewicht(zufall.nextDouble() * 4 - 2);
+		}
+		final long summe = Festkomma.summe(indizes, gewichte, 0, anzahl);
+		for (int runde = 0; runde < 10; runde++) {
+			for (int i = anzahl - 1; i > 0; i--) {
+				final int j = zufall.nextInt(i + 1);
+				final long index = indizes[i];
+				indizes[i] = indizes[j];
+				indizes[j] = index;
+				final long gewicht = gewichte[i];
+				gewichte[i] = gewichte[j];
+				gewichte[j] = gewicht;
+			}
+			assertEquals(summe, Festkomma.summe(indizes, gewichte, 0, anzahl));
+		}
+	}
+
+	/**
+	 * Die Berechnung ueber {@link GueteVerfahren}, ueber die statischen
+	 * Methoden und ueber {@link GueteGepackt} liefert dieselben Indizes, die
+	 * hoechstens um die Rundung vom Standardverfahren abweichen.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testRechenwege() throws GueteException {
+		final GueteVerfahren verfahren = TestVerfahren.getFestkomma();
+		final Random zufall = new Random(2);
+		for (int k = 0; k < 20000; k++) {
+			final int n = zufall.nextInt(6);
+			final GWert[] werte = new GWert[n];
+			final GWert[] standard = new GWert[n];
+			final long[] gepackt = new long[n];
+			final long[] indizes = new long[n];
+			final long[] gewichte = new long[n];
+			for (int i = 0; i < n; i++) {
+				final long index = zufall.nextInt(10001);
+				final double gewichtung = zufall.nextBoolean() ? 1.0 : zufall
+						.nextInt(5) * 0.5;
+				werte[i] = GueteVerfahren.gewichte(verfahren.getGWert(index),
+						gewichtung);
+				standard[i] = GueteVerfahren.gewichte(GueteVerfahren.STANDARD
+						.getGWert(index), gewichtung);
+				gepackt[i] = GueteGepackt.packe(werte[i]);
+				indizes[i] = index;
+				gewichte[i] = Festkomma.gewicht(gewichtung);
+			}
+
+			final long summe = Festkomma.summe(indizes, gewichte, 0, n);
+			assertEquals(summe, GueteVerfahren.summe(werte)
+					.getIndexUnskaliert());
+			assertEquals(summe, GueteGepackt.getIndexUnskaliert(GueteGepackt
+					.summe(gepackt, 0, n)));
+			assertEquals(GueteVerfahren.summe(standard).getIndexUnskaliert(),
+					summe, 1);
+
+			final long produkt = Festkomma.produkt(indizes, 0, n);
+			assertEquals(produkt, GueteVerfahren.produkt(werte)
+					.getIndexUnskaliert());
+			assertEquals(produkt, GueteGepackt.getIndexUnskaliert(GueteGepackt
+					.produkt(gepackt, 0, n)));
+			assertEquals(GueteVerfahren.produkt(standard)
+					.getIndexUnskaliert(), produkt, n);
+
+			if (n > 0) {
+				final long potenz = Festkomma.exp(indizes[0], 0.5);
+				assertEquals(potenz, GueteVerfahren.exp(werte[0], 0.5)
+						.getIndexUnskaliert());
+				assertEquals(potenz, GueteGepackt
+						.getIndexUnskaliert(GueteGepackt.exp(gepackt[0], 0.5)));
+				assertEquals(GueteVerfahren.exp(standard[0], 0.5)
+						.getIndexUnskaliert(), potenz, 1);
+			}
+		}
+	}
+
+	/**
+	 * Rechnet einen skalierten Index der Vorschrift in einen unskalierten um.
+	 *
+	 * @param index
+	 *            der skalierte Index
+	 * @return der unskalierte Index
+	 */
+	private static long unskaliert(final double index) {
+		return Math.round(index * Festkomma.EINS);
+	}
+
+}
@@ -0,0 +1,162 @@
+/*
+ * Segment Datenübernahme und Aufbereitung (DUA), Bibliothek Güteberechnung
+ * Copyright (C) 2007 BitCtrl Systems GmbH 
+ * Copyright 2016 by Kappich Systemberatung Aachen
+ * 
+ * This file is part of de.bsvrz.dua.guete.
+ * 
+ * de.bsvrz.dua.guete is free software: you can redistribute it and/or modify
+ * it under the terms of the GNU General Public License as published by
+ * the Free Software Foundation, either version 3 of the License, or
+ * (at your option) any later version.
+ * 
+ * de.bsvrz.dua.guete is distributed in the hope that it will be useful,
+ * but WITHOUT ANY WARRANTY; without even the implied warranty of
+ * MERCHANTABILITY or FITNESS FOR A PARTICULAR PURPOSE.  See the
+ * GNU General Public License for more details.
+ * 
+ * You should have received a copy of the GNU General Public License
+ * along with de.bsvrz.dua.guete.  If not, see <http://www.gnu.org/licenses/>.
+
+ * Contact Information:
+ * Kappich Systemberatung
+ * Martin-Luther-Straße 14
+ * 52062 Aachen, Germany
+ * phone: +49 241 4090 436 
+ * mail: <info@kappich.de>
+ */
+
+package de.bsvrz.dua.guete.vorschriften;
+
+import static org.junit.Assert.assertEquals;
+
+import org.junit.Test;
+
+import de.bsvrz.dua.guete.GWert;
+import de.bsvrz.dua.guete.GueteException;
+import de.bsvrz.dua.guete.GueteVerfahren;
+import de.bsvrz.dua.guete.TestVerfahren;
+
+/**
+ * Tests fuer {@link Standard} und {@link Festkomma}, insbesondere fuer
+ * Unterklassen, die nur die Methoden fuer Parameterlisten ueberschreiben.
+ *
+ * @author BitCtrl Systems GmbH
+ */
+public class StandardTest {
+
+	/**
+	 * Ergebnis der ueberschriebenen gewichteten Verknuepfungen.
+	 */
+	private static final double UEBERSCHRIEBEN = 0.42;
+
+	/**
+	 * Unterklasse von {@link Standard}, die nur die gewichteten Methoden fuer
+	 * Parameterlisten ueberschreibt.
+	 */
+	public static class EigenerStandard extends Standard {
+
+		@Override
+		public double sw(final double[]... quellGuetenMitGewichtung) {
+			return UEBERSCHRIEBEN;
+		}
+
+		@Override
+		public double dw(final double[]... quellGuetenMitGewichtung) {
+			return -UEBERSCHRIEBEN;
+		}
+	}
+
+	/**
+	 * Unterklasse von {@link Festkomma}, die nur die gewichteten Methoden
+	 * fuer Parameterlisten ueberschreibt.
+	 */
+	public static class EigenesFestkomma extends Festkomma {
+
+		@Override
+		public double sw(final double[]... quellGuetenMitGewichtung) {
+			return UEBERSCHRIEBEN;
+		}
+
+		@Override
+		public double dw(final double[]... quellGuetenMitGewichtung) {
+			return -UEBERSCHRIEBEN;
+		}
+	}
+
+	/**
+	 * Die Bereichs-Varianten liefern fuer {@link Standard} dasselbe wie die
+	 * Methoden fuer Parameterlisten.
+	 */
+	@Test
+	public void testBereichWieParameterliste() {
+		final Standard standard = new Standard();
+		final double[] indizes = { 0.9, 0.3, 0.5, 0.7, 0.1 };
+		final double[] gewichte = { 7.0, 2.0, -1.0, 0.5, 3.0 };
+
+		assertEquals(standard.s(0.3, 0.5, 0.7),
+				standard.s(indizes, 1, 3), 0.0);
+		assertEquals(standard.p(0.3, 0.5, 0.7),
+				standard.p(indizes, 1, 3), 0.0);
+		assertEquals(standard.sw(new double[] { 0.3, 2.0 }, new double[] {
+				0.5, -1.0 }, new double[] { 0.7, 0.5 }), standard.sw(indizes,
+				gewichte, 1, 3), 0.0);
+		assertEquals(1.0, standard.sw(indizes, gewichte, 2, 0), 0.0);
+	}
+
+	/**
+	 * Eine Unterklasse von {@link Standard} wird mit ihren eigenen
+	 * gewichteten Methoden verrechnet.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testUnterklasseStandard() throws GueteException {
+		final EigenerStandard vorschrift = new EigenerStandard();
+		pruefeUnterklasse(vorschrift, TestVerfahren.registriere(
+				"Eigener Standard", 201, vorschrift)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Eine Unterklasse von {@link Festkomma} wird mit ihren eigenen
+	 * gewichteten Methoden verrechnet.
+	 *
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	@Test
+	public void testUnterklasseFestkomma() throws GueteException {
+		final EigenesFestkomma vorschrift = new EigenesFestkomma();
+		pruefeUnterklasse(vorschrift, TestVerfahren.registriere(
+				"Eigenes Festkomma", 202, vorschrift)); //$NON-NLS-1$
+	}
+
+	/**
+	 * Prueft, dass die ueberschriebenen Methoden direkt und ueber
+	 * {@link GueteVerfahren} verwendet werden.
+	 *
+	 * @param vorschrift
+	 *            die Berechnungsvorschrift
+	 * @param verfahren
+	 *            das Verfahren mit dieser Vorschrift
+	 * @throws GueteException
+	 *             wird nicht erwartet
+	 */
+	private static void pruefeUnterklasse(final IGuete vorschrift,
+			final GueteVerfahren verfahren) throws GueteException {
+		final double[] indizes = { 0.9, 0.3 };
+		final double[] gewichte = { 2.0, 1.0 };
+		assertEquals(UEBERSCHRIEBEN,
+				vorschrift.sw(indizes, gewichte, 0, 2), 0.0);
+		assertEquals(-UEBERSCHRIEBEN,
+				vorschrift.dw(indizes, gewichte, 0, 2), 0.0);
+
+		final GWert a = GueteVerfahren.gewichte(verfahren.getGWert(9000),
+				2.0);
+		final GWert b = verfahren.getGWert(3000);
+		assertEquals(UEBERSCHRIEBEN,
+				GueteVerfahren.summe(a, b).getIndex(), 0.0);
+	}
+
+}